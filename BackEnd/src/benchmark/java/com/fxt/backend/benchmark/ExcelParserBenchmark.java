@@ -0,0 +1,65 @@
+package com.fxt.backend.benchmark;
+
+import com.fxt.backend.entity.ArticleData;
+import com.fxt.backend.service.ExcelParserService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 解析阶段吞吐量：整本加载（loadWorkbook）与SAX流式解析（streamExcelFile）
+ * 每次调用解析一个完整工作簿，主结果是 工作簿/秒，rows计数器是 行/秒；
+ * 分配速率和GC次数由 -prof gc 给出，堆峰值由 PeakHeapProfiler 给出
+ *
+ * 运行：mvn -Pbenchmark test-compile exec:exec -Djmh.args="ExcelParserBenchmark -p rows=100000"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 3, time = 10)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class ExcelParserBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int rows;
+
+    @Param({"DEWU", "XIAOHONGSHU"})
+    public SyntheticWorkbookGenerator.Format format;
+
+    private final ExcelParserService parser = new ExcelParserService();
+
+    private Path workbook;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class RowCounter {
+        public long rows;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            rows = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void prepare() throws IOException {
+        workbook = SyntheticWorkbookGenerator.getOrCreate(format, rows);
+    }
+
+    @Benchmark
+    public List<ArticleData> loadWorkbook(RowCounter counter) throws IOException {
+        List<ArticleData> articles = parser.loadWorkbook(workbook, false);
+        counter.rows += articles.size();
+        return articles;
+    }
+
+    @Benchmark
+    public void streamExcelFile(RowCounter counter, Blackhole blackhole) throws IOException {
+        counter.rows += parser.streamExcelFile(workbook, blackhole::consume);
+    }
+}
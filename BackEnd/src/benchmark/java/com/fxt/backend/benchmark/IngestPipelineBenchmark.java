@@ -0,0 +1,95 @@
+package com.fxt.backend.benchmark;
+
+import com.fxt.backend.BackEndApplication;
+import com.fxt.backend.dto.IngestJob;
+import com.fxt.backend.service.AnalysisService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 完整导入路径吞吐量：processExcelFile → 解析 → 分批入库 → 评分，直到导入任务结束
+ * 使用内存H2库，每次调用前清空表，始终按追加模式导入，避免上一轮的数据让upsert全部跳过
+ * 主结果是 工作簿/秒，rows计数器是入库的 行/秒
+ *
+ * 运行：mvn -Pbenchmark test-compile exec:exec -Djmh.args="IngestPipelineBenchmark -p rows=100000"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1, time = 10)
+@Measurement(iterations = 3, time = 20)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class IngestPipelineBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int rows;
+
+    @Param({"DEWU", "XIAOHONGSHU"})
+    public SyntheticWorkbookGenerator.Format format;
+
+    private ConfigurableApplicationContext context;
+    private AnalysisService analysisService;
+    private MockMultipartFile upload;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class RowCounter {
+        public long rows;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            rows = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void startContext() throws IOException {
+        Path workbook = SyntheticWorkbookGenerator.getOrCreate(format, rows);
+        upload = new MockMultipartFile("file", workbook.getFileName().toString(),
+            "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet", Files.readAllBytes(workbook));
+
+        context = new SpringApplicationBuilder(BackEndApplication.class)
+            .web(WebApplicationType.NONE)
+            .properties(
+                "spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+                "spring.jpa.hibernate.ddl-auto=create",
+                "spring.h2.console.enabled=false",
+                "ai.api.enabled=false",
+                "analysis.ingest.watch.enabled=false")
+            .run();
+        analysisService = context.getBean(AnalysisService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void stopContext() {
+        if (context != null) {
+            context.close();
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void clearTable() {
+        analysisService.deleteAllArticles();
+    }
+
+    @Benchmark
+    public IngestJob processExcelFile(RowCounter counter) throws Exception {
+        IngestJob job = analysisService.processExcelFile(upload, false);
+        while (!job.isFinished()) {
+            Thread.sleep(5);
+        }
+        if (job.isFailed()) {
+            throw new IllegalStateException("导入失败: " + job.getErrorMessage());
+        }
+        counter.rows += job.getPersistedRows();
+        return job;
+    }
+}
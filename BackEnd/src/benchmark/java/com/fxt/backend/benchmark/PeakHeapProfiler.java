@@ -0,0 +1,57 @@
+package com.fxt.backend.benchmark;
+
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.profile.InternalProfiler;
+import org.openjdk.jmh.results.AggregationPolicy;
+import org.openjdk.jmh.results.IterationResult;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.ScalarResult;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 每轮迭代的堆峰值
+ * 迭代开始时重置各堆内存池的峰值，结束时把各池峰值相加，
+ * 各池峰值不一定出现在同一时刻，结果略大于真实峰值，用于比较不同解析方式足够
+ * 用法：-prof com.fxt.backend.benchmark.PeakHeapProfiler
+ */
+public class PeakHeapProfiler implements InternalProfiler {
+
+    @Override
+    public String getDescription() {
+        return "每轮迭代的堆内存峰值（MB）";
+    }
+
+    @Override
+    public void beforeIteration(BenchmarkParams benchmarkParams, IterationParams iterationParams) {
+        for (MemoryPoolMXBean pool : heapPools()) {
+            pool.resetPeakUsage();
+        }
+    }
+
+    @Override
+    public Collection<? extends Result> afterIteration(BenchmarkParams benchmarkParams,
+                                                       IterationParams iterationParams,
+                                                       IterationResult result) {
+        long peakBytes = 0;
+        for (MemoryPoolMXBean pool : heapPools()) {
+            MemoryUsage peak = pool.getPeakUsage();
+            if (peak != null) {
+                peakBytes += peak.getUsed();
+            }
+        }
+        return List.of(new ScalarResult("heap.peak", peakBytes / (1024.0 * 1024.0), "MB", AggregationPolicy.MAX));
+    }
+
+    private static List<MemoryPoolMXBean> heapPools() {
+        return ManagementFactory.getMemoryPoolMXBeans().stream()
+            .filter(pool -> pool.getType() == MemoryType.HEAP && pool.isValid())
+            .toList();
+    }
+}
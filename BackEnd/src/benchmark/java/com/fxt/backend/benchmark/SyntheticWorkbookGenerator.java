@@ -0,0 +1,210 @@
+package com.fxt.backend.benchmark;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.util.Random;
+
+/**
+ * 基准用的合成工作簿
+ * 表头、列顺序、单元格类型和数值分布参照仓库根目录的 官方号数据记录-得物.xlsx / 官方号数据记录-小红书.xlsx：
+ * 发文时间是带 yyyy-mm-dd 格式的日期序列号，字符串走共享字符串表，
+ * 阅读量为长尾分布，互动、好物访问、好物想要按阅读量的比例生成，14天数据不小于7天数据。
+ * 固定随机种子，同样的格式和行数每次生成的内容完全相同；生成结果缓存在 target/benchmark-data
+ */
+public final class SyntheticWorkbookGenerator {
+
+    public enum Format {
+        DEWU("得物", true, "新媒体图文"),
+        XIAOHONGSHU("小红书", false, "小红书");
+
+        final String platform;
+        final boolean hasTitle;
+        final String materialSource;
+
+        Format(String platform, boolean hasTitle, String materialSource) {
+            this.platform = platform;
+            this.hasTitle = hasTitle;
+            this.materialSource = materialSource;
+        }
+    }
+
+    private static final Path DEFAULT_DIR = Paths.get("target", "benchmark-data");
+
+    private static final String[] BRANDS = {"KAPPA背靠背", "Kappa鞋靴社区"};
+    private static final String[] POST_TYPES = {"室内摆拍", "户外穿搭", "室内上脚", "户外摆拍", "室内穿搭", "户外上脚"};
+    private static final String[] STYLE_COLORS = {"990", "001", "100", "311", "875"};
+    private static final LocalDate FIRST_PUBLISH_DATE = LocalDate.of(2025, 12, 1);
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private SyntheticWorkbookGenerator() {
+    }
+
+    /**
+     * 返回缓存的工作簿，不存在时生成
+     */
+    public static Path getOrCreate(Format format, int rows) throws IOException {
+        return getOrCreate(DEFAULT_DIR, format, rows);
+    }
+
+    public static Path getOrCreate(Path dir, Format format, int rows) throws IOException {
+        Path target = dir.resolve(format.name().toLowerCase() + "-" + rows + ".xlsx");
+        if (Files.exists(target)) {
+            return target;
+        }
+        Files.createDirectories(dir);
+        // 先写临时文件再改名，中途中断不会留下半个工作簿
+        Path temp = Files.createTempFile(dir, format.name().toLowerCase(), ".tmp");
+        try {
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                write(format, rows, out);
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        return target;
+    }
+
+    /**
+     * 用SXSSF逐行写出，内存里只保留最近100行，百万行也不会占满堆
+     */
+    public static void write(Format format, int rows, OutputStream out) throws IOException {
+        SXSSFWorkbook workbook = new SXSSFWorkbook(null, 100, true, true);
+        try {
+            CellStyle dateStyle = workbook.createCellStyle();
+            dateStyle.setDataFormat(workbook.createDataFormat().getFormat("yyyy\\-mm\\-dd"));
+
+            Sheet sheet = workbook.createSheet("Sheet1");
+            writeHeader(sheet.createRow(0), format);
+
+            Random random = new Random(format.ordinal() * 31L + rows);
+            for (int i = 1; i <= rows; i++) {
+                writeRow(sheet.createRow(i), format, random, dateStyle);
+            }
+            workbook.write(out);
+        } finally {
+            workbook.dispose();
+            workbook.close();
+        }
+    }
+
+    private static void writeHeader(Row row, Format format) {
+        int col = 0;
+        row.createCell(col++).setCellValue("data_id");
+        if (format.hasTitle) {
+            row.createCell(col++).setCellValue("标题");
+        }
+        for (String header : new String[] {"品牌", "发文时间", "发文链接", "内容形式", "发文类型", "素材来源", "款式信息",
+                "7天阅读/播放", "7天互动", "7天好物访问", "7天好物想要",
+                "14天阅读/播放", "14天互动", "14天好物访问", "14天好物想要"}) {
+            row.createCell(col++).setCellValue(header);
+        }
+    }
+
+    private static void writeRow(Row row, Format format, Random random, CellStyle dateStyle) {
+        String brand = BRANDS[random.nextInt(BRANDS.length)];
+        int col = 0;
+
+        row.createCell(col++).setCellValue(randomHex(random, 24));
+        if (format.hasTitle) {
+            // 样本中标题与品牌相同
+            row.createCell(col++).setCellValue(brand);
+        }
+        row.createCell(col++).setCellValue(brand);
+
+        Cell publishTime = row.createCell(col++);
+        publishTime.setCellValue(DateUtil.getExcelDate(FIRST_PUBLISH_DATE.plusDays(random.nextInt(30))));
+        publishTime.setCellStyle(dateStyle);
+
+        row.createCell(col++).setCellValue(format == Format.DEWU
+            ? "https://m.poizon.com/rn-activity/community-share?trendId=" + (428_000_000 + random.nextInt(10_000_000))
+            : "http://xhslink.com/o/" + randomHex(random, 10));
+        row.createCell(col++).setCellValue("图文");
+        row.createCell(col++).setCellValue(POST_TYPES[random.nextInt(POST_TYPES.length)]);
+        row.createCell(col++).setCellValue(format.materialSource);
+        row.createCell(col++).setCellValue("K" + (1000 + random.nextInt(9000)) + "MC" + (10 + random.nextInt(90))
+            + "-" + STYLE_COLORS[random.nextInt(STYLE_COLORS.length)]);
+
+        // 阅读量：对数正态，得物中位数约33，小红书约25，长尾到上千
+        double median = format == Format.DEWU ? 33 : 25;
+        long read7d = Math.max(3, Math.round(median * Math.exp(random.nextGaussian() * 1.1)));
+        long interaction7d = binomial(random, read7d, 0.06);
+        long visit7d = format == Format.DEWU ? binomial(random, read7d, 0.05) : 0;
+        long want7d = binomial(random, visit7d, 0.1);
+
+        double growth = 1.0 + random.nextDouble() * 0.6;
+        long read14d = Math.round(read7d * growth);
+        long interaction14d = interaction7d + binomial(random, read14d - read7d, 0.06);
+        long visit14d = visit7d + (format == Format.DEWU ? binomial(random, read14d - read7d, 0.05) : 0);
+        long want14d = want7d + binomial(random, visit14d - visit7d, 0.1);
+
+        for (long value : new long[] {read7d, interaction7d, visit7d, want7d,
+                read14d, interaction14d, visit14d, want14d}) {
+            row.createCell(col++).setCellValue(value);
+        }
+    }
+
+    /**
+     * 小样本直接逐次抽样，大样本用正态近似
+     */
+    private static long binomial(Random random, long trials, double p) {
+        if (trials <= 0) {
+            return 0;
+        }
+        if (trials < 64) {
+            long successes = 0;
+            for (long i = 0; i < trials; i++) {
+                if (random.nextDouble() < p) {
+                    successes++;
+                }
+            }
+            return successes;
+        }
+        double mean = trials * p;
+        double std = Math.sqrt(mean * (1 - p));
+        return Math.max(0, Math.min(trials, Math.round(mean + random.nextGaussian() * std)));
+    }
+
+    private static String randomHex(Random random, int length) {
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = HEX[random.nextInt(16)];
+        }
+        return new String(chars);
+    }
+
+    /**
+     * 预先生成基准数据：java SyntheticWorkbookGenerator [输出目录] [行数...]
+     */
+    public static void main(String[] args) throws IOException {
+        Path dir = args.length > 0 ? Paths.get(args[0]) : DEFAULT_DIR;
+        int[] sizes = {1_000, 100_000, 1_000_000};
+        if (args.length > 1) {
+            sizes = new int[args.length - 1];
+            for (int i = 1; i < args.length; i++) {
+                sizes[i - 1] = Integer.parseInt(args[i]);
+            }
+        }
+        for (Format format : Format.values()) {
+            for (int rows : sizes) {
+                long start = System.nanoTime();
+                Path file = getOrCreate(dir, format, rows);
+                System.out.printf("%s %,d 行 → %s (%,d 字节, %d ms)%n", format.platform, rows, file,
+                    Files.size(file), (System.nanoTime() - start) / 1_000_000);
+            }
+        }
+    }
+}
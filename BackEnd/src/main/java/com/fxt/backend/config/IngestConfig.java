@@ -0,0 +1,109 @@
+package com.fxt.backend.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Excel导入配置
+ */
+@Component
+@ConfigurationProperties(prefix = "analysis.ingest")
+public class IngestConfig {
+    
+    // 是否使用SAX流式解析（关闭时回退到XSSFWorkbook整表加载）
+    private boolean streaming = true;
+    
+    // 默认每次上传都追加新行；开启后按 (dataId, platform) 增量写入，也可按请求传mode=upsert
+    private boolean upsert = false;
+    
+    // 流水线配置
+    private int chunkSize = 1000;          // 每批入库/评分的行数
+    private int queueCapacity = 8;         // 解析→入库之间的有界队列容量（批）
+    private int pipelineThreads = 2;       // 可同时运行的导入任务数
+    private int maxRetainedJobs = 100;     // 内存中保留的任务记录数
+    private long firstChunkWaitMillis = 1000;  // 上传接口等待首批入库的最长时间
+    private int parseParallelism = 0;      // 批量上传时并行解析Sheet的线程数，0表示CPU核数
+    private int maxArchiveEntries = 100;   // 批量上传解压zip时一次请求最多的xlsx文件数（含直接上传的xlsx）
+    private long maxArchiveBytes = 1024L * 1024 * 1024;  // 一次请求的zip解压后最多写入临时目录的字节数
+    
+    // 分片上传：暂存目录（为空时使用系统临时目录下的fxt-upload）、单文件上限、会话过期时间
+    private String spoolDir = "";
+    private long maxUploadBytes = 2L * 1024 * 1024 * 1024;
+    private int uploadExpiryHours = 24;
+    
+    // 批量写入：每次executeBatch的语句数；每个chunkSize批次单独提交事务
+    private int jdbcBatchSize = 500;
+    
+    // 监听目录导入配置
+    private WatchConfig watch = new WatchConfig();
+    
+    public static class WatchConfig {
+        private boolean enabled = false;
+        private String dir = "";                // 监听的目录
+        private long stableMillis = 5000;       // 文件大小和修改时间保持不变多久后才开始导入
+        private long scanIntervalMillis = 1000; // 检查待导入文件的间隔
+        private String ledgerFile = "";         // 已导入文件记录，为空时使用监听目录下的 .ingested
+        
+        // Getters and Setters
+        public boolean isEnabled() { return enabled; }
+        public void setEnabled(boolean enabled) { this.enabled = enabled; }
+        
+        public String getDir() { return dir; }
+        public void setDir(String dir) { this.dir = dir; }
+        
+        public long getStableMillis() { return stableMillis; }
+        public void setStableMillis(long stableMillis) { this.stableMillis = stableMillis; }
+        
+        public long getScanIntervalMillis() { return scanIntervalMillis; }
+        public void setScanIntervalMillis(long scanIntervalMillis) { this.scanIntervalMillis = scanIntervalMillis; }
+        
+        public String getLedgerFile() { return ledgerFile; }
+        public void setLedgerFile(String ledgerFile) { this.ledgerFile = ledgerFile; }
+    }
+    
+    // Getters and Setters
+    public boolean isStreaming() { return streaming; }
+    public void setStreaming(boolean streaming) { this.streaming = streaming; }
+    
+    public boolean isUpsert() { return upsert; }
+    public void setUpsert(boolean upsert) { this.upsert = upsert; }
+    
+    public int getChunkSize() { return chunkSize; }
+    public void setChunkSize(int chunkSize) { this.chunkSize = chunkSize; }
+    
+    public int getQueueCapacity() { return queueCapacity; }
+    public void setQueueCapacity(int queueCapacity) { this.queueCapacity = queueCapacity; }
+    
+    public int getPipelineThreads() { return pipelineThreads; }
+    public void setPipelineThreads(int pipelineThreads) { this.pipelineThreads = pipelineThreads; }
+    
+    public int getMaxRetainedJobs() { return maxRetainedJobs; }
+    public void setMaxRetainedJobs(int maxRetainedJobs) { this.maxRetainedJobs = maxRetainedJobs; }
+    
+    public int getParseParallelism() { return parseParallelism; }
+    public void setParseParallelism(int parseParallelism) { this.parseParallelism = parseParallelism; }
+    
+    public int getMaxArchiveEntries() { return maxArchiveEntries; }
+    public void setMaxArchiveEntries(int maxArchiveEntries) { this.maxArchiveEntries = maxArchiveEntries; }
+    
+    public long getMaxArchiveBytes() { return maxArchiveBytes; }
+    public void setMaxArchiveBytes(long maxArchiveBytes) { this.maxArchiveBytes = maxArchiveBytes; }
+    
+    public String getSpoolDir() { return spoolDir; }
+    public void setSpoolDir(String spoolDir) { this.spoolDir = spoolDir; }
+    
+    public long getMaxUploadBytes() { return maxUploadBytes; }
+    public void setMaxUploadBytes(long maxUploadBytes) { this.maxUploadBytes = maxUploadBytes; }
+    
+    public int getUploadExpiryHours() { return uploadExpiryHours; }
+    public void setUploadExpiryHours(int uploadExpiryHours) { this.uploadExpiryHours = uploadExpiryHours; }
+    
+    public int getJdbcBatchSize() { return jdbcBatchSize; }
+    public void setJdbcBatchSize(int jdbcBatchSize) { this.jdbcBatchSize = jdbcBatchSize; }
+    
+    public WatchConfig getWatch() { return watch; }
+    public void setWatch(WatchConfig watch) { this.watch = watch; }
+    
+    public long getFirstChunkWaitMillis() { return firstChunkWaitMillis; }
+    public void setFirstChunkWaitMillis(long firstChunkWaitMillis) { this.firstChunkWaitMillis = firstChunkWaitMillis; }
+}
@@ -0,0 +1,132 @@
+package com.fxt.backend.config;
+
+import com.fxt.backend.scoring.CohortDimension;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * 异常评分配置
+ */
+@Component
+@ConfigurationProperties(prefix = "analysis.scoring")
+public class ScoringConfig {
+    
+    // 使用jdk.incubator.vector的向量化评分内核：需要以 -Pvector 构建并以 --add-modules jdk.incubator.vector 启动，否则自动退回标量内核
+    private boolean vectorEnabled = false;
+    
+    // 并行评分：线程数（0表示CPU核数，1表示单线程），每个并行任务最多评分的文章数
+    private int parallelism = 0;
+    private int parallelBatchSize = 256;
+    
+    // 导入评分的基准：upload为本次上传的全部行，historical为增量维护的历史全量基准（见BaselineStatisticsService）
+    private String baseline = "upload";
+    
+    // 历史基准中的全部数据改用内存中的排名索引（见RankIndexService）：百分位、分位数精确，
+    // 文章更新或重新爬取后旧值随即移除；代价是每篇文章常驻约百余字节内存。关闭时使用草图
+    private boolean rankIndexEnabled = false;
+    
+    // 评分基准人群，如 platform、platform+brand、platform+contentType（可选维度：platform、brand、contentType），空为不分人群；
+    // 人群的有效文章数少于cohortMinSize时逐级回退到父人群（去掉最后一个维度），最终回退到全部数据
+    private String cohort = "";
+    private int cohortMinSize = 30;
+    
+    // 滚动窗口天数：文章只与发布日前N天（含当天）发布的文章比较，0为不分窗口；没有发布时间的文章不分窗口
+    private int windowDays = 0;
+    
+    // 多维离群检测：每个基准人群训练一个离群模型，报告中追加一项只作参考的离群得分
+    private boolean outlierEnabled = false;
+    private int outlierTrees = 100;
+    private int outlierSampleSize = 256;
+    // 离群模型：isolation-forest 或 mahalanobis
+    private String outlierMethod = "isolation-forest";
+    
+    // 近似评分：上传基准改由各人群的分位数草图累积，不保留、不排序全部行；百分位和Z分数附带误差界
+    private boolean approximate = false;
+    private int approximateSketchK = 200;
+    // 近似评分完成后在后台按精确基准重新评分，只回写结果有变化的行
+    private boolean approximatePromote = true;
+    
+    // 评分方案JSON文件（阈值、权重、综合状态规则，见ScoringProfile），为空时使用默认方案
+    private String profilePath = "";
+    
+    // 重新评分任务每批读取、评分、回写的文章数
+    private int rescoreChunkSize = 1000;
+    
+    // 爬取等改动指标后，等待多久把这段时间内变更的文章合成一批重新评分（毫秒）
+    private long changeBatchDelayMs = 2000;
+    
+    // 阈值回测：一次最多评估的评分方案数（含网格展开后的组合）
+    private int backtestMaxProfiles = 1000;
+    
+    // 已计入历史基准草图、之后又被更新（增量上传覆盖、重新爬取）的行累计超过有效文章数的该比例时，自动按全表重建草图；0为不自动重建
+    private double baselineRebuildRatio = 0.05;
+    
+    // Getters and Setters
+    public boolean isVectorEnabled() { return vectorEnabled; }
+    public void setVectorEnabled(boolean vectorEnabled) { this.vectorEnabled = vectorEnabled; }
+    
+    public int getParallelism() { return parallelism; }
+    public void setParallelism(int parallelism) { this.parallelism = parallelism; }
+    
+    public int getParallelBatchSize() { return parallelBatchSize; }
+    public void setParallelBatchSize(int parallelBatchSize) { this.parallelBatchSize = parallelBatchSize; }
+    
+    public String getBaseline() { return baseline; }
+    public void setBaseline(String baseline) { this.baseline = baseline; }
+    
+    public boolean isHistoricalBaseline() { return "historical".equalsIgnoreCase(baseline); }
+    
+    public boolean isRankIndexEnabled() { return rankIndexEnabled; }
+    public void setRankIndexEnabled(boolean rankIndexEnabled) { this.rankIndexEnabled = rankIndexEnabled; }
+    
+    public String getCohort() { return cohort; }
+    public void setCohort(String cohort) { this.cohort = cohort; }
+    
+    public int getCohortMinSize() { return cohortMinSize; }
+    public void setCohortMinSize(int cohortMinSize) { this.cohortMinSize = cohortMinSize; }
+    
+    public int getWindowDays() { return windowDays; }
+    public void setWindowDays(int windowDays) { this.windowDays = windowDays; }
+    
+    public boolean isOutlierEnabled() { return outlierEnabled; }
+    public void setOutlierEnabled(boolean outlierEnabled) { this.outlierEnabled = outlierEnabled; }
+    
+    public int getOutlierTrees() { return outlierTrees; }
+    public void setOutlierTrees(int outlierTrees) { this.outlierTrees = outlierTrees; }
+    
+    public int getOutlierSampleSize() { return outlierSampleSize; }
+    public void setOutlierSampleSize(int outlierSampleSize) { this.outlierSampleSize = outlierSampleSize; }
+    
+    public String getOutlierMethod() { return outlierMethod; }
+    public void setOutlierMethod(String outlierMethod) { this.outlierMethod = outlierMethod; }
+    
+    public boolean isMahalanobisOutlier() { return "mahalanobis".equalsIgnoreCase(outlierMethod); }
+    
+    public boolean isApproximate() { return approximate; }
+    public void setApproximate(boolean approximate) { this.approximate = approximate; }
+    
+    public int getApproximateSketchK() { return approximateSketchK; }
+    public void setApproximateSketchK(int approximateSketchK) { this.approximateSketchK = approximateSketchK; }
+    
+    public boolean isApproximatePromote() { return approximatePromote; }
+    public void setApproximatePromote(boolean approximatePromote) { this.approximatePromote = approximatePromote; }
+    
+    public String getProfilePath() { return profilePath; }
+    public void setProfilePath(String profilePath) { this.profilePath = profilePath; }
+    
+    public int getRescoreChunkSize() { return rescoreChunkSize; }
+    public void setRescoreChunkSize(int rescoreChunkSize) { this.rescoreChunkSize = rescoreChunkSize; }
+    
+    public long getChangeBatchDelayMs() { return changeBatchDelayMs; }
+    public void setChangeBatchDelayMs(long changeBatchDelayMs) { this.changeBatchDelayMs = changeBatchDelayMs; }
+    
+    public int getBacktestMaxProfiles() { return backtestMaxProfiles; }
+    public void setBacktestMaxProfiles(int backtestMaxProfiles) { this.backtestMaxProfiles = backtestMaxProfiles; }
+    
+    public double getBaselineRebuildRatio() { return baselineRebuildRatio; }
+    public void setBaselineRebuildRatio(double baselineRebuildRatio) { this.baselineRebuildRatio = baselineRebuildRatio; }
+    
+    public List<CohortDimension> getCohortDimensions() { return CohortDimension.parse(cohort); }
+}
@@ -2,12 +2,30 @@ package com.fxt.backend.controller;
 
 import com.fxt.backend.entity.ArticleData;
 import com.fxt.backend.service.AnalysisService;
+import com.fxt.backend.service.BaselineStatisticsService;
+import com.fxt.backend.service.CohortStatisticsRegistry;
+import com.fxt.backend.service.ArticleRescoreListener;
+import com.fxt.backend.service.ProfileBacktestService;
+import com.fxt.backend.service.RankIndexService;
+import com.fxt.backend.service.RescoreJobService;
+import com.fxt.backend.service.ScoringProfileService;
+import com.fxt.backend.service.WhatIfScoringService;
+import com.fxt.backend.service.ChunkedUploadService;
 import com.fxt.backend.dto.ArticleDetailResponse;
+import com.fxt.backend.dto.BacktestRequest;
+import com.fxt.backend.dto.IngestJob;
+import com.fxt.backend.dto.RescoreJob;
+import com.fxt.backend.dto.UploadSession;
+import com.fxt.backend.dto.WhatIfScenario;
+import com.fxt.backend.scoring.ScoringMetric;
+import com.fxt.backend.scoring.ScoringProfile;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.InputStream;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -22,22 +40,64 @@ public class AnalysisController {
     @Autowired
     private AnalysisService analysisService;
     
+    @Autowired
+    private ChunkedUploadService chunkedUploadService;
+    
+    @Autowired
+    private BaselineStatisticsService baselineStatisticsService;
+    
+    @Autowired
+    private CohortStatisticsRegistry cohortStatisticsRegistry;
+    
+    @Autowired
+    private RankIndexService rankIndexService;
+    
+    @Autowired
+    private WhatIfScoringService whatIfScoringService;
+    
+    @Autowired
+    private ScoringProfileService scoringProfileService;
+    
+    @Autowired
+    private RescoreJobService rescoreJobService;
+    
+    @Autowired
+    private ArticleRescoreListener articleRescoreListener;
+    
+    @Autowired
+    private ProfileBacktestService profileBacktestService;
+    
     @PostMapping("/upload")
-    public ResponseEntity<?> uploadExcel(@RequestParam("file") MultipartFile file) {
+    public ResponseEntity<?> uploadExcel(@RequestParam("file") MultipartFile file,
+                                         @RequestParam(required = false) String mode) {
         try {
             if (file.isEmpty()) {
                 return ResponseEntity.badRequest().body("文件不能为空");
             }
             
-            List<ArticleData> articles = analysisService.processExcelFile(file);
-            
+            IngestJob job = analysisService.processExcelFile(file, resolveUpsert(mode));
+            return toUploadResponse(job);
+        } catch (Exception e) {
             Map<String, Object> response = new HashMap<>();
-            response.put("success", true);
-            response.put("message", "文件上传和分析成功");
-            response.put("totalCount", articles.size());
-            response.put("articles", articles);
+            response.put("success", false);
+            response.put("message", "文件处理失败: " + e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+    
+    /**
+     * 批量上传：多个xlsx文件或zip压缩包，所有Sheet并行解析后合并为一个导入任务
+     */
+    @PostMapping("/upload/batch")
+    public ResponseEntity<?> uploadExcelBatch(@RequestParam("files") MultipartFile[] files,
+                                              @RequestParam(required = false) String mode) {
+        try {
+            if (files == null || files.length == 0) {
+                return ResponseEntity.badRequest().body("文件不能为空");
+            }
             
-            return ResponseEntity.ok(response);
+            IngestJob job = analysisService.processExcelFiles(files, resolveUpsert(mode));
+            return toUploadResponse(job);
         } catch (Exception e) {
             Map<String, Object> response = new HashMap<>();
             response.put("success", false);
@@ -46,6 +106,100 @@ public class AnalysisController {
         }
     }
     
+    // ==================== 分片上传 ====================
+    
+    /**
+     * 创建分片上传会话，用于超过multipart上限的大文件
+     */
+    @PostMapping("/uploads")
+    public ResponseEntity<?> createUpload(@RequestParam String fileName,
+                                          @RequestParam long totalSize,
+                                          @RequestParam(required = false) String mode) {
+        try {
+            return ResponseEntity.ok(chunkedUploadService.createSession(fileName, totalSize, resolveUpsert(mode)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("success", false, "message", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().body(Map.of("success", false, "message", "创建上传会话失败: " + e.getMessage()));
+        }
+    }
+    
+    /**
+     * 上传一个分片，请求体为原始字节（application/octet-stream），offset为该分片在文件中的起始位置
+     */
+    @PutMapping("/uploads/{uploadId}")
+    public ResponseEntity<?> uploadChunk(@PathVariable String uploadId,
+                                         @RequestParam long offset,
+                                         InputStream body) {
+        try {
+            return ResponseEntity.ok(chunkedUploadService.writeChunk(uploadId, offset, body));
+        } catch (ChunkedUploadService.UploadNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        } catch (IllegalStateException e) {
+            // 偏移量不连续时返回409和当前进度，客户端据此续传
+            UploadSession session = chunkedUploadService.getSession(uploadId);
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            response.put("receivedBytes", session != null ? session.getReceivedBytes() : 0);
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("success", false, "message", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().body(Map.of("success", false, "message", "分片写入失败: " + e.getMessage()));
+        }
+    }
+    
+    @GetMapping("/uploads/{uploadId}")
+    public ResponseEntity<UploadSession> getUpload(@PathVariable String uploadId) {
+        UploadSession session = chunkedUploadService.getSession(uploadId);
+        if (session != null) {
+            return ResponseEntity.ok(session);
+        } else {
+            return ResponseEntity.notFound().build();
+        }
+    }
+    
+    @PostMapping("/uploads/{uploadId}/complete")
+    public ResponseEntity<?> completeUpload(@PathVariable String uploadId) {
+        try {
+            return toUploadResponse(chunkedUploadService.complete(uploadId));
+        } catch (ChunkedUploadService.UploadNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("success", false, "message", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().body(Map.of("success", false, "message", "文件处理失败: " + e.getMessage()));
+        }
+    }
+    
+    @DeleteMapping("/uploads/{uploadId}")
+    public ResponseEntity<?> abortUpload(@PathVariable String uploadId) {
+        try {
+            chunkedUploadService.abort(uploadId);
+            return ResponseEntity.ok(Map.of("success", true));
+        } catch (ChunkedUploadService.UploadNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().body(Map.of("success", false, "message", e.getMessage()));
+        }
+    }
+    
+    @GetMapping("/jobs/{id}")
+    public ResponseEntity<IngestJob> getIngestJob(@PathVariable String id) {
+        IngestJob job = analysisService.getIngestJob(id);
+        if (job != null) {
+            return ResponseEntity.ok(job);
+        } else {
+            return ResponseEntity.notFound().build();
+        }
+    }
+    
+    @GetMapping("/jobs")
+    public ResponseEntity<List<IngestJob>> getRecentIngestJobs() {
+        return ResponseEntity.ok(analysisService.getRecentIngestJobs());
+    }
+    
     @GetMapping("/articles")
     public ResponseEntity<List<ArticleData>> getAllArticles() {
         List<ArticleData> articles = analysisService.getAllArticles();
@@ -64,6 +218,15 @@ public class AnalysisController {
         return ResponseEntity.ok(articles);
     }
     
+    /**
+     * 某个指标处于指定异常等级的文章，如 metric=互动率&level=SEVERE
+     */
+    @GetMapping("/articles/metric-level")
+    public ResponseEntity<List<ArticleData>> getArticlesByMetricLevel(@RequestParam String metric,
+                                                                      @RequestParam String level) {
+        return ResponseEntity.ok(analysisService.getArticlesByMetricLevel(metric, level));
+    }
+    
     @GetMapping("/articles/{id}/detail")
     public ResponseEntity<ArticleDetailResponse> getArticleDetail(@PathVariable Long id) {
         ArticleData article = analysisService.getArticleById(id);
@@ -89,17 +252,20 @@ public class AnalysisController {
     public ResponseEntity<Map<String, Object>> getStatistics() {
         List<ArticleData> allArticles = analysisService.getAllArticles();
         
-        long normalCount = allArticles.stream()
-            .filter(a -> "NORMAL".equals(a.getAnomalyStatus()))
-            .count();
-        
-        long goodAnomalyCount = allArticles.stream()
-            .filter(a -> "GOOD_ANOMALY".equals(a.getAnomalyStatus()))
-            .count();
-        
-        long badAnomalyCount = allArticles.stream()
-            .filter(a -> "BAD_ANOMALY".equals(a.getAnomalyStatus()))
-            .count();
+        // 一次遍历按异常状态计数
+        long normalCount = 0;
+        long goodAnomalyCount = 0;
+        long badAnomalyCount = 0;
+        for (ArticleData article : allArticles) {
+            String status = article.getAnomalyStatus();
+            if ("NORMAL".equals(status)) {
+                normalCount++;
+            } else if ("GOOD_ANOMALY".equals(status)) {
+                goodAnomalyCount++;
+            } else if ("BAD_ANOMALY".equals(status)) {
+                badAnomalyCount++;
+            }
+        }
         
         double avgReadCount = allArticles.stream()
             .filter(a -> a.getReadCount7d() != null)
@@ -170,12 +336,15 @@ public class AnalysisController {
     public ResponseEntity<Map<String, Object>> getPlatformStats() {
         List<ArticleData> allArticles = analysisService.getAllArticles();
         
-        long dewuCount = allArticles.stream()
-            .filter(a -> "得物".equals(a.getPlatform()))
-            .count();
-        long xhsCount = allArticles.stream()
-            .filter(a -> "小红书".equals(a.getPlatform()))
-            .count();
+        long dewuCount = 0;
+        long xhsCount = 0;
+        for (ArticleData article : allArticles) {
+            if ("得物".equals(article.getPlatform())) {
+                dewuCount++;
+            } else if ("小红书".equals(article.getPlatform())) {
+                xhsCount++;
+            }
+        }
         
         Map<String, Object> stats = new HashMap<>();
         stats.put("dewuCount", dewuCount);
@@ -185,6 +354,169 @@ public class AnalysisController {
         return ResponseEntity.ok(stats);
     }
     
+    /**
+     * 增量维护的历史评分基准
+     */
+    @GetMapping("/baseline")
+    public ResponseEntity<Map<String, Object>> getBaseline() {
+        return ResponseEntity.ok(baselineStatisticsService.getSummary(BaselineStatisticsService.GLOBAL_SCOPE));
+    }
+    
+    /**
+     * 已缓存的人群评分基准
+     */
+    @GetMapping("/baseline/cohorts")
+    public ResponseEntity<Map<String, Object>> getCohortBaselines() {
+        return ResponseEntity.ok(cohortStatisticsRegistry.getSummary());
+    }
+    
+    /**
+     * 某个指标取值在全部文章中的百分位，由排名索引直接回答
+     */
+    @GetMapping("/baseline/percentile")
+    public ResponseEntity<Map<String, Object>> getBaselinePercentile(@RequestParam String metric,
+                                                                      @RequestParam double value) {
+        ScoringMetric scoringMetric;
+        try {
+            scoringMetric = ScoringMetric.valueOf(metric.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            Map<String, Object> error = new HashMap<>();
+            error.put("success", false);
+            error.put("message", "未知指标: " + metric);
+            return ResponseEntity.badRequest().body(error);
+        }
+        
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("metric", scoringMetric.name());
+        response.put("value", value);
+        response.put("percentile", rankIndexService.percentile(scoringMetric, value));
+        response.put("index", rankIndexService.getSummary());
+        
+        return ResponseEntity.ok(response);
+    }
+    
+    /**
+     * 按全表重建历史评分基准（更新过的行的旧值会残留在草图中，累计超过阈值时自动重建，也可手动重建；排名索引同时重新加载）
+     */
+    @PostMapping("/baseline/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuildBaseline() {
+        long validCount = baselineStatisticsService.rebuild();
+        cohortStatisticsRegistry.invalidateAll();
+        
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("validCount", validCount);
+        
+        return ResponseEntity.ok(response);
+    }
+    
+    /**
+     * 假设评分：按给定的假设指标值对一篇文章评分，不写回数据
+     */
+    @PostMapping("/what-if")
+    public ResponseEntity<Map<String, Object>> whatIf(@RequestBody WhatIfScenario scenario) {
+        return evaluateWhatIf(List.of(scenario), false);
+    }
+    
+    /**
+     * 批量假设评分，结果与请求中的场景一一对应
+     */
+    @PostMapping("/what-if/batch")
+    public ResponseEntity<Map<String, Object>> whatIfBatch(@RequestBody List<WhatIfScenario> scenarios) {
+        return evaluateWhatIf(scenarios, true);
+    }
+    
+    /**
+     * 当前评分方案及最近发布的版本
+     */
+    @GetMapping("/scoring-profile")
+    public ResponseEntity<Map<String, Object>> getScoringProfile() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("current", scoringProfileService.getCurrent());
+        response.put("versions", scoringProfileService.getHistory().stream()
+            .map(ScoringProfile::getVersion).collect(Collectors.toList()));
+        return ResponseEntity.ok(response);
+    }
+    
+    /**
+     * 发布提交的评分方案，默认随即在后台按新方案重新评分
+     */
+    @PutMapping("/scoring-profile")
+    public ResponseEntity<Map<String, Object>> updateScoringProfile(@RequestBody ScoringProfile profile,
+                                                                    @RequestParam(defaultValue = "true") boolean rescore) {
+        try {
+            return toProfileResponse(scoringProfileService.apply(profile), rescore);
+        } catch (IllegalArgumentException e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+    
+    /**
+     * 重新读取评分方案文件，默认随即在后台按新方案重新评分
+     */
+    @PostMapping("/scoring-profile/reload")
+    public ResponseEntity<Map<String, Object>> reloadScoringProfile(@RequestParam(defaultValue = "true") boolean rescore) {
+        try {
+            return toProfileResponse(scoringProfileService.reload(), rescore);
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+    
+    /**
+     * 按当前评分方案在后台重新评分全部文章
+     */
+    @PostMapping("/rescore")
+    public ResponseEntity<RescoreJob> startRescore() {
+        return ResponseEntity.ok(rescoreJobService.submit());
+    }
+    
+    @GetMapping("/rescore/jobs/{id}")
+    public ResponseEntity<RescoreJob> getRescoreJob(@PathVariable String id) {
+        RescoreJob job = rescoreJobService.getJob(id);
+        if (job != null) {
+            return ResponseEntity.ok(job);
+        } else {
+            return ResponseEntity.notFound().build();
+        }
+    }
+    
+    @GetMapping("/rescore/jobs")
+    public ResponseEntity<List<RescoreJob>> getRecentRescoreJobs() {
+        return ResponseEntity.ok(rescoreJobService.getRecentJobs());
+    }
+    
+    /**
+     * 爬取等改动指标后的增量重新评分：累计处理量和等待处理的文章数
+     */
+    @GetMapping("/rescore/changes")
+    public ResponseEntity<Map<String, Object>> getChangeRescoreSummary() {
+        return ResponseEntity.ok(articleRescoreListener.getSummary());
+    }
+    
+    /**
+     * 阈值回测：用库中全部文章按每个候选评分方案评分，返回各状态分布和相对基准方案的状态变化，不写库
+     */
+    @PostMapping("/backtest")
+    public ResponseEntity<Map<String, Object>> backtest(@RequestBody BacktestRequest request) {
+        try {
+            Map<String, Object> response = profileBacktestService.run(request);
+            response.put("success", true);
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("success", false, "message", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().body(Map.of("success", false, "message", "阈值回测失败: " + e.getMessage()));
+        }
+    }
+    
     @DeleteMapping("/articles")
     public ResponseEntity<Map<String, Object>> deleteAllArticles() {
         analysisService.deleteAllArticles();
@@ -195,4 +527,66 @@ public class AnalysisController {
         
         return ResponseEntity.ok(response);
     }
+    
+    // ==================== 辅助方法 ====================
+    
+    /**
+     * mode=append 强制追加；mode=upsert 按dataId增量更新；不传则使用配置默认值
+     */
+    private boolean resolveUpsert(String mode) {
+        if (mode == null || mode.isEmpty()) {
+            return analysisService.isUpsertByDefault();
+        }
+        return !"append".equalsIgnoreCase(mode);
+    }
+    
+    private ResponseEntity<?> toUploadResponse(IngestJob job) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("jobId", job.getJobId());
+        response.put("job", job);
+        response.put("totalCount", job.getPersistedRows());
+        
+        if (job.isFailed()) {
+            response.put("success", false);
+            response.put("message", "文件处理失败: " + job.getErrorMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+        
+        response.put("success", true);
+        response.put("message", job.isFinished() ? "文件上传和分析成功" : "文件上传成功，正在后台解析入库和异常分析");
+        return ResponseEntity.ok(response);
+    }
+    
+    private ResponseEntity<Map<String, Object>> evaluateWhatIf(List<WhatIfScenario> scenarios, boolean batch) {
+        Map<String, Object> response = new HashMap<>();
+        try {
+            long start = System.nanoTime();
+            List<Map<String, Object>> results = whatIfScoringService.evaluate(scenarios);
+            long elapsedMicros = (System.nanoTime() - start) / 1000;
+            
+            response.put("success", true);
+            if (batch) {
+                response.put("results", results);
+            } else {
+                response.putAll(results.get(0));
+            }
+            response.put("elapsedMicros", elapsedMicros);
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+    
+    private ResponseEntity<Map<String, Object>> toProfileResponse(ScoringProfile profile, boolean rescore) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("version", profile.getVersion());
+        response.put("profile", profile);
+        if (rescore) {
+            response.put("rescoreJob", rescoreJobService.submit());
+        }
+        return ResponseEntity.ok(response);
+    }
 }
\ No newline at end of file
@@ -2,8 +2,10 @@ package com.fxt.backend.dto;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fxt.backend.entity.AnomalyMetricResult;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 
 public class AnomalyAnalysisReport {
     private List<AnomalyAnalysisResult> results = new ArrayList<>();
@@ -60,6 +62,60 @@ public class AnomalyAnalysisReport {
         }
     }
 
+    /**
+     * 由文章的评分结果和按顺序排列的指标行组装报告，接口返回时使用
+     */
+    public static AnomalyAnalysisReport of(String overallStatus, Double overallScore, List<AnomalyMetricResult> rows) {
+        AnomalyAnalysisReport report = new AnomalyAnalysisReport();
+        report.setOverallStatus(overallStatus);
+        report.setOverallScore(overallScore != null ? overallScore : 50);
+        for (AnomalyMetricResult row : rows) {
+            report.addResult(AnomalyAnalysisResult.fromEntity(row));
+        }
+        return report;
+    }
+
+    /**
+     * 各指标结果转为按行存储的实体，顺序与results一致
+     */
+    public List<AnomalyMetricResult> toEntities() {
+        List<AnomalyMetricResult> rows = new ArrayList<>(results.size());
+        for (int i = 0; i < results.size(); i++) {
+            rows.add(results.get(i).toEntity(i));
+        }
+        return rows;
+    }
+
+    /**
+     * 报告内容的64位指纹：综合状态、得分和每项结果的全部字段都参与计算，
+     * 重新评分时与库中的指纹比较，相同则不回写
+     */
+    public long fingerprint() {
+        long hash = mix(0, Objects.hashCode(overallStatus));
+        hash = mix(hash, Double.doubleToLongBits(overallScore));
+        for (AnomalyAnalysisResult result : results) {
+            hash = mix(hash, Objects.hashCode(result.getMetric()));
+            hash = mix(hash, Double.doubleToLongBits(result.getValue()));
+            hash = mix(hash, Double.doubleToLongBits(result.getMean()));
+            hash = mix(hash, Double.doubleToLongBits(result.getStdDev()));
+            hash = mix(hash, Double.doubleToLongBits(result.getZScore()));
+            hash = mix(hash, Double.doubleToLongBits(result.getPercentile()));
+            hash = mix(hash, Objects.hashCode(result.getDeviation()));
+            hash = mix(hash, Objects.hashCode(result.getLevel()));
+            hash = mix(hash, Objects.hashCode(result.getWeight()));
+            hash = mix(hash, Objects.hashCode(result.getPercentileError()));
+            hash = mix(hash, Objects.hashCode(result.getZScoreError()));
+            hash = mix(hash, Objects.hashCode(result.getQ1()));
+            hash = mix(hash, Objects.hashCode(result.getQ3()));
+        }
+        return hash;
+    }
+
+    private static long mix(long hash, long value) {
+        hash = (hash ^ value) * 0x9E3779B97F4A7C15L;
+        return hash ^ (hash >>> 32);
+    }
+
     public String toJson() {
         try {
             ObjectMapper mapper = new ObjectMapper();
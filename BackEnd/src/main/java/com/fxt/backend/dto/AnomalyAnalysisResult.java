@@ -1,5 +1,8 @@
 package com.fxt.backend.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fxt.backend.entity.AnomalyMetricResult;
+
 public class AnomalyAnalysisResult {
     private String metric;           // 指标名称
     private double value;            // 实际值
@@ -10,6 +13,16 @@ public class AnomalyAnalysisResult {
     private String deviation;        // 偏离描述
     private String level;            // 异常级别 (SEVERE/MODERATE/MILD/NORMAL)
     private Double weight;           // 权重（新增字段）
+    // 基准来自分位数草图（近似评分）时的误差界，精确基准下为空且不写入JSON
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Double percentileError;  // 百分位误差界（百分点）
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Double zScoreError;      // Z分数误差界
+    // 基准的四分位数，按新的评分方案重新判定IQR离群时使用；基准没有数据时为空
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Double q1;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Double q3;
 
     public AnomalyAnalysisResult() {}
 
@@ -21,6 +34,70 @@ public class AnomalyAnalysisResult {
         calculateDerivedValues();
     }
 
+    /**
+     * 所有字段都已算好时使用，不再推导Z分数、偏离描述和级别
+     */
+    public AnomalyAnalysisResult(String metric, double value, double mean, double stdDev, double zScore,
+                                 double percentile, String deviation, String level, Double weight) {
+        this.metric = metric;
+        this.value = value;
+        this.mean = mean;
+        this.stdDev = stdDev;
+        this.zScore = zScore;
+        this.percentile = percentile;
+        this.deviation = deviation;
+        this.level = level;
+        this.weight = weight;
+    }
+
+    /**
+     * 转为按行存储的实体，articleId在写库时填入
+     */
+    public AnomalyMetricResult toEntity(int position) {
+        AnomalyMetricResult row = new AnomalyMetricResult();
+        row.setPosition(position);
+        row.setMetric(metric);
+        row.setValue(value);
+        row.setMean(mean);
+        row.setStdDev(stdDev);
+        row.setZScore(zScore);
+        row.setPercentile(percentile);
+        row.setDeviation(deviation);
+        row.setLevel(level);
+        row.setWeight(weight);
+        row.setPercentileError(percentileError);
+        row.setZScoreError(zScoreError);
+        row.setQ1(q1);
+        row.setQ3(q3);
+        return row;
+    }
+
+    /**
+     * 由库中的一行还原，各字段按原值使用，不再推导
+     */
+    public static AnomalyAnalysisResult fromEntity(AnomalyMetricResult row) {
+        AnomalyAnalysisResult result = new AnomalyAnalysisResult(row.getMetric(), row.getValue(), row.getMean(),
+            row.getStdDev(), row.getZScore(), row.getPercentile(), row.getDeviation(), row.getLevel(), row.getWeight());
+        result.setPercentileError(row.getPercentileError());
+        result.setZScoreError(row.getZScoreError());
+        result.setQ1(row.getQ1());
+        result.setQ3(row.getQ3());
+        return result;
+    }
+
+    /**
+     * 复制本结果，只替换级别和权重
+     */
+    public AnomalyAnalysisResult withLevel(String level, Double weight) {
+        AnomalyAnalysisResult result = new AnomalyAnalysisResult(metric, value, mean, stdDev, zScore, percentile,
+            deviation, level, weight);
+        result.setPercentileError(percentileError);
+        result.setZScoreError(zScoreError);
+        result.setQ1(q1);
+        result.setQ3(q3);
+        return result;
+    }
+
     private void calculateDerivedValues() {
         if (stdDev > 0) {
             this.zScore = (value - mean) / stdDev;
@@ -87,4 +164,16 @@ public class AnomalyAnalysisResult {
     
     public Double getWeight() { return weight; }
     public void setWeight(Double weight) { this.weight = weight; }
+    
+    public Double getPercentileError() { return percentileError; }
+    public void setPercentileError(Double percentileError) { this.percentileError = percentileError; }
+    
+    public Double getZScoreError() { return zScoreError; }
+    public void setZScoreError(Double zScoreError) { this.zScoreError = zScoreError; }
+    
+    public Double getQ1() { return q1; }
+    public void setQ1(Double q1) { this.q1 = q1; }
+    
+    public Double getQ3() { return q3; }
+    public void setQ3(Double q3) { this.q3 = q3; }
 }
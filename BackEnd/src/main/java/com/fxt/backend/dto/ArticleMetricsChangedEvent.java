@@ -0,0 +1,22 @@
+package com.fxt.backend.dto;
+
+import java.util.List;
+
+/**
+ * 文章的评分指标（7天阅读量、互动量、好物访问）在上传流程之外被改动并已保存，
+ * 例如重新爬取刷新了互动数据。由ArticleRescoreListener收集后分批重新评分
+ */
+public class ArticleMetricsChangedEvent {
+
+    private final List<Long> articleIds;
+    private final String source;
+
+    public ArticleMetricsChangedEvent(List<Long> articleIds, String source) {
+        this.articleIds = List.copyOf(articleIds);
+        this.source = source;
+    }
+
+    // Getters
+    public List<Long> getArticleIds() { return articleIds; }
+    public String getSource() { return source; }
+}
@@ -0,0 +1,31 @@
+package com.fxt.backend.dto;
+
+import com.fxt.backend.scoring.ScoringProfile;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 阈值回测请求
+ * 用当前库中的全部文章和缓存的人群统计，按每个候选评分方案评分，与基准方案比较状态。
+ * 候选方案为profiles加上grid展开的全部组合：grid的键为评分方案的字段名（如severeZScore），
+ * 权重写作 weights.READ_7D，值为候选取值列表，在基准方案上逐一套用各字段取值的笛卡尔积
+ */
+public class BacktestRequest {
+    // 比较基准，为空时使用当前评分方案
+    private ScoringProfile baseline;
+    private List<ScoringProfile> profiles;
+    private Map<String, List<Double>> grid;
+
+    public BacktestRequest() {}
+
+    // Getters and Setters
+    public ScoringProfile getBaseline() { return baseline; }
+    public void setBaseline(ScoringProfile baseline) { this.baseline = baseline; }
+
+    public List<ScoringProfile> getProfiles() { return profiles; }
+    public void setProfiles(List<ScoringProfile> profiles) { this.profiles = profiles; }
+
+    public Map<String, List<Double>> getGrid() { return grid; }
+    public void setGrid(Map<String, List<Double>> grid) { this.grid = grid; }
+}
@@ -0,0 +1,160 @@
+package com.fxt.backend.dto;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 上传导入任务
+ * 记录解析→入库→评分三个阶段的进度计数、耗时和最终状态
+ */
+public class IngestJob {
+
+    public enum Status { PENDING, RUNNING, COMPLETED, FAILED }
+
+    public static final String STAGE_PARSE = "parse";
+    public static final String STAGE_PERSIST = "persist";
+    public static final String STAGE_SCORE = "score";
+    public static final String STAGE_PROMOTE = "promote";
+
+    private final String jobId;
+    private final String fileName;
+    private final boolean upsert;
+    private final LocalDateTime createdAt;
+
+    private volatile Status status = Status.PENDING;
+    private volatile String currentStage;
+    private volatile LocalDateTime finishedAt;
+    private volatile String errorMessage;
+
+    private final AtomicLong parsedRows = new AtomicLong();
+    private final AtomicLong persistedRows = new AtomicLong();
+    private final AtomicLong insertedRows = new AtomicLong();
+    private final AtomicLong updatedRows = new AtomicLong();
+    private final AtomicLong skippedRows = new AtomicLong();
+    private final AtomicLong scoredRows = new AtomicLong();
+    // 指纹未变化而跳过写库、按本次基准重新评分后结果有变化并回写的行数
+    private final AtomicLong rescoredSkippedRows = new AtomicLong();
+
+    // 近似评分：评分基准来自分位数草图；promotion为转为精确评分的后台阶段状态，未进行时为null
+    private volatile boolean approximate;
+    private volatile String promotion;
+    private final AtomicLong promotedRows = new AtomicLong();
+
+    // 各阶段耗时（毫秒）
+    private final Map<String, Long> stageMillis = new ConcurrentHashMap<>();
+
+    private final CountDownLatch firstChunkLatch = new CountDownLatch(1);
+
+    public IngestJob(String fileName, boolean upsert) {
+        this.jobId = UUID.randomUUID().toString();
+        this.fileName = fileName;
+        this.upsert = upsert;
+        this.createdAt = LocalDateTime.now();
+    }
+
+    public void markRunning(String stage) {
+        this.status = Status.RUNNING;
+        this.currentStage = stage;
+    }
+
+    public void recordStageTime(String stage, long startNanos) {
+        stageMillis.put(stage, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+    }
+
+    public void addParsed(long count) {
+        parsedRows.addAndGet(count);
+    }
+
+    /**
+     * 记录一批入库结果：新增、就地更新、未变化跳过的行数
+     */
+    public void recordPersisted(long inserted, long updated, long skipped) {
+        insertedRows.addAndGet(inserted);
+        updatedRows.addAndGet(updated);
+        skippedRows.addAndGet(skipped);
+        persistedRows.addAndGet(inserted + updated);
+        firstChunkLatch.countDown();
+    }
+
+    public void addScored(long count) {
+        scoredRows.addAndGet(count);
+    }
+
+    public void addRescoredSkipped(long count) {
+        rescoredSkippedRows.addAndGet(count);
+    }
+
+    public void markApproximate() {
+        this.approximate = true;
+    }
+
+    /**
+     * 转为精确评分的后台阶段：PENDING、RUNNING、COMPLETED或FAILED
+     */
+    public void markPromotion(String promotion) {
+        this.promotion = promotion;
+    }
+
+    /**
+     * 记录精确评分后结果有变化、已回写的行数
+     */
+    public void addPromoted(long count) {
+        promotedRows.addAndGet(count);
+    }
+
+    public void markCompleted() {
+        this.status = Status.COMPLETED;
+        this.currentStage = null;
+        this.finishedAt = LocalDateTime.now();
+        firstChunkLatch.countDown();
+    }
+
+    public void markFailed(String errorMessage) {
+        this.status = Status.FAILED;
+        this.errorMessage = errorMessage;
+        this.finishedAt = LocalDateTime.now();
+        firstChunkLatch.countDown();
+    }
+
+    /**
+     * 等待第一批数据入库（或任务结束），用于上传接口尽快返回首批结果
+     */
+    public boolean awaitFirstChunk(long timeoutMillis) throws InterruptedException {
+        return firstChunkLatch.await(timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public boolean isFinished() {
+        return status == Status.COMPLETED || status == Status.FAILED;
+    }
+
+    public boolean isFailed() {
+        return status == Status.FAILED;
+    }
+
+    // Getters
+    public String getJobId() { return jobId; }
+    public String getFileName() { return fileName; }
+    public boolean isUpsert() { return upsert; }
+    public String getMode() { return upsert ? "UPSERT" : "APPEND"; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public Status getStatus() { return status; }
+    public String getCurrentStage() { return currentStage; }
+    public LocalDateTime getFinishedAt() { return finishedAt; }
+    public String getErrorMessage() { return errorMessage; }
+    public long getParsedRows() { return parsedRows.get(); }
+    public long getPersistedRows() { return persistedRows.get(); }
+    public long getInsertedRows() { return insertedRows.get(); }
+    public long getUpdatedRows() { return updatedRows.get(); }
+    public long getSkippedRows() { return skippedRows.get(); }
+    public long getScoredRows() { return scoredRows.get(); }
+    public long getRescoredSkippedRows() { return rescoredSkippedRows.get(); }
+    public boolean isApproximate() { return approximate; }
+    public String getPromotion() { return promotion; }
+    public long getPromotedRows() { return promotedRows.get(); }
+    public Map<String, Long> getStageMillis() { return stageMillis; }
+}
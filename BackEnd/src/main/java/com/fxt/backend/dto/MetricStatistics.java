@@ -1,72 +1,365 @@
 package com.fxt.backend.dto;
 
-import java.util.Collections;
+import java.util.AbstractList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.function.LongToDoubleFunction;
 
+/**
+ * 单个指标在一批文章上的分布统计
+ * 构造时排序一次并预先算好均值、标准差、中位数、MAD和四分位数，之后只读，可在线程间共享；
+ * 单篇文章的百分位只需一次二分查找
+ *
+ * 三种来源：
+ * 精确模式由全部取值构造；
+ * 草图模式（fromWeighted）由分位数草图的加权元素和在线均值/方差构造，
+ * 百分位、中位数、MAD和四分位数为近似值，误差见KllSketch；
+ * 秩模式（fromRankSource）不持有取值，百分位和分位数都向RankSource查询（时间窗口索引、动态秩索引），
+ * 结果与精确模式相同
+ */
 public class MetricStatistics {
-    private double mean;
-    private double stdDev;
-    private double min;
-    private double max;
-    private List<Double> sortedValues;
 
-    public MetricStatistics(List<Double> values) {
-        if (values == null || values.isEmpty()) {
+    private static final MetricStatistics EMPTY = new MetricStatistics(new double[0]);
+
+    private final double[] sortedValues;
+    // 草图模式下每个元素累计代表的原始值个数；精确模式为null，第i个元素累计i+1个
+    private final long[] cumulativeWeights;
+    // 秩模式的数据源，其他模式为null
+    private final RankSource rankSource;
+    private final long count;
+    private final double mean;
+    private final double stdDev;
+    private final double median;
+    private final double mad;
+    private final double q1;
+    private final double q3;
+    // 草图模式下百分位的归一化秩误差界（0.01即1个百分点），其他模式为0
+    private final double rankError;
+
+    /**
+     * @param values 指标取值，内部会复制后排序，不修改传入的数组
+     */
+    public MetricStatistics(double[] values) {
+        this.sortedValues = values.clone();
+        Arrays.sort(sortedValues);
+        this.cumulativeWeights = null;
+        this.rankSource = null;
+        this.count = sortedValues.length;
+        this.rankError = 0;
+
+        if (sortedValues.length == 0) {
             this.mean = 0;
             this.stdDev = 0;
-            this.min = 0;
-            this.max = 0;
-            this.sortedValues = Collections.emptyList();
+            this.median = 0;
+            this.mad = 0;
+            this.q1 = 0;
+            this.q3 = 0;
             return;
         }
 
-        // 计算基本统计量
-        this.sortedValues = values.stream().sorted().collect(Collectors.toList());
-        this.min = sortedValues.get(0);
-        this.max = sortedValues.get(sortedValues.size() - 1);
-        
-        // 计算平均值
-        this.mean = values.stream().mapToDouble(Double::doubleValue).average().orElse(0);
-        
-        // 计算标准差
-        double variance = values.stream()
-            .mapToDouble(v -> Math.pow(v - mean, 2))
-            .average()
-            .orElse(0);
-        this.stdDev = Math.sqrt(variance);
+        // 与逐篇计算时一致：按排序后的顺序求平均（DoubleStream的average带补偿求和）
+        this.mean = Arrays.stream(sortedValues).average().orElse(0);
+        double m = mean;
+        this.stdDev = Math.sqrt(Arrays.stream(sortedValues).map(v -> Math.pow(v - m, 2)).average().orElse(0));
+        this.median = median(sortedValues);
+
+        double[] deviations = new double[sortedValues.length];
+        for (int i = 0; i < deviations.length; i++) {
+            deviations[i] = Math.abs(sortedValues[i] - median);
+        }
+        Arrays.sort(deviations);
+        this.mad = median(deviations);
+
+        this.q1 = quantile(0.25);
+        this.q3 = quantile(0.75);
+    }
+
+    public MetricStatistics(List<Double> values) {
+        this(values == null ? new double[0] : values.stream().mapToDouble(Double::doubleValue).toArray());
+    }
+
+    private MetricStatistics(double[] sortedValues, long[] cumulativeWeights, double mean, double stdDev, double rankError) {
+        this.sortedValues = sortedValues;
+        this.cumulativeWeights = cumulativeWeights;
+        this.rankSource = null;
+        this.count = cumulativeWeights.length == 0 ? 0 : cumulativeWeights[cumulativeWeights.length - 1];
+        this.rankError = rankError;
+        this.mean = mean;
+        this.stdDev = stdDev;
+        this.median = quantile(0.5);
+        this.mad = weightedMedianDeviation(median);
+        this.q1 = quantile(0.25);
+        this.q3 = quantile(0.75);
+    }
+
+    /**
+     * 草图模式
+     * @param sortedValues 按值升序排列的草图元素
+     * @param weights      每个元素代表的原始值个数
+     * @param mean         在线计算的精确均值
+     * @param stdDev       在线计算的精确标准差
+     * @param rankError    草图的归一化秩误差界，草图未压缩过（保留了全部取值）时为0
+     */
+    public static MetricStatistics fromWeighted(double[] sortedValues, long[] weights, double mean, double stdDev,
+                                                double rankError) {
+        long[] cumulative = new long[weights.length];
+        long total = 0;
+        for (int i = 0; i < weights.length; i++) {
+            total += weights[i];
+            cumulative[i] = total;
+        }
+        return total == 0 ? EMPTY : new MetricStatistics(sortedValues, cumulative, mean, stdDev, rankError);
+    }
+
+    private MetricStatistics(RankSource source, double mean, double stdDev) {
+        this.sortedValues = new double[0];
+        this.cumulativeWeights = null;
+        this.rankSource = source;
+        this.count = source.count();
+        this.rankError = 0;
+        this.mean = mean;
+        this.stdDev = stdDev;
+        // 与精确模式相同：偶数个时取中间两个的平均
+        this.median = middle(source::valueAtRank, count);
+        this.mad = middle(k -> deviationAtRank(median, k), count);
+        this.q1 = quantile(0.25);
+        this.q3 = quantile(0.75);
     }
 
+    /**
+     * 秩模式
+     * @param source 按秩查询的数据源，构造后不应再变化（动态索引需在查询前取快照或加锁）
+     * @param mean   数据源上的均值
+     * @param stdDev 数据源上的总体标准差
+     */
+    public static MetricStatistics fromRankSource(RankSource source, double mean, double stdDev) {
+        return source.count() == 0 ? EMPTY : new MetricStatistics(source, mean, stdDev);
+    }
+
+    public static MetricStatistics empty() {
+        return EMPTY;
+    }
+
+    /**
+     * 不大于value的取值所占百分比；没有数据时返回50
+     */
     public double calculatePercentile(double value) {
-        if (sortedValues.isEmpty()) return 50;
-        
-        int count = 0;
-        for (double v : sortedValues) {
-            if (v <= value) count++;
+        if (count == 0) return 50;
+        return (double) rankAtMost(value) / count * 100;
+    }
+
+    /**
+     * 最近秩分位数：排序后第 ceil(q·n) 个值
+     */
+    public double quantile(double quantile) {
+        if (count == 0) return 0;
+        if (rankSource != null) {
+            return rankSource.valueAtRank(Math.max(1, Math.min(count, (long) Math.ceil(quantile * count))));
+        }
+        if (cumulativeWeights == null) {
+            int index = (int) Math.ceil(quantile * sortedValues.length) - 1;
+            index = Math.max(0, Math.min(index, sortedValues.length - 1));
+            return sortedValues[index];
+        }
+        // 草图模式：第一个累计个数不小于 ceil(q·n) 的元素
+        long rank = Math.max(1, (long) Math.ceil(quantile * count));
+        int index = Arrays.binarySearch(cumulativeWeights, rank);
+        if (index < 0) {
+            index = -index - 1;
         }
-        return (double) count / sortedValues.size() * 100;
+        return sortedValues[Math.min(index, sortedValues.length - 1)];
     }
 
-    public double getQ1() {
-        if (sortedValues.isEmpty()) return 0;
-        int index = (int) Math.ceil(sortedValues.size() * 0.25) - 1;
-        return sortedValues.get(Math.max(0, index));
+    /**
+     * 不大于value的原始值个数
+     */
+    private long rankAtMost(double value) {
+        if (rankSource != null) {
+            return rankSource.rankAtMost(value);
+        }
+        int index = countAtMost(value);
+        if (cumulativeWeights == null) {
+            return index;
+        }
+        return index == 0 ? 0 : cumulativeWeights[index - 1];
     }
 
-    public double getQ3() {
-        if (sortedValues.isEmpty()) return 0;
-        int index = (int) Math.ceil(sortedValues.size() * 0.75) - 1;
-        return sortedValues.get(Math.min(sortedValues.size() - 1, index));
+    /**
+     * 草图模式的MAD：各元素与中位数之差按权重取中位数
+     */
+    private double weightedMedianDeviation(double center) {
+        int n = sortedValues.length;
+        double[] deviations = new double[n];
+        for (int i = 0; i < n; i++) {
+            deviations[i] = Math.abs(sortedValues[i] - center);
+        }
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(deviations[a], deviations[b]));
+
+        long half = Math.max(1, (long) Math.ceil(0.5 * count));
+        long cumulative = 0;
+        for (int i : order) {
+            cumulative += cumulativeWeights[i] - (i == 0 ? 0 : cumulativeWeights[i - 1]);
+            if (cumulative >= half) {
+                return deviations[i];
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * 秩模式的MAD：第k小的 |x - center|
+     * 非负double的大小顺序与其位模式的整数顺序一致，在位模式上二分查找最小的d，
+     * 使落在 [center - d, center + d] 内的取值不少于k个；center ± d有舍入，
+     * 最后取区间两端实际取值的偏差，与精确模式逐个计算 |x - center| 的结果一致
+     */
+    private double deviationAtRank(double center, long k) {
+        double span = Math.max(Math.abs(getMin() - center), Math.abs(getMax() - center));
+        long low = 0;
+        long high = Double.doubleToRawLongBits(span);
+        while (low < high) {
+            long mid = (low + high) >>> 1;
+            double d = Double.longBitsToDouble(mid);
+            long within = rankSource.rankAtMost(center + d) - rankSource.rankAtMost(Math.nextDown(center - d));
+            if (within >= k) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        double d = Double.longBitsToDouble(low);
+        long upperRank = rankSource.rankAtMost(center + d);
+        long lowerRank = rankSource.rankAtMost(Math.nextDown(center - d)) + 1;
+        double upper = upperRank > 0 ? Math.abs(rankSource.valueAtRank(upperRank) - center) : 0;
+        double lower = lowerRank <= count ? Math.abs(rankSource.valueAtRank(lowerRank) - center) : 0;
+        return Math.max(upper, lower);
+    }
+
+    private static double middle(LongToDoubleFunction valueAtRank, long size) {
+        if (size == 0) return 0;
+        if (size % 2 == 0) {
+            return (valueAtRank.applyAsDouble(size / 2) + valueAtRank.applyAsDouble(size / 2 + 1)) / 2.0;
+        }
+        return valueAtRank.applyAsDouble(size / 2 + 1);
+    }
+
+    /**
+     * 二分查找第一个大于value的位置，即不大于value的元素个数
+     */
+    private int countAtMost(double value) {
+        int low = 0;
+        int high = sortedValues.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sortedValues[mid] <= value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static double median(double[] sorted) {
+        int size = sorted.length;
+        if (size == 0) return 0;
+        if (size % 2 == 0) {
+            return (sorted[size / 2 - 1] + sorted[size / 2]) / 2.0;
+        }
+        return sorted[size / 2];
+    }
+
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    /**
+     * 统计的原始值个数
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * 是否为草图模式的近似统计
+     */
+    public boolean isApproximate() {
+        return cumulativeWeights != null;
+    }
+
+    /**
+     * 百分位的误差界（百分点）：草图模式下为 100·ε，精确模式和秩模式为0
+     */
+    public double getPercentileError() {
+        return rankError * 100;
+    }
+
+    /**
+     * 中位数的误差界：真实中位数落在秩 0.5±ε 对应的两个分位数之间，取两侧与中位数之差的较大者
+     */
+    public double getMedianError() {
+        if (rankError == 0 || count == 0) {
+            return 0;
+        }
+        return Math.max(quantile(Math.min(1, 0.5 + rankError)) - median, median - quantile(Math.max(0, 0.5 - rankError)));
     }
 
     public double getIQR() {
-        return getQ3() - getQ1();
+        return q3 - q1;
     }
 
     // Getters
     public double getMean() { return mean; }
     public double getStdDev() { return stdDev; }
-    public double getMin() { return min; }
-    public double getMax() { return max; }
-    public List<Double> getSortedValues() { return sortedValues; }
-}
\ No newline at end of file
+    public double getMedian() { return median; }
+    public double getMad() { return mad; }
+    public double getQ1() { return q1; }
+    public double getQ3() { return q3; }
+    public double getMin() {
+        if (rankSource != null) return rankSource.valueAtRank(1);
+        return sortedValues.length == 0 ? 0 : sortedValues[0];
+    }
+
+    public double getMax() {
+        if (rankSource != null) return rankSource.valueAtRank(count);
+        return sortedValues.length == 0 ? 0 : sortedValues[sortedValues.length - 1];
+    }
+
+    /**
+     * 排序后取值的只读视图（草图模式下为草图保留的元素，秩模式下为空）
+     */
+    public List<Double> getSortedValues() {
+        return new AbstractList<>() {
+            @Override
+            public Double get(int index) {
+                return sortedValues[index];
+            }
+
+            @Override
+            public int size() {
+                return sortedValues.length;
+            }
+        };
+    }
+
+    /**
+     * 按秩查询的数据源
+     */
+    public interface RankSource {
+
+        long count();
+
+        /**
+         * 不大于value的取值个数
+         */
+        long rankAtMost(double value);
+
+        /**
+         * 第k小的取值，k从1开始
+         */
+        double valueAtRank(long k);
+    }
+}
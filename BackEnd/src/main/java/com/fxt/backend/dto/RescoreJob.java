@@ -0,0 +1,108 @@
+package com.fxt.backend.dto;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 后台重新评分任务
+ * 按评分方案的一个版本分批重新评分全部文章，只回写结果有变化的文章；记录进度和最终状态。
+ * 历史基准下按缓存的基准重新评分（RESCORE）；upload模式下评分基准无法还原，只把新方案套用到已存的各指标结果上（REAPPLY）
+ */
+public class RescoreJob {
+
+    public enum Status { PENDING, RUNNING, COMPLETED, FAILED, CANCELLED }
+
+    public enum Mode { RESCORE, REAPPLY }
+
+    private final String jobId;
+    private final long profileVersion;
+    private final LocalDateTime createdAt;
+
+    private volatile Status status = Status.PENDING;
+    private volatile Mode mode;
+    private volatile long totalRows;
+    private volatile LocalDateTime finishedAt;
+    private volatile String errorMessage;
+    private volatile boolean cancelRequested;
+
+    private final AtomicLong scannedRows = new AtomicLong();
+    private final AtomicLong changedRows = new AtomicLong();
+    // REAPPLY时已存结果无法重新判定（旧版明细）而保持不变的文章数
+    private final AtomicLong skippedRows = new AtomicLong();
+
+    public RescoreJob(long profileVersion) {
+        this.jobId = UUID.randomUUID().toString();
+        this.profileVersion = profileVersion;
+        this.createdAt = LocalDateTime.now();
+    }
+
+    public void markRunning(long totalRows, Mode mode) {
+        this.totalRows = totalRows;
+        this.mode = mode;
+        this.status = Status.RUNNING;
+    }
+
+    /**
+     * 记录一批的结果：扫描的文章数和回写的文章数
+     */
+    public void recordChunk(long scanned, long changed) {
+        scannedRows.addAndGet(scanned);
+        changedRows.addAndGet(changed);
+    }
+
+    public void recordSkipped(long skipped) {
+        skippedRows.addAndGet(skipped);
+    }
+
+    public void markCompleted() {
+        this.status = Status.COMPLETED;
+        this.finishedAt = LocalDateTime.now();
+    }
+
+    public void markFailed(String errorMessage) {
+        this.status = Status.FAILED;
+        this.errorMessage = errorMessage;
+        this.finishedAt = LocalDateTime.now();
+    }
+
+    public void markCancelled(String reason) {
+        this.status = Status.CANCELLED;
+        this.errorMessage = reason;
+        this.finishedAt = LocalDateTime.now();
+    }
+
+    /**
+     * 请求取消，任务在当前批次结束后停止
+     */
+    public void requestCancel() {
+        this.cancelRequested = true;
+    }
+
+    public boolean isFinished() {
+        return status == Status.COMPLETED || status == Status.FAILED || status == Status.CANCELLED;
+    }
+
+    /**
+     * 已扫描的比例（0-100）
+     */
+    public double getProgress() {
+        long total = totalRows;
+        if (status == Status.COMPLETED) return 100;
+        return total > 0 ? Math.min(100, scannedRows.get() * 100.0 / total) : 0;
+    }
+
+    // Getters
+    public String getJobId() { return jobId; }
+    public long getProfileVersion() { return profileVersion; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public Status getStatus() { return status; }
+    public Mode getMode() { return mode; }
+    public long getTotalRows() { return totalRows; }
+    public LocalDateTime getFinishedAt() { return finishedAt; }
+    public String getErrorMessage() { return errorMessage; }
+    public boolean isCancelRequested() { return cancelRequested; }
+    public long getScannedRows() { return scannedRows.get(); }
+    public long getChangedRows() { return changedRows.get(); }
+    public long getSkippedRows() { return skippedRows.get(); }
+}
@@ -1,33 +1,95 @@
 package com.fxt.backend.dto;
 
+import com.fxt.backend.entity.ArticleData;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 一次评分的统计基准
+ * 对基准文章只遍历一次，得到异常检测用到的各指标分布；构造后不可变，
+ * 同一次上传的所有文章共用同一个实例，单篇评分不再重复过滤和排序全量数据
+ */
 public class StatisticsContext {
-    private MetricStatistics readCountStats;
-    private MetricStatistics interactionCountStats;
-    private MetricStatistics shareCountStats;
-    private MetricStatistics productVisitStats;
 
-    public StatisticsContext() {}
+    // 计算互动率、转化率时要求的最低阅读量，阅读量太小的比例没有参考意义
+    public static final long RATE_MIN_READ_COUNT = 50;
+
+    private final int validCount;
+    private final MetricStatistics readCountStats;
+    private final MetricStatistics interactionCountStats;
+    private final MetricStatistics productVisitStats;
+    private final MetricStatistics interactionRateStats;
+    private final MetricStatistics conversionRateStats;
 
-    public StatisticsContext(MetricStatistics readCountStats, 
-                           MetricStatistics interactionCountStats,
-                           MetricStatistics shareCountStats,
-                           MetricStatistics productVisitStats) {
+    public StatisticsContext(int validCount,
+                             MetricStatistics readCountStats,
+                             MetricStatistics interactionCountStats,
+                             MetricStatistics productVisitStats,
+                             MetricStatistics interactionRateStats,
+                             MetricStatistics conversionRateStats) {
+        this.validCount = validCount;
         this.readCountStats = readCountStats;
         this.interactionCountStats = interactionCountStats;
-        this.shareCountStats = shareCountStats;
         this.productVisitStats = productVisitStats;
+        this.interactionRateStats = interactionRateStats;
+        this.conversionRateStats = conversionRateStats;
     }
 
-    // Getters and Setters
-    public MetricStatistics getReadCountStats() { return readCountStats; }
-    public void setReadCountStats(MetricStatistics readCountStats) { this.readCountStats = readCountStats; }
+    /**
+     * 7天阅读量非空且不小于0的文章为有效文章，各指标只统计有效文章中非空、非负的取值
+     */
+    public static StatisticsContext of(List<ArticleData> articles) {
+        int n = articles.size();
+        double[] reads = new double[n];
+        double[] interactions = new double[n];
+        double[] visits = new double[n];
+        double[] interactionRates = new double[n];
+        double[] conversionRates = new double[n];
+        int valid = 0, interactionCount = 0, visitCount = 0, interactionRateCount = 0, conversionRateCount = 0;
 
-    public MetricStatistics getInteractionCountStats() { return interactionCountStats; }
-    public void setInteractionCountStats(MetricStatistics interactionCountStats) { this.interactionCountStats = interactionCountStats; }
+        for (ArticleData article : articles) {
+            Long read = article.getReadCount7d();
+            if (read == null || read < 0) {
+                continue;
+            }
+            reads[valid++] = read;
 
-    public MetricStatistics getShareCountStats() { return shareCountStats; }
-    public void setShareCountStats(MetricStatistics shareCountStats) { this.shareCountStats = shareCountStats; }
+            Long interaction = article.getInteractionCount7d();
+            if (interaction != null && interaction >= 0) {
+                interactions[interactionCount++] = interaction;
+            }
+            Long visit = article.getProductVisit7d();
+            if (visit != null && visit >= 0) {
+                visits[visitCount++] = visit;
+            }
+            if (read > RATE_MIN_READ_COUNT) {
+                if (interaction != null) {
+                    interactionRates[interactionRateCount++] = (double) interaction / read * 100;
+                }
+                if (visit != null) {
+                    conversionRates[conversionRateCount++] = (double) visit / read * 100;
+                }
+            }
+        }
 
+        return new StatisticsContext(valid,
+            statistics(reads, valid),
+            statistics(interactions, interactionCount),
+            statistics(visits, visitCount),
+            statistics(interactionRates, interactionRateCount),
+            statistics(conversionRates, conversionRateCount));
+    }
+
+    private static MetricStatistics statistics(double[] values, int count) {
+        return count == 0 ? MetricStatistics.empty() : new MetricStatistics(Arrays.copyOf(values, count));
+    }
+
+    // Getters
+    public int getValidCount() { return validCount; }
+    public MetricStatistics getReadCountStats() { return readCountStats; }
+    public MetricStatistics getInteractionCountStats() { return interactionCountStats; }
     public MetricStatistics getProductVisitStats() { return productVisitStats; }
-    public void setProductVisitStats(MetricStatistics productVisitStats) { this.productVisitStats = productVisitStats; }
-}
\ No newline at end of file
+    public MetricStatistics getInteractionRateStats() { return interactionRateStats; }
+    public MetricStatistics getConversionRateStats() { return conversionRateStats; }
+}
@@ -0,0 +1,64 @@
+package com.fxt.backend.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+
+/**
+ * 分片上传会话
+ * 客户端按偏移量顺序PUT分片，中断后查询receivedBytes从断点继续
+ */
+public class UploadSession {
+
+    public enum Status { UPLOADING, COMPLETED, ABORTED }
+
+    private final String uploadId;
+    private final String fileName;
+    private final long totalSize;
+    private final boolean upsert;
+    private final LocalDateTime createdAt;
+
+    @JsonIgnore
+    private final Path spoolFile;
+
+    private volatile long receivedBytes;
+    private volatile Status status = Status.UPLOADING;
+    private volatile LocalDateTime updatedAt;
+    private volatile String jobId;
+
+    public UploadSession(String uploadId, String fileName, long totalSize, boolean upsert,
+                         Path spoolFile, LocalDateTime createdAt) {
+        this.uploadId = uploadId;
+        this.fileName = fileName;
+        this.totalSize = totalSize;
+        this.upsert = upsert;
+        this.spoolFile = spoolFile;
+        this.createdAt = createdAt;
+        this.updatedAt = createdAt;
+    }
+
+    public boolean isComplete() {
+        return receivedBytes == totalSize;
+    }
+
+    // Getters and Setters
+    public String getUploadId() { return uploadId; }
+    public String getFileName() { return fileName; }
+    public long getTotalSize() { return totalSize; }
+    public boolean isUpsert() { return upsert; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public Path getSpoolFile() { return spoolFile; }
+
+    public long getReceivedBytes() { return receivedBytes; }
+    public void setReceivedBytes(long receivedBytes) { this.receivedBytes = receivedBytes; }
+
+    public Status getStatus() { return status; }
+    public void setStatus(Status status) { this.status = status; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+
+    public String getJobId() { return jobId; }
+    public void setJobId(String jobId) { this.jobId = jobId; }
+}
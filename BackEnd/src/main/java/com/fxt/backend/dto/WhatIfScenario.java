@@ -0,0 +1,61 @@
+package com.fxt.backend.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * 假设评分的一个场景
+ * 以已有文章（articleId）或给定的平台、品牌、内容类型为起点，用假设的指标值替换后评分，不写回任何数据。
+ * 先用绝对值覆盖，再按比例调整，如interactionFactor=1.3表示互动量增加30%
+ */
+public class WhatIfScenario {
+    private Long articleId;
+    // 决定所属人群；为空时沿用articleId对应文章的取值
+    private String platform;
+    private String brand;
+    private String contentType;
+    private LocalDateTime publishTime;
+    // 假设的7天指标绝对值，为空时沿用原值
+    private Long readCount7d;
+    private Long interactionCount7d;
+    private Long productVisit7d;
+    // 在上述取值基础上的调整比例，为空时不调整
+    private Double readFactor;
+    private Double interactionFactor;
+    private Double visitFactor;
+
+    public WhatIfScenario() {}
+
+    // Getters and Setters
+    public Long getArticleId() { return articleId; }
+    public void setArticleId(Long articleId) { this.articleId = articleId; }
+
+    public String getPlatform() { return platform; }
+    public void setPlatform(String platform) { this.platform = platform; }
+
+    public String getBrand() { return brand; }
+    public void setBrand(String brand) { this.brand = brand; }
+
+    public String getContentType() { return contentType; }
+    public void setContentType(String contentType) { this.contentType = contentType; }
+
+    public LocalDateTime getPublishTime() { return publishTime; }
+    public void setPublishTime(LocalDateTime publishTime) { this.publishTime = publishTime; }
+
+    public Long getReadCount7d() { return readCount7d; }
+    public void setReadCount7d(Long readCount7d) { this.readCount7d = readCount7d; }
+
+    public Long getInteractionCount7d() { return interactionCount7d; }
+    public void setInteractionCount7d(Long interactionCount7d) { this.interactionCount7d = interactionCount7d; }
+
+    public Long getProductVisit7d() { return productVisit7d; }
+    public void setProductVisit7d(Long productVisit7d) { this.productVisit7d = productVisit7d; }
+
+    public Double getReadFactor() { return readFactor; }
+    public void setReadFactor(Double readFactor) { this.readFactor = readFactor; }
+
+    public Double getInteractionFactor() { return interactionFactor; }
+    public void setInteractionFactor(Double interactionFactor) { this.interactionFactor = interactionFactor; }
+
+    public Double getVisitFactor() { return visitFactor; }
+    public void setVisitFactor(Double visitFactor) { this.visitFactor = visitFactor; }
+}
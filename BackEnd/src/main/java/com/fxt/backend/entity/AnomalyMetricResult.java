@@ -0,0 +1,116 @@
+package com.fxt.backend.entity;
+
+import jakarta.persistence.*;
+
+/**
+ * 单篇文章一个评分指标的异常检测结果：每篇文章每个指标一行，按报告中的顺序编号
+ * 取代原先整份报告序列化到article_data.anomaly_details的JSON，可以直接按指标和等级查询，
+ * 如互动率为SEVERE的全部文章；接口返回时再组装为AnomalyAnalysisReport
+ */
+@Entity
+@Table(name = "anomaly_metric_result", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_anomaly_metric_result_article", columnNames = {"article_id", "metric_index"})
+}, indexes = {
+    @Index(name = "idx_anomaly_metric_result_level", columnList = "metric, anomaly_level")
+})
+public class AnomalyMetricResult {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "article_id", nullable = false)
+    private Long articleId;
+
+    @Column(name = "metric_index", nullable = false)
+    private int position; // 在报告中的顺序
+
+    @Column(name = "metric", nullable = false, length = 32)
+    private String metric; // 指标名称，如 互动率
+
+    @Column(name = "metric_value")
+    private double value;
+
+    @Column(name = "mean")
+    private double mean;
+
+    @Column(name = "std_dev")
+    private double stdDev;
+
+    @Column(name = "z_score")
+    private double zScore;
+
+    @Column(name = "percentile")
+    private double percentile;
+
+    @Column(name = "deviation", length = 200)
+    private String deviation;
+
+    @Column(name = "anomaly_level", length = 16)
+    private String level; // SEVERE, MODERATE, MILD, NORMAL
+
+    @Column(name = "weight")
+    private Double weight;
+
+    @Column(name = "percentile_error")
+    private Double percentileError; // 近似评分时的百分位误差界，精确评分为空
+
+    @Column(name = "z_score_error")
+    private Double zScoreError;
+
+    @Column(name = "q1")
+    private Double q1; // 基准的四分位数，更换评分方案后重新判定IQR离群时使用；基准没有数据时为空
+
+    @Column(name = "q3")
+    private Double q3;
+
+    public AnomalyMetricResult() {}
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getArticleId() { return articleId; }
+    public void setArticleId(Long articleId) { this.articleId = articleId; }
+
+    public int getPosition() { return position; }
+    public void setPosition(int position) { this.position = position; }
+
+    public String getMetric() { return metric; }
+    public void setMetric(String metric) { this.metric = metric; }
+
+    public double getValue() { return value; }
+    public void setValue(double value) { this.value = value; }
+
+    public double getMean() { return mean; }
+    public void setMean(double mean) { this.mean = mean; }
+
+    public double getStdDev() { return stdDev; }
+    public void setStdDev(double stdDev) { this.stdDev = stdDev; }
+
+    public double getZScore() { return zScore; }
+    public void setZScore(double zScore) { this.zScore = zScore; }
+
+    public double getPercentile() { return percentile; }
+    public void setPercentile(double percentile) { this.percentile = percentile; }
+
+    public String getDeviation() { return deviation; }
+    public void setDeviation(String deviation) { this.deviation = deviation; }
+
+    public String getLevel() { return level; }
+    public void setLevel(String level) { this.level = level; }
+
+    public Double getWeight() { return weight; }
+    public void setWeight(Double weight) { this.weight = weight; }
+
+    public Double getPercentileError() { return percentileError; }
+    public void setPercentileError(Double percentileError) { this.percentileError = percentileError; }
+
+    public Double getZScoreError() { return zScoreError; }
+    public void setZScoreError(Double zScoreError) { this.zScoreError = zScoreError; }
+
+    public Double getQ1() { return q1; }
+    public void setQ1(Double q1) { this.q1 = q1; }
+
+    public Double getQ3() { return q3; }
+    public void setQ3(Double q3) { this.q3 = q3; }
+}
@@ -1,10 +1,15 @@
 package com.fxt.backend.entity;
 
+import com.fxt.backend.scoring.FieldDictionary;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
+import java.util.List;
 
 @Entity
-@Table(name = "article_data")
+@Table(name = "article_data", indexes = {
+    @Index(name = "idx_article_data_key", columnList = "data_id, platform")
+})
 public class ArticleData {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -74,7 +79,11 @@ public class ArticleData {
     private String anomalyStatus; // NORMAL, GOOD_ANOMALY, BAD_ANOMALY
     
     @Column(name = "anomaly_details", columnDefinition = "TEXT")
-    private String anomalyDetails; // JSON格式的详细异常分析
+    private String anomalyDetails; // 旧版JSON格式的详细异常分析，重新评分后清空，明细改存anomaly_metric_result
+    
+    @Column(name = "anomaly_hash")
+    @JsonIgnore
+    private Long anomalyHash; // 异常检测结果指纹，重新评分时用于判断结果是否变化
     
     @Column(name = "anomaly_score")
     private Double anomalyScore; // 综合异常评分 (0-100)
@@ -103,18 +112,39 @@ public class ArticleData {
     @Column(name = "images_info", columnDefinition = "TEXT")
     private String imagesInfo; // 图片信息JSON格式 - 包含原始URL列表
     
+    @Column(name = "row_hash", length = 32)
+    private String rowHash; // 源数据行指纹，重复上传时用于判断该行是否变化
+    
     @Column(name = "created_at")
     private LocalDateTime createdAt;
     
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
-
+    
+    // 本次评分得到的各指标结果，随评分结果一起写入anomaly_metric_result；从库中加载的实体为null
+    @Transient
+    @JsonIgnore
+    private List<AnomalyMetricResult> anomalyResults;
+    
     // 构造函数
     public ArticleData() {
         this.createdAt = LocalDateTime.now();
         this.updatedAt = LocalDateTime.now();
     }
 
+    /**
+     * Hibernate直接写字段、不经过setter，加载后统一替换为字典中的共享实例
+     */
+    @PostLoad
+    void internDictionaryFields() {
+        setBrand(brand);
+        setPlatform(platform);
+        setContentType(contentType);
+        setPostType(postType);
+        setMaterialSource(materialSource);
+        setAnomalyStatus(anomalyStatus);
+    }
+
     // Getters and Setters
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
@@ -126,7 +156,7 @@ public class ArticleData {
     public void setTitle(String title) { this.title = title; }
 
     public String getBrand() { return brand; }
-    public void setBrand(String brand) { this.brand = brand; }
+    public void setBrand(String brand) { this.brand = FieldDictionary.BRAND.intern(brand); }
 
     public LocalDateTime getPublishTime() { return publishTime; }
     public void setPublishTime(LocalDateTime publishTime) { this.publishTime = publishTime; }
@@ -135,16 +165,16 @@ public class ArticleData {
     public void setArticleLink(String articleLink) { this.articleLink = articleLink; }
 
     public String getContentType() { return contentType; }
-    public void setContentType(String contentType) { this.contentType = contentType; }
+    public void setContentType(String contentType) { this.contentType = FieldDictionary.CONTENT_TYPE.intern(contentType); }
 
     public String getPostType() { return postType; }
-    public void setPostType(String postType) { this.postType = postType; }
+    public void setPostType(String postType) { this.postType = FieldDictionary.POST_TYPE.intern(postType); }
 
     public String getMaterialSource() { return materialSource; }
-    public void setMaterialSource(String materialSource) { this.materialSource = materialSource; }
+    public void setMaterialSource(String materialSource) { this.materialSource = FieldDictionary.MATERIAL_SOURCE.intern(materialSource); }
 
     public String getPlatform() { return platform; }
-    public void setPlatform(String platform) { this.platform = platform; }
+    public void setPlatform(String platform) { this.platform = FieldDictionary.PLATFORM.intern(platform); }
 
     public String getStyleInfo() { return styleInfo; }
     public void setStyleInfo(String styleInfo) { this.styleInfo = styleInfo; }
@@ -180,11 +210,17 @@ public class ArticleData {
     public void setProductWant14d(Long productWant14d) { this.productWant14d = productWant14d; }
 
     public String getAnomalyStatus() { return anomalyStatus; }
-    public void setAnomalyStatus(String anomalyStatus) { this.anomalyStatus = anomalyStatus; }
+    public void setAnomalyStatus(String anomalyStatus) { this.anomalyStatus = FieldDictionary.ANOMALY_STATUS.intern(anomalyStatus); }
 
     public String getAnomalyDetails() { return anomalyDetails; }
     public void setAnomalyDetails(String anomalyDetails) { this.anomalyDetails = anomalyDetails; }
 
+    public Long getAnomalyHash() { return anomalyHash; }
+    public void setAnomalyHash(Long anomalyHash) { this.anomalyHash = anomalyHash; }
+
+    public List<AnomalyMetricResult> getAnomalyResults() { return anomalyResults; }
+    public void setAnomalyResults(List<AnomalyMetricResult> anomalyResults) { this.anomalyResults = anomalyResults; }
+
     public Double getAnomalyScore() { return anomalyScore; }
     public void setAnomalyScore(Double anomalyScore) { this.anomalyScore = anomalyScore; }
 
@@ -212,6 +248,9 @@ public class ArticleData {
     public String getImagesInfo() { return imagesInfo; }
     public void setImagesInfo(String imagesInfo) { this.imagesInfo = imagesInfo; }
 
+    public String getRowHash() { return rowHash; }
+    public void setRowHash(String rowHash) { this.rowHash = rowHash; }
+
     public LocalDateTime getCreatedAt() { return createdAt; }
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
 
@@ -0,0 +1,94 @@
+package com.fxt.backend.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * 评分基准的持久化状态：每个 (范围, 指标) 一行，保存Welford累计量和序列化后的KLL草图
+ * 新数据到来时读出、合并增量、写回；version用于多个节点并发合并时的乐观锁
+ */
+@Entity
+@Table(name = "baseline_sketch", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_baseline_sketch_scope_metric", columnNames = {"scope", "metric"})
+})
+public class BaselineSketch {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "scope", nullable = false, length = 200)
+    private String scope; // 统计范围，ALL为全部数据
+    
+    @Column(name = "metric", nullable = false, length = 32)
+    private String metric; // ScoringMetric枚举名
+    
+    @Column(name = "sample_count")
+    private long sampleCount;
+    
+    @Column(name = "mean")
+    private double mean;
+    
+    @Column(name = "m2")
+    private double m2; // 与均值之差的平方和
+    
+    @Column(name = "min_value")
+    private double minValue;
+    
+    @Column(name = "max_value")
+    private double maxValue;
+    
+    @Lob
+    @Column(name = "sketch")
+    private byte[] sketch; // KllSketch.toBytes
+    
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+    
+    @Version
+    @Column(name = "version")
+    private Long version;
+    
+    public BaselineSketch() {
+        this.updatedAt = LocalDateTime.now();
+    }
+    
+    public BaselineSketch(String scope, String metric) {
+        this();
+        this.scope = scope;
+        this.metric = metric;
+    }
+    
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    
+    public String getScope() { return scope; }
+    public void setScope(String scope) { this.scope = scope; }
+    
+    public String getMetric() { return metric; }
+    public void setMetric(String metric) { this.metric = metric; }
+    
+    public long getSampleCount() { return sampleCount; }
+    public void setSampleCount(long sampleCount) { this.sampleCount = sampleCount; }
+    
+    public double getMean() { return mean; }
+    public void setMean(double mean) { this.mean = mean; }
+    
+    public double getM2() { return m2; }
+    public void setM2(double m2) { this.m2 = m2; }
+    
+    public double getMinValue() { return minValue; }
+    public void setMinValue(double minValue) { this.minValue = minValue; }
+    
+    public double getMaxValue() { return maxValue; }
+    public void setMaxValue(double maxValue) { this.maxValue = maxValue; }
+    
+    public byte[] getSketch() { return sketch; }
+    public void setSketch(byte[] sketch) { this.sketch = sketch; }
+    
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+    
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+}
@@ -0,0 +1,270 @@
+package com.fxt.backend.parser;
+
+import com.fxt.backend.entity.ArticleData;
+import org.apache.poi.ss.usermodel.DateUtil;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+
+/**
+ * 按表头布局预编译的行解码器
+ * 每种布局只在类加载时确定一次各字段所在列，解码时直接按列号取值：
+ * 每个单元格只读取一次，数值日期直接转为LocalDateTime，
+ * 字符串日期和数字用手写解析，常见情况下不创建格式化器也不抛异常
+ */
+public final class RowDecoder {
+
+    private static final int NONE = -1;
+
+    public static final RowDecoder DEWU = new RowDecoder("得物",
+        0, 1, 2, 3, 4, 5, 6, 7, 8,
+        9, 10, 11, 12, 13, 14, 15, 16);
+
+    // 小红书格式无标题列，其余列整体左移一位
+    public static final RowDecoder XIAOHONGSHU = new RowDecoder("小红书",
+        0, NONE, 1, 2, 3, 4, 5, 6, 7,
+        8, 9, 10, 11, 12, 13, 14, 15);
+
+    private final String platform;
+    private final int dataIdCol;
+    private final int titleCol;
+    private final int brandCol;
+    private final int publishTimeCol;
+    private final int articleLinkCol;
+    private final int contentTypeCol;
+    private final int postTypeCol;
+    private final int materialSourceCol;
+    private final int styleInfoCol;
+    private final int read7dCol;
+    private final int interaction7dCol;
+    private final int productVisit7dCol;
+    private final int productWant7dCol;
+    private final int read14dCol;
+    private final int interaction14dCol;
+    private final int productVisitCountCol;
+    private final int productWant14dCol;
+
+    private RowDecoder(String platform,
+                       int dataIdCol, int titleCol, int brandCol, int publishTimeCol, int articleLinkCol,
+                       int contentTypeCol, int postTypeCol, int materialSourceCol, int styleInfoCol,
+                       int read7dCol, int interaction7dCol, int productVisit7dCol, int productWant7dCol,
+                       int read14dCol, int interaction14dCol, int productVisitCountCol, int productWant14dCol) {
+        this.platform = platform;
+        this.dataIdCol = dataIdCol;
+        this.titleCol = titleCol;
+        this.brandCol = brandCol;
+        this.publishTimeCol = publishTimeCol;
+        this.articleLinkCol = articleLinkCol;
+        this.contentTypeCol = contentTypeCol;
+        this.postTypeCol = postTypeCol;
+        this.materialSourceCol = materialSourceCol;
+        this.styleInfoCol = styleInfoCol;
+        this.read7dCol = read7dCol;
+        this.interaction7dCol = interaction7dCol;
+        this.productVisit7dCol = productVisit7dCol;
+        this.productWant7dCol = productWant7dCol;
+        this.read14dCol = read14dCol;
+        this.interaction14dCol = interaction14dCol;
+        this.productVisitCountCol = productVisitCountCol;
+        this.productWant14dCol = productWant14dCol;
+    }
+
+    /**
+     * 根据表头选择解码器：第二列为"标题"时是得物格式，否则按小红书格式处理
+     */
+    public static RowDecoder forHeader(SheetRow headerRow) {
+        if (headerRow != null && headerRow.getKind(1) == SheetRow.CellKind.STRING
+                && "标题".equals(headerRow.getStringValue(1))) {
+            return DEWU;
+        }
+        return XIAOHONGSHU;
+    }
+
+    public String getPlatform() {
+        return platform;
+    }
+
+    public ArticleData decode(SheetRow row) {
+        ArticleData article = new ArticleData();
+
+        article.setDataId(stringAt(row, dataIdCol));
+        article.setTitle(titleCol == NONE ? null : stringAt(row, titleCol));
+        article.setBrand(stringAt(row, brandCol));
+        article.setPublishTime(dateTimeAt(row, publishTimeCol));
+        article.setArticleLink(stringAt(row, articleLinkCol));
+        article.setContentType(stringAt(row, contentTypeCol));
+        article.setPostType(stringAt(row, postTypeCol));
+        article.setMaterialSource(stringAt(row, materialSourceCol));
+        article.setStyleInfo(stringAt(row, styleInfoCol));
+        article.setPlatform(platform);
+
+        // 7天数据
+        article.setReadCount7d(longAt(row, read7dCol));
+        article.setInteractionCount7d(longAt(row, interaction7dCol));
+        article.setProductVisit7d(longAt(row, productVisit7dCol));
+        article.setProductWant7d(longAt(row, productWant7dCol));
+
+        // 14天数据
+        article.setReadCount14d(longAt(row, read14dCol));
+        article.setInteractionCount14d(longAt(row, interaction14dCol));
+        article.setProductVisitCount(longAt(row, productVisitCountCol));
+        article.setProductWant14d(longAt(row, productWant14dCol));
+
+        article.setShareCount7d(article.getProductWant7d());
+        article.setShareCount14d(article.getProductWant14d());
+
+        // 初始状态设为正常
+        article.setAnomalyStatus("NORMAL");
+        article.setRowHash(row.fingerprint());
+        return article;
+    }
+
+    // ==================== 单元格取值 ====================
+
+    private static String stringAt(SheetRow row, int column) {
+        switch (row.getKind(column)) {
+            case STRING:
+            case FORMULA:
+                return row.getStringValue(column);
+            case NUMERIC:
+                if (row.isDateFormatted(column)) {
+                    // 与旧版解析的 getDateCellValue().toString() 保持同样的文本
+                    return DateUtil.getJavaDate(row.getNumericValue(column)).toString();
+                }
+                return String.valueOf((long) row.getNumericValue(column));
+            case BOOLEAN:
+                return String.valueOf(row.getNumericValue(column) != 0);
+            default:
+                return null;
+        }
+    }
+
+    private static Long longAt(SheetRow row, int column) {
+        switch (row.getKind(column)) {
+            case NUMERIC:
+                return (long) row.getNumericValue(column);
+            case STRING:
+                return parseLong(row.getStringValue(column));
+            default:
+                return 0L;
+        }
+    }
+
+    /**
+     * 发布时间：空单元格返回null；无法识别的值沿用原逻辑回退为当前时间
+     */
+    private static LocalDateTime dateTimeAt(SheetRow row, int column) {
+        switch (row.getKind(column)) {
+            case NUMERIC:
+                if (row.isDateFormatted(column)) {
+                    return DateUtil.getLocalDateTime(row.getNumericValue(column));
+                }
+                return LocalDateTime.now();
+            case STRING:
+            case FORMULA:
+                String value = row.getStringValue(column);
+                if (value == null || value.isEmpty()) {
+                    return null;
+                }
+                LocalDateTime parsed = parseDateTime(value);
+                return parsed != null ? parsed : LocalDateTime.now();
+            case BOOLEAN:
+                return LocalDateTime.now();
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * 解析 yyyy-MM-dd[ HH:mm:ss] 和 yyyy/MM/dd[ HH:mm:ss]，无法识别时返回null
+     * 日期超出当月天数时与DateTimeFormatter默认的SMART模式一样取当月最后一天
+     */
+    static LocalDateTime parseDateTime(String value) {
+        int length = value.length();
+        if (length != 10 && length != 19) {
+            return null;
+        }
+        char separator = value.charAt(4);
+        if ((separator != '-' && separator != '/') || value.charAt(7) != separator) {
+            return null;
+        }
+        int year = digits(value, 0, 4);
+        int month = digits(value, 5, 2);
+        int day = digits(value, 8, 2);
+        if (year < 1 || month < 1 || month > 12 || day < 1 || day > 31) {
+            return null;
+        }
+
+        int hour = 0;
+        int minute = 0;
+        int second = 0;
+        if (length == 19) {
+            if (value.charAt(10) != ' ' || value.charAt(13) != ':' || value.charAt(16) != ':') {
+                return null;
+            }
+            hour = digits(value, 11, 2);
+            minute = digits(value, 14, 2);
+            second = digits(value, 17, 2);
+            if (minute < 0 || minute > 59 || second < 0 || second > 59) {
+                return null;
+            }
+            // SMART模式把 24:00:00 解析为次日零点
+            if (hour < 0 || hour > 24 || (hour == 24 && (minute != 0 || second != 0))) {
+                return null;
+            }
+        }
+
+        int maxDay = YearMonth.of(year, month).lengthOfMonth();
+        if (hour == 24) {
+            return LocalDateTime.of(year, month, Math.min(day, maxDay), 0, 0).plusDays(1);
+        }
+        return LocalDateTime.of(year, month, Math.min(day, maxDay), hour, minute, second);
+    }
+
+    /**
+     * 与Long.parseLong接受相同的输入（可选正负号+十进制数字），无法解析或溢出时返回0
+     */
+    static long parseLong(String value) {
+        if (value == null || value.isEmpty()) {
+            return 0L;
+        }
+        int i = 0;
+        boolean negative = false;
+        char first = value.charAt(0);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            i = 1;
+            if (value.length() == 1) {
+                return 0L;
+            }
+        }
+        // 按负数累加，可以表示Long.MIN_VALUE
+        long result = 0;
+        long limit = negative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+        long multiplyLimit = limit / 10;
+        for (; i < value.length(); i++) {
+            int digit = Character.digit(value.charAt(i), 10);
+            if (digit < 0 || result < multiplyLimit) {
+                return 0L;
+            }
+            result *= 10;
+            if (result < limit + digit) {
+                return 0L;
+            }
+            result -= digit;
+        }
+        return negative ? result : -result;
+    }
+
+    private static int digits(String value, int offset, int count) {
+        int result = 0;
+        for (int i = offset; i < offset + count; i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            result = result * 10 + (c - '0');
+        }
+        return result;
+    }
+}
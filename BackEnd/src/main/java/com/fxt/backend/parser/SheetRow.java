@@ -0,0 +1,175 @@
+package com.fxt.backend.parser;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.usermodel.Row;
+
+import java.util.Arrays;
+
+/**
+ * 可复用的行缓冲区
+ * DOM解析（XSSFWorkbook）和流式解析（SAX）都把单元格写入这里，
+ * 保证两种模式下的取值语义完全一致
+ */
+public class SheetRow {
+
+    public enum CellKind { BLANK, STRING, NUMERIC, BOOLEAN, FORMULA }
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private int rowIndex;
+    private int lastColumn = -1;
+    private CellKind[] kinds = new CellKind[32];
+    private String[] strings = new String[32];
+    private double[] numbers = new double[32];
+    private boolean[] dates = new boolean[32];
+
+    public SheetRow() {
+        Arrays.fill(kinds, CellKind.BLANK);
+    }
+
+    /**
+     * 清空缓冲区以便复用，避免每行分配新数组
+     */
+    public void reset(int rowIndex) {
+        for (int i = 0; i <= lastColumn; i++) {
+            kinds[i] = CellKind.BLANK;
+            strings[i] = null;
+        }
+        this.rowIndex = rowIndex;
+        this.lastColumn = -1;
+    }
+
+    public void setString(int column, String value) {
+        ensureCapacity(column);
+        kinds[column] = CellKind.STRING;
+        strings[column] = value;
+        markColumn(column);
+    }
+
+    public void setNumeric(int column, double value, boolean dateFormatted) {
+        ensureCapacity(column);
+        kinds[column] = CellKind.NUMERIC;
+        numbers[column] = value;
+        dates[column] = dateFormatted;
+        markColumn(column);
+    }
+
+    public void setBoolean(int column, boolean value) {
+        ensureCapacity(column);
+        kinds[column] = CellKind.BOOLEAN;
+        numbers[column] = value ? 1 : 0;
+        markColumn(column);
+    }
+
+    public void setFormula(int column, String formula) {
+        ensureCapacity(column);
+        kinds[column] = CellKind.FORMULA;
+        strings[column] = formula;
+        markColumn(column);
+    }
+
+    /**
+     * 从POI的Row对象填充缓冲区（DOM模式）
+     */
+    public void fill(Row row) {
+        reset(row.getRowNum());
+        for (Cell cell : row) {
+            int column = cell.getColumnIndex();
+            switch (cell.getCellType()) {
+                case STRING:
+                    setString(column, cell.getStringCellValue());
+                    break;
+                case NUMERIC:
+                    setNumeric(column, cell.getNumericCellValue(), DateUtil.isCellDateFormatted(cell));
+                    break;
+                case BOOLEAN:
+                    setBoolean(column, cell.getBooleanCellValue());
+                    break;
+                case FORMULA:
+                    setFormula(column, cell.getCellFormula());
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
+    /**
+     * 计算整行原始单元格值的64位FNV-1a指纹（十六进制）
+     * 基于原始值而不是解码后的字段，重复上传同一行时结果稳定
+     */
+    public String fingerprint() {
+        long hash = FNV_OFFSET_BASIS;
+        for (int i = 0; i <= lastColumn; i++) {
+            hash = mix(hash, kinds[i].ordinal());
+            switch (kinds[i]) {
+                case STRING:
+                case FORMULA:
+                    String value = strings[i];
+                    for (int j = 0; j < value.length(); j++) {
+                        hash = mix(hash, value.charAt(j));
+                    }
+                    break;
+                case NUMERIC:
+                case BOOLEAN:
+                    long bits = Double.doubleToLongBits(numbers[i]);
+                    for (int shift = 0; shift < 64; shift += 16) {
+                        hash = mix(hash, (int) (bits >>> shift) & 0xFFFF);
+                    }
+                    break;
+                default:
+                    break;
+            }
+            // 列分隔符，避免相邻单元格内容拼接后碰撞
+            hash = mix(hash, 0x1F);
+        }
+        String hex = Long.toHexString(hash);
+        return hex.length() == 16 ? hex : "0000000000000000".substring(hex.length()) + hex;
+    }
+
+    private static long mix(long hash, int value) {
+        hash ^= (value & 0xFF);
+        hash *= FNV_PRIME;
+        hash ^= (value >>> 8) & 0xFF;
+        hash *= FNV_PRIME;
+        return hash;
+    }
+
+    public CellKind getKind(int column) {
+        return column <= lastColumn ? kinds[column] : CellKind.BLANK;
+    }
+
+    public String getStringValue(int column) {
+        return strings[column];
+    }
+
+    public double getNumericValue(int column) {
+        return numbers[column];
+    }
+
+    public boolean isDateFormatted(int column) {
+        return dates[column];
+    }
+
+    public int getRowIndex() { return rowIndex; }
+    public int getLastColumn() { return lastColumn; }
+
+    private void markColumn(int column) {
+        if (column > lastColumn) {
+            lastColumn = column;
+        }
+    }
+
+    private void ensureCapacity(int column) {
+        if (column < kinds.length) return;
+        int newSize = Math.max(column + 1, kinds.length * 2);
+        int oldSize = kinds.length;
+        kinds = Arrays.copyOf(kinds, newSize);
+        Arrays.fill(kinds, oldSize, newSize, CellKind.BLANK);
+        strings = Arrays.copyOf(strings, newSize);
+        numbers = Arrays.copyOf(numbers, newSize);
+        dates = Arrays.copyOf(dates, newSize);
+    }
+}
@@ -0,0 +1,268 @@
+package com.fxt.backend.parser;
+
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFCellStyle;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.function.Consumer;
+
+/**
+ * 基于POI事件模型（XSSFReader + SAX）的流式Sheet读取器
+ * 只保留共享字符串表和当前行，内存占用与文件行数无关
+ */
+public class StreamingSheetReader implements AutoCloseable {
+
+    private final OPCPackage opcPackage;
+    private final XSSFReader xssfReader;
+    private final ReadOnlySharedStringsTable sharedStrings;
+    private final boolean[] dateStyles;
+
+    public StreamingSheetReader(File file) throws IOException {
+        try {
+            this.opcPackage = OPCPackage.open(file, PackageAccess.READ);
+        } catch (Exception e) {
+            throw new IOException("无法打开Excel文件: " + file.getName(), e);
+        }
+        try {
+            this.xssfReader = new XSSFReader(opcPackage);
+            this.sharedStrings = new ReadOnlySharedStringsTable(opcPackage);
+            this.dateStyles = resolveDateStyles(xssfReader.getStylesTable());
+        } catch (OpenXML4JException | SAXException | IOException e) {
+            opcPackage.revert();
+            throw new IOException("Excel文件结构解析失败: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 流式读取第一个Sheet，每解析完一行回调一次
+     * 回调收到的SheetRow会被复用，调用方不能跨行持有
+     */
+    public void readFirstSheet(Consumer<SheetRow> rowHandler) throws IOException {
+        readSheet(0, rowHandler);
+    }
+
+    /**
+     * 流式读取指定序号的Sheet（从0开始），序号超出范围时不回调
+     */
+    public void readSheet(int sheetIndex, Consumer<SheetRow> rowHandler) throws IOException {
+        try {
+            XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) xssfReader.getSheetsData();
+            for (int i = 0; sheets.hasNext(); i++) {
+                try (InputStream sheetStream = sheets.next()) {
+                    if (i == sheetIndex) {
+                        readSheet(sheetStream, rowHandler);
+                        return;
+                    }
+                }
+            }
+        } catch (OpenXML4JException e) {
+            throw new IOException("读取Sheet失败: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 工作簿中的Sheet数量（只读取workbook.xml中的Sheet列表，不解析Sheet内容）
+     */
+    public int getSheetCount() throws IOException {
+        try {
+            XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) xssfReader.getSheetsData();
+            int count = 0;
+            while (sheets.hasNext()) {
+                sheets.next().close();
+                count++;
+            }
+            return count;
+        } catch (OpenXML4JException e) {
+            throw new IOException("读取Sheet列表失败: " + e.getMessage(), e);
+        }
+    }
+
+    private void readSheet(InputStream sheetStream, Consumer<SheetRow> rowHandler) throws IOException {
+        try {
+            XMLReader xmlReader = XMLHelper.newXMLReader();
+            xmlReader.setContentHandler(new SheetHandler(rowHandler));
+            xmlReader.parse(new InputSource(sheetStream));
+        } catch (SAXException | ParserConfigurationException e) {
+            throw new IOException("Sheet XML解析失败: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void close() {
+        // 只读打开，revert不会回写文件
+        opcPackage.revert();
+    }
+
+    /**
+     * 预先计算每个样式是否为日期格式，读取阶段只查数组
+     */
+    private static boolean[] resolveDateStyles(StylesTable stylesTable) {
+        if (stylesTable == null) {
+            return new boolean[0];
+        }
+        boolean[] result = new boolean[stylesTable.getNumCellStyles()];
+        for (int i = 0; i < result.length; i++) {
+            XSSFCellStyle style = stylesTable.getStyleAt(i);
+            result[i] = style != null && DateUtil.isADateFormat(style.getDataFormat(), style.getDataFormatString());
+        }
+        return result;
+    }
+
+    /**
+     * 将单元格引用（如"AB12"）的列字母转为从0开始的列号
+     */
+    static int columnIndex(String cellReference) {
+        int column = 0;
+        for (int i = 0; i < cellReference.length(); i++) {
+            char c = cellReference.charAt(i);
+            if (c < 'A' || c > 'Z') break;
+            column = column * 26 + (c - 'A' + 1);
+        }
+        return column - 1;
+    }
+
+    /**
+     * Sheet XML的SAX处理器：&lt;row&gt; / &lt;c&gt; / &lt;v&gt; / &lt;f&gt; / &lt;is&gt;&lt;t&gt;
+     */
+    private class SheetHandler extends DefaultHandler {
+
+        private final Consumer<SheetRow> rowHandler;
+        private final SheetRow row = new SheetRow();
+        private final StringBuilder text = new StringBuilder();
+
+        private boolean collecting;
+        private int nextRowIndex;
+        private int nextColumn;
+
+        private int column;
+        private String cellType;
+        private int styleIndex;
+        private String value;
+        private String formula;
+
+        SheetHandler(Consumer<SheetRow> rowHandler) {
+            this.rowHandler = rowHandler;
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) {
+            switch (localName) {
+                case "row":
+                    String r = attributes.getValue("r");
+                    row.reset(r != null ? Integer.parseInt(r) - 1 : nextRowIndex);
+                    nextColumn = 0;
+                    break;
+                case "c":
+                    String ref = attributes.getValue("r");
+                    column = ref != null ? columnIndex(ref) : nextColumn;
+                    cellType = attributes.getValue("t");
+                    String s = attributes.getValue("s");
+                    styleIndex = s != null ? Integer.parseInt(s) : -1;
+                    value = null;
+                    formula = null;
+                    text.setLength(0);
+                    break;
+                case "v":
+                case "f":
+                    text.setLength(0);
+                    collecting = true;
+                    break;
+                case "t":
+                    // 内联字符串，富文本时可能有多个<t>片段，连续拼接
+                    collecting = true;
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) {
+            switch (localName) {
+                case "v":
+                    value = text.toString();
+                    collecting = false;
+                    break;
+                case "f":
+                    formula = text.toString();
+                    collecting = false;
+                    break;
+                case "t":
+                    collecting = false;
+                    break;
+                case "is":
+                    value = text.toString();
+                    break;
+                case "c":
+                    finishCell();
+                    nextColumn = column + 1;
+                    break;
+                case "row":
+                    rowHandler.accept(row);
+                    nextRowIndex = row.getRowIndex() + 1;
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) {
+            if (collecting) {
+                text.append(ch, start, length);
+            }
+        }
+
+        /**
+         * 与DOM模式的Cell类型保持一致：公式单元格返回公式文本
+         */
+        private void finishCell() {
+            if (formula != null) {
+                row.setFormula(column, formula);
+                return;
+            }
+            if (value == null) {
+                return;
+            }
+            if (cellType == null || "n".equals(cellType)) {
+                if (value.isEmpty()) return;
+                double number = Double.parseDouble(value);
+                boolean isDate = styleIndex >= 0 && styleIndex < dateStyles.length
+                    && dateStyles[styleIndex] && DateUtil.isValidExcelDate(number);
+                row.setNumeric(column, number, isDate);
+                return;
+            }
+            switch (cellType) {
+                case "s":
+                    int index = Integer.parseInt(value);
+                    row.setString(column, sharedStrings.getItemAt(index).getString());
+                    break;
+                case "inlineStr":
+                case "str":
+                    row.setString(column, value);
+                    break;
+                case "b":
+                    row.setBoolean(column, "1".equals(value));
+                    break;
+                default:
+                    // 错误单元格（"e"）等按空单元格处理
+                    break;
+            }
+        }
+    }
+}
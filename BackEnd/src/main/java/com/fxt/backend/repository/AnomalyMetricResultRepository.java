@@ -0,0 +1,13 @@
+package com.fxt.backend.repository;
+
+import com.fxt.backend.entity.AnomalyMetricResult;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface AnomalyMetricResultRepository extends JpaRepository<AnomalyMetricResult, Long> {
+
+    List<AnomalyMetricResult> findByArticleIdOrderByPositionAsc(Long articleId);
+}
@@ -0,0 +1,451 @@
+package com.fxt.backend.repository;
+
+import com.fxt.backend.config.IngestConfig;
+import com.fxt.backend.entity.AnomalyMetricResult;
+import com.fxt.backend.entity.ArticleData;
+import com.fxt.backend.scoring.CohortKey;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * ArticleData批量写入
+ * 实体使用IDENTITY主键，Hibernate会因此关闭JDBC批处理，saveAll退化为逐行INSERT；
+ * 这里绕过持久化上下文直接用JDBC批处理写入，并按批次提交事务。
+ * MySQL需要在连接串上加 rewriteBatchedStatements=true 才能合并为多值INSERT
+ */
+@Repository
+public class ArticleDataBulkRepository {
+
+    private static final String INSERT_SQL =
+        "INSERT INTO article_data (data_id, title, brand, publish_time, article_link, content_type, post_type, " +
+        "material_source, platform, style_info, read_count_7d, read_count_14d, interaction_count_7d, " +
+        "interaction_count_14d, share_count_7d, share_count_14d, product_visit_7d, product_visit_count, " +
+        "product_want_7d, product_want_14d, anomaly_status, anomaly_details, anomaly_score, content, " +
+        "title_analysis, content_analysis, crawl_status, crawl_error, optimization_suggestions, ai_suggestions, " +
+        "images_info, created_at, updated_at, row_hash) " +
+        "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    // 重复上传时只覆盖源数据字段，保留已爬取的内容和AI建议
+    private static final String UPDATE_SOURCE_SQL =
+        "UPDATE article_data SET title = ?, brand = ?, publish_time = ?, article_link = ?, content_type = ?, " +
+        "post_type = ?, material_source = ?, style_info = ?, read_count_7d = ?, read_count_14d = ?, " +
+        "interaction_count_7d = ?, interaction_count_14d = ?, share_count_7d = ?, share_count_14d = ?, " +
+        "product_visit_7d = ?, product_visit_count = ?, product_want_7d = ?, product_want_14d = ?, " +
+        "row_hash = ?, updated_at = ? WHERE id = ?";
+
+    // 旧版的anomaly_details JSON随重新评分清空，明细改存anomaly_metric_result
+    private static final String UPDATE_SCORE_SQL =
+        "UPDATE article_data SET anomaly_status = ?, anomaly_score = ?, anomaly_hash = ?, anomaly_details = NULL, " +
+        "updated_at = ? WHERE id = ?";
+
+    private static final String DELETE_RESULTS_SQL = "DELETE FROM anomaly_metric_result WHERE article_id = ?";
+
+    private static final String INSERT_RESULT_SQL =
+        "INSERT INTO anomaly_metric_result (article_id, metric_index, metric, metric_value, mean, std_dev, z_score, " +
+        "percentile, deviation, anomaly_level, weight, percentile_error, z_score_error, q1, q3) " +
+        "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String SCORING_ROW_SQL =
+        "SELECT id, platform, brand, content_type, publish_time, read_count_7d, interaction_count_7d, " +
+        "product_visit_7d, anomaly_status, anomaly_score, anomaly_hash FROM article_data ";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private IngestConfig ingestConfig;
+
+    /**
+     * 批量插入，回填自增ID；每chunkSize行提交一次
+     */
+    public List<ArticleData> insertAll(List<ArticleData> articles) {
+        forEachChunk(articles, chunk -> jdbcTemplate.execute((ConnectionCallback<Void>) con -> {
+            try (PreparedStatement ps = con.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+                int batchSize = Math.max(1, ingestConfig.getJdbcBatchSize());
+                int batchStart = 0;
+                for (int i = 0; i < chunk.size(); i++) {
+                    bindInsert(ps, chunk.get(i));
+                    ps.addBatch();
+                    if (i - batchStart + 1 == batchSize || i == chunk.size() - 1) {
+                        ps.executeBatch();
+                        assignGeneratedKeys(ps, chunk, batchStart, i + 1);
+                        batchStart = i + 1;
+                    }
+                }
+            }
+            return null;
+        }));
+        return articles;
+    }
+
+    /**
+     * 按 (platform, dataId) 查询已存在的行及其指纹，用于重复上传时的增量判断
+     */
+    public Map<String, ExistingRow> findExistingRows(String platform, Collection<String> dataIds) {
+        Map<String, ExistingRow> result = new HashMap<>();
+        if (dataIds.isEmpty()) {
+            return result;
+        }
+        String placeholders = String.join(", ", Collections.nCopies(dataIds.size(), "?"));
+        String platformCondition = platform != null ? "platform = ?" : "platform IS NULL";
+        String sql = "SELECT id, data_id, row_hash FROM article_data WHERE " + platformCondition +
+            " AND data_id IN (" + placeholders + ")";
+
+        List<Object> args = new ArrayList<>(dataIds.size() + 1);
+        if (platform != null) {
+            args.add(platform);
+        }
+        args.addAll(dataIds);
+
+        jdbcTemplate.query(sql, (RowCallbackHandler) rs -> {
+            // 历史数据可能已存在重复行，保留ID最小的那条作为更新目标
+            String dataId = rs.getString("data_id");
+            long id = rs.getLong("id");
+            ExistingRow existing = result.get(dataId);
+            if (existing == null || id < existing.getId()) {
+                result.put(dataId, new ExistingRow(id, rs.getString("row_hash")));
+            }
+        }, args.toArray());
+        return result;
+    }
+
+    /**
+     * 就地更新已存在文章的源数据字段和指纹（文章ID需已回填）
+     */
+    public void updateSourceFields(List<ArticleData> articles) {
+        LocalDateTime now = LocalDateTime.now();
+        forEachChunk(articles, chunk -> jdbcTemplate.batchUpdate(UPDATE_SOURCE_SQL, chunk,
+            Math.max(1, ingestConfig.getJdbcBatchSize()), (ps, a) -> {
+                a.setUpdatedAt(now);
+                ps.setString(1, a.getTitle());
+                ps.setString(2, a.getBrand());
+                ps.setObject(3, a.getPublishTime());
+                ps.setString(4, a.getArticleLink());
+                ps.setString(5, a.getContentType());
+                ps.setString(6, a.getPostType());
+                ps.setString(7, a.getMaterialSource());
+                ps.setString(8, a.getStyleInfo());
+                setLong(ps, 9, a.getReadCount7d());
+                setLong(ps, 10, a.getReadCount14d());
+                setLong(ps, 11, a.getInteractionCount7d());
+                setLong(ps, 12, a.getInteractionCount14d());
+                setLong(ps, 13, a.getShareCount7d());
+                setLong(ps, 14, a.getShareCount14d());
+                setLong(ps, 15, a.getProductVisit7d());
+                setLong(ps, 16, a.getProductVisitCount());
+                setLong(ps, 17, a.getProductWant7d());
+                setLong(ps, 18, a.getProductWant14d());
+                ps.setString(19, a.getRowHash());
+                ps.setObject(20, now);
+                ps.setLong(21, a.getId());
+            }));
+    }
+
+    /**
+     * 只回写异常检测结果字段，避免saveAll对已存在实体逐条SELECT+UPDATE；
+     * 同一事务内按文章替换anomaly_metric_result中的各指标明细行
+     */
+    public void updateScores(List<ArticleData> articles) {
+        LocalDateTime now = LocalDateTime.now();
+        int batchSize = Math.max(1, ingestConfig.getJdbcBatchSize());
+        forEachChunk(articles, chunk -> {
+            jdbcTemplate.batchUpdate(UPDATE_SCORE_SQL, chunk, batchSize, (ps, article) -> {
+                article.setUpdatedAt(now);
+                ps.setString(1, article.getAnomalyStatus());
+                setDouble(ps, 2, article.getAnomalyScore());
+                setLong(ps, 3, article.getAnomalyHash());
+                ps.setObject(4, now);
+                ps.setLong(5, article.getId());
+            });
+            replaceResults(chunk, batchSize);
+        });
+    }
+
+    private void replaceResults(List<ArticleData> articles, int batchSize) {
+        List<ArticleData> scored = new ArrayList<>(articles.size());
+        List<AnomalyMetricResult> rows = new ArrayList<>(articles.size() * 6);
+        for (ArticleData article : articles) {
+            if (article.getAnomalyResults() == null) {
+                continue;
+            }
+            scored.add(article);
+            for (AnomalyMetricResult row : article.getAnomalyResults()) {
+                row.setArticleId(article.getId());
+                rows.add(row);
+            }
+        }
+        jdbcTemplate.batchUpdate(DELETE_RESULTS_SQL, scored, batchSize,
+            (ps, article) -> ps.setLong(1, article.getId()));
+        jdbcTemplate.batchUpdate(INSERT_RESULT_SQL, rows, batchSize, (ps, row) -> {
+            ps.setLong(1, row.getArticleId());
+            ps.setInt(2, row.getPosition());
+            ps.setString(3, row.getMetric());
+            ps.setDouble(4, row.getValue());
+            ps.setDouble(5, row.getMean());
+            ps.setDouble(6, row.getStdDev());
+            ps.setDouble(7, row.getZScore());
+            ps.setDouble(8, row.getPercentile());
+            ps.setString(9, row.getDeviation());
+            ps.setString(10, row.getLevel());
+            setDouble(ps, 11, row.getWeight());
+            setDouble(ps, 12, row.getPercentileError());
+            setDouble(ps, 13, row.getZScoreError());
+            setDouble(ps, 14, row.getQ1());
+            setDouble(ps, 15, row.getQ3());
+        });
+    }
+
+    /**
+     * 按文章ID读取已存的各指标明细行，每篇文章的行按报告中的顺序排列；没有明细行的文章不在结果中
+     */
+    public Map<Long, List<AnomalyMetricResult>> findResultsByArticleIds(long[] ids) {
+        Map<Long, List<AnomalyMetricResult>> result = new HashMap<>();
+        int chunkSize = Math.max(1, ingestConfig.getChunkSize());
+        for (int from = 0; from < ids.length; from += chunkSize) {
+            int to = Math.min(from + chunkSize, ids.length);
+            Object[] args = new Object[to - from];
+            for (int i = from; i < to; i++) {
+                args[i - from] = ids[i];
+            }
+            String sql = "SELECT * FROM anomaly_metric_result WHERE article_id IN (" +
+                String.join(",", Collections.nCopies(args.length, "?")) + ") ORDER BY article_id, metric_index";
+            jdbcTemplate.query(sql, (RowCallbackHandler) rs -> {
+                AnomalyMetricResult row = new AnomalyMetricResult();
+                row.setId(rs.getLong("id"));
+                row.setArticleId(rs.getLong("article_id"));
+                row.setPosition(rs.getInt("metric_index"));
+                row.setMetric(rs.getString("metric"));
+                row.setValue(rs.getDouble("metric_value"));
+                row.setMean(rs.getDouble("mean"));
+                row.setStdDev(rs.getDouble("std_dev"));
+                row.setZScore(rs.getDouble("z_score"));
+                row.setPercentile(rs.getDouble("percentile"));
+                row.setDeviation(rs.getString("deviation"));
+                row.setLevel(rs.getString("anomaly_level"));
+                row.setWeight(getDouble(rs, "weight"));
+                row.setPercentileError(getDouble(rs, "percentile_error"));
+                row.setZScoreError(getDouble(rs, "z_score_error"));
+                row.setQ1(getDouble(rs, "q1"));
+                row.setQ3(getDouble(rs, "q3"));
+                result.computeIfAbsent(row.getArticleId(), id -> new ArrayList<>()).add(row);
+            }, args);
+        }
+        return result;
+    }
+
+    /**
+     * 读取某个人群的评分指标，返回的文章只填充ID、发布时间和7天阅读量、互动量、好物访问
+     */
+    public List<ArticleData> findCohortMetrics(CohortKey cohort) {
+        StringBuilder sql = new StringBuilder("SELECT id, publish_time, read_count_7d, interaction_count_7d, product_visit_7d FROM article_data");
+        Object[] args = new Object[cohort.depth()];
+        for (int i = 0; i < cohort.depth(); i++) {
+            sql.append(i == 0 ? " WHERE " : " AND ").append(cohort.dimension(i).getColumn()).append(" = ?");
+            args[i] = cohort.value(i);
+        }
+
+        List<ArticleData> result = new ArrayList<>();
+        jdbcTemplate.query(sql.toString(), (RowCallbackHandler) rs -> {
+            ArticleData article = new ArticleData();
+            article.setId(rs.getLong("id"));
+            article.setPublishTime(rs.getObject("publish_time", LocalDateTime.class));
+            article.setReadCount7d(getLong(rs, "read_count_7d"));
+            article.setInteractionCount7d(getLong(rs, "interaction_count_7d"));
+            article.setProductVisit7d(getLong(rs, "product_visit_7d"));
+            result.add(article);
+        }, args);
+        return result;
+    }
+
+    /**
+     * 按ID顺序分页读取评分指标，返回的文章只填充ID和7天阅读量、互动量、好物访问；按主键范围翻页，用于全表重建基准
+     */
+    public List<ArticleData> findMetricRows(long afterId, int limit) {
+        String sql = "SELECT id, read_count_7d, interaction_count_7d, product_visit_7d FROM article_data " +
+            "WHERE id > ? ORDER BY id LIMIT ?";
+        List<ArticleData> result = new ArrayList<>(limit);
+        jdbcTemplate.query(sql, (RowCallbackHandler) rs -> {
+            ArticleData article = new ArticleData();
+            article.setId(rs.getLong("id"));
+            article.setReadCount7d(getLong(rs, "read_count_7d"));
+            article.setInteractionCount7d(getLong(rs, "interaction_count_7d"));
+            article.setProductVisit7d(getLong(rs, "product_visit_7d"));
+            result.add(article);
+        }, afterId, limit);
+        return result;
+    }
+
+    /**
+     * 按ID顺序分页读取重新评分需要的字段：人群维度、发布时间、7天指标和当前评分结果（状态、得分和结果指纹）
+     * 按主键范围翻页，每页一次短查询，不长时间占用连接
+     */
+    public List<ArticleData> findScoringRows(long afterId, int limit) {
+        String sql = SCORING_ROW_SQL + "WHERE id > ? ORDER BY id LIMIT ?";
+        List<ArticleData> result = new ArrayList<>(limit);
+        jdbcTemplate.query(sql, (RowCallbackHandler) rs -> result.add(mapScoringRow(rs)), afterId, limit);
+        return result;
+    }
+
+    /**
+     * 按ID读取重新评分需要的字段，每chunkSize个ID一次查询；不存在的ID跳过
+     */
+    public List<ArticleData> findScoringRowsByIds(long[] ids) {
+        List<ArticleData> result = new ArrayList<>(ids.length);
+        int chunkSize = Math.max(1, ingestConfig.getChunkSize());
+        for (int from = 0; from < ids.length; from += chunkSize) {
+            int to = Math.min(from + chunkSize, ids.length);
+            Object[] args = new Object[to - from];
+            for (int i = from; i < to; i++) {
+                args[i - from] = ids[i];
+            }
+            String sql = SCORING_ROW_SQL + "WHERE id IN (" + String.join(",", Collections.nCopies(args.length, "?")) + ")";
+            jdbcTemplate.query(sql, (RowCallbackHandler) rs -> result.add(mapScoringRow(rs)), args);
+        }
+        return result;
+    }
+
+    private static ArticleData mapScoringRow(ResultSet rs) throws SQLException {
+        ArticleData article = new ArticleData();
+        article.setId(rs.getLong("id"));
+        article.setPlatform(rs.getString("platform"));
+        article.setBrand(rs.getString("brand"));
+        article.setContentType(rs.getString("content_type"));
+        article.setPublishTime(rs.getObject("publish_time", LocalDateTime.class));
+        article.setReadCount7d(getLong(rs, "read_count_7d"));
+        article.setInteractionCount7d(getLong(rs, "interaction_count_7d"));
+        article.setProductVisit7d(getLong(rs, "product_visit_7d"));
+        article.setAnomalyStatus(rs.getString("anomaly_status"));
+        double score = rs.getDouble("anomaly_score");
+        article.setAnomalyScore(rs.wasNull() ? null : score);
+        article.setAnomalyHash(getLong(rs, "anomaly_hash"));
+        return article;
+    }
+
+    public long countArticles() {
+        Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM article_data", Long.class);
+        return count != null ? count : 0;
+    }
+
+    private void forEachChunk(List<ArticleData> articles, Consumer<List<ArticleData>> action) {
+        int chunkSize = Math.max(1, ingestConfig.getChunkSize());
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        for (int from = 0; from < articles.size(); from += chunkSize) {
+            List<ArticleData> chunk = articles.subList(from, Math.min(from + chunkSize, articles.size()));
+            transactionTemplate.executeWithoutResult(status -> action.accept(chunk));
+        }
+    }
+
+    private void assignGeneratedKeys(PreparedStatement ps, List<ArticleData> chunk, int from, int to) throws SQLException {
+        // 驱动返回的主键少于插入行数时直接失败，避免无ID的行在后续评分回写时才暴露为空指针
+        try (ResultSet keys = ps.getGeneratedKeys()) {
+            int index = from;
+            while (index < to && keys.next()) {
+                chunk.get(index++).setId(keys.getLong(1));
+            }
+            if (index < to || keys.next()) {
+                throw new SQLException("批量插入返回的自增主键数量与插入行数不一致，预期 " + (to - from) + " 个");
+            }
+        }
+    }
+
+    private void bindInsert(PreparedStatement ps, ArticleData a) throws SQLException {
+        ps.setString(1, a.getDataId());
+        ps.setString(2, a.getTitle());
+        ps.setString(3, a.getBrand());
+        ps.setObject(4, a.getPublishTime());
+        ps.setString(5, a.getArticleLink());
+        ps.setString(6, a.getContentType());
+        ps.setString(7, a.getPostType());
+        ps.setString(8, a.getMaterialSource());
+        ps.setString(9, a.getPlatform());
+        ps.setString(10, a.getStyleInfo());
+        setLong(ps, 11, a.getReadCount7d());
+        setLong(ps, 12, a.getReadCount14d());
+        setLong(ps, 13, a.getInteractionCount7d());
+        setLong(ps, 14, a.getInteractionCount14d());
+        setLong(ps, 15, a.getShareCount7d());
+        setLong(ps, 16, a.getShareCount14d());
+        setLong(ps, 17, a.getProductVisit7d());
+        setLong(ps, 18, a.getProductVisitCount());
+        setLong(ps, 19, a.getProductWant7d());
+        setLong(ps, 20, a.getProductWant14d());
+        ps.setString(21, a.getAnomalyStatus());
+        ps.setString(22, a.getAnomalyDetails());
+        setDouble(ps, 23, a.getAnomalyScore());
+        ps.setString(24, a.getContent());
+        ps.setString(25, a.getTitleAnalysis());
+        ps.setString(26, a.getContentAnalysis());
+        ps.setString(27, a.getCrawlStatus());
+        ps.setString(28, a.getCrawlError());
+        ps.setString(29, a.getOptimizationSuggestions());
+        ps.setString(30, a.getAiSuggestions());
+        ps.setString(31, a.getImagesInfo());
+        ps.setObject(32, a.getCreatedAt());
+        ps.setObject(33, a.getUpdatedAt());
+        ps.setString(34, a.getRowHash());
+    }
+
+    /**
+     * 已存在行的ID和指纹
+     */
+    public static class ExistingRow {
+        private final long id;
+        private final String rowHash;
+
+        public ExistingRow(long id, String rowHash) {
+            this.id = id;
+            this.rowHash = rowHash;
+        }
+
+        public long getId() { return id; }
+        public String getRowHash() { return rowHash; }
+    }
+
+    private static void setLong(PreparedStatement ps, int index, Long value) throws SQLException {
+        if (value != null) {
+            ps.setLong(index, value);
+        } else {
+            ps.setNull(index, Types.BIGINT);
+        }
+    }
+
+    private static void setDouble(PreparedStatement ps, int index, Double value) throws SQLException {
+        if (value != null) {
+            ps.setDouble(index, value);
+        } else {
+            ps.setNull(index, Types.DOUBLE);
+        }
+    }
+
+    private static Long getLong(ResultSet rs, String column) throws SQLException {
+        long value = rs.getLong(column);
+        return rs.wasNull() ? null : value;
+    }
+
+    private static Double getDouble(ResultSet rs, String column) throws SQLException {
+        double value = rs.getDouble(column);
+        return rs.wasNull() ? null : value;
+    }
+}
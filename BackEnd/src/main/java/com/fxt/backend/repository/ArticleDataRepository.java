@@ -16,6 +16,11 @@ public interface ArticleDataRepository extends JpaRepository<ArticleData, Long>
     @Query("SELECT a FROM ArticleData a WHERE a.anomalyStatus IN ('GOOD_ANOMALY', 'BAD_ANOMALY')")
     List<ArticleData> findAnomalousArticles();
     
+    // 某个指标处于指定异常等级的文章，如互动率为SEVERE；按anomaly_metric_result中的明细行查询
+    @Query("SELECT a FROM ArticleData a WHERE a.id IN (SELECT r.articleId FROM AnomalyMetricResult r " +
+           "WHERE r.metric = :metric AND r.level = :level) ORDER BY a.anomalyScore DESC")
+    List<ArticleData> findByMetricLevel(@Param("metric") String metric, @Param("level") String level);
+    
     @Query("SELECT AVG(a.readCount7d) FROM ArticleData a WHERE a.readCount7d IS NOT NULL")
     Double getAverageReadCount7d();
     
@@ -0,0 +1,16 @@
+package com.fxt.backend.repository;
+
+import com.fxt.backend.entity.BaselineSketch;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface BaselineSketchRepository extends JpaRepository<BaselineSketch, Long> {
+    
+    List<BaselineSketch> findByScope(String scope);
+    
+    Optional<BaselineSketch> findByScopeAndMetric(String scope, String metric);
+}
@@ -0,0 +1,138 @@
+package com.fxt.backend.scoring;
+
+import com.fxt.backend.dto.StatisticsContext;
+import com.fxt.backend.entity.ArticleData;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * 按人群划分的评分基准
+ * 每篇文章与所属人群比较；人群的有效文章数不足minSize时逐级回退到父人群，最终回退到全部数据
+ * 各人群的统计在首次用到时计算并保留，同一个实例可以在评分线程之间共享；
+ * 配置了离群模型训练时，每个人群另有一个按需训练、同样保留的离群模型；
+ * 配置了滚动窗口时，每个人群另建一个按发布日期的索引，文章与所属人群中发布日前N天（含当天）的文章比较，
+ * 窗口内有效文章不足minSize时退回整个人群
+ */
+public final class CohortBaseline {
+
+    // 有效文章少于3篇时AdvancedAnomalyDetectionService只能做简化分析，人群至少要达到这个规模
+    private static final int MIN_COHORT_SIZE = 3;
+
+    private final List<CohortDimension> dimensions;
+    private final int minSize;
+    private final Function<CohortKey, StatisticsContext> loader;
+    private final Map<CohortKey, StatisticsContext> contexts = new ConcurrentHashMap<>();
+    // 未启用多维离群检测时为null
+    private Function<CohortKey, OutlierModel> outlierLoader;
+    private final Map<CohortKey, Optional<OutlierModel>> outlierModels = new ConcurrentHashMap<>();
+    // 未启用滚动窗口时为null
+    private Function<CohortKey, TimeWindowIndex> windowLoader;
+    private final Map<CohortKey, TimeWindowIndex> windowIndexes = new ConcurrentHashMap<>();
+
+    public CohortBaseline(List<CohortDimension> dimensions, int minSize, Function<CohortKey, StatisticsContext> loader) {
+        this.dimensions = dimensions;
+        this.minSize = Math.max(MIN_COHORT_SIZE, minSize);
+        this.loader = loader;
+    }
+
+    /**
+     * 不分人群，所有文章共用一个基准
+     */
+    public static CohortBaseline global(StatisticsContext context) {
+        return new CohortBaseline(Collections.emptyList(), 0, key -> context);
+    }
+
+    /**
+     * 以一批文章（例如本次上传的全部行）为基准，按人群分组统计
+     * @param windowDays     滚动窗口天数，0为不分窗口
+     * @param outlierTrainer 用人群的文章训练离群模型，为null时不做多维离群检测
+     */
+    public static CohortBaseline of(List<ArticleData> articles, List<CohortDimension> dimensions, int minSize,
+                                    int windowDays, Function<List<ArticleData>, OutlierModel> outlierTrainer) {
+        Map<CohortKey, List<ArticleData>> groups = new HashMap<>();
+        for (ArticleData article : articles) {
+            CohortKey key = CohortKey.of(dimensions, article);
+            while (!key.isGlobal()) {
+                groups.computeIfAbsent(key, k -> new ArrayList<>()).add(article);
+                key = key.parent();
+            }
+        }
+        Function<CohortKey, List<ArticleData>> members = key -> key.isGlobal()
+            ? articles : groups.getOrDefault(key, Collections.emptyList());
+
+        CohortBaseline baseline = new CohortBaseline(dimensions, minSize, key -> StatisticsContext.of(members.apply(key)));
+        if (outlierTrainer != null) {
+            baseline.withOutlierModels(key -> outlierTrainer.apply(members.apply(key)));
+        }
+        if (windowDays > 0) {
+            baseline.withTimeWindow(key -> TimeWindowIndex.of(members.apply(key), windowDays));
+        }
+        return baseline;
+    }
+
+    /**
+     * 启用多维离群检测，loader按人群训练（或从缓存取出）模型，可以返回null
+     */
+    public CohortBaseline withOutlierModels(Function<CohortKey, OutlierModel> loader) {
+        this.outlierLoader = loader;
+        return this;
+    }
+
+    /**
+     * 启用滚动窗口，loader按人群构建（或从缓存取出）发布日期索引
+     */
+    public CohortBaseline withTimeWindow(Function<CohortKey, TimeWindowIndex> loader) {
+        this.windowLoader = loader;
+        return this;
+    }
+
+    /**
+     * 文章实际使用的基准人群：从最细人群往上第一个有效文章数达到minSize的人群
+     */
+    public CohortKey resolve(ArticleData article) {
+        if (dimensions.isEmpty()) {
+            return CohortKey.GLOBAL;
+        }
+        CohortKey key = CohortKey.of(dimensions, article);
+        while (!key.isGlobal() && contextOf(key).getValidCount() < minSize) {
+            key = key.parent();
+        }
+        return key;
+    }
+
+    public StatisticsContext contextOf(CohortKey key) {
+        return contexts.computeIfAbsent(key, loader);
+    }
+
+    /**
+     * 人群中截至day（含）的滚动窗口基准；窗口内有效文章不足minSize时为整个人群的基准
+     */
+    public StatisticsContext windowContextOf(CohortKey key, LocalDate day) {
+        StatisticsContext window = windowIndexes.computeIfAbsent(key, windowLoader).contextAt(day);
+        return window.getValidCount() >= minSize ? window : contextOf(key);
+    }
+
+    public boolean isWindowed() {
+        return windowLoader != null;
+    }
+
+    /**
+     * 人群的离群模型；未启用或人群样本不足时为null
+     */
+    public OutlierModel outlierModelOf(CohortKey key) {
+        if (outlierLoader == null) {
+            return null;
+        }
+        return outlierModels.computeIfAbsent(key, k -> Optional.ofNullable(outlierLoader.apply(k))).orElse(null);
+    }
+
+    public boolean isGlobalOnly() {
+        return dimensions.isEmpty();
+    }
+
+    public List<CohortDimension> getDimensions() { return dimensions; }
+    public int getMinSize() { return minSize; }
+}
@@ -0,0 +1,61 @@
+package com.fxt.backend.scoring;
+
+import com.fxt.backend.entity.ArticleData;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * 划分评分基准人群的维度
+ */
+public enum CohortDimension {
+
+    PLATFORM("platform", "platform", ArticleData::getPlatform),
+    BRAND("brand", "brand", ArticleData::getBrand),
+    CONTENT_TYPE("contentType", "content_type", ArticleData::getContentType);
+
+    private final String key;
+    private final String column;
+    private final Function<ArticleData, String> accessor;
+
+    CohortDimension(String key, String column, Function<ArticleData, String> accessor) {
+        this.key = key;
+        this.column = column;
+        this.accessor = accessor;
+    }
+
+    public String valueOf(ArticleData article) {
+        return accessor.apply(article);
+    }
+
+    /**
+     * 解析配置中的人群键，如 "platform+brand"；空串表示不分人群
+     */
+    public static List<CohortDimension> parse(String spec) {
+        if (spec == null || spec.isBlank()) {
+            return Collections.emptyList();
+        }
+        List<CohortDimension> dimensions = new ArrayList<>();
+        for (String part : spec.split("\\+")) {
+            dimensions.add(fromKey(part.trim()));
+        }
+        if (dimensions.size() != dimensions.stream().distinct().count()) {
+            throw new IllegalArgumentException("人群键中有重复维度: " + spec);
+        }
+        return Collections.unmodifiableList(dimensions);
+    }
+
+    public static CohortDimension fromKey(String key) {
+        for (CohortDimension dimension : values()) {
+            if (dimension.key.equalsIgnoreCase(key) || dimension.name().equalsIgnoreCase(key)) {
+                return dimension;
+            }
+        }
+        throw new IllegalArgumentException("未知的人群维度: " + key);
+    }
+
+    public String getKey() { return key; }
+    public String getColumn() { return column; }
+}
@@ -0,0 +1,112 @@
+package com.fxt.backend.scoring;
+
+import com.fxt.backend.entity.ArticleData;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 评分基准人群：若干维度及其取值，例如 platform=得物/brand=耐克
+ * 去掉最后一个维度即父人群，逐级回退到不分人群的GLOBAL
+ */
+public final class CohortKey {
+
+    public static final CohortKey GLOBAL = new CohortKey(new CohortDimension[0], new String[0]);
+
+    private final CohortDimension[] dimensions;
+    private final String[] values;
+    private final int hash;
+
+    private CohortKey(CohortDimension[] dimensions, String[] values) {
+        this.dimensions = dimensions;
+        this.values = values;
+        this.hash = 31 * Arrays.hashCode(dimensions) + Arrays.hashCode(values);
+    }
+
+    /**
+     * 文章所属的最细人群；某个维度取值为空时停在它之前的维度
+     */
+    public static CohortKey of(List<CohortDimension> dimensions, ArticleData article) {
+        int depth = 0;
+        String[] values = new String[dimensions.size()];
+        for (CohortDimension dimension : dimensions) {
+            String value = dimension.valueOf(article);
+            if (value == null || value.isEmpty()) {
+                break;
+            }
+            values[depth++] = value;
+        }
+        if (depth == 0) {
+            return GLOBAL;
+        }
+        return new CohortKey(dimensions.subList(0, depth).toArray(new CohortDimension[0]), Arrays.copyOf(values, depth));
+    }
+
+    public CohortKey parent() {
+        if (isGlobal()) {
+            return GLOBAL;
+        }
+        int depth = dimensions.length - 1;
+        return depth == 0 ? GLOBAL : new CohortKey(Arrays.copyOf(dimensions, depth), Arrays.copyOf(values, depth));
+    }
+
+    /**
+     * 从自身到GLOBAL的各级人群
+     */
+    public List<CohortKey> lineage() {
+        List<CohortKey> lineage = new ArrayList<>(dimensions.length + 1);
+        CohortKey key = this;
+        lineage.add(key);
+        while (!key.isGlobal()) {
+            key = key.parent();
+            lineage.add(key);
+        }
+        return lineage;
+    }
+
+    public boolean isGlobal() {
+        return dimensions.length == 0;
+    }
+
+    public int depth() {
+        return dimensions.length;
+    }
+
+    public CohortDimension dimension(int index) {
+        return dimensions[index];
+    }
+
+    public String value(int index) {
+        return values[index];
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof CohortKey)) return false;
+        CohortKey other = (CohortKey) o;
+        return Arrays.equals(dimensions, other.dimensions) && Arrays.equals(values, other.values);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    /**
+     * 与BaselineStatisticsService的统计范围同名，GLOBAL为ALL
+     */
+    @Override
+    public String toString() {
+        if (isGlobal()) {
+            return "ALL";
+        }
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < dimensions.length; i++) {
+            if (i > 0) sb.append('/');
+            sb.append(dimensions[i].getKey()).append('=').append(values[i]);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,67 @@
+package com.fxt.backend.scoring;
+
+import com.fxt.backend.dto.StatisticsContext;
+import com.fxt.backend.entity.ArticleData;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 近似评分用的人群基准：逐篇加入文章，按人群（及其各级父人群、全部数据）累积StatisticsAccumulator，
+ * 不保留文章本身。每个人群每个指标只占一个KLL草图（约3k个double）和一组在线矩，
+ * 与人群大小无关；每篇文章的代价是常数，不需要对整个人群排序。
+ * 均值、标准差精确，百分位、中位数、MAD和四分位数为近似值，误差界随统计一起报告。
+ * 非线程安全，调用方负责同步
+ */
+public final class CohortSketches {
+
+    private final List<CohortDimension> dimensions;
+    private final int sketchK;
+    private final Map<CohortKey, StatisticsAccumulator> accumulators = new HashMap<>();
+
+    public CohortSketches(List<CohortDimension> dimensions, int sketchK) {
+        this.dimensions = dimensions;
+        this.sketchK = sketchK;
+    }
+
+    public void add(ArticleData article) {
+        CohortKey key = CohortKey.of(dimensions, article);
+        while (true) {
+            accumulators.computeIfAbsent(key, k -> new StatisticsAccumulator(sketchK)).add(article);
+            if (key.isGlobal()) {
+                break;
+            }
+            key = key.parent();
+        }
+    }
+
+    public void addAll(Iterable<ArticleData> articles) {
+        for (ArticleData article : articles) {
+            add(article);
+        }
+    }
+
+    /**
+     * 以当前累积的统计为基准；没有文章的人群为空基准，按CohortBaseline的规则回退到父人群
+     */
+    public CohortBaseline toBaseline(int minSize) {
+        Map<CohortKey, StatisticsContext> contexts = new HashMap<>();
+        accumulators.forEach((key, accumulator) -> contexts.put(key, accumulator.toContext()));
+        StatisticsContext empty = StatisticsContext.of(Collections.emptyList());
+        return new CohortBaseline(dimensions, minSize, key -> contexts.getOrDefault(key, empty));
+    }
+
+    /**
+     * 累积到全部数据中的有效文章数
+     */
+    public long getValidCount() {
+        StatisticsAccumulator global = accumulators.get(CohortKey.GLOBAL);
+        return global != null ? global.getValidCount() : 0;
+    }
+
+    public int getCohortCount() {
+        return accumulators.size();
+    }
+}
@@ -0,0 +1,60 @@
+package com.fxt.backend.scoring;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 低基数字段的字典
+ * 品牌、平台、内容类型等字段在整个数据集中通常只有几十个不同取值，
+ * 每个取值只保留一个String实例，几十万篇文章共享同一批对象，不再各自持有一份副本；
+ * 相同取值是同一个对象，String.equals在引用相同时直接返回，哈希值也只计算一次，比较和分组走同一条路径。
+ * 实体的setter需要直接访问，因此是静态实例；每个字段最多maxSize个取值，超出后新取值不再共享，原样保留
+ */
+public final class FieldDictionary {
+
+    // 每个字段的取值上限
+    static final int DEFAULT_MAX_SIZE = 4096;
+
+    public static final FieldDictionary BRAND = new FieldDictionary(DEFAULT_MAX_SIZE);
+    public static final FieldDictionary PLATFORM = new FieldDictionary(DEFAULT_MAX_SIZE, "得物", "小红书", "未知平台");
+    public static final FieldDictionary CONTENT_TYPE = new FieldDictionary(DEFAULT_MAX_SIZE);
+    public static final FieldDictionary POST_TYPE = new FieldDictionary(DEFAULT_MAX_SIZE);
+    public static final FieldDictionary MATERIAL_SOURCE = new FieldDictionary(DEFAULT_MAX_SIZE);
+    public static final FieldDictionary ANOMALY_STATUS = new FieldDictionary(DEFAULT_MAX_SIZE, "NORMAL", "GOOD_ANOMALY", "BAD_ANOMALY");
+
+    private final int maxSize;
+    private final ConcurrentHashMap<String, String> values = new ConcurrentHashMap<>();
+
+    FieldDictionary(int maxSize, String... predefined) {
+        this.maxSize = maxSize;
+        for (String value : predefined) {
+            intern(value);
+        }
+    }
+
+    /**
+     * 返回字典中的规范实例，相同内容的字符串共享同一个对象；null和字典已满后的新取值原样返回
+     */
+    public String intern(String value) {
+        if (value == null) {
+            return null;
+        }
+        String canonical = values.get(value);
+        if (canonical != null) {
+            return canonical;
+        }
+        synchronized (this) {
+            if (values.size() >= maxSize) {
+                return values.getOrDefault(value, value);
+            }
+            canonical = values.putIfAbsent(value, value);
+            return canonical != null ? canonical : value;
+        }
+    }
+
+    /**
+     * 当前共享的取值数量
+     */
+    public int size() {
+        return values.size();
+    }
+}
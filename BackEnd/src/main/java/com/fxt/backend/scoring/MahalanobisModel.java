@@ -0,0 +1,152 @@
+package com.fxt.backend.scoring;
+
+import com.fxt.backend.dto.MetricStatistics;
+
+/**
+ * 马氏距离离群检测
+ * 用人群的均值向量和协方差矩阵衡量一篇文章的指标组合偏离人群的程度：D² = (x-μ)ᵀ Σ⁻¹ (x-μ)。
+ * 与逐项Z分数不同，它考虑指标之间的相关性，阅读量、访问量都正常但互动与阅读的搭配反常的文章也会被发现。
+ *
+ * 均值和协方差由RunningCovariance一次扫描累积；训练时对协方差做一次Cholesky分解 Σ = LLᵀ 并缓存L，
+ * 评分只需解一个下三角方程组 Ly = x-μ，D² = |y|²，单篇 O(d²)，与人群大小无关。
+ * 指标服从多元正态时 D² 服从自由度为d的卡方分布，异常等级按卡方分布的高分位数判定
+ */
+public final class MahalanobisModel implements OutlierModel {
+
+    // 各等级对应的卡方分布上尾概率的标准正态分位数：1%、0.1%、0.01%
+    private static final double MILD_Z = 2.326;
+    private static final double MODERATE_Z = 3.090;
+    private static final double SEVERE_Z = 3.719;
+    // 协方差对角线的相对岭，避免某维恒定（例如全部为0的转化率）时矩阵奇异
+    private static final double RIDGE = 1e-6;
+    // 训练后用于估计得分分布的最大样本数
+    private static final int SCORE_SAMPLE_LIMIT = 2048;
+
+    private final int dimensions;
+    private final double[] mean;
+    // Cholesky因子L，下三角按行平铺
+    private final double[] factor;
+    private final int trainingSize;
+    private final double mildThreshold;
+    private final double moderateThreshold;
+    private final double severeThreshold;
+    private final MetricStatistics scoreStatistics;
+
+    private MahalanobisModel(RunningCovariance moments, double[][] points) {
+        this.dimensions = moments.getDimensions();
+        this.mean = moments.getMean();
+        this.factor = cholesky(regularize(moments.getCovariance()), dimensions);
+        this.trainingSize = (int) moments.getCount();
+        this.mildThreshold = chiSquareQuantile(dimensions, MILD_Z);
+        this.moderateThreshold = chiSquareQuantile(dimensions, MODERATE_Z);
+        this.severeThreshold = chiSquareQuantile(dimensions, SEVERE_Z);
+
+        int step = Math.max(1, points.length / SCORE_SAMPLE_LIMIT);
+        double[] scores = new double[(points.length + step - 1) / step];
+        for (int i = 0, n = 0; i < points.length; i += step) {
+            scores[n++] = score(points[i]);
+        }
+        this.scoreStatistics = new MetricStatistics(scores);
+    }
+
+    /**
+     * @param points 训练数据，每行一个指标向量，至少两行
+     */
+    public static MahalanobisModel train(double[][] points) {
+        if (points.length < 2) {
+            throw new IllegalArgumentException("训练数据不足");
+        }
+        RunningCovariance moments = new RunningCovariance(points[0].length);
+        for (double[] point : points) {
+            moments.add(point);
+        }
+        return new MahalanobisModel(moments, points);
+    }
+
+    @Override
+    public String getName() {
+        return "指标组合偏离度";
+    }
+
+    /**
+     * 马氏距离的平方 D²
+     */
+    @Override
+    public double score(double[] point) {
+        double total = 0;
+        double[] y = new double[dimensions];
+        for (int i = 0; i < dimensions; i++) {
+            double sum = point[i] - mean[i];
+            int row = i * (i + 1) / 2;
+            for (int k = 0; k < i; k++) {
+                sum -= factor[row + k] * y[k];
+            }
+            y[i] = sum / factor[row + i];
+            total += y[i] * y[i];
+        }
+        return total;
+    }
+
+    @Override
+    public String levelOf(double score) {
+        if (score >= severeThreshold) return "SEVERE";
+        if (score >= moderateThreshold) return "MODERATE";
+        if (score >= mildThreshold) return "MILD";
+        return "NORMAL";
+    }
+
+    @Override
+    public MetricStatistics getScoreStatistics() {
+        return scoreStatistics;
+    }
+
+    @Override
+    public int getTrainingSize() {
+        return trainingSize;
+    }
+
+    private static double[][] regularize(double[][] covariance) {
+        int d = covariance.length;
+        double trace = 0;
+        for (int i = 0; i < d; i++) {
+            trace += covariance[i][i];
+        }
+        double ridge = RIDGE * Math.max(trace / d, 1e-12);
+        for (int i = 0; i < d; i++) {
+            covariance[i][i] += ridge;
+        }
+        return covariance;
+    }
+
+    /**
+     * Cholesky分解，返回按行平铺的下三角因子；加岭后矩阵正定，对角元恒为正
+     */
+    static double[] cholesky(double[][] a, int d) {
+        double[] l = new double[d * (d + 1) / 2];
+        for (int i = 0; i < d; i++) {
+            int rowI = i * (i + 1) / 2;
+            for (int j = 0; j <= i; j++) {
+                int rowJ = j * (j + 1) / 2;
+                double sum = a[i][j];
+                for (int k = 0; k < j; k++) {
+                    sum -= l[rowI + k] * l[rowJ + k];
+                }
+                if (i == j) {
+                    l[rowI + i] = Math.sqrt(Math.max(sum, Double.MIN_NORMAL));
+                } else {
+                    l[rowI + j] = sum / l[rowJ + j];
+                }
+            }
+        }
+        return l;
+    }
+
+    /**
+     * 卡方分布上尾分位数的Wilson–Hilferty近似：χ² ≈ k·(1 - 2/(9k) + z·√(2/(9k)))³
+     */
+    static double chiSquareQuantile(int k, double z) {
+        double c = 2.0 / (9.0 * k);
+        double base = 1 - c + z * Math.sqrt(c);
+        return k * base * base * base;
+    }
+}
@@ -0,0 +1,58 @@
+package com.fxt.backend.scoring;
+
+import com.fxt.backend.dto.MetricStatistics;
+
+/**
+ * 单个指标的增量统计：均值和方差用Welford算法精确维护，分位数相关的统计量由KLL草图近似
+ * 每加入一个值均摊O(1)，可以合并，可以序列化后持久化
+ */
+public final class MetricAccumulator {
+
+    private final RunningMoments moments;
+    private final KllSketch sketch;
+
+    public MetricAccumulator() {
+        this(new RunningMoments(), new KllSketch());
+    }
+
+    /**
+     * @param sketchK 草图的k，越大越精确，空间约3k个double
+     */
+    public MetricAccumulator(int sketchK) {
+        this(new RunningMoments(), new KllSketch(sketchK));
+    }
+
+    public MetricAccumulator(RunningMoments moments, KllSketch sketch) {
+        this.moments = moments;
+        this.sketch = sketch;
+    }
+
+    public void add(double value) {
+        moments.add(value);
+        sketch.add(value);
+    }
+
+    public void merge(MetricAccumulator other) {
+        moments.merge(other.moments);
+        sketch.merge(other.sketch);
+    }
+
+    /**
+     * 当前状态的只读统计，供评分使用
+     */
+    public MetricStatistics snapshot() {
+        if (moments.getCount() == 0) {
+            return MetricStatistics.empty();
+        }
+        KllSketch.SortedView view = sketch.sortedView();
+        return MetricStatistics.fromWeighted(view.getValues(), view.getWeights(), moments.getMean(), moments.getStdDev(),
+            sketch.getNormalizedRankError());
+    }
+
+    public long getCount() {
+        return moments.getCount();
+    }
+
+    public RunningMoments getMoments() { return moments; }
+    public KllSketch getSketch() { return sketch; }
+}
@@ -0,0 +1,73 @@
+package com.fxt.backend.scoring;
+
+import com.fxt.backend.entity.ArticleData;
+
+import java.util.List;
+
+/**
+ * 待评分文章的列式快照
+ * 每个指标一列连续的基本类型数组，评分内核按列顺序扫描，不再逐篇拆箱Long；
+ * 取值规则与单篇评分一致：计数为null按0计，阅读量不大于0或分子为null时比例按0计
+ */
+public final class MetricColumns {
+
+    private final int size;
+    private final long[] readCount7d;
+    private final long[] interactionCount7d;
+    private final long[] productVisit7d;
+    // 按ScoringMetric顺序排列的double列，计数列由上面的long列转换而来
+    private final double[][] values;
+
+    private MetricColumns(int size) {
+        this.size = size;
+        this.readCount7d = new long[size];
+        this.interactionCount7d = new long[size];
+        this.productVisit7d = new long[size];
+        this.values = new double[ScoringMetric.all().length][size];
+    }
+
+    public static MetricColumns of(List<ArticleData> articles) {
+        MetricColumns columns = new MetricColumns(articles.size());
+        double[] read = columns.values[ScoringMetric.READ_7D.ordinal()];
+        double[] interaction = columns.values[ScoringMetric.INTERACTION_7D.ordinal()];
+        double[] visit = columns.values[ScoringMetric.PRODUCT_VISIT_7D.ordinal()];
+        double[] interactionRate = columns.values[ScoringMetric.INTERACTION_RATE.ordinal()];
+        double[] conversionRate = columns.values[ScoringMetric.CONVERSION_RATE.ordinal()];
+
+        for (int i = 0; i < columns.size; i++) {
+            ArticleData article = articles.get(i);
+            Long readCount = article.getReadCount7d();
+            Long interactionCount = article.getInteractionCount7d();
+            Long visitCount = article.getProductVisit7d();
+
+            columns.readCount7d[i] = readCount != null ? readCount : 0;
+            columns.interactionCount7d[i] = interactionCount != null ? interactionCount : 0;
+            columns.productVisit7d[i] = visitCount != null ? visitCount : 0;
+
+            read[i] = columns.readCount7d[i];
+            interaction[i] = columns.interactionCount7d[i];
+            visit[i] = columns.productVisit7d[i];
+            if (readCount != null && readCount > 0) {
+                if (interactionCount != null) {
+                    interactionRate[i] = (double) interactionCount / readCount * 100;
+                }
+                if (visitCount != null) {
+                    conversionRate[i] = (double) visitCount / readCount * 100;
+                }
+            }
+        }
+        return columns;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public double[] values(ScoringMetric metric) {
+        return values[metric.ordinal()];
+    }
+
+    public long[] getReadCount7d() { return readCount7d; }
+    public long[] getInteractionCount7d() { return interactionCount7d; }
+    public long[] getProductVisit7d() { return productVisit7d; }
+}
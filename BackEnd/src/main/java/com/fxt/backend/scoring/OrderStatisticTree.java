@@ -0,0 +1,196 @@
+package com.fxt.backend.scoring;
+
+import com.fxt.backend.dto.MetricStatistics;
+
+/**
+ * 可增删的有序多重集合（树堆），每个节点是一个不同的取值及其出现次数，并记录子树内的取值总数
+ * 插入、删除、"不大于x的个数"、"第k小"都是期望 O(log n)，不需要重新排序。
+ * 节点不可变，插入和删除只复制根到目标节点路径上的 O(log n) 个节点，其余子树与旧版本共享；
+ * 因此snapshot()只需记下当前的根，O(1)，快照之后的增删不影响它，评分线程可以不加锁地读取快照。
+ * 节点的优先级由取值的哈希决定，同一个集合不论增删顺序得到同样的树形，便于复现。
+ * 快照可在线程间共享；同一个实例的增删非线程安全
+ */
+public final class OrderStatisticTree implements MetricStatistics.RankSource {
+
+    private Node root;
+
+    public OrderStatisticTree() {
+    }
+
+    private OrderStatisticTree(Node root) {
+        this.root = root;
+    }
+
+    /**
+     * 加入一个取值，NaN忽略
+     */
+    public void insert(double value) {
+        if (Double.isNaN(value)) {
+            return;
+        }
+        root = insert(root, value == 0 ? 0.0 : value);
+    }
+
+    /**
+     * 删除一个取值（重复的只删一个）
+     * @return 集合中是否有该取值
+     */
+    public boolean remove(double value) {
+        if (Double.isNaN(value)) {
+            return false;
+        }
+        Node updated = remove(root, value == 0 ? 0.0 : value);
+        // 没找到时沿途不复制任何节点，返回原来的根
+        if (updated == root) {
+            return false;
+        }
+        root = updated;
+        return true;
+    }
+
+    /**
+     * 当前集合的只读快照，O(1)
+     */
+    public OrderStatisticTree snapshot() {
+        return new OrderStatisticTree(root);
+    }
+
+    @Override
+    public long count() {
+        return size(root);
+    }
+
+    @Override
+    public long rankAtMost(double value) {
+        long rank = 0;
+        Node node = root;
+        while (node != null) {
+            if (value < node.key) {
+                node = node.left;
+            } else {
+                rank += size(node.left) + node.multiplicity;
+                node = node.right;
+            }
+        }
+        return rank;
+    }
+
+    @Override
+    public double valueAtRank(long k) {
+        if (k < 1 || k > count()) {
+            throw new IndexOutOfBoundsException("秩超出范围: " + k + "/" + count());
+        }
+        Node node = root;
+        while (true) {
+            long leftSize = size(node.left);
+            if (k <= leftSize) {
+                node = node.left;
+            } else if (k <= leftSize + node.multiplicity) {
+                return node.key;
+            } else {
+                k -= leftSize + node.multiplicity;
+                node = node.right;
+            }
+        }
+    }
+
+    // ==================== 树堆操作 ====================
+
+    private static Node insert(Node node, double value) {
+        if (node == null) {
+            return new Node(value, priorityOf(value), null, null, 1);
+        }
+        if (value == node.key) {
+            return node.withMultiplicity(node.multiplicity + 1);
+        }
+        if (value < node.key) {
+            Node child = insert(node.left, value);
+            if (child.priority > node.priority) {
+                // 右旋：新插入的节点升到当前位置
+                return child.withChildren(child.left, node.withChildren(child.right, node.right));
+            }
+            return node.withChildren(child, node.right);
+        }
+        Node child = insert(node.right, value);
+        if (child.priority > node.priority) {
+            return child.withChildren(node.withChildren(node.left, child.left), child.right);
+        }
+        return node.withChildren(node.left, child);
+    }
+
+    private static Node remove(Node node, double value) {
+        if (node == null) {
+            return null;
+        }
+        if (value < node.key) {
+            Node child = remove(node.left, value);
+            return child == node.left ? node : node.withChildren(child, node.right);
+        }
+        if (value > node.key) {
+            Node child = remove(node.right, value);
+            return child == node.right ? node : node.withChildren(node.left, child);
+        }
+        if (node.multiplicity > 1) {
+            return node.withMultiplicity(node.multiplicity - 1);
+        }
+        return merge(node.left, node.right);
+    }
+
+    /**
+     * 合并两棵子树，left中的取值都小于right中的取值
+     */
+    private static Node merge(Node left, Node right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            return left.withChildren(left.left, merge(left.right, right));
+        }
+        return right.withChildren(merge(left, right.left), right.right);
+    }
+
+    private static long size(Node node) {
+        return node == null ? 0 : node.size;
+    }
+
+    /**
+     * 取值的SplitMix64哈希作为优先级
+     */
+    private static int priorityOf(double value) {
+        long z = Double.doubleToLongBits(value) + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return (int) (z ^ (z >>> 31));
+    }
+
+    private static final class Node {
+        final double key;
+        final int priority;
+        final Node left;
+        final Node right;
+        // 该取值出现的次数
+        final long multiplicity;
+        // 子树内的取值总数（含重复）
+        final long size;
+
+        Node(double key, int priority, Node left, Node right, long multiplicity) {
+            this.key = key;
+            this.priority = priority;
+            this.left = left;
+            this.right = right;
+            this.multiplicity = multiplicity;
+            this.size = size(left) + size(right) + multiplicity;
+        }
+
+        Node withChildren(Node left, Node right) {
+            return new Node(key, priority, left, right, multiplicity);
+        }
+
+        Node withMultiplicity(long multiplicity) {
+            return new Node(key, priority, left, right, multiplicity);
+        }
+    }
+}
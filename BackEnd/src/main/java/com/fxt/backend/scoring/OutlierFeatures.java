@@ -0,0 +1,42 @@
+package com.fxt.backend.scoring;
+
+import com.fxt.backend.entity.ArticleData;
+
+import java.util.List;
+
+/**
+ * 多维离群检测使用的指标向量
+ * 计数取log1p压缩长尾，比例用 分子/(阅读量+1) 避免阅读量为0时无定义；空值按0计
+ */
+public final class OutlierFeatures {
+
+    public static final int DIMENSIONS = 5;
+
+    private OutlierFeatures() {
+    }
+
+    public static double[] of(ArticleData article) {
+        double read = valueOf(article.getReadCount7d());
+        double interaction = valueOf(article.getInteractionCount7d());
+        double visit = valueOf(article.getProductVisit7d());
+        return new double[] {
+            Math.log1p(read),
+            Math.log1p(interaction),
+            Math.log1p(visit),
+            interaction / (read + 1),
+            visit / (read + 1)
+        };
+    }
+
+    public static double[][] of(List<ArticleData> articles) {
+        double[][] points = new double[articles.size()][];
+        for (int i = 0; i < points.length; i++) {
+            points[i] = of(articles.get(i));
+        }
+        return points;
+    }
+
+    private static double valueOf(Long value) {
+        return value != null && value > 0 ? value : 0;
+    }
+}
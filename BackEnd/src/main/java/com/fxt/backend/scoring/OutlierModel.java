@@ -0,0 +1,32 @@
+package com.fxt.backend.scoring;
+
+import com.fxt.backend.dto.MetricStatistics;
+
+/**
+ * 一个人群上训练好的多维离群检测模型，输入为OutlierFeatures的指标向量
+ * 训练后只读，可在评分线程之间共享
+ */
+public interface OutlierModel {
+
+    /**
+     * 报告中该项结果的名称
+     */
+    String getName();
+
+    /**
+     * 离群得分，越大越离群
+     */
+    double score(double[] point);
+
+    /**
+     * 得分对应的异常等级：SEVERE、MODERATE、MILD或NORMAL
+     */
+    String levelOf(double score);
+
+    /**
+     * 训练数据（抽样）上的得分分布，用于把单篇得分换算成百分位和Z分数
+     */
+    MetricStatistics getScoreStatistics();
+
+    int getTrainingSize();
+}
@@ -0,0 +1,143 @@
+package com.fxt.backend.scoring;
+
+import com.fxt.backend.dto.MetricStatistics;
+import com.fxt.backend.dto.StatisticsContext;
+import com.fxt.backend.entity.ArticleData;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 可随文章增删改实时更新的精确评分基准
+ * 每个指标一棵顺序统计树，另用Welford算法维护均值和方差；按文章ID记住已计入的取值，
+ * 文章被更新（重新导入、重新爬取）时先删旧值再加新值，每篇文章 O(log n)，不需要重新排序全量数据。
+ * 过滤规则与StatisticsContext.of相同，由此得到的中位数、MAD、四分位数和百分位与全量重算一致。
+ * 非线程安全，调用方负责同步
+ */
+public final class RankIndex {
+
+    private final OrderStatisticTree[] trees = new OrderStatisticTree[ScoringMetric.all().length];
+    private final RunningMoments[] moments = new RunningMoments[ScoringMetric.all().length];
+    // 文章ID → 各指标计入的取值（按ScoringMetric顺序，NaN表示该指标未计入）；阅读量无效的文章不记录
+    private final Map<Long, double[]> entries = new HashMap<>();
+
+    public RankIndex() {
+        for (int i = 0; i < trees.length; i++) {
+            trees[i] = new OrderStatisticTree();
+            moments[i] = new RunningMoments();
+        }
+    }
+
+    private RankIndex(RankIndex other) {
+        for (int i = 0; i < trees.length; i++) {
+            trees[i] = other.trees[i].snapshot();
+            moments[i] = RunningMoments.of(other.moments[i].getCount(), other.moments[i].getMean(),
+                other.moments[i].getM2(), other.moments[i].getMin(), other.moments[i].getMax());
+        }
+    }
+
+    /**
+     * 加入或更新一篇文章（需已有ID）
+     */
+    public void put(ArticleData article) {
+        if (article.getId() == null) {
+            throw new IllegalArgumentException("文章ID为空，无法计入排名索引");
+        }
+        remove(article.getId());
+        double[] values = valuesOf(article);
+        if (values == null) {
+            return;
+        }
+        for (int i = 0; i < values.length; i++) {
+            if (!Double.isNaN(values[i])) {
+                trees[i].insert(values[i]);
+                moments[i].add(values[i]);
+            }
+        }
+        entries.put(article.getId(), values);
+    }
+
+    /**
+     * 移除一篇文章之前计入的取值
+     */
+    public void remove(Long articleId) {
+        double[] values = entries.remove(articleId);
+        if (values == null) {
+            return;
+        }
+        for (int i = 0; i < values.length; i++) {
+            if (!Double.isNaN(values[i])) {
+                trees[i].remove(values[i]);
+                moments[i].remove(values[i]);
+            }
+        }
+    }
+
+    /**
+     * 某个取值在当前基准中的百分位，O(log n)
+     */
+    public double percentile(ScoringMetric metric, double value) {
+        OrderStatisticTree tree = trees[metric.ordinal()];
+        long count = tree.count();
+        return count == 0 ? 50 : (double) tree.rankAtMost(value) / count * 100;
+    }
+
+    /**
+     * 当前状态的评分基准；各指标的树取O(1)的快照（与索引共享未改动的节点），之后的增删不影响已生成的基准，
+     * 因此每次失效后重新取基准的开销与索引大小无关
+     */
+    public StatisticsContext toContext() {
+        RankIndex snapshot = new RankIndex(this);
+        return new StatisticsContext((int) Math.min(Integer.MAX_VALUE, getValidCount()),
+            snapshot.statistics(ScoringMetric.READ_7D),
+            snapshot.statistics(ScoringMetric.INTERACTION_7D),
+            snapshot.statistics(ScoringMetric.PRODUCT_VISIT_7D),
+            snapshot.statistics(ScoringMetric.INTERACTION_RATE),
+            snapshot.statistics(ScoringMetric.CONVERSION_RATE));
+    }
+
+    /**
+     * 有效文章数，即计入了阅读量的文章数
+     */
+    public long getValidCount() {
+        return entries.size();
+    }
+
+    public long getCount(ScoringMetric metric) {
+        return trees[metric.ordinal()].count();
+    }
+
+    private MetricStatistics statistics(ScoringMetric metric) {
+        RunningMoments m = moments[metric.ordinal()];
+        return MetricStatistics.fromRankSource(trees[metric.ordinal()], m.getMean(), m.getStdDev());
+    }
+
+    private static double[] valuesOf(ArticleData article) {
+        Long read = article.getReadCount7d();
+        if (read == null || read < 0) {
+            return null;
+        }
+        double[] values = new double[ScoringMetric.all().length];
+        Arrays.fill(values, Double.NaN);
+        values[ScoringMetric.READ_7D.ordinal()] = read;
+
+        Long interaction = article.getInteractionCount7d();
+        if (interaction != null && interaction >= 0) {
+            values[ScoringMetric.INTERACTION_7D.ordinal()] = interaction;
+        }
+        Long visit = article.getProductVisit7d();
+        if (visit != null && visit >= 0) {
+            values[ScoringMetric.PRODUCT_VISIT_7D.ordinal()] = visit;
+        }
+        if (read > StatisticsContext.RATE_MIN_READ_COUNT) {
+            if (interaction != null) {
+                values[ScoringMetric.INTERACTION_RATE.ordinal()] = (double) interaction / read * 100;
+            }
+            if (visit != null) {
+                values[ScoringMetric.CONVERSION_RATE.ordinal()] = (double) visit / read * 100;
+            }
+        }
+        return values;
+    }
+}
@@ -0,0 +1,64 @@
+package com.fxt.backend.scoring;
+
+/**
+ * 在线均值向量和协方差矩阵（Welford算法的多维形式）
+ * 每加入一个向量O(d²)，不保存原始数据；对角线上的结果与各维单独用RunningMoments相同。
+ * 只用于MahalanobisModel训练时的一次扫描：人群失效后模型连同得分分布一起按该人群重新训练
+ */
+public final class RunningCovariance {
+
+    private final int dimensions;
+    private long count;
+    private final double[] mean;
+    // 离差乘积之和，只维护上三角（j >= i）
+    private final double[][] comoment;
+
+    public RunningCovariance(int dimensions) {
+        this.dimensions = dimensions;
+        this.mean = new double[dimensions];
+        this.comoment = new double[dimensions][dimensions];
+    }
+
+    public void add(double[] point) {
+        count++;
+        double[] delta = new double[dimensions];
+        for (int i = 0; i < dimensions; i++) {
+            delta[i] = point[i] - mean[i];
+            mean[i] += delta[i] / count;
+        }
+        for (int i = 0; i < dimensions; i++) {
+            for (int j = i; j < dimensions; j++) {
+                comoment[i][j] += delta[i] * (point[j] - mean[j]);
+            }
+        }
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public int getDimensions() {
+        return dimensions;
+    }
+
+    public double[] getMean() {
+        return mean.clone();
+    }
+
+    /**
+     * 样本协方差矩阵（除以n-1），不足两个向量时为零矩阵
+     */
+    public double[][] getCovariance() {
+        double[][] covariance = new double[dimensions][dimensions];
+        if (count < 2) {
+            return covariance;
+        }
+        for (int i = 0; i < dimensions; i++) {
+            for (int j = i; j < dimensions; j++) {
+                covariance[i][j] = comoment[i][j] / (count - 1);
+                covariance[j][i] = covariance[i][j];
+            }
+        }
+        return covariance;
+    }
+}
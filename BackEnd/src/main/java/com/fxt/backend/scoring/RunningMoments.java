@@ -0,0 +1,100 @@
+package com.fxt.backend.scoring;
+
+/**
+ * 在线均值和方差（Welford算法）
+ * 每加入一个值O(1)，不保存原始数据；两个实例可以合并（Chan等人的并行公式），
+ * 合并结果与把两批数据依次加入同一个实例在数学上相同
+ */
+public final class RunningMoments {
+
+    private long count;
+    private double mean;
+    // 与均值之差的平方和
+    private double m2;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    public RunningMoments() {
+    }
+
+    /**
+     * 从持久化的状态恢复
+     */
+    public static RunningMoments of(long count, double mean, double m2, double min, double max) {
+        RunningMoments moments = new RunningMoments();
+        if (count > 0) {
+            moments.count = count;
+            moments.mean = mean;
+            moments.m2 = m2;
+            moments.min = min;
+            moments.max = max;
+        }
+        return moments;
+    }
+
+    public void add(double value) {
+        count++;
+        double delta = value - mean;
+        mean += delta / count;
+        m2 += delta * (value - mean);
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    /**
+     * 移除一个之前加入过的值（Welford的逆运算）
+     * 最小值、最大值无法随之收缩，移除后只是取值范围的上下界
+     */
+    public void remove(double value) {
+        if (count <= 1) {
+            count = 0;
+            mean = 0;
+            m2 = 0;
+            min = Double.POSITIVE_INFINITY;
+            max = Double.NEGATIVE_INFINITY;
+            return;
+        }
+        double delta = value - mean;
+        count--;
+        mean -= delta / count;
+        m2 = Math.max(0, m2 - delta * (value - mean));
+    }
+
+    public void merge(RunningMoments other) {
+        if (other.count == 0) {
+            return;
+        }
+        if (count == 0) {
+            count = other.count;
+            mean = other.mean;
+            m2 = other.m2;
+            min = other.min;
+            max = other.max;
+            return;
+        }
+        long total = count + other.count;
+        double delta = other.mean - mean;
+        mean += delta * ((double) other.count / total);
+        m2 += other.m2 + delta * delta * ((double) count * other.count / total);
+        count = total;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    /**
+     * 总体方差，与MetricStatistics的精确计算口径一致（除以n而不是n-1）
+     */
+    public double getVariance() {
+        return count > 0 ? Math.max(0, m2 / count) : 0;
+    }
+
+    public double getStdDev() {
+        return Math.sqrt(getVariance());
+    }
+
+    public long getCount() { return count; }
+    public double getMean() { return count > 0 ? mean : 0; }
+    public double getM2() { return m2; }
+    public double getMin() { return count > 0 ? min : 0; }
+    public double getMax() { return count > 0 ? max : 0; }
+}
@@ -0,0 +1,59 @@
+package com.fxt.backend.scoring;
+
+import com.fxt.backend.dto.MetricStatistics;
+
+/**
+ * 标量评分内核，也是向量内核处理尾部元素时的参照实现
+ */
+public class ScalarScoringKernel implements ScoringKernel {
+
+    // MAD换算为标准差的系数
+    static final double ROBUST_FACTOR = 0.6745;
+    static final double MEAN_Z_WEIGHT = 0.6;
+    static final double ROBUST_Z_WEIGHT = 0.4;
+
+    @Override
+    public void scoreMetric(double[] values, double mean, double stdDev, double median, double mad, boolean robust,
+                            double[] percentiles, double weight, double[] zScores, double[] weighted) {
+        for (int i = 0; i < values.length; i++) {
+            double z = zScore(values[i], mean, stdDev, median, mad, robust);
+            zScores[i] = z;
+            weighted[i] += score(percentiles[i], z) * weight;
+        }
+    }
+
+    static double zScore(double value, double mean, double stdDev, double median, double mad, boolean robust) {
+        if (!robust) {
+            return stdDev > 0 ? (value - mean) / stdDev : 0;
+        }
+        double robustZScore = mad > 0 ? ROBUST_FACTOR * (value - median) / mad : 0;
+        return stdDev > 0 ? MEAN_Z_WEIGHT * ((value - mean) / stdDev) + ROBUST_Z_WEIGHT * robustZScore : robustZScore;
+    }
+
+    /**
+     * 基准为近似统计时Z分数的误差界：均值和标准差由在线算法精确维护，误差只来自稳健Z分数用到的中位数，
+     * 按中位数误差界换算；MAD同样取自草图，其相对误差与中位数同阶，这里不单独计入
+     */
+    public static double zScoreError(MetricStatistics stats, boolean robust) {
+        if (!robust || stats.getMad() <= 0) {
+            return 0;
+        }
+        double robustError = ROBUST_FACTOR * stats.getMedianError() / stats.getMad();
+        return stats.getStdDev() > 0 ? ROBUST_Z_WEIGHT * robustError : robustError;
+    }
+
+    /**
+     * 以百分位为基础，按Z分数微调，限制在0到100之间
+     */
+    static double score(double percentile, double zScore) {
+        if (zScore > 0) {
+            return Math.min(100, percentile + zScore * 2);
+        }
+        return Math.max(0, percentile + zScore * 2);
+    }
+
+    @Override
+    public String name() {
+        return "scalar";
+    }
+}
@@ -0,0 +1,95 @@
+package com.fxt.backend.scoring;
+
+import com.fxt.backend.dto.MetricStatistics;
+import com.fxt.backend.dto.StatisticsContext;
+
+import java.util.Arrays;
+
+/**
+ * 一批文章的评分结果，按列存放：每个指标一列Z分数和一列百分位，外加综合得分
+ */
+public final class ScoreColumns {
+
+    private static final double EMPTY_PERCENTILE = 50.0;
+
+    private final int size;
+    private final double[][] zScores;
+    private final double[][] percentiles;
+    private final double[] overallScores;
+
+    private ScoreColumns(int size) {
+        int metrics = ScoringMetric.all().length;
+        this.size = size;
+        this.zScores = new double[metrics][size];
+        this.percentiles = new double[metrics][size];
+        this.overallScores = new double[size];
+    }
+
+    /**
+     * 逐个指标：先二分查找百分位，再由内核一次扫描整列算出Z分数并累加加权得分，
+     * 最后除以总权重得到综合得分。没有基准数据的指标按Z分数0、百分位50计；权重取自评分方案
+     */
+    public static ScoreColumns compute(MetricColumns columns, StatisticsContext context, ScoringKernel kernel,
+                                       ScoringProfile profile) {
+        ScoreColumns scores = new ScoreColumns(columns.size());
+        double[] weighted = scores.overallScores;
+
+        for (ScoringMetric metric : ScoringMetric.all()) {
+            MetricStatistics stats = metric.statisticsOf(context);
+            double[] percentile = scores.percentiles[metric.ordinal()];
+            double[] z = scores.zScores[metric.ordinal()];
+
+            if (stats.isEmpty()) {
+                Arrays.fill(percentile, EMPTY_PERCENTILE);
+                double emptyScore = ScalarScoringKernel.score(EMPTY_PERCENTILE, 0) * profile.weightOf(metric);
+                for (int i = 0; i < weighted.length; i++) {
+                    weighted[i] += emptyScore;
+                }
+                continue;
+            }
+
+            double[] values = columns.values(metric);
+            for (int i = 0; i < values.length; i++) {
+                percentile[i] = stats.calculatePercentile(values[i]);
+            }
+            kernel.scoreMetric(values, stats.getMean(), stats.getStdDev(), stats.getMedian(), stats.getMad(),
+                metric.isRobust(), percentile, profile.weightOf(metric), z, weighted);
+        }
+
+        double totalWeight = profile.totalWeight();
+        for (int i = 0; i < weighted.length; i++) {
+            weighted[i] = totalWeight > 0 ? weighted[i] / totalWeight : 50;
+        }
+        return scores;
+    }
+
+    /**
+     * 由已有的各指标百分位和Z分数（按ScoringMetric顺序）按评分方案的权重重新计算综合得分；
+     * 累加顺序和舍入与compute相同，基准不变、只换权重时结果与重新评分逐位一致
+     */
+    public static double overallScore(double[] percentiles, double[] zScores, ScoringProfile profile) {
+        double weighted = 0;
+        for (ScoringMetric metric : ScoringMetric.all()) {
+            int i = metric.ordinal();
+            weighted += ScalarScoringKernel.score(percentiles[i], zScores[i]) * profile.weightOf(metric);
+        }
+        double totalWeight = profile.totalWeight();
+        return totalWeight > 0 ? weighted / totalWeight : 50;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public double zScore(ScoringMetric metric, int index) {
+        return zScores[metric.ordinal()][index];
+    }
+
+    public double percentile(ScoringMetric metric, int index) {
+        return percentiles[metric.ordinal()][index];
+    }
+
+    public double overallScore(int index) {
+        return overallScores[index];
+    }
+}
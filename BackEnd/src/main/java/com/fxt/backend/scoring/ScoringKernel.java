@@ -0,0 +1,46 @@
+package com.fxt.backend.scoring;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 评分内核：对一列指标值一次性算出Z分数，并把该指标的加权得分累加到综合得分上
+ * 实现必须与单篇评分逐位一致：运算顺序相同，不使用FMA
+ */
+public interface ScoringKernel {
+
+    String VECTOR_KERNEL_CLASS = "com.fxt.backend.scoring.VectorScoringKernel";
+
+    /**
+     * @param values      指标值列
+     * @param mean        基准均值
+     * @param stdDev      基准标准差
+     * @param median      基准中位数（robust为false时忽略）
+     * @param mad         基准MAD（robust为false时忽略）
+     * @param robust      是否混合稳健Z分数
+     * @param percentiles 每篇文章在基准中的百分位
+     * @param weight      指标权重
+     * @param zScores     输出：每篇文章的Z分数
+     * @param weighted    输入输出：累加 得分×权重
+     */
+    void scoreMetric(double[] values, double mean, double stdDev, double median, double mad, boolean robust,
+                     double[] percentiles, double weight, double[] zScores, double[] weighted);
+
+    String name();
+
+    /**
+     * 开启向量化时尝试加载基于jdk.incubator.vector的内核（src/vector/java，只在 -Pvector 构建中存在），
+     * 未编译该内核或运行时没有 --add-modules jdk.incubator.vector 等原因加载失败则退回标量内核
+     */
+    static ScoringKernel create(boolean vectorEnabled) {
+        if (vectorEnabled) {
+            try {
+                return (ScoringKernel) Class.forName(VECTOR_KERNEL_CLASS).getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException | LinkageError e) {
+                Logger logger = LoggerFactory.getLogger(ScoringKernel.class);
+                logger.warn("向量化评分内核不可用（需要以 -Pvector 构建并以 --add-modules jdk.incubator.vector 启动），使用标量内核: {}", e.toString());
+            }
+        }
+        return new ScalarScoringKernel();
+    }
+}
@@ -0,0 +1,48 @@
+package com.fxt.backend.scoring;
+
+import com.fxt.backend.dto.MetricStatistics;
+import com.fxt.backend.dto.StatisticsContext;
+
+/**
+ * 参与综合评分的五个指标，声明顺序即报告中结果的顺序
+ */
+public enum ScoringMetric {
+
+    READ_7D("7天阅读量", 0.35, true),
+    INTERACTION_7D("7天互动量", 0.25, true),
+    INTERACTION_RATE("互动率", 0.20, false),
+    PRODUCT_VISIT_7D("7天好物访问", 0.12, true),
+    CONVERSION_RATE("好物转化率", 0.08, false);
+
+    private static final ScoringMetric[] VALUES = values();
+
+    private final String displayName;
+    private final double weight;
+    // 计数类指标的Z分数混合了均值Z分数和基于中位数/MAD的稳健Z分数，比例类指标只用均值Z分数
+    private final boolean robust;
+
+    ScoringMetric(String displayName, double weight, boolean robust) {
+        this.displayName = displayName;
+        this.weight = weight;
+        this.robust = robust;
+    }
+
+    public static ScoringMetric[] all() {
+        return VALUES;
+    }
+
+    public MetricStatistics statisticsOf(StatisticsContext context) {
+        switch (this) {
+            case READ_7D: return context.getReadCountStats();
+            case INTERACTION_7D: return context.getInteractionCountStats();
+            case INTERACTION_RATE: return context.getInteractionRateStats();
+            case PRODUCT_VISIT_7D: return context.getProductVisitStats();
+            case CONVERSION_RATE: return context.getConversionRateStats();
+            default: throw new IllegalStateException("未知指标: " + this);
+        }
+    }
+
+    public String getDisplayName() { return displayName; }
+    public double getWeight() { return weight; }
+    public boolean isRobust() { return robust; }
+}
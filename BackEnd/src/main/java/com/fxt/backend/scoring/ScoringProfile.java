@@ -0,0 +1,221 @@
+package com.fxt.backend.scoring;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * 评分方案：单项异常等级的阈值、各指标权重和综合状态的判定规则
+ * 默认值即原先写死在AdvancedAnomalyDetectionService中的常量，用默认方案评分的结果与原来完全相同。
+ * 可从JSON文件加载或通过接口提交，由ScoringProfileService分配递增的版本号后发布；
+ * 发布后的实例在评分线程之间共享，不应再修改
+ */
+public class ScoringProfile {
+
+    // 版本号，由ScoringProfileService在发布时分配
+    private long version;
+    private String description = "默认评分方案";
+
+    // 单项等级：|Z| 超过这些值分别判为严重、中度、轻微
+    private double severeZScore = 2.5;
+    private double moderateZScore = 1.8;
+    private double mildZScore = 1.2;
+
+    // 单项等级：高于平均时百分位达到这些值分别判为严重、中度、轻微
+    private double percentileExcellent = 85.0;
+    private double percentileGood = 70.0;
+    private double percentileAboveAverage = 60.0;
+
+    // 单项等级：低于平均时百分位不超过这些值分别判为严重、中度、轻微
+    private double percentileBad = 15.0;
+    private double percentilePoor = 30.0;
+    private double percentileBelowAverage = 40.0;
+
+    // 计数类指标的IQR离群判断：超出 [Q1 - k·IQR, Q3 + k·IQR] 且 |Z| 大于iqrMinZScore时至少判为轻微
+    private double iqrMultiplier = 1.5;
+    private double iqrMinZScore = 1.0;
+
+    // 各指标权重，缺省的指标取ScoringMetric中的默认权重
+    private Map<ScoringMetric, Double> weights = new EnumMap<>(ScoringMetric.class);
+
+    // 综合状态：同一方向的严重异常达到该数量直接判定
+    private int severeCountForStatus = 2;
+    // 综合状态：综合得分达到/不超过这些值直接判定
+    private double goodScore = 75;
+    private double badScore = 25;
+    // 综合状态：综合得分达到/不超过这些值且该方向异常项更多时判定
+    private double leaningGoodScore = 65;
+    private double leaningBadScore = 35;
+    // 综合状态：同一方向的异常项达到anomalyCountForStatus、反方向不超过maxOpposingAnomalies时判定
+    private int anomalyCountForStatus = 3;
+    private int maxOpposingAnomalies = 1;
+
+    public ScoringProfile() {
+        for (ScoringMetric metric : ScoringMetric.all()) {
+            weights.put(metric, metric.getWeight());
+        }
+    }
+
+    public static ScoringProfile defaults() {
+        return new ScoringProfile();
+    }
+
+    /**
+     * 检查阈值的大小顺序和权重，不合理时抛出IllegalArgumentException
+     */
+    public void validate() {
+        require(severeZScore >= moderateZScore && moderateZScore >= mildZScore && mildZScore >= 0,
+            "Z分数阈值应满足 severe >= moderate >= mild >= 0");
+        require(percentileExcellent >= percentileGood && percentileGood >= percentileAboveAverage,
+            "高于平均的百分位阈值应满足 excellent >= good >= aboveAverage");
+        require(percentileBad <= percentilePoor && percentilePoor <= percentileBelowAverage,
+            "低于平均的百分位阈值应满足 bad <= poor <= belowAverage");
+        require(iqrMultiplier >= 0, "iqrMultiplier不能为负");
+        require(badScore <= leaningBadScore && leaningBadScore <= leaningGoodScore && leaningGoodScore <= goodScore,
+            "综合得分阈值应满足 bad <= leaningBad <= leaningGood <= good");
+        require(severeCountForStatus >= 1 && anomalyCountForStatus >= 1 && maxOpposingAnomalies >= 0,
+            "异常项计数阈值不合法");
+        for (Double weight : weights.values()) {
+            require(weight != null && weight >= 0 && !weight.isInfinite(), "指标权重不能为负或为空");
+        }
+        require(totalWeight() > 0, "指标权重之和必须大于0");
+    }
+
+    /**
+     * 单项异常等级：高于平均时按百分位达到的档位或|Z|超过的阈值判定，低于平均时对称处理；
+     * 都不满足时，计数类指标的IQR离群且|Z|大于iqrMinZScore判为轻微
+     * @return SEVERE、MODERATE、MILD或NORMAL
+     */
+    public String levelOf(double zScore, boolean iqrOutlier, double percentile, boolean positive) {
+        double absZ = Math.abs(zScore);
+        if (positive) {
+            if (percentile >= percentileExcellent || absZ > severeZScore) return "SEVERE";
+            if (percentile >= percentileGood || absZ > moderateZScore) return "MODERATE";
+            if (percentile >= percentileAboveAverage || absZ > mildZScore) return "MILD";
+        } else {
+            if (percentile <= percentileBad || absZ > severeZScore) return "SEVERE";
+            if (percentile <= percentilePoor || absZ > moderateZScore) return "MODERATE";
+            if (percentile <= percentileBelowAverage || absZ > mildZScore) return "MILD";
+        }
+        if (iqrOutlier && absZ > iqrMinZScore) {
+            return "MILD";
+        }
+        return "NORMAL";
+    }
+
+    /**
+     * 综合状态：先看同一方向的严重异常数，再看综合得分，最后看各方向的异常项数
+     * @param score          综合得分
+     * @param positive       高于平均方向的异常项数
+     * @param negative       低于平均方向的异常项数
+     * @param severePositive 其中严重的高于平均项数
+     * @param severeNegative 其中严重的低于平均项数
+     * @return GOOD_ANOMALY、BAD_ANOMALY或NORMAL
+     */
+    public String overallStatusOf(double score, int positive, int negative, int severePositive, int severeNegative) {
+        if (severeNegative >= severeCountForStatus) return "BAD_ANOMALY";
+        if (severePositive >= severeCountForStatus) return "GOOD_ANOMALY";
+
+        if (score >= goodScore) return "GOOD_ANOMALY";
+        if (score <= badScore) return "BAD_ANOMALY";
+        if (score >= leaningGoodScore && positive > negative) return "GOOD_ANOMALY";
+        if (score <= leaningBadScore && negative > positive) return "BAD_ANOMALY";
+
+        if (negative >= anomalyCountForStatus && positive <= maxOpposingAnomalies) return "BAD_ANOMALY";
+        if (positive >= anomalyCountForStatus && negative <= maxOpposingAnomalies) return "GOOD_ANOMALY";
+        return "NORMAL";
+    }
+
+    public double weightOf(ScoringMetric metric) {
+        Double weight = weights.get(metric);
+        return weight != null ? weight : metric.getWeight();
+    }
+
+    /**
+     * 按结果顺序累加的权重之和
+     */
+    public double totalWeight() {
+        double total = 0;
+        for (ScoringMetric metric : ScoringMetric.all()) {
+            total += weightOf(metric);
+        }
+        return total;
+    }
+
+    private static void require(boolean condition, String message) {
+        if (!condition) {
+            throw new IllegalArgumentException("评分方案不合法: " + message);
+        }
+    }
+
+    // Getters and Setters
+    public long getVersion() { return version; }
+    public void setVersion(long version) { this.version = version; }
+
+    public String getDescription() { return description; }
+    public void setDescription(String description) { this.description = description; }
+
+    public double getSevereZScore() { return severeZScore; }
+    public void setSevereZScore(double severeZScore) { this.severeZScore = severeZScore; }
+
+    public double getModerateZScore() { return moderateZScore; }
+    public void setModerateZScore(double moderateZScore) { this.moderateZScore = moderateZScore; }
+
+    public double getMildZScore() { return mildZScore; }
+    public void setMildZScore(double mildZScore) { this.mildZScore = mildZScore; }
+
+    public double getPercentileExcellent() { return percentileExcellent; }
+    public void setPercentileExcellent(double percentileExcellent) { this.percentileExcellent = percentileExcellent; }
+
+    public double getPercentileGood() { return percentileGood; }
+    public void setPercentileGood(double percentileGood) { this.percentileGood = percentileGood; }
+
+    public double getPercentileAboveAverage() { return percentileAboveAverage; }
+    public void setPercentileAboveAverage(double percentileAboveAverage) { this.percentileAboveAverage = percentileAboveAverage; }
+
+    public double getPercentileBad() { return percentileBad; }
+    public void setPercentileBad(double percentileBad) { this.percentileBad = percentileBad; }
+
+    public double getPercentilePoor() { return percentilePoor; }
+    public void setPercentilePoor(double percentilePoor) { this.percentilePoor = percentilePoor; }
+
+    public double getPercentileBelowAverage() { return percentileBelowAverage; }
+    public void setPercentileBelowAverage(double percentileBelowAverage) { this.percentileBelowAverage = percentileBelowAverage; }
+
+    public double getIqrMultiplier() { return iqrMultiplier; }
+    public void setIqrMultiplier(double iqrMultiplier) { this.iqrMultiplier = iqrMultiplier; }
+
+    public double getIqrMinZScore() { return iqrMinZScore; }
+    public void setIqrMinZScore(double iqrMinZScore) { this.iqrMinZScore = iqrMinZScore; }
+
+    public Map<ScoringMetric, Double> getWeights() { return weights; }
+    public void setWeights(Map<ScoringMetric, Double> weights) {
+        this.weights = new EnumMap<>(ScoringMetric.class);
+        for (ScoringMetric metric : ScoringMetric.all()) {
+            this.weights.put(metric, metric.getWeight());
+        }
+        if (weights != null) {
+            this.weights.putAll(weights);
+        }
+    }
+
+    public int getSevereCountForStatus() { return severeCountForStatus; }
+    public void setSevereCountForStatus(int severeCountForStatus) { this.severeCountForStatus = severeCountForStatus; }
+
+    public double getGoodScore() { return goodScore; }
+    public void setGoodScore(double goodScore) { this.goodScore = goodScore; }
+
+    public double getBadScore() { return badScore; }
+    public void setBadScore(double badScore) { this.badScore = badScore; }
+
+    public double getLeaningGoodScore() { return leaningGoodScore; }
+    public void setLeaningGoodScore(double leaningGoodScore) { this.leaningGoodScore = leaningGoodScore; }
+
+    public double getLeaningBadScore() { return leaningBadScore; }
+    public void setLeaningBadScore(double leaningBadScore) { this.leaningBadScore = leaningBadScore; }
+
+    public int getAnomalyCountForStatus() { return anomalyCountForStatus; }
+    public void setAnomalyCountForStatus(int anomalyCountForStatus) { this.anomalyCountForStatus = anomalyCountForStatus; }
+
+    public int getMaxOpposingAnomalies() { return maxOpposingAnomalies; }
+    public void setMaxOpposingAnomalies(int maxOpposingAnomalies) { this.maxOpposingAnomalies = maxOpposingAnomalies; }
+}
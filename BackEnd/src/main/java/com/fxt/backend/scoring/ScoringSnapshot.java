@@ -0,0 +1,216 @@
+package com.fxt.backend.scoring;
+
+import com.fxt.backend.dto.MetricStatistics;
+import com.fxt.backend.dto.StatisticsContext;
+import com.fxt.backend.entity.ArticleData;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 回测用的列式评分快照
+ * Z分数、百分位和各指标的单项得分只取决于文章和基准，与评分方案无关，建快照时算一次；
+ * 之后每个评分方案只需按权重累加单项得分、套用等级阈值和状态规则，不再查找百分位，
+ * 结果与按该方案正常评分一致。快照建好后只读，可被多个线程同时评估
+ */
+public final class ScoringSnapshot {
+
+    public static final String[] STATUSES = {"NORMAL", "GOOD_ANOMALY", "BAD_ANOMALY"};
+
+    private static final double EMPTY_PERCENTILE = 50.0;
+    private static final int METRICS = ScoringMetric.all().length;
+
+    private final int size;
+    // 每篇文章所属的基准分组，-1为基准不足、按绝对值简化评分的文章
+    private final int[] groupOf;
+    private final List<Group> groups = new ArrayList<>();
+
+    // 按ScoringMetric顺序排列的列
+    private final double[][] values;
+    private final double[][] zScores;
+    private final double[][] percentiles;
+    private final double[][] components;
+    // 指标值是否高于基准均值（等级判定的方向）
+    private final boolean[][] aboveMean;
+    // 结果为异常时计入的方向：Z分数为正或百分位高于50
+    private final boolean[][] upward;
+
+    // 简化评分文章的状态和得分，与评分方案无关
+    private final byte[] fixedStatus;
+    private final double[] fixedScore;
+
+    public ScoringSnapshot(int size) {
+        this.size = size;
+        this.groupOf = new int[size];
+        this.values = new double[METRICS][size];
+        this.zScores = new double[METRICS][size];
+        this.percentiles = new double[METRICS][size];
+        this.components = new double[METRICS][size];
+        this.aboveMean = new boolean[METRICS][size];
+        this.upward = new boolean[METRICS][size];
+        this.fixedStatus = new byte[size];
+        this.fixedScore = new double[size];
+    }
+
+    /**
+     * 加入共用一个基准的一组文章
+     * @param indices  这组文章在快照中的位置，与articles一一对应
+     * @param articles 这组文章
+     * @param context  评分基准，有效文章不少于3篇
+     * @param kernel   评分内核
+     */
+    public void addGroup(int[] indices, List<ArticleData> articles, StatisticsContext context, ScoringKernel kernel) {
+        MetricColumns columns = MetricColumns.of(articles);
+        ScoreColumns scores = ScoreColumns.compute(columns, context, kernel, ScoringProfile.defaults());
+        Group group = new Group();
+        int groupIndex = groups.size();
+        groups.add(group);
+
+        for (ScoringMetric metric : ScoringMetric.all()) {
+            int m = metric.ordinal();
+            MetricStatistics stats = metric.statisticsOf(context);
+            group.empty[m] = stats.isEmpty();
+            group.q1[m] = stats.getQ1();
+            group.q3[m] = stats.getQ3();
+            double[] column = columns.values(metric);
+            for (int j = 0; j < indices.length; j++) {
+                int i = indices[j];
+                double z = scores.zScore(metric, j);
+                double percentile = scores.percentile(metric, j);
+                values[m][i] = column[j];
+                if (group.empty[m]) {
+                    components[m][i] = ScalarScoringKernel.score(EMPTY_PERCENTILE, 0);
+                    continue;
+                }
+                zScores[m][i] = z;
+                percentiles[m][i] = percentile;
+                components[m][i] = ScalarScoringKernel.score(percentile, z);
+                aboveMean[m][i] = column[j] > stats.getMean();
+                upward[m][i] = z > 0 || percentile > 50;
+            }
+        }
+        for (int i : indices) {
+            groupOf[i] = groupIndex;
+        }
+    }
+
+    /**
+     * 加入一篇基准不足、按绝对值简化评分的文章
+     */
+    public void addFixed(int index, String status, double score) {
+        groupOf[index] = -1;
+        fixedStatus[index] = statusCode(status);
+        fixedScore[index] = score;
+    }
+
+    /**
+     * 按一个评分方案评估全部文章
+     */
+    public Evaluation evaluate(ScoringProfile profile) {
+        byte[] statuses = new byte[size];
+        double[] weights = new double[METRICS];
+        for (ScoringMetric metric : ScoringMetric.all()) {
+            weights[metric.ordinal()] = profile.weightOf(metric);
+        }
+        double totalWeight = profile.totalWeight();
+        double iqrMultiplier = profile.getIqrMultiplier();
+        double scoreSum = 0;
+
+        for (int i = 0; i < size; i++) {
+            int g = groupOf[i];
+            if (g < 0) {
+                statuses[i] = fixedStatus[i];
+                scoreSum += fixedScore[i];
+                continue;
+            }
+            Group group = groups.get(g);
+            double weighted = 0;
+            int positive = 0;
+            int negative = 0;
+            int severePositive = 0;
+            int severeNegative = 0;
+            for (ScoringMetric metric : ScoringMetric.all()) {
+                int m = metric.ordinal();
+                weighted += components[m][i] * weights[m];
+                if (group.empty[m]) {
+                    continue;
+                }
+                boolean iqrOutlier = false;
+                if (metric.isRobust()) {
+                    double iqr = group.q3[m] - group.q1[m];
+                    double value = values[m][i];
+                    iqrOutlier = value < group.q1[m] - iqrMultiplier * iqr || value > group.q3[m] + iqrMultiplier * iqr;
+                }
+                String level = profile.levelOf(zScores[m][i], iqrOutlier, percentiles[m][i], aboveMean[m][i]);
+                if ("NORMAL".equals(level)) {
+                    continue;
+                }
+                boolean severe = "SEVERE".equals(level);
+                if (upward[m][i]) {
+                    positive++;
+                    if (severe) severePositive++;
+                } else {
+                    negative++;
+                    if (severe) severeNegative++;
+                }
+            }
+            double score = totalWeight > 0 ? weighted / totalWeight : 50;
+            statuses[i] = statusCode(profile.overallStatusOf(score, positive, negative, severePositive, severeNegative));
+            scoreSum += score;
+        }
+        return new Evaluation(statuses, scoreSum);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getGroupCount() {
+        return groups.size();
+    }
+
+    private static byte statusCode(String status) {
+        for (byte code = 0; code < STATUSES.length; code++) {
+            if (STATUSES[code].equals(status)) {
+                return code;
+            }
+        }
+        throw new IllegalArgumentException("未知的异常状态: " + status);
+    }
+
+    /**
+     * 一组共用基准的四分位数，计算IQR离群时使用
+     */
+    private static final class Group {
+        final boolean[] empty = new boolean[METRICS];
+        final double[] q1 = new double[METRICS];
+        final double[] q3 = new double[METRICS];
+    }
+
+    /**
+     * 一个评分方案下的评估结果：每篇文章的状态（STATUSES中的下标）和得分之和
+     */
+    public static final class Evaluation {
+        private final byte[] statuses;
+        private final double scoreSum;
+
+        Evaluation(byte[] statuses, double scoreSum) {
+            this.statuses = statuses;
+            this.scoreSum = scoreSum;
+        }
+
+        public byte[] getStatuses() { return statuses; }
+        public double getScoreSum() { return scoreSum; }
+
+        /**
+         * 各状态的文章数，与STATUSES一一对应
+         */
+        public long[] distribution() {
+            long[] counts = new long[STATUSES.length];
+            for (byte status : statuses) {
+                counts[status]++;
+            }
+            return counts;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.fxt.backend.scoring;
+
+import com.fxt.backend.dto.StatisticsContext;
+import com.fxt.backend.entity.ArticleData;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * 评分基准的增量版本：逐篇加入文章，随时可以生成StatisticsContext
+ * 过滤规则与StatisticsContext.of相同，不需要保留文章本身；多个实例可以合并（跨上传批次、跨节点）
+ * 非线程安全，调用方负责同步
+ */
+public final class StatisticsAccumulator {
+
+    private final Map<ScoringMetric, MetricAccumulator> metrics = new EnumMap<>(ScoringMetric.class);
+
+    public StatisticsAccumulator() {
+        this(KllSketch.DEFAULT_K);
+    }
+
+    /**
+     * @param sketchK 各指标草图的k
+     */
+    public StatisticsAccumulator(int sketchK) {
+        for (ScoringMetric metric : ScoringMetric.all()) {
+            metrics.put(metric, new MetricAccumulator(sketchK));
+        }
+    }
+
+    public void add(ArticleData article) {
+        Long read = article.getReadCount7d();
+        if (read == null || read < 0) {
+            return;
+        }
+        metrics.get(ScoringMetric.READ_7D).add(read);
+
+        Long interaction = article.getInteractionCount7d();
+        if (interaction != null && interaction >= 0) {
+            metrics.get(ScoringMetric.INTERACTION_7D).add(interaction);
+        }
+        Long visit = article.getProductVisit7d();
+        if (visit != null && visit >= 0) {
+            metrics.get(ScoringMetric.PRODUCT_VISIT_7D).add(visit);
+        }
+        if (read > StatisticsContext.RATE_MIN_READ_COUNT) {
+            if (interaction != null) {
+                metrics.get(ScoringMetric.INTERACTION_RATE).add((double) interaction / read * 100);
+            }
+            if (visit != null) {
+                metrics.get(ScoringMetric.CONVERSION_RATE).add((double) visit / read * 100);
+            }
+        }
+    }
+
+    public void addAll(Iterable<ArticleData> articles) {
+        for (ArticleData article : articles) {
+            add(article);
+        }
+    }
+
+    public void merge(StatisticsAccumulator other) {
+        for (ScoringMetric metric : ScoringMetric.all()) {
+            metrics.get(metric).merge(other.metrics.get(metric));
+        }
+    }
+
+    /**
+     * 近似的评分基准：均值、标准差精确，百分位、中位数、MAD、四分位数来自草图
+     */
+    public StatisticsContext toContext() {
+        // 只有阅读量有效的文章才会进入统计，阅读量的样本数即有效文章数
+        long valid = metrics.get(ScoringMetric.READ_7D).getCount();
+        return new StatisticsContext((int) Math.min(Integer.MAX_VALUE, valid),
+            metrics.get(ScoringMetric.READ_7D).snapshot(),
+            metrics.get(ScoringMetric.INTERACTION_7D).snapshot(),
+            metrics.get(ScoringMetric.PRODUCT_VISIT_7D).snapshot(),
+            metrics.get(ScoringMetric.INTERACTION_RATE).snapshot(),
+            metrics.get(ScoringMetric.CONVERSION_RATE).snapshot());
+    }
+
+    public MetricAccumulator get(ScoringMetric metric) {
+        return metrics.get(metric);
+    }
+
+    public void set(ScoringMetric metric, MetricAccumulator accumulator) {
+        metrics.put(metric, accumulator);
+    }
+
+    public long getValidCount() {
+        return metrics.get(ScoringMetric.READ_7D).getCount();
+    }
+}
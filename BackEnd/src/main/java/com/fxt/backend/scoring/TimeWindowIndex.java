@@ -0,0 +1,237 @@
+package com.fxt.backend.scoring;
+
+import com.fxt.backend.dto.MetricStatistics;
+import com.fxt.backend.dto.StatisticsContext;
+import com.fxt.backend.entity.ArticleData;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * 按发布日期排序的基准索引，回答"截至某天的最近N天"滚动窗口内的统计
+ * 每个指标的取值按发布日期排成一列：
+ * 窗口边界二分查找，O(log n)；
+ * 均值、方差由前缀和相减，O(1)；前缀和相减抵消严重（窗口方差远小于取值平方）时改为对窗口逐项重算，
+ * 窗口内最小值等于最大值时方差直接取0，与StatisticsContext.of在标准差为0时的分支一致；
+ * 百分位和分位数（中位数、MAD、四分位数）由小波矩阵回答区间内的秩和第k小，每次 O(log n)。
+ * 不需要为每个窗口重新筛选和排序基准文章。过滤规则与StatisticsContext.of相同，
+ * 没有发布时间的文章不进入索引。构造后只读，可在评分线程之间共享
+ */
+public final class TimeWindowIndex {
+
+    private final int windowDays;
+    private final Series[] series = new Series[ScoringMetric.all().length];
+
+    private TimeWindowIndex(List<ArticleData> articles, int windowDays) {
+        this.windowDays = windowDays;
+
+        ArticleData[] dated = articles.stream()
+            .filter(a -> a.getPublishTime() != null)
+            .sorted(Comparator.comparing(ArticleData::getPublishTime))
+            .toArray(ArticleData[]::new);
+
+        int n = dated.length;
+        long[][] days = new long[series.length][n];
+        double[][] values = new double[series.length][n];
+        int[] counts = new int[series.length];
+
+        for (ArticleData article : dated) {
+            Long read = article.getReadCount7d();
+            if (read == null || read < 0) {
+                continue;
+            }
+            long day = article.getPublishTime().toLocalDate().toEpochDay();
+            add(ScoringMetric.READ_7D, day, read, days, values, counts);
+
+            Long interaction = article.getInteractionCount7d();
+            if (interaction != null && interaction >= 0) {
+                add(ScoringMetric.INTERACTION_7D, day, interaction, days, values, counts);
+            }
+            Long visit = article.getProductVisit7d();
+            if (visit != null && visit >= 0) {
+                add(ScoringMetric.PRODUCT_VISIT_7D, day, visit, days, values, counts);
+            }
+            if (read > StatisticsContext.RATE_MIN_READ_COUNT) {
+                if (interaction != null) {
+                    add(ScoringMetric.INTERACTION_RATE, day, (double) interaction / read * 100, days, values, counts);
+                }
+                if (visit != null) {
+                    add(ScoringMetric.CONVERSION_RATE, day, (double) visit / read * 100, days, values, counts);
+                }
+            }
+        }
+        for (ScoringMetric metric : ScoringMetric.all()) {
+            int i = metric.ordinal();
+            series[i] = new Series(Arrays.copyOf(days[i], counts[i]), Arrays.copyOf(values[i], counts[i]));
+        }
+    }
+
+    /**
+     * @param windowDays 窗口天数，包含结束当天
+     */
+    public static TimeWindowIndex of(List<ArticleData> articles, int windowDays) {
+        if (windowDays <= 0) {
+            throw new IllegalArgumentException("窗口天数必须大于0: " + windowDays);
+        }
+        return new TimeWindowIndex(articles, windowDays);
+    }
+
+    /**
+     * 截至end（含）最近windowDays天发布的文章组成的评分基准
+     */
+    public StatisticsContext contextAt(LocalDate end) {
+        long to = end.toEpochDay();
+        long from = to - windowDays + 1;
+        MetricStatistics[] stats = new MetricStatistics[series.length];
+        for (int i = 0; i < series.length; i++) {
+            stats[i] = series[i].window(from, to);
+        }
+        return new StatisticsContext((int) stats[ScoringMetric.READ_7D.ordinal()].getCount(),
+            stats[ScoringMetric.READ_7D.ordinal()],
+            stats[ScoringMetric.INTERACTION_7D.ordinal()],
+            stats[ScoringMetric.PRODUCT_VISIT_7D.ordinal()],
+            stats[ScoringMetric.INTERACTION_RATE.ordinal()],
+            stats[ScoringMetric.CONVERSION_RATE.ordinal()]);
+    }
+
+    public int getWindowDays() {
+        return windowDays;
+    }
+
+    private static void add(ScoringMetric metric, long day, double value, long[][] days, double[][] values, int[] counts) {
+        int i = metric.ordinal();
+        days[i][counts[i]] = day;
+        values[i][counts[i]++] = value;
+    }
+
+    /**
+     * 一个指标按发布日期排列的取值
+     */
+    private static final class Series {
+        // 方差不足平均平方项的这个比例时，前缀和相减已丢失大部分有效位，改为逐项重算
+        private static final double CANCELLATION_RATIO = 1e-8;
+
+        private final long[] days;
+        private final double[] values;
+        // 取值减去offset后的前缀和与平方前缀和，减去整体均值避免大数相减丢失精度
+        private final double offset;
+        private final double[] prefixSum;
+        private final double[] prefixSquares;
+        // 去重排序后的取值，小波矩阵中保存的是取值在其中的下标
+        private final double[] distinct;
+        private final WaveletMatrix matrix;
+
+        Series(long[] days, double[] values) {
+            int n = values.length;
+            this.days = days;
+            this.values = values;
+            this.offset = n == 0 ? 0 : Arrays.stream(values).average().orElse(0);
+            this.prefixSum = new double[n + 1];
+            this.prefixSquares = new double[n + 1];
+            for (int i = 0; i < n; i++) {
+                double shifted = values[i] - offset;
+                prefixSum[i + 1] = prefixSum[i] + shifted;
+                prefixSquares[i + 1] = prefixSquares[i] + shifted * shifted;
+            }
+
+            double[] sorted = values.clone();
+            Arrays.sort(sorted);
+            int unique = 0;
+            for (int i = 0; i < n; i++) {
+                if (unique == 0 || Double.compare(sorted[i], sorted[unique - 1]) != 0) {
+                    sorted[unique++] = sorted[i];
+                }
+            }
+            this.distinct = Arrays.copyOf(sorted, unique);
+            int[] codes = new int[n];
+            for (int i = 0; i < n; i++) {
+                codes[i] = Arrays.binarySearch(distinct, values[i]);
+            }
+            this.matrix = new WaveletMatrix(codes, Math.max(1, unique));
+        }
+
+        MetricStatistics window(long fromDay, long toDay) {
+            int from = lowerBound(days, fromDay);
+            int to = lowerBound(days, toDay + 1);
+            int count = to - from;
+            if (count <= 0) {
+                return MetricStatistics.empty();
+            }
+            double min = distinct[matrix.kth(from, to, 0)];
+            double max = distinct[matrix.kth(from, to, count - 1)];
+            double mean;
+            double variance;
+            if (Double.compare(min, max) == 0) {
+                mean = min;
+                variance = 0;
+            } else {
+                double shiftedMean = (prefixSum[to] - prefixSum[from]) / count;
+                double meanSquare = (prefixSquares[to] - prefixSquares[from]) / count;
+                mean = offset + shiftedMean;
+                variance = meanSquare - shiftedMean * shiftedMean;
+                if (variance <= CANCELLATION_RATIO * meanSquare) {
+                    mean = 0;
+                    for (int i = from; i < to; i++) {
+                        mean += values[i];
+                    }
+                    mean /= count;
+                    variance = 0;
+                    for (int i = from; i < to; i++) {
+                        variance += (values[i] - mean) * (values[i] - mean);
+                    }
+                    variance /= count;
+                }
+            }
+
+            return MetricStatistics.fromRankSource(new MetricStatistics.RankSource() {
+                @Override
+                public long count() {
+                    return count;
+                }
+
+                @Override
+                public long rankAtMost(double value) {
+                    return matrix.countLess(from, to, upperBound(distinct, value));
+                }
+
+                @Override
+                public double valueAtRank(long k) {
+                    return distinct[matrix.kth(from, to, (int) k - 1)];
+                }
+            }, mean, Math.sqrt(variance));
+        }
+
+        private static int lowerBound(long[] sorted, long key) {
+            int low = 0;
+            int high = sorted.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (sorted[mid] < key) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        /**
+         * 不大于value的去重取值个数，即第一个大于value的下标
+         */
+        private static int upperBound(double[] sorted, double value) {
+            int low = 0;
+            int high = sorted.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (sorted[mid] <= value) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+}
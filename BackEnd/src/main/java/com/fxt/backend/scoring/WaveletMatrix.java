@@ -0,0 +1,120 @@
+package com.fxt.backend.scoring;
+
+/**
+ * 小整数序列上的小波矩阵
+ * 任意区间 [from, to) 内小于某值的个数、第k小的值都只需 O(log σ)（σ为取值个数），
+ * 空间为 n·log σ 位，构造后只读
+ */
+final class WaveletMatrix {
+
+    private final int size;
+    private final int levels;
+    private final long[][] bits;
+    // 每个64位字之前1的个数
+    private final int[][] onesBefore;
+    // 每层0的个数，即该层1在下一层中的起始位置
+    private final int[] zeros;
+
+    /**
+     * @param values       取值，须在 [0, alphabetSize) 内
+     * @param alphabetSize 取值个数
+     */
+    WaveletMatrix(int[] values, int alphabetSize) {
+        this.size = values.length;
+        this.levels = Math.max(1, 32 - Integer.numberOfLeadingZeros(Math.max(1, alphabetSize - 1)));
+        this.bits = new long[levels][(size >>> 6) + 1];
+        this.onesBefore = new int[levels][(size >>> 6) + 1];
+        this.zeros = new int[levels];
+
+        int[] current = values.clone();
+        int[] next = new int[size];
+        for (int level = 0; level < levels; level++) {
+            int bit = levels - 1 - level;
+            int zeroCount = 0;
+            for (int value : current) {
+                if ((value >>> bit & 1) == 0) zeroCount++;
+            }
+            zeros[level] = zeroCount;
+
+            long[] words = bits[level];
+            int zeroIndex = 0;
+            int oneIndex = zeroCount;
+            for (int i = 0; i < size; i++) {
+                int value = current[i];
+                if ((value >>> bit & 1) == 1) {
+                    words[i >>> 6] |= 1L << (i & 63);
+                    next[oneIndex++] = value;
+                } else {
+                    next[zeroIndex++] = value;
+                }
+            }
+            int[] ranks = onesBefore[level];
+            for (int w = 1; w < ranks.length; w++) {
+                ranks[w] = ranks[w - 1] + Long.bitCount(words[w - 1]);
+            }
+            int[] swap = current;
+            current = next;
+            next = swap;
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * [from, to) 内小于value的个数
+     */
+    int countLess(int from, int to, int value) {
+        if (from >= to || value <= 0) {
+            return 0;
+        }
+        if (value >= 1 << levels) {
+            return to - from;
+        }
+        int count = 0;
+        for (int level = 0; level < levels; level++) {
+            int bit = levels - 1 - level;
+            int zerosFrom = rank0(level, from);
+            int zerosTo = rank0(level, to);
+            if ((value >>> bit & 1) == 1) {
+                count += zerosTo - zerosFrom;
+                from = zeros[level] + (from - zerosFrom);
+                to = zeros[level] + (to - zerosTo);
+            } else {
+                from = zerosFrom;
+                to = zerosTo;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * [from, to) 内第k小的值，k从0开始
+     */
+    int kth(int from, int to, int k) {
+        int result = 0;
+        for (int level = 0; level < levels; level++) {
+            int bit = levels - 1 - level;
+            int zerosFrom = rank0(level, from);
+            int zerosTo = rank0(level, to);
+            int zerosInRange = zerosTo - zerosFrom;
+            if (k < zerosInRange) {
+                from = zerosFrom;
+                to = zerosTo;
+            } else {
+                k -= zerosInRange;
+                result |= 1 << bit;
+                from = zeros[level] + (from - zerosFrom);
+                to = zeros[level] + (to - zerosTo);
+            }
+        }
+        return result;
+    }
+
+    private int rank0(int level, int index) {
+        int word = index >>> 6;
+        int ones = onesBefore[level][word] + Long.bitCount(bits[level][word] & ((1L << (index & 63)) - 1));
+        return index - ones;
+    }
+}
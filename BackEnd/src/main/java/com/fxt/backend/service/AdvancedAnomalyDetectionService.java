@@ -1,12 +1,26 @@
 package com.fxt.backend.service;
 
+import com.fxt.backend.config.ScoringConfig;
 import com.fxt.backend.entity.ArticleData;
 import com.fxt.backend.dto.AnomalyAnalysisReport;
 import com.fxt.backend.dto.AnomalyAnalysisResult;
+import com.fxt.backend.dto.MetricStatistics;
+import com.fxt.backend.dto.StatisticsContext;
+import com.fxt.backend.scoring.MetricColumns;
+import com.fxt.backend.scoring.OutlierFeatures;
+import com.fxt.backend.scoring.OutlierModel;
+import com.fxt.backend.scoring.ScalarScoringKernel;
+import com.fxt.backend.scoring.ScoreColumns;
+import com.fxt.backend.scoring.ScoringKernel;
+import com.fxt.backend.scoring.ScoringMetric;
+import com.fxt.backend.scoring.ScoringProfile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import jakarta.annotation.PostConstruct;
 import java.util.*;
-import java.util.stream.Collectors;
 
 /**
  * 高级异常检测服务 - 优化版
@@ -16,146 +30,174 @@ import java.util.stream.Collectors;
 @Service
 public class AdvancedAnomalyDetectionService {
     
-    // ===== 优化后的阈值配置 =====
-    // 降低严重异常阈值，使检测更敏感
-    private static final double Z_SCORE_SEVERE = 2.5;    // 原3.0 -> 2.5
-    private static final double Z_SCORE_MODERATE = 1.8;  // 原2.0 -> 1.8
-    private static final double Z_SCORE_MILD = 1.2;      // 原1.5 -> 1.2
-    private static final double IQR_MULTIPLIER = 1.5;
+    private static final Logger logger = LoggerFactory.getLogger(AdvancedAnomalyDetectionService.class);
     
-    // ===== 新增：百分位阈值 =====
-    private static final double PERCENTILE_EXCELLENT = 85.0;  // 优秀线
-    private static final double PERCENTILE_GOOD = 70.0;       // 良好线
-    private static final double PERCENTILE_POOR = 30.0;       // 较差线
-    private static final double PERCENTILE_BAD = 15.0;        // 差线
+    // 单项等级阈值、指标权重和综合状态规则见ScoringProfile，可在运行时重新加载
+    // 多维离群结果的等级阈值由各离群模型自行决定
     
+    @Autowired
+    private ScoringConfig scoringConfig;
+    
+    @Autowired
+    private ScoringProfileService scoringProfileService;
+    
+    // 直接new出来使用时（没有注入配置）为标量内核、默认评分方案
+    private ScoringKernel scoringKernel = new ScalarScoringKernel();
+    
+    @PostConstruct
+    public void initScoringKernel() {
+        scoringKernel = ScoringKernel.create(scoringConfig.isVectorEnabled());
+        logger.info("异常评分内核: {}", scoringKernel.name());
+    }
+    
+    /**
+     * 当前使用的评分内核，回测建列式快照时与正常评分保持一致
+     */
+    public ScoringKernel getScoringKernel() {
+        return scoringKernel;
+    }
+    
+    /**
+     * 单篇检测，每次调用都会重新统计allArticles；批量评分请先buildStatisticsContext再逐篇调用
+     */
     public AnomalyAnalysisReport detectAnomalies(ArticleData article, List<ArticleData> allArticles) {
-        AnomalyAnalysisReport report = new AnomalyAnalysisReport();
-        List<AnomalyAnalysisResult> results = new ArrayList<>();
-        
-        // 过滤有效数据（放宽条件）
-        List<ArticleData> validArticles = allArticles.stream()
-            .filter(a -> a.getReadCount7d() != null && a.getReadCount7d() >= 0)
-            .collect(Collectors.toList());
+        return detectAnomalies(article, buildStatisticsContext(allArticles));
+    }
+
+    /**
+     * 统计一次基准数据，供同一批文章的评分共用
+     */
+    public StatisticsContext buildStatisticsContext(List<ArticleData> allArticles) {
+        return StatisticsContext.of(allArticles);
+    }
+
+    public AnomalyAnalysisReport detectAnomalies(ArticleData article, StatisticsContext context) {
+        return detectAnomalies(Collections.singletonList(article), context).get(0);
+    }
+
+    /**
+     * 批量检测：把待评分文章转成列式快照，由评分内核按列一次算出所有文章的Z分数和综合得分，
+     * 再逐篇生成报告。结果与逐篇调用完全一致
+     *
+     * 指标与权重：7天阅读量35%、7天互动量25%、互动率20%、7天好物访问12%、好物转化率8%
+     */
+    public List<AnomalyAnalysisReport> detectAnomalies(List<ArticleData> articles, StatisticsContext context) {
+        return detectAnomalies(articles, context, null);
+    }
+    
+    /**
+     * 同上，outlierModel不为空时在五个指标之后追加一项多维离群结果
+     * 该结果权重为0，只作参考，不参与综合得分和状态判定
+     */
+    public List<AnomalyAnalysisReport> detectAnomalies(List<ArticleData> articles, StatisticsContext context,
+                                                       OutlierModel outlierModel) {
+        return detectAnomalies(articles, context, outlierModel, currentProfile());
+    }
+    
+    /**
+     * 同上，使用指定的评分方案；一批文章只读取一次方案，评分过程中方案被替换也不会混用两个版本
+     */
+    public List<AnomalyAnalysisReport> detectAnomalies(List<ArticleData> articles, StatisticsContext context,
+                                                       OutlierModel outlierModel, ScoringProfile profile) {
+        List<AnomalyAnalysisReport> reports = new ArrayList<>(articles.size());
         
         // 数据量不足时使用简化分析
-        if (validArticles.size() < 3) {
-            return createSimpleReport(article, validArticles);
+        if (context.getValidCount() < 3) {
+            for (ArticleData article : articles) {
+                reports.add(createSimpleReport(article));
+            }
+            return reports;
         }
         
-        // ==================== 核心指标分析（优化权重）====================
-        
-        // 1. 7天阅读量分析（权重：35%）- 提高权重，这是最重要的指标
-        AnomalyAnalysisResult readResult = analyzeMetricOptimized(
-            article, validArticles, "7天阅读量", 
-            ArticleData::getReadCount7d, 0.35
-        );
-        results.add(readResult);
-        
-        // 2. 7天互动量分析（权重：25%）
-        AnomalyAnalysisResult interactionResult = analyzeMetricOptimized(
-            article, validArticles, "7天互动量", 
-            ArticleData::getInteractionCount7d, 0.25
-        );
-        results.add(interactionResult);
-        
-        // 3. 互动率分析（权重：20%）- 重要的效率指标
-        AnomalyAnalysisResult interactionRateResult = analyzeInteractionRateOptimized(article, validArticles);
-        interactionRateResult.setWeight(0.20);
-        results.add(interactionRateResult);
+        MetricColumns columns = MetricColumns.of(articles);
+        ScoreColumns scores = ScoreColumns.compute(columns, context, scoringKernel, profile);
         
-        // 4. 7天好物访问分析（权重：12%）
-        AnomalyAnalysisResult visitResult = analyzeMetricOptimized(
-            article, validArticles, "7天好物访问", 
-            ArticleData::getProductVisit7d, 0.12
-        );
-        results.add(visitResult);
-        
-        // 5. 转化率分析（权重：8%）
-        AnomalyAnalysisResult conversionResult = analyzeConversionRateOptimized(article, validArticles);
-        conversionResult.setWeight(0.08);
-        results.add(conversionResult);
-        
-        report.setResults(results);
-        
-        // 使用优化后的综合评分逻辑
-        calculateOptimizedOverallStatus(report, article);
-        
-        return report;
+        for (int i = 0; i < articles.size(); i++) {
+            List<AnomalyAnalysisResult> results = new ArrayList<>(ScoringMetric.all().length);
+            for (ScoringMetric metric : ScoringMetric.all()) {
+                MetricStatistics stats = metric.statisticsOf(context);
+                double value = columns.values(metric)[i];
+                if (metric.isRobust()) {
+                    results.add(buildCountResult(profile, metric, stats, value, scores.zScore(metric, i), scores.percentile(metric, i)));
+                } else {
+                    results.add(buildRateResult(profile, metric, stats, value, scores.zScore(metric, i), scores.percentile(metric, i)));
+                }
+            }
+            
+            AnomalyAnalysisReport report = new AnomalyAnalysisReport();
+            report.setResults(results);
+            // 使用优化后的综合评分逻辑
+            calculateOptimizedOverallStatus(profile, report, scores.overallScore(i));
+            if (outlierModel != null) {
+                results.add(buildOutlierResult(outlierModel, articles.get(i)));
+            }
+            reports.add(report);
+        }
+        return reports;
     }
     
     /**
-     * 优化后的指标分析方法
+     * 把评分方案重新套用到一份已存的报告上：各指标的取值、Z分数、百分位和基准统计沿用原值，
+     * 按新方案重新判定单项等级、更新权重、重算综合得分和综合状态，结果与用同一基准、新方案重新评分相同。
+     * 用于无法还原评分基准时（upload模式）更换评分方案；多维离群结果不受评分方案影响，原样保留
+     * @return 新的报告；简化报告（基准不足3篇，不使用评分方案）原样返回；
+     *         缺少基准四分位数的旧结果无法重新判定IQR离群，返回null
      */
-    private AnomalyAnalysisResult analyzeMetricOptimized(
-            ArticleData article, 
-            List<ArticleData> allArticles, 
-            String metricName, 
-            java.util.function.Function<ArticleData, Long> getter,
-            double weight) {
-        
-        List<Double> values = allArticles.stream()
-            .map(getter)
-            .filter(Objects::nonNull)
-            .filter(v -> v >= 0)  // 允许0值
-            .map(Long::doubleValue)
-            .sorted()
-            .collect(Collectors.toList());
-        
-        if (values.isEmpty()) {
-            return createEmptyResult(metricName, weight);
+    public AnomalyAnalysisReport reapplyProfile(AnomalyAnalysisReport stored, ScoringProfile profile) {
+        List<AnomalyAnalysisResult> storedResults = stored.getResults();
+        if (storedResults == null || storedResults.isEmpty()) {
+            return stored;
         }
-        
-        double currentValue = getter.apply(article) != null ? getter.apply(article).doubleValue() : 0;
-        
-        // 基础统计量
-        double mean = values.stream().mapToDouble(Double::doubleValue).average().orElse(0);
-        double variance = values.stream().mapToDouble(v -> Math.pow(v - mean, 2)).average().orElse(0);
-        double stdDev = Math.sqrt(variance);
-        
-        // 中位数和MAD（更稳健）
-        double median = calculateMedian(values);
-        double mad = calculateMAD(values, median);
-        
-        // 计算Z-score（使用更稳健的方法）
-        double zScore;
-        if (stdDev > 0) {
-            zScore = (currentValue - mean) / stdDev;
-        } else {
-            // 标准差为0时，基于中位数判断
-            zScore = currentValue > median ? 0.5 : (currentValue < median ? -0.5 : 0);
+        ScoringMetric[] metrics = ScoringMetric.all();
+        // 有明细时阅读量的基准一定有数据，其四分位数为空说明是写入四分位数之前的旧结果
+        if (storedResults.size() < metrics.length || storedResults.get(ScoringMetric.READ_7D.ordinal()).getQ1() == null) {
+            return null;
         }
-        
-        // 计算稳健Z-score
-        double robustZScore = 0;
-        if (mad > 0) {
-            robustZScore = 0.6745 * (currentValue - median) / mad;
+
+        List<AnomalyAnalysisResult> results = new ArrayList<>(storedResults.size());
+        double[] percentiles = new double[metrics.length];
+        double[] zScores = new double[metrics.length];
+        for (ScoringMetric metric : metrics) {
+            AnomalyAnalysisResult result = storedResults.get(metric.ordinal());
+            if (!metric.getDisplayName().equals(result.getMetric())) {
+                return null;
+            }
+            // 基准没有数据的指标恒为NORMAL
+            String level = "NORMAL";
+            if (result.getQ1() != null) {
+                boolean iqrOutlier = metric.isRobust()
+                    && isIqrOutlier(profile, result.getValue(), result.getQ1(), result.getQ3());
+                level = determineOptimizedAnomalyLevel(profile, result.getZScore(), iqrOutlier, result.getPercentile(),
+                    result.getValue() > result.getMean());
+            }
+            results.add(result.withLevel(level, profile.weightOf(metric)));
+            percentiles[metric.ordinal()] = result.getPercentile();
+            zScores[metric.ordinal()] = result.getZScore();
+        }
+
+        AnomalyAnalysisReport report = new AnomalyAnalysisReport();
+        report.setResults(results);
+        calculateOptimizedOverallStatus(profile, report, ScoreColumns.overallScore(percentiles, zScores, profile));
+        results.addAll(storedResults.subList(metrics.length, storedResults.size()));
+        return report;
+    }
+    
+    /**
+     * 计数类指标（阅读量、互动量、好物访问）：Z分数为均值Z分数与稳健Z分数的混合，并用IQR判断离群
+     */
+    private AnomalyAnalysisResult buildCountResult(ScoringProfile profile, ScoringMetric metric, MetricStatistics stats,
+                                                   double currentValue, double combinedZScore, double percentile) {
+        if (stats.isEmpty()) {
+            return createEmptyResult(metric.getDisplayName(), profile.weightOf(metric));
         }
         
-        // 综合Z分数
-        double combinedZScore = stdDev > 0 ? (0.6 * zScore + 0.4 * robustZScore) : robustZScore;
-        
-        // 百分位计算
-        double percentile = calculatePercentile(currentValue, values);
+        double mean = stats.getMean();
         
         // IQR异常检测
-        double q1 = calculateQuantile(values, 0.25);
-        double q3 = calculateQuantile(values, 0.75);
-        double iqr = q3 - q1;
-        double lowerBound = q1 - IQR_MULTIPLIER * iqr;
-        double upperBound = q3 + IQR_MULTIPLIER * iqr;
-        boolean isIQROutlier = currentValue < lowerBound || currentValue > upperBound;
-        
-        AnomalyAnalysisResult result = new AnomalyAnalysisResult();
-        result.setMetric(metricName);
-        result.setValue(currentValue);
-        result.setMean(mean);
-        result.setStdDev(stdDev);
-        result.setZScore(combinedZScore);
-        result.setPercentile(percentile);
-        result.setWeight(weight);
+        boolean isIQROutlier = isIqrOutlier(profile, currentValue, stats.getQ1(), stats.getQ3());
         
         // 偏离描述（更直观）
+        String deviation;
         if (mean > 0) {
             double deviationPct = (currentValue - mean) / mean * 100;
             String direction = deviationPct > 0 ? "高于" : "低于";
@@ -163,143 +205,100 @@ public class AdvancedAnomalyDetectionService {
             if (Math.abs(deviationPct) > 100) level = "大幅";
             else if (Math.abs(deviationPct) > 50) level = "显著";
             else if (Math.abs(deviationPct) > 20) level = "明显";
-            result.setDeviation(String.format("%s%s平均值 %.1f%%", level, direction, Math.abs(deviationPct)));
+            deviation = String.format("%s%s平均值 %.1f%%", level, direction, Math.abs(deviationPct));
         } else {
-            result.setDeviation("数据基准为0");
+            deviation = "数据基准为0";
         }
         
         // 使用优化后的异常等级判定
-        result.setLevel(determineOptimizedAnomalyLevel(combinedZScore, isIQROutlier, percentile, currentValue > mean));
-        
-        return result;
+        String level = determineOptimizedAnomalyLevel(profile, combinedZScore, isIQROutlier, percentile, currentValue > mean);
+        return withBaselineDetails(new AnomalyAnalysisResult(metric.getDisplayName(), currentValue, mean, stats.getStdDev(),
+            combinedZScore, percentile, deviation, level, profile.weightOf(metric)), metric, stats);
     }
     
     /**
-     * 优化后的互动率分析
+     * 比例类指标（互动率、好物转化率）：只统计阅读量大于50的文章，Z分数为均值Z分数
      */
-    private AnomalyAnalysisResult analyzeInteractionRateOptimized(ArticleData article, List<ArticleData> allArticles) {
-        List<Double> rates = allArticles.stream()
-            .filter(a -> a.getReadCount7d() != null && a.getReadCount7d() > 50 && a.getInteractionCount7d() != null)
-            .map(a -> (double) a.getInteractionCount7d() / a.getReadCount7d() * 100)
-            .sorted()
-            .collect(Collectors.toList());
-        
-        double currentRate = 0;
-        if (article.getReadCount7d() != null && article.getReadCount7d() > 0 && article.getInteractionCount7d() != null) {
-            currentRate = (double) article.getInteractionCount7d() / article.getReadCount7d() * 100;
-        }
-        
+    private AnomalyAnalysisResult buildRateResult(ScoringProfile profile, ScoringMetric metric, MetricStatistics rates,
+                                                  double currentRate, double zScore, double percentile) {
         if (rates.isEmpty()) {
-            AnomalyAnalysisResult result = createEmptyResult("互动率", 0.20);
+            AnomalyAnalysisResult result = createEmptyResult(metric.getDisplayName(), profile.weightOf(metric));
             result.setValue(currentRate);
             return result;
         }
         
-        double mean = rates.stream().mapToDouble(Double::doubleValue).average().orElse(0);
-        double stdDev = Math.sqrt(rates.stream().mapToDouble(v -> Math.pow(v - mean, 2)).average().orElse(0));
-        double zScore = stdDev > 0 ? (currentRate - mean) / stdDev : 0;
-        double percentile = calculatePercentile(currentRate, rates);
-        
-        AnomalyAnalysisResult result = new AnomalyAnalysisResult();
-        result.setMetric("互动率");
-        result.setValue(currentRate);
-        result.setMean(mean);
-        result.setStdDev(stdDev);
-        result.setZScore(zScore);
-        result.setPercentile(percentile);
-        
-        // 互动率的判断标准
-        String levelDesc;
-        if (currentRate >= 8) levelDesc = "优秀";
-        else if (currentRate >= 5) levelDesc = "良好";
-        else if (currentRate >= 3) levelDesc = "一般";
-        else levelDesc = "偏低";
-        
-        result.setDeviation(String.format("%.2f%% (%s，平均: %.2f%%)", currentRate, levelDesc, mean));
-        result.setLevel(determineOptimizedAnomalyLevel(zScore, false, percentile, currentRate > mean));
+        double mean = rates.getMean();
+        String deviation;
+        if (metric == ScoringMetric.INTERACTION_RATE) {
+            // 互动率的判断标准
+            String levelDesc;
+            if (currentRate >= 8) levelDesc = "优秀";
+            else if (currentRate >= 5) levelDesc = "良好";
+            else if (currentRate >= 3) levelDesc = "一般";
+            else levelDesc = "偏低";
+            deviation = String.format("%.2f%% (%s，平均: %.2f%%)", currentRate, levelDesc, mean);
+        } else {
+            deviation = String.format("%.2f%% (平均: %.2f%%)", currentRate, mean);
+        }
         
-        return result;
+        String level = determineOptimizedAnomalyLevel(profile, zScore, false, percentile, currentRate > mean);
+        return withBaselineDetails(new AnomalyAnalysisResult(metric.getDisplayName(), currentRate, mean, rates.getStdDev(),
+            zScore, percentile, deviation, level, profile.weightOf(metric)), metric, rates);
     }
     
     /**
-     * 优化后的转化率分析
+     * 附上基准的四分位数（更换评分方案时重新判定IQR离群要用）；
+     * 基准为近似统计（分位数草图）时再附上百分位和Z分数的误差界
      */
-    private AnomalyAnalysisResult analyzeConversionRateOptimized(ArticleData article, List<ArticleData> allArticles) {
-        List<Double> rates = allArticles.stream()
-            .filter(a -> a.getReadCount7d() != null && a.getReadCount7d() > 50 && a.getProductVisit7d() != null)
-            .map(a -> (double) a.getProductVisit7d() / a.getReadCount7d() * 100)
-            .sorted()
-            .collect(Collectors.toList());
-        
-        double currentRate = 0;
-        if (article.getReadCount7d() != null && article.getReadCount7d() > 0 && article.getProductVisit7d() != null) {
-            currentRate = (double) article.getProductVisit7d() / article.getReadCount7d() * 100;
+    private static AnomalyAnalysisResult withBaselineDetails(AnomalyAnalysisResult result, ScoringMetric metric,
+                                                             MetricStatistics stats) {
+        result.setQ1(stats.getQ1());
+        result.setQ3(stats.getQ3());
+        if (stats.getPercentileError() > 0) {
+            result.setPercentileError(stats.getPercentileError());
+            result.setZScoreError(ScalarScoringKernel.zScoreError(stats, metric.isRobust()));
         }
-        
-        if (rates.isEmpty()) {
-            AnomalyAnalysisResult result = createEmptyResult("好物转化率", 0.08);
-            result.setValue(currentRate);
-            return result;
-        }
-        
-        double mean = rates.stream().mapToDouble(Double::doubleValue).average().orElse(0);
-        double stdDev = Math.sqrt(rates.stream().mapToDouble(v -> Math.pow(v - mean, 2)).average().orElse(0));
-        double zScore = stdDev > 0 ? (currentRate - mean) / stdDev : 0;
-        double percentile = calculatePercentile(currentRate, rates);
-        
-        AnomalyAnalysisResult result = new AnomalyAnalysisResult();
-        result.setMetric("好物转化率");
-        result.setValue(currentRate);
-        result.setMean(mean);
-        result.setStdDev(stdDev);
-        result.setZScore(zScore);
-        result.setPercentile(percentile);
-        result.setDeviation(String.format("%.2f%% (平均: %.2f%%)", currentRate, mean));
-        result.setLevel(determineOptimizedAnomalyLevel(zScore, false, percentile, currentRate > mean));
-        
         return result;
     }
     
     /**
-     * 优化后的异常等级判定
-     * 更合理的判定逻辑，减少误判
+     * 多维离群：阅读、互动、好物访问及两个比例组成的向量相对基准人群的离群程度
+     * 只说明组合是否少见，不区分好坏，Z分数和百分位以基准人群的得分分布为参照
      */
-    private String determineOptimizedAnomalyLevel(double zScore, boolean isIQROutlier, double percentile, boolean isPositive) {
-        double absZ = Math.abs(zScore);
-        
-        // 基于百分位的判定（更直观）
-        if (isPositive) {
-            // 正向：表现好
-            if (percentile >= PERCENTILE_EXCELLENT || absZ > Z_SCORE_SEVERE) {
-                return "SEVERE";  // 极其优秀
-            } else if (percentile >= PERCENTILE_GOOD || absZ > Z_SCORE_MODERATE) {
-                return "MODERATE";  // 表现良好
-            } else if (percentile >= 60 || absZ > Z_SCORE_MILD) {
-                return "MILD";  // 略高于平均
-            }
-        } else {
-            // 负向：表现差
-            if (percentile <= PERCENTILE_BAD || absZ > Z_SCORE_SEVERE) {
-                return "SEVERE";  // 表现很差
-            } else if (percentile <= PERCENTILE_POOR || absZ > Z_SCORE_MODERATE) {
-                return "MODERATE";  // 表现较差
-            } else if (percentile <= 40 || absZ > Z_SCORE_MILD) {
-                return "MILD";  // 略低于平均
-            }
-        }
-        
-        // IQR异常检测作为补充
-        if (isIQROutlier && absZ > 1.0) {
-            return "MILD";
-        }
-        
-        return "NORMAL";
+    private AnomalyAnalysisResult buildOutlierResult(OutlierModel model, ArticleData article) {
+        double score = model.score(OutlierFeatures.of(article));
+        MetricStatistics scores = model.getScoreStatistics();
+        double zScore = scores.getStdDev() > 0 ? (score - scores.getMean()) / scores.getStdDev() : 0;
+        double percentile = scores.calculatePercentile(score);
+        String level = model.levelOf(score);
+        
+        String deviation = String.format("离群得分 %.3f，高于基准中 %.1f%% 的文章", score, percentile);
+        return new AnomalyAnalysisResult(model.getName(), score, scores.getMean(), scores.getStdDev(),
+            zScore, percentile, deviation, level, 0.0);
+    }
+    
+    /**
+     * 取值是否超出 [Q1 - k·IQR, Q3 + k·IQR]，k为评分方案的iqrMultiplier
+     */
+    private static boolean isIqrOutlier(ScoringProfile profile, double value, double q1, double q3) {
+        double iqr = q3 - q1;
+        double lowerBound = q1 - profile.getIqrMultiplier() * iqr;
+        double upperBound = q3 + profile.getIqrMultiplier() * iqr;
+        return value < lowerBound || value > upperBound;
+    }
+    
+    /**
+     * 优化后的异常等级判定，规则见ScoringProfile.levelOf
+     */
+    private String determineOptimizedAnomalyLevel(ScoringProfile profile, double zScore, boolean isIQROutlier,
+                                                  double percentile, boolean isPositive) {
+        return profile.levelOf(zScore, isIQROutlier, percentile, isPositive);
     }
     
     /**
      * 优化后的综合状态计算
      */
-    private void calculateOptimizedOverallStatus(AnomalyAnalysisReport report, ArticleData article) {
+    private void calculateOptimizedOverallStatus(ScoringProfile profile, AnomalyAnalysisReport report, double finalScore) {
         List<AnomalyAnalysisResult> results = report.getResults();
         
         if (results.isEmpty()) {
@@ -308,29 +307,13 @@ public class AdvancedAnomalyDetectionService {
             return;
         }
         
-        double weightedScore = 0;
-        double totalWeight = 0;
         int positiveAnomalyCount = 0;
         int negativeAnomalyCount = 0;
         int severePositive = 0;
         int severeNegative = 0;
         
+        // 综合得分由评分内核算出：各指标以百分位为基础、按Z分数微调后加权平均
         for (AnomalyAnalysisResult result : results) {
-            double weight = result.getWeight() != null ? result.getWeight() : 1.0 / results.size();
-            
-            // 基于百分位计算分数（更直观）
-            double score = result.getPercentile();
-            
-            // Z-score微调
-            if (result.getZScore() > 0) {
-                score = Math.min(100, score + result.getZScore() * 2);
-            } else {
-                score = Math.max(0, score + result.getZScore() * 2);
-            }
-            
-            weightedScore += score * weight;
-            totalWeight += weight;
-            
             // 统计异常类型
             if (!"NORMAL".equals(result.getLevel())) {
                 boolean isPositive = result.getZScore() > 0 || result.getPercentile() > 50;
@@ -344,47 +327,15 @@ public class AdvancedAnomalyDetectionService {
             }
         }
         
-        double finalScore = totalWeight > 0 ? weightedScore / totalWeight : 50;
         report.setOverallScore(finalScore);
-        
-        // ===== 优化后的状态判定逻辑 =====
-        // 更清晰的判定标准
-        
-        // 1. 优先检查严重异常
-        if (severeNegative >= 2) {
-            report.setOverallStatus("BAD_ANOMALY");
-            return;
-        }
-        if (severePositive >= 2) {
-            report.setOverallStatus("GOOD_ANOMALY");
-            return;
-        }
-        
-        // 2. 综合评分判定
-        if (finalScore >= 75) {
-            report.setOverallStatus("GOOD_ANOMALY");
-        } else if (finalScore <= 25) {
-            report.setOverallStatus("BAD_ANOMALY");
-        } else if (finalScore >= 65 && positiveAnomalyCount > negativeAnomalyCount) {
-            report.setOverallStatus("GOOD_ANOMALY");
-        } else if (finalScore <= 35 && negativeAnomalyCount > positiveAnomalyCount) {
-            report.setOverallStatus("BAD_ANOMALY");
-        } else {
-            // 3. 异常数量判定
-            if (negativeAnomalyCount >= 3 && positiveAnomalyCount <= 1) {
-                report.setOverallStatus("BAD_ANOMALY");
-            } else if (positiveAnomalyCount >= 3 && negativeAnomalyCount <= 1) {
-                report.setOverallStatus("GOOD_ANOMALY");
-            } else {
-                report.setOverallStatus("NORMAL");
-            }
-        }
+        report.setOverallStatus(profile.overallStatusOf(finalScore, positiveAnomalyCount, negativeAnomalyCount,
+            severePositive, severeNegative));
     }
     
     /**
      * 简化报告（数据量不足时使用）
      */
-    private AnomalyAnalysisReport createSimpleReport(ArticleData article, List<ArticleData> validArticles) {
+    private AnomalyAnalysisReport createSimpleReport(ArticleData article) {
         AnomalyAnalysisReport report = new AnomalyAnalysisReport();
         
         // 基于绝对值判断
@@ -425,40 +376,8 @@ public class AdvancedAnomalyDetectionService {
     
     // ==================== 辅助方法 ====================
     
-    private double calculateMedian(List<Double> values) {
-        if (values.isEmpty()) return 0;
-        int size = values.size();
-        if (size % 2 == 0) {
-            return (values.get(size / 2 - 1) + values.get(size / 2)) / 2.0;
-        } else {
-            return values.get(size / 2);
-        }
-    }
-    
-    private double calculateMAD(List<Double> values, double median) {
-        List<Double> deviations = values.stream()
-            .map(v -> Math.abs(v - median))
-            .sorted()
-            .collect(Collectors.toList());
-        return calculateMedian(deviations);
-    }
-    
-    private double calculatePercentile(double value, List<Double> sortedValues) {
-        if (sortedValues.isEmpty()) return 50;
-        
-        int count = 0;
-        for (double v : sortedValues) {
-            if (v <= value) count++;
-        }
-        return (double) count / sortedValues.size() * 100;
-    }
-    
-    private double calculateQuantile(List<Double> sortedValues, double quantile) {
-        if (sortedValues.isEmpty()) return 0;
-        
-        int index = (int) Math.ceil(quantile * sortedValues.size()) - 1;
-        index = Math.max(0, Math.min(index, sortedValues.size() - 1));
-        return sortedValues.get(index);
+    private ScoringProfile currentProfile() {
+        return scoringProfileService != null ? scoringProfileService.getCurrent() : ScoringProfile.defaults();
     }
     
     private AnomalyAnalysisResult createEmptyResult(String metricName, double weight) {
@@ -1,6 +1,8 @@
 package com.fxt.backend.service;
 
+import com.fxt.backend.config.IngestConfig;
 import com.fxt.backend.entity.ArticleData;
+import com.fxt.backend.repository.AnomalyMetricResultRepository;
 import com.fxt.backend.repository.ArticleDataRepository;
 import com.fxt.backend.dto.*;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -8,52 +10,160 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.HashMap;
 import java.util.stream.Collectors;
-import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
 
 @Service
 public class AnalysisService {
 
     @Autowired
-    private ExcelParserService excelParserService;
+    private ContentAnalysisService contentAnalysisService;
 
     @Autowired
-    private AnomalyDetectionService anomalyDetectionService;
+    private ContentCrawlerService contentCrawlerService;
 
     @Autowired
-    private ContentAnalysisService contentAnalysisService;
+    private ArticleDataRepository articleDataRepository;
 
     @Autowired
-    private ContentCrawlerService contentCrawlerService;
+    private IngestPipelineService ingestPipelineService;
 
     @Autowired
-    private ArticleDataRepository articleDataRepository;
+    private IngestConfig ingestConfig;
 
-    private final ExecutorService executorService = Executors.newFixedThreadPool(5);
+    @Autowired
+    private BaselineStatisticsService baselineStatisticsService;
 
-    public List<ArticleData> processExcelFile(MultipartFile file) throws Exception {
-        List<ArticleData> articles = excelParserService.parseExcelFile(file);
-        articles = articleDataRepository.saveAll(articles);
-        
-        // 异步执行异常检测，不阻塞用户响应
-        List<ArticleData> finalArticles = articles;
-        CompletableFuture.runAsync(() -> {
-            try {
-                System.out.println("开始后台异常检测分析，共 " + finalArticles.size() + " 篇文章");
-                anomalyDetectionService.detectAnomalies(finalArticles);
-                articleDataRepository.saveAll(finalArticles);
-                System.out.println("后台异常检测分析完成");
-            } catch (Exception e) {
-                System.err.println("后台异常检测失败: " + e.getMessage());
+    @Autowired
+    private CohortStatisticsRegistry cohortStatisticsRegistry;
+
+    @Autowired
+    private AnomalyDetectionService anomalyDetectionService;
+
+    @Autowired
+    private AnomalyMetricResultRepository anomalyMetricResultRepository;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    /**
+     * 上传文件先落盘，再交给导入流水线（解析→入库→评分）后台处理
+     * 最多等待首批数据入库后返回，让用户尽快看到文章列表
+     */
+    public IngestJob processExcelFile(MultipartFile file) throws Exception {
+        return processExcelFile(file, ingestConfig.isUpsert());
+    }
+
+    public IngestJob processExcelFile(MultipartFile file, boolean upsert) throws Exception {
+        Path spooledFile = Files.createTempFile("upload-", ".xlsx");
+        try {
+            file.transferTo(spooledFile);
+        } catch (Exception e) {
+            Files.deleteIfExists(spooledFile);
+            throw e;
+        }
+
+        IngestJob job = ingestPipelineService.submitFile(spooledFile, file.getOriginalFilename(), true, upsert);
+        job.awaitFirstChunk(ingestConfig.getFirstChunkWaitMillis());
+        return job;
+    }
+
+    /**
+     * 批量上传：多个xlsx文件或zip压缩包，所有工作簿的所有Sheet并行解析后合并为一个导入任务
+     */
+    public IngestJob processExcelFiles(MultipartFile[] files, boolean upsert) throws Exception {
+        List<Path> spooledFiles = new ArrayList<>();
+        try {
+            // 本次请求中所有zip解压出的字节数，上限对全部压缩包合计
+            long extractedBytes = 0;
+            for (MultipartFile file : files) {
+                if (file.isEmpty()) continue;
+                String name = file.getOriginalFilename();
+                if (name != null && name.toLowerCase().endsWith(".zip")) {
+                    extractedBytes = extractWorkbooks(file, spooledFiles, extractedBytes);
+                } else {
+                    Path spooledFile = Files.createTempFile("upload-", ".xlsx");
+                    spooledFiles.add(spooledFile);
+                    file.transferTo(spooledFile);
+                }
+            }
+        } catch (Exception e) {
+            for (Path spooledFile : spooledFiles) {
+                Files.deleteIfExists(spooledFile);
             }
-        }, executorService);
-        
-        return articles; // 立即返回，让用户看到文章列表
+            throw e;
+        }
+
+        if (spooledFiles.isEmpty()) {
+            throw new IllegalArgumentException("没有可导入的xlsx文件");
+        }
+
+        String jobName = files.length == 1
+            ? files[0].getOriginalFilename()
+            : files[0].getOriginalFilename() + " 等" + files.length + "个文件";
+        IngestJob job = ingestPipelineService.submitFiles(spooledFiles, jobName, true, upsert);
+        job.awaitFirstChunk(ingestConfig.getFirstChunkWaitMillis());
+        return job;
+    }
+
+    /**
+     * 解压zip中的xlsx文件到临时目录，忽略目录、Office锁文件和macOS元数据
+     * Windows压缩的中文文件名通常是GBK编码，未标记UTF-8的条目按GBK读取。
+     * 工作簿个数和解压后的总字节数受配置上限约束，按实际写出的字节计数，不信任条目头中声明的大小
+     * @return 加上本压缩包后累计解压的字节数
+     */
+    private long extractWorkbooks(MultipartFile archive, List<Path> spooledFiles, long extractedBytes) throws IOException {
+        int maxEntries = ingestConfig.getMaxArchiveEntries();
+        long maxBytes = ingestConfig.getMaxArchiveBytes();
+        byte[] buffer = new byte[8192];
+        try (ZipInputStream zip = new ZipInputStream(archive.getInputStream(), Charset.forName("GBK"))) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                String entryName = entry.getName();
+                String baseName = entryName.substring(entryName.lastIndexOf('/') + 1);
+                if (entry.isDirectory() || entryName.startsWith("__MACOSX/") || baseName.startsWith("~$")
+                        || !baseName.toLowerCase().endsWith(".xlsx")) {
+                    continue;
+                }
+                if (spooledFiles.size() >= maxEntries) {
+                    throw new IllegalArgumentException("批量上传的xlsx文件超过 " + maxEntries + " 个");
+                }
+                Path spooledFile = Files.createTempFile("upload-", ".xlsx");
+                spooledFiles.add(spooledFile);
+                try (OutputStream out = Files.newOutputStream(spooledFile)) {
+                    int read;
+                    while ((read = zip.read(buffer)) > 0) {
+                        extractedBytes += read;
+                        if (extractedBytes > maxBytes) {
+                            throw new IllegalArgumentException("压缩包解压后超过 " + maxBytes + " 字节");
+                        }
+                        out.write(buffer, 0, read);
+                    }
+                }
+            }
+        }
+        return extractedBytes;
+    }
+
+    public boolean isUpsertByDefault() {
+        return ingestConfig.isUpsert();
+    }
+
+    public IngestJob getIngestJob(String jobId) {
+        return ingestPipelineService.getJob(jobId);
+    }
+
+    public List<IngestJob> getRecentIngestJobs() {
+        return ingestPipelineService.getRecentJobs();
     }
 
     // processContentAsync方法已移除，改为按需爬取
@@ -70,30 +180,26 @@ public class AnalysisService {
         return articleDataRepository.findByAnomalyStatus(status);
     }
 
+    public List<ArticleData> getArticlesByMetricLevel(String metric, String level) {
+        return articleDataRepository.findByMetricLevel(metric, level);
+    }
+
     public void deleteAllArticles() {
+        anomalyMetricResultRepository.deleteAllInBatch();
         articleDataRepository.deleteAll();
+        baselineStatisticsService.reset();
+        cohortStatisticsRegistry.invalidateAll();
     }
 
     public ArticleDetailResponse getArticleDetailResponse(ArticleData article) {
         ArticleDetailResponse response = new ArticleDetailResponse(article);
 
-        if (article.getAnomalyDetails() != null) {
-            try {
-                ObjectMapper mapper = new ObjectMapper();
-                AnomalyAnalysisReport anomalyReport = mapper.readValue(
-                    article.getAnomalyDetails(), 
-                    AnomalyAnalysisReport.class
-                );
-                response.setAnomalyReport(anomalyReport);
-            } catch (Exception e) {
-                response.setAnomalyReport(new AnomalyAnalysisReport());
-            }
-        }
+        // 各指标明细按行读出后组装，序列化只在接口返回时进行
+        response.setAnomalyReport(anomalyDetectionService.loadReport(article));
 
         if (article.getTitleAnalysis() != null) {
             try {
-                ObjectMapper mapper = new ObjectMapper();
-                TitleAnalysis titleAnalysis = mapper.readValue(
+                TitleAnalysis titleAnalysis = objectMapper.readValue(
                     article.getTitleAnalysis(), 
                     TitleAnalysis.class
                 );
@@ -1,53 +1,289 @@
 package com.fxt.backend.service;
 
+import com.fxt.backend.config.ScoringConfig;
+import com.fxt.backend.entity.AnomalyMetricResult;
 import com.fxt.backend.entity.ArticleData;
+import com.fxt.backend.repository.AnomalyMetricResultRepository;
 import com.fxt.backend.repository.ArticleDataRepository;
 import com.fxt.backend.dto.AnomalyAnalysisReport;
+import com.fxt.backend.dto.StatisticsContext;
+import com.fxt.backend.scoring.CohortBaseline;
+import com.fxt.backend.scoring.CohortKey;
+import com.fxt.backend.scoring.IsolationForest;
+import com.fxt.backend.scoring.MahalanobisModel;
+import com.fxt.backend.scoring.OutlierFeatures;
+import com.fxt.backend.scoring.OutlierModel;
+import com.fxt.backend.scoring.ScoringProfile;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
 
 @Service
 public class AnomalyDetectionService {
     
+    private static final Logger logger = LoggerFactory.getLogger(AnomalyDetectionService.class);
+    
     @Autowired
     private ArticleDataRepository articleDataRepository;
     
     @Autowired
     private AdvancedAnomalyDetectionService advancedAnomalyDetectionService;
     
+    @Autowired
+    private AnomalyMetricResultRepository anomalyMetricResultRepository;
+    
+    @Autowired
+    private ScoringConfig scoringConfig;
+    
     private final ObjectMapper objectMapper = new ObjectMapper();
     
-    public void detectAnomalies(List<ArticleData> articles) {
-        // 为每篇文章进行高级异常检测
-        for (ArticleData article : articles) {
-            detectAndAnalyzeAnomalies(article, articles);
+    // 离群模型的固定随机种子，同一基准训练出的模型和得分可复现
+    private static final long OUTLIER_SEED = 20240501L;
+    
+    // 并行评分线程池，并行度为1时为null，走单线程
+    private ForkJoinPool scoringPool;
+    
+    @PostConstruct
+    public void init() {
+        int parallelism = scoringConfig.getParallelism() > 0
+            ? scoringConfig.getParallelism()
+            : Runtime.getRuntime().availableProcessors();
+        if (parallelism > 1) {
+            scoringPool = new ForkJoinPool(parallelism, pool -> {
+                ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+                thread.setName("anomaly-score-" + thread.getPoolIndex());
+                return thread;
+            }, null, false);
+        }
+        logger.info("异常评分并行度: {}", parallelism);
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        if (scoringPool != null) {
+            scoringPool.shutdownNow();
         }
     }
     
+    public void detectAnomalies(List<ArticleData> articles) {
+        detectAnomalies(articles, articles);
+    }
+    
+    /**
+     * 批量评分：基准统计只计算一次，所有待评分文章共用
+     */
+    public void detectAnomalies(List<ArticleData> articles, List<ArticleData> baseline) {
+        detectAndAnalyzeAnomalies(articles, buildStatisticsContext(baseline));
+    }
+    
+    public StatisticsContext buildStatisticsContext(List<ArticleData> baseline) {
+        return advancedAnomalyDetectionService.buildStatisticsContext(baseline);
+    }
+    
     public void detectAndAnalyzeAnomalies(ArticleData article, List<ArticleData> allArticles) {
+        detectAndAnalyzeAnomalies(article, advancedAnomalyDetectionService.buildStatisticsContext(allArticles));
+    }
+    
+    public void detectAndAnalyzeAnomalies(ArticleData article, StatisticsContext context) {
         // 使用高级异常检测服务
-        AnomalyAnalysisReport report = advancedAnomalyDetectionService.detectAnomalies(article, allArticles);
+        applyReport(article, advancedAnomalyDetectionService.detectAnomalies(article, context));
+    }
+    
+    /**
+     * 批量评分，文章数超过一个分片时拆分到并行评分线程池
+     * 统计基准已固定，每篇文章的评分只依赖自身和基准，与分片方式、线程数无关，
+     * 并行结果（包括各指标明细）与单线程完全相同
+     */
+    public void detectAndAnalyzeAnomalies(List<ArticleData> articles, StatisticsContext context) {
+        detectAndAnalyzeAnomalies(articles, context, null);
+    }
+    
+    /**
+     * 同上，outlierModel不为空时报告中追加多维离群结果；模型训练后只读，各线程共用
+     */
+    public void detectAndAnalyzeAnomalies(List<ArticleData> articles, StatisticsContext context,
+                                          OutlierModel outlierModel) {
+        int batchSize = Math.max(1, scoringConfig.getParallelBatchSize());
+        if (scoringPool == null || articles.size() <= batchSize) {
+            scoreBatch(articles, context, outlierModel);
+            return;
+        }
+        scoringPool.invoke(new ScoringTask(articles, context, outlierModel, batchSize));
+    }
+    
+    /**
+     * 按人群评分：先确定每篇文章使用的基准人群（样本不足时已回退到父人群），再按人群分组批量评分
+     * 启用滚动窗口时，同一人群内再按发布日期分组，同一天发布的文章共用一个窗口基准；没有发布时间的文章用整个人群
+     */
+    public void detectAndAnalyzeAnomalies(List<ArticleData> articles, CohortBaseline baseline) {
+        if (baseline.isGlobalOnly() && !baseline.isWindowed()) {
+            detectAndAnalyzeAnomalies(articles, baseline.contextOf(CohortKey.GLOBAL), baseline.outlierModelOf(CohortKey.GLOBAL));
+            return;
+        }
+        Map<CohortKey, List<ArticleData>> groups = new LinkedHashMap<>();
+        for (ArticleData article : articles) {
+            groups.computeIfAbsent(baseline.resolve(article), k -> new ArrayList<>()).add(article);
+        }
+        for (Map.Entry<CohortKey, List<ArticleData>> group : groups.entrySet()) {
+            CohortKey cohort = group.getKey();
+            OutlierModel outlierModel = baseline.outlierModelOf(cohort);
+            if (!baseline.isWindowed()) {
+                detectAndAnalyzeAnomalies(group.getValue(), baseline.contextOf(cohort), outlierModel);
+                continue;
+            }
+            Map<LocalDate, List<ArticleData>> byDay = new LinkedHashMap<>();
+            List<ArticleData> undated = new ArrayList<>();
+            for (ArticleData article : group.getValue()) {
+                if (article.getPublishTime() == null) {
+                    undated.add(article);
+                } else {
+                    byDay.computeIfAbsent(article.getPublishTime().toLocalDate(), d -> new ArrayList<>()).add(article);
+                }
+            }
+            for (Map.Entry<LocalDate, List<ArticleData>> day : byDay.entrySet()) {
+                detectAndAnalyzeAnomalies(day.getValue(), baseline.windowContextOf(cohort, day.getKey()), outlierModel);
+            }
+            if (!undated.isEmpty()) {
+                detectAndAnalyzeAnomalies(undated, baseline.contextOf(cohort), outlierModel);
+            }
+        }
+    }
+    
+    /**
+     * 用一个基准人群的文章训练离群模型（孤立森林或马氏距离，见analysis.scoring.outlier-method）；
+     * 未启用或有效文章不足cohortMinSize时返回null
+     */
+    public OutlierModel trainOutlierModel(List<ArticleData> cohort) {
+        boolean mahalanobis = scoringConfig.isMahalanobisOutlier();
+        int minSize = mahalanobis ? OutlierFeatures.DIMENSIONS + 2 : 3;
+        if (!scoringConfig.isOutlierEnabled() || cohort.size() < Math.max(minSize, scoringConfig.getCohortMinSize())) {
+            return null;
+        }
+        long start = System.nanoTime();
+        OutlierModel model = mahalanobis
+            ? MahalanobisModel.train(OutlierFeatures.of(cohort))
+            : IsolationForest.train(OutlierFeatures.of(cohort),
+                scoringConfig.getOutlierTrees(), scoringConfig.getOutlierSampleSize(), OUTLIER_SEED);
+        logger.debug("离群模型训练完成: {} 篇，{}，耗时 {}ms", cohort.size(), model.getName(),
+            (System.nanoTime() - start) / 1_000_000);
+        return model;
+    }
+    
+    /**
+     * 一次提交多少篇文章能让每个评分线程都分到一个任务
+     */
+    public int getParallelWindowSize() {
+        int threads = scoringPool != null ? scoringPool.getParallelism() : 1;
+        return threads * Math.max(1, scoringConfig.getParallelBatchSize());
+    }
+    
+    /**
+     * 一批文章共用一次列式评分
+     */
+    private void scoreBatch(List<ArticleData> articles, StatisticsContext context, OutlierModel outlierModel) {
+        List<AnomalyAnalysisReport> reports = advancedAnomalyDetectionService.detectAnomalies(articles, context, outlierModel);
+        for (int i = 0; i < articles.size(); i++) {
+            applyReport(articles.get(i), reports.get(i));
+        }
+    }
+    
+    /**
+     * 二分拆分文章列表，直到不超过batchSize
+     */
+    private class ScoringTask extends RecursiveAction {
+        private final List<ArticleData> articles;
+        private final StatisticsContext context;
+        private final OutlierModel outlierModel;
+        private final int batchSize;
         
-        // 设置异常状态和评分
-        article.setAnomalyStatus(report.getOverallStatus());
-        article.setAnomalyScore(report.getOverallScore());
+        ScoringTask(List<ArticleData> articles, StatisticsContext context, OutlierModel outlierModel, int batchSize) {
+            this.articles = articles;
+            this.context = context;
+            this.outlierModel = outlierModel;
+            this.batchSize = batchSize;
+        }
         
-        // 将详细报告序列化为JSON存储
+        @Override
+        protected void compute() {
+            if (articles.size() <= batchSize) {
+                scoreBatch(articles, context, outlierModel);
+                return;
+            }
+            int middle = articles.size() / 2;
+            invokeAll(new ScoringTask(articles.subList(0, middle), context, outlierModel, batchSize),
+                new ScoringTask(articles.subList(middle, articles.size()), context, outlierModel, batchSize));
+        }
+    }
+    
+    /**
+     * 按评分方案重新判定一篇文章已存的结果（见AdvancedAnomalyDetectionService.reapplyProfile），不重新计算基准
+     * @param stored 文章在anomaly_metric_result中的明细行，按报告中的顺序
+     * @return 文章尚未评分、只有旧版JSON明细（没有明细行也没有结果指纹）或明细缺少基准四分位数时返回false，文章不变
+     */
+    public boolean reapplyProfile(ArticleData article, List<AnomalyMetricResult> stored, ScoringProfile profile) {
+        if (article.getAnomalyStatus() == null || (stored.isEmpty() && article.getAnomalyHash() == null)) {
+            return false;
+        }
+        AnomalyAnalysisReport report = advancedAnomalyDetectionService.reapplyProfile(
+            AnomalyAnalysisReport.of(article.getAnomalyStatus(), article.getAnomalyScore(), stored), profile);
+        if (report == null) {
+            return false;
+        }
+        applyReport(article, report);
+        return true;
+    }
+    
+    /**
+     * 读取文章的异常检测报告：按anomaly_metric_result中的行组装；
+     * 还没有重新评分过的旧数据没有明细行，退回解析anomaly_details中的JSON
+     */
+    public AnomalyAnalysisReport loadReport(ArticleData article) {
+        if (article.getId() != null) {
+            List<AnomalyMetricResult> rows = anomalyMetricResultRepository.findByArticleIdOrderByPositionAsc(article.getId());
+            if (!rows.isEmpty()) {
+                return AnomalyAnalysisReport.of(article.getAnomalyStatus(), article.getAnomalyScore(), rows);
+            }
+        }
+        if (article.getAnomalyDetails() == null || article.getAnomalyDetails().isEmpty()) {
+            return null;
+        }
         try {
-            String reportJson = objectMapper.writeValueAsString(report);
-            article.setAnomalyDetails(reportJson);
+            return objectMapper.readValue(article.getAnomalyDetails(), AnomalyAnalysisReport.class);
         } catch (Exception e) {
-            article.setAnomalyDetails("{}");
+            logger.warn("解析文章 {} 的异常检测JSON失败: {}", article.getId(), e.getMessage());
+            return null;
         }
+    }
+    
+    private void applyReport(ArticleData article, AnomalyAnalysisReport report) {
+        // 设置异常状态和评分
+        article.setAnomalyStatus(report.getOverallStatus());
+        article.setAnomalyScore(report.getOverallScore());
+        
+        // 各指标结果按行存储（见AnomalyMetricResult），由ArticleDataBulkRepository.updateScores随状态一起写入；
+        // 不再序列化整份报告，指纹用于重新评分时判断结果是否变化
+        article.setAnomalyResults(report.toEntities());
+        article.setAnomalyHash(report.fingerprint());
+        article.setAnomalyDetails(null);
         
         // 计算并存储关键指标
-        calculateAndStoreMetrics(article, allArticles);
+        calculateAndStoreMetrics(article);
     }
     
-    private void calculateAndStoreMetrics(ArticleData article, List<ArticleData> allArticles) {
+    private void calculateAndStoreMetrics(ArticleData article) {
         // 计算互动率
         if (article.getReadCount7d() != null && article.getReadCount7d() > 0 && article.getInteractionCount7d() != null) {
             double interactionRate = (double) article.getInteractionCount7d() / article.getReadCount7d() * 100;
@@ -0,0 +1,145 @@
+package com.fxt.backend.service;
+
+import com.fxt.backend.config.ScoringConfig;
+import com.fxt.backend.dto.ArticleMetricsChangedEvent;
+import com.fxt.backend.entity.ArticleData;
+import com.fxt.backend.repository.ArticleDataBulkRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 指标变更后的增量重新评分
+ * 收到ArticleMetricsChangedEvent后只记下文章ID，在后台线程上等待一个批处理间隔，
+ * 把这段时间内变更的文章合成一批：先通知CohortStatisticsRegistry（排名索引逐篇更新，受影响的人群缓存失效），
+ * 再按缓存的人群统计只对这些文章重新评分，回写结果有变化的文章。
+ * 批量爬取时逐篇发出的事件因此只触发少量几次评分，不需要全量重新评分。
+ * historical模式下这就是导入时使用的基准；upload模式下导入时的上传批次不再保留，
+ * 变更的文章改按人群当前的全部文章评分
+ */
+@Service
+public class ArticleRescoreListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(ArticleRescoreListener.class);
+
+    @Autowired
+    private ArticleDataBulkRepository articleDataBulkRepository;
+
+    @Autowired
+    private RescoreJobService rescoreJobService;
+
+    @Autowired
+    private CohortStatisticsRegistry cohortStatisticsRegistry;
+
+    @Autowired
+    private BaselineStatisticsService baselineStatisticsService;
+
+    @Autowired
+    private ScoringConfig scoringConfig;
+
+    // 等待处理的文章ID，按到达顺序去重
+    private final Set<Long> pending = new LinkedHashSet<>();
+    private boolean flushScheduled;
+
+    private final AtomicLong rescoredArticles = new AtomicLong();
+    private final AtomicLong changedArticles = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+
+    private ScheduledExecutorService executor;
+
+    @PostConstruct
+    public void init() {
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "metrics-rescore");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @EventListener
+    public void onMetricsChanged(ArticleMetricsChangedEvent event) {
+        if (event.getArticleIds().isEmpty()) {
+            return;
+        }
+        synchronized (this) {
+            pending.addAll(event.getArticleIds());
+            if (flushScheduled) {
+                return;
+            }
+            flushScheduled = true;
+        }
+        executor.schedule(this::flush, Math.max(0, scoringConfig.getChangeBatchDelayMs()), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 处理当前积累的全部文章；处理期间到达的事件进入下一批
+     */
+    void flush() {
+        List<Long> ids;
+        synchronized (this) {
+            ids = new ArrayList<>(pending);
+            pending.clear();
+            flushScheduled = false;
+        }
+        int chunkSize = Math.max(1, scoringConfig.getRescoreChunkSize());
+        for (int from = 0; from < ids.size(); from += chunkSize) {
+            List<Long> chunk = ids.subList(from, Math.min(ids.size(), from + chunkSize));
+            try {
+                rescore(chunk);
+            } catch (Exception e) {
+                logger.error("指标变更后重新评分失败: {} 篇文章", chunk.size(), e);
+            }
+        }
+    }
+
+    private void rescore(List<Long> ids) {
+        long[] idArray = new long[ids.size()];
+        for (int i = 0; i < idArray.length; i++) {
+            idArray[i] = ids.get(i);
+        }
+        List<ArticleData> articles = articleDataBulkRepository.findScoringRowsByIds(idArray);
+        if (articles.isEmpty()) {
+            return;
+        }
+        // 先更新统计，再按更新后的人群基准评分；历史基准草图中这些文章的取值已过时，累计到阈值时重建
+        cohortStatisticsRegistry.invalidate(articles);
+        if (baselineStatisticsService.recordUpdated(articles.size())) {
+            cohortStatisticsRegistry.invalidateAll();
+        }
+
+        int changed = rescoreJobService.rescore(articles, cohortStatisticsRegistry.baseline());
+        batches.incrementAndGet();
+        rescoredArticles.addAndGet(articles.size());
+        changedArticles.addAndGet(changed);
+        logger.info("指标变更后重新评分 {} 篇文章，{} 篇结果有变化", articles.size(), changed);
+    }
+
+    /**
+     * 累计处理的批次和文章数，以及等待处理的文章数
+     */
+    public Map<String, Object> getSummary() {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        synchronized (this) {
+            summary.put("pendingArticles", pending.size());
+        }
+        summary.put("batches", batches.get());
+        summary.put("rescoredArticles", rescoredArticles.get());
+        summary.put("changedArticles", changedArticles.get());
+        return summary;
+    }
+}
@@ -0,0 +1,267 @@
+package com.fxt.backend.service;
+
+import com.fxt.backend.config.ScoringConfig;
+import com.fxt.backend.dto.MetricStatistics;
+import com.fxt.backend.dto.StatisticsContext;
+import com.fxt.backend.entity.ArticleData;
+import com.fxt.backend.entity.BaselineSketch;
+import com.fxt.backend.repository.ArticleDataBulkRepository;
+import com.fxt.backend.repository.BaselineSketchRepository;
+import com.fxt.backend.scoring.KllSketch;
+import com.fxt.backend.scoring.MetricAccumulator;
+import com.fxt.backend.scoring.RunningMoments;
+import com.fxt.backend.scoring.ScoringMetric;
+import com.fxt.backend.scoring.StatisticsAccumulator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 增量维护的评分基准
+ * 每次导入只把新增的行合并进已持久化的草图，不再从全表重新统计；
+ * 草图按 (范围, 指标) 持久化在baseline_sketch表，重启后从表中恢复，多个节点各自合并增量后写回同一行
+ *
+ * 草图只能追加不能删除：已有行被更新后，旧值仍留在草图中，新值也不计入。
+ * 调用方通过recordUpdated报告被更新的行数，累计超过有效文章数的 baseline-rebuild-ratio 时自动按全表重建；
+ * 累计数只在本节点内存中，重启后从0开始
+ */
+@Service
+public class BaselineStatisticsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BaselineStatisticsService.class);
+
+    // 全部数据的统计范围
+    public static final String GLOBAL_SCOPE = "ALL";
+
+    // 乐观锁冲突时的最大重试次数
+    private static final int MAX_MERGE_ATTEMPTS = 5;
+
+    @Autowired
+    private BaselineSketchRepository baselineSketchRepository;
+
+    @Autowired
+    private ArticleDataBulkRepository articleDataBulkRepository;
+
+    @Autowired
+    private ScoringConfig scoringConfig;
+
+    // 已加载的范围，与表中的状态一致；读写同一范围时在locks中该范围的锁对象上同步
+    private final Map<String, StatisticsAccumulator> accumulators = new ConcurrentHashMap<>();
+    private final Map<String, Object> locks = new ConcurrentHashMap<>();
+    // 上次重建以来被更新过的行数，这些行在草图中的取值已过时
+    private final AtomicLong staleRows = new AtomicLong();
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+
+    /**
+     * 把一批新增文章合并进指定范围的基准并持久化
+     */
+    public void record(String scope, Collection<ArticleData> articles) {
+        if (articles.isEmpty()) {
+            return;
+        }
+        StatisticsAccumulator delta = new StatisticsAccumulator();
+        delta.addAll(articles);
+        record(scope, delta);
+    }
+
+    /**
+     * 合并一个已累积好的增量（例如其他节点或另一个上传批次的统计）并持久化
+     */
+    public void record(String scope, StatisticsAccumulator delta) {
+        synchronized (lockFor(scope)) {
+            StatisticsAccumulator merged = new StatisticsAccumulator();
+            for (ScoringMetric metric : ScoringMetric.all()) {
+                merged.set(metric, mergeAndSave(scope, metric, delta.get(metric)));
+            }
+            // 以表中合并后的状态为准，其中包含其他节点写入的增量
+            accumulators.put(scope, merged);
+        }
+    }
+
+    /**
+     * 记录已计入全局基准的行被更新；累计的过时行超过阈值时按全表重建
+     * @return 是否进行了重建（调用方需使依赖该基准的缓存失效）
+     */
+    public boolean recordUpdated(long updatedRows) {
+        if (updatedRows <= 0) {
+            return false;
+        }
+        long stale = staleRows.addAndGet(updatedRows);
+        double ratio = scoringConfig.getBaselineRebuildRatio();
+        if (ratio <= 0 || stale <= ratio * load(GLOBAL_SCOPE).getValidCount()) {
+            return false;
+        }
+        // 已有线程在重建时不重复重建，这段时间的更新计入下一轮
+        if (!rebuilding.compareAndSet(false, true)) {
+            return false;
+        }
+        try {
+            logger.info("评分基准中已有 {} 行过时，超过阈值 {}，按全表重建", stale, ratio);
+            rebuild();
+            return true;
+        } finally {
+            rebuilding.set(false);
+        }
+    }
+
+    /**
+     * 指定范围的评分基准；均值、标准差精确，分位数相关统计为近似值
+     */
+    public StatisticsContext getContext(String scope) {
+        StatisticsAccumulator accumulator = load(scope);
+        synchronized (lockFor(scope)) {
+            return accumulator.toContext();
+        }
+    }
+
+    /**
+     * 按全表重建全局基准，清除更新或删除后残留在草图中的旧值
+     * 按ID分页只读三个评分指标列，逐页并入草图，不把整表实体加载进内存
+     * @return 参与统计的有效文章数
+     */
+    public long rebuild() {
+        // 扫描期间被更新的行可能读到旧值，计入下一轮
+        staleRows.set(0);
+        StatisticsAccumulator rebuilt = new StatisticsAccumulator();
+        int chunkSize = Math.max(1, scoringConfig.getRescoreChunkSize());
+        long afterId = 0;
+        while (true) {
+            List<ArticleData> chunk = articleDataBulkRepository.findMetricRows(afterId, chunkSize);
+            if (chunk.isEmpty()) {
+                break;
+            }
+            afterId = chunk.get(chunk.size() - 1).getId();
+            rebuilt.addAll(chunk);
+        }
+
+        synchronized (lockFor(GLOBAL_SCOPE)) {
+            baselineSketchRepository.deleteAll(baselineSketchRepository.findByScope(GLOBAL_SCOPE));
+            StatisticsAccumulator saved = new StatisticsAccumulator();
+            for (ScoringMetric metric : ScoringMetric.all()) {
+                saved.set(metric, mergeAndSave(GLOBAL_SCOPE, metric, rebuilt.get(metric)));
+            }
+            accumulators.put(GLOBAL_SCOPE, saved);
+        }
+        logger.info("评分基准已按全表重建，有效文章 {} 篇", rebuilt.getValidCount());
+        return rebuilt.getValidCount();
+    }
+
+    /**
+     * 清空全部基准（删除全部文章时调用）
+     */
+    public void reset() {
+        baselineSketchRepository.deleteAllInBatch();
+        accumulators.clear();
+        staleRows.set(0);
+    }
+
+    /**
+     * 各指标的样本数和主要统计量，供接口查看
+     */
+    public Map<String, Object> getSummary(String scope) {
+        StatisticsContext context = getContext(scope);
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("scope", scope);
+        summary.put("validCount", context.getValidCount());
+        if (GLOBAL_SCOPE.equals(scope)) {
+            summary.put("staleRows", staleRows.get());
+        }
+        for (ScoringMetric metric : ScoringMetric.all()) {
+            MetricStatistics stats = metric.statisticsOf(context);
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("count", stats.getCount());
+            item.put("mean", stats.getMean());
+            item.put("stdDev", stats.getStdDev());
+            item.put("median", stats.getMedian());
+            item.put("mad", stats.getMad());
+            item.put("q1", stats.getQ1());
+            item.put("q3", stats.getQ3());
+            item.put("approximate", stats.isApproximate());
+            item.put("retainedItems", stats.getSortedValues().size());
+            summary.put(metric.name(), item);
+        }
+        return summary;
+    }
+
+    // ==================== 持久化 ====================
+
+    private StatisticsAccumulator load(String scope) {
+        StatisticsAccumulator cached = accumulators.get(scope);
+        if (cached != null) {
+            return cached;
+        }
+        synchronized (lockFor(scope)) {
+            return accumulators.computeIfAbsent(scope, s -> {
+                StatisticsAccumulator accumulator = new StatisticsAccumulator();
+                for (BaselineSketch row : baselineSketchRepository.findByScope(s)) {
+                    ScoringMetric metric = parseMetric(row.getMetric());
+                    if (metric != null) {
+                        accumulator.set(metric, toAccumulator(row));
+                    }
+                }
+                return accumulator;
+            });
+        }
+    }
+
+    /**
+     * 读出表中的状态、合并增量、写回；其他节点同时写入时按新版本重试
+     */
+    private MetricAccumulator mergeAndSave(String scope, ScoringMetric metric, MetricAccumulator delta) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                BaselineSketch row = baselineSketchRepository.findByScopeAndMetric(scope, metric.name())
+                    .orElseGet(() -> new BaselineSketch(scope, metric.name()));
+                MetricAccumulator merged = toAccumulator(row);
+                merged.merge(delta);
+
+                RunningMoments moments = merged.getMoments();
+                row.setSampleCount(moments.getCount());
+                row.setMean(moments.getMean());
+                row.setM2(moments.getM2());
+                row.setMinValue(moments.getMin());
+                row.setMaxValue(moments.getMax());
+                row.setSketch(merged.getSketch().toBytes());
+                row.setUpdatedAt(LocalDateTime.now());
+                baselineSketchRepository.save(row);
+                return merged;
+            } catch (OptimisticLockingFailureException | DataIntegrityViolationException e) {
+                if (attempt >= MAX_MERGE_ATTEMPTS) {
+                    throw e;
+                }
+                logger.debug("评分基准 {}/{} 并发写入冲突，第 {} 次重试", scope, metric, attempt);
+            }
+        }
+    }
+
+    private static MetricAccumulator toAccumulator(BaselineSketch row) {
+        if (row.getSketch() == null || row.getSampleCount() == 0) {
+            return new MetricAccumulator();
+        }
+        return new MetricAccumulator(
+            RunningMoments.of(row.getSampleCount(), row.getMean(), row.getM2(), row.getMinValue(), row.getMaxValue()),
+            KllSketch.fromBytes(row.getSketch()));
+    }
+
+    private static ScoringMetric parseMetric(String name) {
+        try {
+            return ScoringMetric.valueOf(name);
+        } catch (IllegalArgumentException e) {
+            logger.warn("忽略未知的评分基准指标: {}", name);
+            return null;
+        }
+    }
+
+    private Object lockFor(String scope) {
+        return locks.computeIfAbsent(scope, s -> new Object());
+    }
+}
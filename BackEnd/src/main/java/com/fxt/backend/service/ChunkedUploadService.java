@@ -0,0 +1,273 @@
+package com.fxt.backend.service;
+
+import com.fxt.backend.config.IngestConfig;
+import com.fxt.backend.dto.IngestJob;
+import com.fxt.backend.dto.UploadSession;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 可续传的分片上传
+ * 协议：init 创建会话 → 按偏移量顺序 PUT 分片 → complete 提交到导入流水线。
+ * 分片直接从请求流写入磁盘上的暂存文件，不经过multipart缓冲，不受multipart大小限制；
+ * 连接中途断开时已写入的字节仍然计入进度，客户端查询进度后从断点继续。
+ * 会话元数据同时写入暂存目录，服务重启后可以继续上传
+ */
+@Service
+public class ChunkedUploadService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChunkedUploadService.class);
+
+    private static final int COPY_BUFFER_SIZE = 256 * 1024;
+    private static final String PART_SUFFIX = ".part";
+    private static final String META_SUFFIX = ".meta";
+
+    @Autowired
+    private IngestPipelineService ingestPipelineService;
+
+    @Autowired
+    private IngestConfig ingestConfig;
+
+    private final Map<String, UploadSession> sessions = new ConcurrentHashMap<>();
+
+    private Path spoolDir;
+
+    @PostConstruct
+    public void init() throws IOException {
+        String configured = ingestConfig.getSpoolDir();
+        spoolDir = configured == null || configured.isEmpty()
+            ? Paths.get(System.getProperty("java.io.tmpdir"), "fxt-upload")
+            : Paths.get(configured);
+        Files.createDirectories(spoolDir);
+        restoreSessions();
+    }
+
+    /**
+     * 创建上传会话，预先创建空的暂存文件
+     */
+    public UploadSession createSession(String fileName, long totalSize, boolean upsert) throws IOException {
+        if (fileName == null || !fileName.toLowerCase().endsWith(".xlsx")) {
+            throw new IllegalArgumentException("只支持xlsx文件");
+        }
+        if (totalSize <= 0 || totalSize > ingestConfig.getMaxUploadBytes()) {
+            throw new IllegalArgumentException("文件大小必须在1字节到" + ingestConfig.getMaxUploadBytes() + "字节之间");
+        }
+        purgeExpired();
+
+        String uploadId = UUID.randomUUID().toString();
+        UploadSession session = new UploadSession(uploadId, fileName, totalSize, upsert,
+            spoolDir.resolve(uploadId + PART_SUFFIX), LocalDateTime.now());
+        Files.createFile(session.getSpoolFile());
+        writeMeta(session);
+        sessions.put(uploadId, session);
+
+        logger.info("分片上传会话已创建: {} ({}, {} 字节)", uploadId, fileName, totalSize);
+        return session;
+    }
+
+    public UploadSession getSession(String uploadId) {
+        return sessions.get(uploadId);
+    }
+
+    /**
+     * 把请求体写入暂存文件的指定偏移处
+     * 偏移量不能超过已接收字节数；小于已接收字节数时视为重传，覆盖写入
+     */
+    public UploadSession writeChunk(String uploadId, long offset, InputStream body) throws IOException {
+        UploadSession session = requireSession(uploadId);
+        synchronized (session) {
+            if (session.getStatus() != UploadSession.Status.UPLOADING) {
+                throw new IllegalStateException("上传会话已结束: " + session.getStatus());
+            }
+            if (offset < 0 || offset > session.getReceivedBytes()) {
+                throw new IllegalStateException("分片偏移量不连续，当前已接收 " + session.getReceivedBytes() + " 字节");
+            }
+
+            long position = offset;
+            try (FileChannel channel = FileChannel.open(session.getSpoolFile(), StandardOpenOption.WRITE);
+                 ReadableByteChannel source = Channels.newChannel(body)) {
+                ByteBuffer buffer = ByteBuffer.allocateDirect(COPY_BUFFER_SIZE);
+                while (source.read(buffer) != -1) {
+                    buffer.flip();
+                    if (position + buffer.remaining() > session.getTotalSize()) {
+                        throw new IllegalArgumentException("分片超出文件声明的大小 " + session.getTotalSize());
+                    }
+                    while (buffer.hasRemaining()) {
+                        position += channel.write(buffer, position);
+                    }
+                    buffer.clear();
+                }
+                channel.force(false);
+            } finally {
+                // 即使连接中途断开，已落盘的部分也计入进度
+                if (position > session.getReceivedBytes()) {
+                    session.setReceivedBytes(position);
+                }
+                session.setUpdatedAt(LocalDateTime.now());
+            }
+            return session;
+        }
+    }
+
+    /**
+     * 全部字节到齐后提交导入任务；重复调用返回同一个任务
+     */
+    public IngestJob complete(String uploadId) throws IOException, InterruptedException {
+        UploadSession session = requireSession(uploadId);
+        IngestJob job;
+        synchronized (session) {
+            if (session.getStatus() == UploadSession.Status.COMPLETED) {
+                job = ingestPipelineService.getJob(session.getJobId());
+                if (job == null) {
+                    throw new IllegalStateException("上传已完成，导入任务记录已过期: " + session.getJobId());
+                }
+                return job;
+            }
+            if (session.getStatus() != UploadSession.Status.UPLOADING) {
+                throw new IllegalStateException("上传会话已结束: " + session.getStatus());
+            }
+            if (!session.isComplete()) {
+                throw new IllegalStateException("上传未完成: " + session.getReceivedBytes() + "/" + session.getTotalSize());
+            }
+
+            Path workbook = spoolDir.resolve(uploadId + ".xlsx");
+            Files.move(session.getSpoolFile(), workbook, StandardCopyOption.REPLACE_EXISTING);
+            Files.deleteIfExists(metaFile(uploadId));
+
+            job = ingestPipelineService.submitFile(workbook, session.getFileName(), true, session.isUpsert());
+            session.setJobId(job.getJobId());
+            session.setStatus(UploadSession.Status.COMPLETED);
+            session.setUpdatedAt(LocalDateTime.now());
+        }
+        job.awaitFirstChunk(ingestConfig.getFirstChunkWaitMillis());
+        return job;
+    }
+
+    /**
+     * 放弃上传，删除暂存文件
+     */
+    public void abort(String uploadId) throws IOException {
+        UploadSession session = requireSession(uploadId);
+        synchronized (session) {
+            if (session.getStatus() == UploadSession.Status.UPLOADING) {
+                deleteFiles(session);
+            }
+            session.setStatus(UploadSession.Status.ABORTED);
+            sessions.remove(uploadId);
+        }
+    }
+
+    // ==================== 辅助方法 ====================
+
+    private UploadSession requireSession(String uploadId) {
+        UploadSession session = sessions.get(uploadId);
+        if (session == null) {
+            throw new UploadNotFoundException(uploadId);
+        }
+        return session;
+    }
+
+    /**
+     * 清理长时间没有进展的会话，未完成的会话同时删除暂存文件
+     */
+    private void purgeExpired() {
+        LocalDateTime cutoff = LocalDateTime.now().minusHours(ingestConfig.getUploadExpiryHours());
+        for (UploadSession session : sessions.values()) {
+            if (session.getUpdatedAt().isAfter(cutoff)) {
+                continue;
+            }
+            synchronized (session) {
+                try {
+                    if (session.getStatus() == UploadSession.Status.UPLOADING) {
+                        deleteFiles(session);
+                    }
+                } catch (IOException e) {
+                    logger.warn("清理过期上传会话失败: {}", session.getUploadId(), e);
+                }
+                sessions.remove(session.getUploadId());
+            }
+        }
+    }
+
+    private void restoreSessions() throws IOException {
+        try (DirectoryStream<Path> metaFiles = Files.newDirectoryStream(spoolDir, "*" + META_SUFFIX)) {
+            for (Path metaFile : metaFiles) {
+                String fileName = metaFile.getFileName().toString();
+                String uploadId = fileName.substring(0, fileName.length() - META_SUFFIX.length());
+                Path partFile = spoolDir.resolve(uploadId + PART_SUFFIX);
+                if (!Files.exists(partFile)) {
+                    Files.deleteIfExists(metaFile);
+                    continue;
+                }
+
+                Properties meta = new Properties();
+                try (Reader reader = Files.newBufferedReader(metaFile, StandardCharsets.UTF_8)) {
+                    meta.load(reader);
+                }
+                UploadSession session = new UploadSession(uploadId, meta.getProperty("fileName"),
+                    Long.parseLong(meta.getProperty("totalSize")), Boolean.parseBoolean(meta.getProperty("upsert")),
+                    partFile, LocalDateTime.parse(meta.getProperty("createdAt")));
+                // 分片按顺序写入，暂存文件长度即已接收字节数
+                session.setReceivedBytes(Math.min(Files.size(partFile), session.getTotalSize()));
+                session.setUpdatedAt(LocalDateTime.now());
+                sessions.put(uploadId, session);
+            }
+        }
+        if (!sessions.isEmpty()) {
+            logger.info("恢复了 {} 个未完成的分片上传会话", sessions.size());
+        }
+    }
+
+    private void writeMeta(UploadSession session) throws IOException {
+        Properties meta = new Properties();
+        meta.setProperty("fileName", session.getFileName());
+        meta.setProperty("totalSize", String.valueOf(session.getTotalSize()));
+        meta.setProperty("upsert", String.valueOf(session.isUpsert()));
+        meta.setProperty("createdAt", session.getCreatedAt().toString());
+        try (Writer writer = Files.newBufferedWriter(metaFile(session.getUploadId()), StandardCharsets.UTF_8)) {
+            meta.store(writer, null);
+        }
+    }
+
+    private void deleteFiles(UploadSession session) throws IOException {
+        Files.deleteIfExists(session.getSpoolFile());
+        Files.deleteIfExists(metaFile(session.getUploadId()));
+    }
+
+    private Path metaFile(String uploadId) {
+        return spoolDir.resolve(uploadId + META_SUFFIX);
+    }
+
+    /**
+     * 上传会话不存在或已过期
+     */
+    public static class UploadNotFoundException extends RuntimeException {
+        public UploadNotFoundException(String uploadId) {
+            super("上传会话不存在或已过期: " + uploadId);
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.fxt.backend.service;
+
+import com.fxt.backend.config.ScoringConfig;
+import com.fxt.backend.dto.StatisticsContext;
+import com.fxt.backend.entity.ArticleData;
+import com.fxt.backend.repository.ArticleDataBulkRepository;
+import com.fxt.backend.scoring.CohortBaseline;
+import com.fxt.backend.scoring.CohortDimension;
+import com.fxt.backend.scoring.CohortKey;
+import com.fxt.backend.scoring.OutlierModel;
+import com.fxt.backend.scoring.TimeWindowIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 历史全量数据上按人群缓存的评分基准
+ * 人群统计在首次用到时从表中读取该人群的评分指标计算，之后一直缓存，
+ * 直到上传或重新爬取改动了该人群（及其各级父人群）的文章才失效；其他人群的缓存不受影响。
+ * 全部数据（GLOBAL）的统计取自BaselineStatisticsService增量维护的草图，不需要扫全表；
+ * 启用排名索引时改为取自RankIndexService，失效通知同时用来逐篇更新索引。
+ * 启用多维离群检测时，各人群的离群模型（孤立森林或马氏距离）同样缓存，与统计一起失效后才重新训练；
+ * 启用滚动窗口时，各人群的发布日期索引同样缓存
+ */
+@Service
+public class CohortStatisticsRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(CohortStatisticsRegistry.class);
+
+    @Autowired
+    private ScoringConfig scoringConfig;
+
+    @Autowired
+    private ArticleDataBulkRepository articleDataBulkRepository;
+
+    @Autowired
+    private BaselineStatisticsService baselineStatisticsService;
+
+    @Autowired
+    private AnomalyDetectionService anomalyDetectionService;
+
+    @Autowired
+    private RankIndexService rankIndexService;
+
+    private final Map<CohortKey, StatisticsContext> cache = new ConcurrentHashMap<>();
+    private final Map<CohortKey, Optional<OutlierModel>> outlierModels = new ConcurrentHashMap<>();
+    private final Map<CohortKey, TimeWindowIndex> windowIndexes = new ConcurrentHashMap<>();
+
+    /**
+     * 按当前配置的人群键生成评分基准，各人群统计取自缓存
+     */
+    public CohortBaseline baseline() {
+        CohortBaseline baseline = new CohortBaseline(scoringConfig.getCohortDimensions(), scoringConfig.getCohortMinSize(), this::get);
+        if (scoringConfig.isOutlierEnabled()) {
+            baseline.withOutlierModels(this::getOutlierModel);
+        }
+        if (scoringConfig.getWindowDays() > 0) {
+            baseline.withTimeWindow(this::getWindowIndex);
+        }
+        return baseline;
+    }
+
+    /**
+     * 导入评分实际使用的缓存基准：配置为historical且历史基准已有数据时为baseline()，否则为null。
+     * upload模式下每篇文章以它所在上传批次的全部行为基准评分，批次不单独保留，无法由缓存的统计还原；
+     * 需要与已存结果一致的调用方（假设评分、重新评分）据此判断能否使用缓存基准
+     */
+    public CohortBaseline historicalBaseline() {
+        if (!scoringConfig.isHistoricalBaseline()) {
+            return null;
+        }
+        CohortBaseline baseline = baseline();
+        return baseline.contextOf(CohortKey.GLOBAL).getValidCount() > 0 ? baseline : null;
+    }
+
+    public StatisticsContext get(CohortKey cohort) {
+        return cache.computeIfAbsent(cohort, this::load);
+    }
+
+    /**
+     * 人群的离群模型，训练数据为该人群在表中的全部文章；样本不足时为null
+     */
+    public OutlierModel getOutlierModel(CohortKey cohort) {
+        return outlierModels.computeIfAbsent(cohort,
+            key -> Optional.ofNullable(anomalyDetectionService.trainOutlierModel(
+                articleDataBulkRepository.findCohortMetrics(key)))).orElse(null);
+    }
+
+    /**
+     * 人群的发布日期索引；窗口天数改变后失效重建
+     */
+    public TimeWindowIndex getWindowIndex(CohortKey cohort) {
+        int windowDays = scoringConfig.getWindowDays();
+        TimeWindowIndex index = windowIndexes.computeIfAbsent(cohort,
+            key -> TimeWindowIndex.of(articleDataBulkRepository.findCohortMetrics(key), windowDays));
+        if (index.getWindowDays() != windowDays) {
+            index = TimeWindowIndex.of(articleDataBulkRepository.findCohortMetrics(cohort), windowDays);
+            windowIndexes.put(cohort, index);
+        }
+        return index;
+    }
+
+    /**
+     * 使这些文章所属的各级人群失效，并把它们的新指标计入排名索引
+     */
+    public void invalidate(Collection<ArticleData> touched) {
+        if (touched.isEmpty()) {
+            return;
+        }
+        rankIndexService.update(touched);
+        List<CohortDimension> dimensions = scoringConfig.getCohortDimensions();
+        Set<CohortKey> evicted = new HashSet<>();
+        for (ArticleData article : touched) {
+            CohortKey key = CohortKey.of(dimensions, article);
+            // 父人群已失效时，更粗的各级人群也已处理过
+            while (evicted.add(key) && !key.isGlobal()) {
+                key = key.parent();
+            }
+        }
+        for (CohortKey key : evicted) {
+            cache.remove(key);
+            outlierModels.remove(key);
+            windowIndexes.remove(key);
+        }
+        logger.debug("评分基准人群缓存失效 {} 个", evicted.size());
+    }
+
+    public void invalidateAll() {
+        cache.clear();
+        outlierModels.clear();
+        windowIndexes.clear();
+        rankIndexService.reset();
+    }
+
+    /**
+     * 已缓存的人群及其有效文章数
+     */
+    public Map<String, Object> getSummary() {
+        Map<String, Integer> cohorts = new TreeMap<>();
+        cache.forEach((key, context) -> cohorts.put(key.toString(), context.getValidCount()));
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("cohort", scoringConfig.getCohort());
+        summary.put("minSize", scoringConfig.getCohortMinSize());
+        summary.put("cachedCohorts", cohorts);
+        summary.put("cachedOutlierModels", outlierModels.size());
+        return summary;
+    }
+
+    private StatisticsContext load(CohortKey cohort) {
+        if (cohort.isGlobal() && scoringConfig.isRankIndexEnabled()) {
+            return rankIndexService.getContext();
+        }
+        if (cohort.isGlobal()) {
+            return baselineStatisticsService.getContext(BaselineStatisticsService.GLOBAL_SCOPE);
+        }
+        return StatisticsContext.of(articleDataBulkRepository.findCohortMetrics(cohort));
+    }
+}
@@ -4,7 +4,6 @@ import com.fxt.backend.entity.ArticleData;
 import com.fxt.backend.repository.ArticleDataRepository;
 import com.fxt.backend.dto.AnomalyAnalysisReport;
 import com.fxt.backend.dto.AnomalyAnalysisResult;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -25,7 +24,8 @@ public class DetailedOptimizationService {
     @Autowired
     private AIRecommendationService aiRecommendationService;
     
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    @Autowired
+    private AnomalyDetectionService anomalyDetectionService;
     
     public String generateDetailedOptimizations(ArticleData article) {
         List<ArticleData> allArticles = articleDataRepository.findAll();
@@ -37,7 +37,7 @@ public class DetailedOptimizationService {
         report.append("【一、异常原因分析】\n");
         report.append("═══════════════════════════════════════════\n\n");
         
-        AnomalyAnalysisReport anomalyReport = parseAnomalyDetails(article.getAnomalyDetails());
+        AnomalyAnalysisReport anomalyReport = anomalyDetectionService.loadReport(article);
         
         if (anomalyReport != null && !anomalyReport.getResults().isEmpty()) {
             for (AnomalyAnalysisResult result : anomalyReport.getResults()) {
@@ -316,18 +316,6 @@ public class DetailedOptimizationService {
     }
     
     // 辅助方法
-    private AnomalyAnalysisReport parseAnomalyDetails(String anomalyDetails) {
-        if (anomalyDetails == null || anomalyDetails.isEmpty()) {
-            return null;
-        }
-        
-        try {
-            return objectMapper.readValue(anomalyDetails, AnomalyAnalysisReport.class);
-        } catch (Exception e) {
-            return null;
-        }
-    }
-    
     private String getLevelText(String level) {
         switch (level) {
             case "SEVERE": return "严重异常";
@@ -354,23 +342,33 @@ public class DetailedOptimizationService {
         return (double) article.getInteractionCount7d() / article.getReadCount7d() * 100;
     }
     
+    /**
+     * 一次遍历按发文类型累加，得到各类型的平均阅读、平均互动和互动率
+     */
     private Map<String, PostTypeStats> calculatePostTypeStats(List<ArticleData> articles) {
-        return articles.stream()
-            .filter(a -> a.getPostType() != null && a.getReadCount7d() != null && a.getReadCount7d() > 0)
-            .collect(Collectors.groupingBy(
-                ArticleData::getPostType,
-                Collectors.collectingAndThen(
-                    Collectors.toList(),
-                    list -> {
-                        double avgRead = list.stream().mapToLong(a -> a.getReadCount7d()).average().orElse(0);
-                        double avgInteraction = list.stream()
-                            .filter(a -> a.getInteractionCount7d() != null)
-                            .mapToLong(a -> a.getInteractionCount7d()).average().orElse(0);
-                        double interactionRate = avgRead > 0 ? avgInteraction / avgRead * 100 : 0;
-                        return new PostTypeStats(avgRead, avgInteraction, interactionRate);
-                    }
-                )
-            ));
+        // 发文类型 → {阅读量之和, 篇数, 互动量之和, 有互动数据的篇数}
+        Map<String, long[]> sums = new LinkedHashMap<>();
+        for (ArticleData a : articles) {
+            if (a.getPostType() == null || a.getReadCount7d() == null || a.getReadCount7d() <= 0) continue;
+            long[] sum = sums.computeIfAbsent(a.getPostType(), k -> new long[4]);
+            sum[0] += a.getReadCount7d();
+            sum[1]++;
+            if (a.getInteractionCount7d() != null) {
+                sum[2] += a.getInteractionCount7d();
+                sum[3]++;
+            }
+        }
+        
+        Map<String, PostTypeStats> result = new LinkedHashMap<>();
+        sums.forEach((type, sum) -> result.put(type, postTypeStats(sum[0], sum[1], sum[2], sum[3])));
+        return result;
+    }
+    
+    private PostTypeStats postTypeStats(long readSum, long readCount, long interactionSum, long interactionCount) {
+        double avgRead = (double) readSum / readCount;
+        double avgInteraction = interactionCount > 0 ? (double) interactionSum / interactionCount : 0;
+        double interactionRate = avgRead > 0 ? avgInteraction / avgRead * 100 : 0;
+        return new PostTypeStats(avgRead, avgInteraction, interactionRate);
     }
     
     private String getDayOfWeekChinese(DayOfWeek dayOfWeek) {
@@ -0,0 +1,313 @@
+package com.fxt.backend.service;
+
+import com.fxt.backend.config.IngestConfig;
+import com.fxt.backend.dto.IngestJob;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 监听目录导入
+ * 用WatchService监听配置的目录，新出现的xlsx文件在大小和修改时间稳定后
+ * 交给与上传接口相同的导入流水线。按文件内容的SHA-256去重，
+ * 导入成功的文件记录在台账文件中，重启后也不会重复导入
+ */
+@Service
+public class DropFolderIngestService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DropFolderIngestService.class);
+
+    @Autowired
+    private IngestPipelineService ingestPipelineService;
+
+    @Autowired
+    private IngestConfig ingestConfig;
+
+    // 已成功导入的文件内容指纹
+    private final Set<String> ingestedHashes = ConcurrentHashMap.newKeySet();
+    // 本次运行中导入失败的文件，重启前不再重试
+    private final Set<String> failedHashes = ConcurrentHashMap.newKeySet();
+    // 等待稳定的文件
+    private final Map<Path, PendingFile> pendingFiles = new HashMap<>();
+    // 已提交、尚未结束的任务：文件指纹 → 任务
+    private final Map<String, InFlight> inFlightJobs = new HashMap<>();
+
+    private Path watchDir;
+    private Path ledgerFile;
+    private WatchService watchService;
+    private Thread watchThread;
+
+    @PostConstruct
+    public void start() throws IOException {
+        IngestConfig.WatchConfig config = ingestConfig.getWatch();
+        if (!config.isEnabled()) {
+            return;
+        }
+        if (config.getDir() == null || config.getDir().isEmpty()) {
+            logger.warn("已启用监听目录导入，但未配置 analysis.ingest.watch.dir，跳过");
+            return;
+        }
+
+        watchDir = Paths.get(config.getDir()).toAbsolutePath();
+        Files.createDirectories(watchDir);
+        ledgerFile = config.getLedgerFile() == null || config.getLedgerFile().isEmpty()
+            ? watchDir.resolve(".ingested")
+            : Paths.get(config.getLedgerFile());
+        loadLedger();
+
+        watchService = watchDir.getFileSystem().newWatchService();
+        watchDir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+
+        watchThread = new Thread(this::runWatchLoop, "ingest-watch");
+        watchThread.setDaemon(true);
+        watchThread.start();
+        logger.info("监听目录导入已启动: {}（已导入 {} 个文件）", watchDir, ingestedHashes.size());
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (watchThread != null) {
+            watchThread.interrupt();
+        }
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                logger.warn("关闭目录监听失败", e);
+            }
+        }
+    }
+
+    private void runWatchLoop() {
+        // 服务未运行期间放入的文件
+        scanDirectory();
+        long interval = Math.max(100, ingestConfig.getWatch().getScanIntervalMillis());
+
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                WatchKey key = watchService.poll(interval, TimeUnit.MILLISECONDS);
+                if (key != null) {
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                            scanDirectory();
+                        } else {
+                            track(watchDir.resolve((Path) event.context()));
+                        }
+                    }
+                    key.reset();
+                }
+                checkPendingFiles();
+                checkInFlightJobs();
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                logger.error("监听目录处理失败", e);
+            }
+        }
+    }
+
+    private void scanDirectory() {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(watchDir, "*.xlsx")) {
+            for (Path file : files) {
+                track(file);
+            }
+        } catch (IOException e) {
+            logger.error("扫描监听目录失败: {}", watchDir, e);
+        }
+    }
+
+    /**
+     * 记录文件的最新大小和修改时间，发生变化就重新计算稳定时间
+     */
+    private void track(Path file) {
+        String name = file.getFileName().toString();
+        // 忽略非xlsx文件、Office锁文件和隐藏文件
+        if (!name.toLowerCase().endsWith(".xlsx") || name.startsWith("~$") || name.startsWith(".")) {
+            return;
+        }
+        try {
+            long size = Files.size(file);
+            long modified = Files.getLastModifiedTime(file).toMillis();
+            PendingFile pending = pendingFiles.get(file);
+            if (pending == null || pending.size != size || pending.modified != modified) {
+                pendingFiles.put(file, new PendingFile(size, modified, System.currentTimeMillis()));
+            }
+        } catch (NoSuchFileException e) {
+            pendingFiles.remove(file);
+        } catch (IOException e) {
+            logger.warn("读取文件属性失败: {}", file, e);
+        }
+    }
+
+    /**
+     * 大小和修改时间在stableMillis内没有变化的文件视为写入完成
+     */
+    private void checkPendingFiles() {
+        long stableMillis = ingestConfig.getWatch().getStableMillis();
+        long now = System.currentTimeMillis();
+        Iterator<Map.Entry<Path, PendingFile>> it = pendingFiles.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Path, PendingFile> entry = it.next();
+            Path file = entry.getKey();
+            PendingFile pending = entry.getValue();
+
+            // 有些写入方式不会持续触发MODIFY事件，这里主动复查一次
+            long size;
+            long modified;
+            try {
+                size = Files.size(file);
+                modified = Files.getLastModifiedTime(file).toMillis();
+            } catch (NoSuchFileException e) {
+                it.remove();
+                continue;
+            } catch (IOException e) {
+                continue;
+            }
+            if (size != pending.size || modified != pending.modified) {
+                entry.setValue(new PendingFile(size, modified, now));
+                continue;
+            }
+            if (now - pending.changedAt < stableMillis || size == 0) {
+                continue;
+            }
+
+            if (submitIfNew(file)) {
+                it.remove();
+            } else {
+                // 文件可能仍被占用，重新计时后再试
+                entry.setValue(new PendingFile(size, modified, now));
+            }
+        }
+    }
+
+    /**
+     * 内容未导入过则提交导入任务；文件无法读取时返回false
+     */
+    private boolean submitIfNew(Path file) {
+        String hash;
+        try {
+            hash = sha256(file);
+        } catch (IOException e) {
+            logger.warn("读取文件失败，稍后重试: {}", file, e);
+            return false;
+        }
+        if (ingestedHashes.contains(hash) || failedHashes.contains(hash) || inFlightJobs.containsKey(hash)) {
+            logger.debug("文件已导入过，跳过: {}", file);
+            return true;
+        }
+
+        IngestJob job = ingestPipelineService.submitFile(file, file.getFileName().toString(), false,
+            ingestConfig.isUpsert());
+        inFlightJobs.put(hash, new InFlight(file, job));
+        logger.info("监听目录发现新文件，已提交导入任务: {} → {}", file.getFileName(), job.getJobId());
+        return true;
+    }
+
+    /**
+     * 任务成功后写入台账；失败的文件本次运行内不再重试
+     */
+    private void checkInFlightJobs() {
+        Iterator<Map.Entry<String, InFlight>> it = inFlightJobs.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, InFlight> entry = it.next();
+            IngestJob job = entry.getValue().job;
+            if (!job.isFinished()) {
+                continue;
+            }
+            it.remove();
+            if (job.isFailed()) {
+                failedHashes.add(entry.getKey());
+                logger.error("监听目录文件导入失败: {} - {}", entry.getValue().file.getFileName(), job.getErrorMessage());
+            } else {
+                recordIngested(entry.getKey(), entry.getValue().file, job);
+            }
+        }
+    }
+
+    // ==================== 台账 ====================
+
+    private void loadLedger() throws IOException {
+        if (!Files.exists(ledgerFile)) {
+            return;
+        }
+        for (String line : Files.readAllLines(ledgerFile, StandardCharsets.UTF_8)) {
+            int tab = line.indexOf('\t');
+            String hash = tab > 0 ? line.substring(0, tab) : line.trim();
+            if (!hash.isEmpty()) {
+                ingestedHashes.add(hash);
+            }
+        }
+    }
+
+    /**
+     * 台账每行：内容SHA-256、文件名、大小、导入时间、任务ID
+     */
+    private void recordIngested(String hash, Path file, IngestJob job) {
+        ingestedHashes.add(hash);
+        try (BufferedWriter writer = Files.newBufferedWriter(ledgerFile, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            long size = Files.exists(file) ? Files.size(file) : -1;
+            writer.write(String.join("\t", hash, file.getFileName().toString(), String.valueOf(size),
+                LocalDateTime.now().toString(), job.getJobId()));
+            writer.newLine();
+        } catch (IOException e) {
+            logger.error("写入导入台账失败: {}", ledgerFile, e);
+        }
+    }
+
+    private static String sha256(Path file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(256 * 1024);
+            while (channel.read(buffer) != -1) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static class PendingFile {
+        final long size;
+        final long modified;
+        final long changedAt;
+
+        PendingFile(long size, long modified, long changedAt) {
+            this.size = size;
+            this.modified = modified;
+            this.changedAt = changedAt;
+        }
+    }
+
+    private static class InFlight {
+        final Path file;
+        final IngestJob job;
+
+        InFlight(Path file, IngestJob job) {
+            this.file = file;
+            this.job = job;
+        }
+    }
+}
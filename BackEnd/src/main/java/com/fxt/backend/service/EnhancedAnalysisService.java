@@ -85,7 +85,7 @@ public class EnhancedAnalysisService {
         // === 品牌对比分析 ===
         analysis.append("🏷️ 品牌表现对比：\n");
         List<ArticleData> sameBrandArticles = allArticles.stream()
-            .filter(a -> article.getBrand().equals(a.getBrand()))
+            .filter(a -> article.getBrand() != null && article.getBrand().equals(a.getBrand()))
             .toList();
         
         if (sameBrandArticles.size() > 1) {
@@ -153,7 +153,7 @@ public class EnhancedAnalysisService {
             suggestions.append(String.format("   问题：当前互动率仅%.1f%%，低于平均水平\n", interactionRate));
             
             // 找到高互动率的同类文章
-            List<ArticleData> highInteractionArticles = findHighInteractionArticles(allArticles, article.getPostType());
+            List<ArticleData> highInteractionArticles = findHighInteractionArticles(allArticles, article);
             if (!highInteractionArticles.isEmpty()) {
                 suggestions.append("   参考：同类型高互动文章的特点：\n");
                 for (int i = 0; i < Math.min(3, highInteractionArticles.size()); i++) {
@@ -280,18 +280,27 @@ public class EnhancedAnalysisService {
         return (double) (value14d - value7d) / value7d * 100;
     }
     
+    /**
+     * 一次遍历按发文类型累加，得到各类型平均阅读量；发文类型是字典中的共享实例，分组时哈希值已缓存
+     */
     private Map<String, Double> analyzePostTypePerformance(List<ArticleData> articles) {
-        return articles.stream()
-            .filter(a -> a.getPostType() != null && a.getReadCount7d() != null)
-            .collect(Collectors.groupingBy(
-                ArticleData::getPostType,
-                Collectors.averagingLong(a -> a.getReadCount7d())
-            ));
+        // 发文类型 → {阅读量之和, 篇数}
+        Map<String, long[]> sums = new LinkedHashMap<>();
+        for (ArticleData a : articles) {
+            if (a.getPostType() == null || a.getReadCount7d() == null) continue;
+            long[] sum = sums.computeIfAbsent(a.getPostType(), k -> new long[2]);
+            sum[0] += a.getReadCount7d();
+            sum[1]++;
+        }
+        
+        Map<String, Double> result = new LinkedHashMap<>();
+        sums.forEach((type, sum) -> result.put(type, (double) sum[0] / sum[1]));
+        return result;
     }
     
-    private List<ArticleData> findHighInteractionArticles(List<ArticleData> articles, String postType) {
+    private List<ArticleData> findHighInteractionArticles(List<ArticleData> articles, ArticleData article) {
         return articles.stream()
-            .filter(a -> postType.equals(a.getPostType()))
+            .filter(a -> article.getPostType() != null && article.getPostType().equals(a.getPostType()))
             .filter(a -> calculateInteractionRate(a) > 8) // 互动率大于8%
             .sorted((a, b) -> Double.compare(calculateInteractionRate(b), calculateInteractionRate(a)))
             .limit(5)
@@ -1,192 +1,156 @@
 package com.fxt.backend.service;
 
 import com.fxt.backend.entity.ArticleData;
-import com.fxt.backend.enums.DataSource;
-import org.apache.poi.ss.usermodel.*;
+import com.fxt.backend.parser.RowDecoder;
+import com.fxt.backend.parser.SheetRow;
+import com.fxt.backend.parser.StreamingSheetReader;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 @Service
 public class ExcelParserService {
 
+    /**
+     * 解析上传文件的第一个Sheet，经由流式解析收集成列表
+     */
     public List<ArticleData> parseExcelFile(MultipartFile file) throws IOException {
         List<ArticleData> articles = new ArrayList<>();
-        
-        try (Workbook workbook = new XSSFWorkbook(file.getInputStream())) {
-            Sheet sheet = workbook.getSheetAt(0);
-            
-            // 检测平台类型：通过检查第二列是否为"标题"
-            Row headerRow = sheet.getRow(0);
-            boolean isDewu = headerRow != null &&
-                            getCellValueAsString(headerRow.getCell(1)) != null &&
-                            getCellValueAsString(headerRow.getCell(1)).equals("标题");
-            
-            // 跳过标题行
-            for (int i = 1; i <= sheet.getLastRowNum(); i++) {
-                Row row = sheet.getRow(i);
-                if (row == null) continue;
-                
-                ArticleData article = new ArticleData();
-                
-                if (isDewu) {
-                    // 得物格式解析（有标题列）
-                    parseDewuRow(row, article);
-                } else {
-                    // 小红书格式解析（无标题列）
-                    parseXiaohongshuRow(row, article);
-                }
-                
-                // 初始状态设为正常
-                article.setAnomalyStatus("NORMAL");
-                articles.add(article);
-            }
+        streamExcelFile(file, articles::add);
+        return articles;
+    }
+    
+    /**
+     * 解析磁盘上xlsx文件的第一个Sheet，经由流式解析收集成列表
+     */
+    public List<ArticleData> parseExcelFile(Path path) throws IOException {
+        List<ArticleData> articles = new ArrayList<>();
+        streamExcelSheet(path, 0, articles::add);
+        return articles;
+    }
+    
+    /**
+     * 逐个Sheet流式解析工作簿中的所有Sheet，每个Sheet按自己的表头检测平台
+     */
+    public List<ArticleData> parseAllSheets(Path path) throws IOException {
+        List<ArticleData> articles = new ArrayList<>();
+        int sheetCount = getSheetCount(path);
+        for (int i = 0; i < sheetCount; i++) {
+            streamExcelSheet(path, i, articles::add);
         }
-        
         return articles;
     }
-                
     
-    private void parseDewuRow(Row row, ArticleData article) {
-        article.setDataId(getCellValueAsString(row.getCell(0)));
-        article.setTitle(getCellValueAsString(row.getCell(1)));
-        article.setBrand(getCellValueAsString(row.getCell(2)));
+    /**
+     * 旧版整表加载：用XSSFWorkbook把工作簿整个读入内存后逐行解码，内存随文件大小增长
+     * 只在关闭流式解析（analysis.ingest.streaming=false）时作为回退使用，以及作为基准测试的对照
+     * @param allSheets 为false时只解析第一个Sheet
+     */
+    public List<ArticleData> loadWorkbook(Path path, boolean allSheets) throws IOException {
+        List<ArticleData> articles = new ArrayList<>();
         
-        String publishTimeStr = getCellValueAsString(row.getCell(3));
-        if (publishTimeStr != null && !publishTimeStr.isEmpty()) {
-            try {
-                article.setPublishTime(parseDateTime(publishTimeStr));
-            } catch (Exception e) {
-                article.setPublishTime(LocalDateTime.now());
+        try (InputStream inputStream = Files.newInputStream(path);
+             Workbook workbook = new XSSFWorkbook(inputStream)) {
+            int sheetCount = allSheets ? workbook.getNumberOfSheets() : 1;
+            for (int i = 0; i < sheetCount; i++) {
+                parseSheet(workbook.getSheetAt(i), articles);
             }
         }
         
-        article.setArticleLink(getCellValueAsString(row.getCell(4)));
-        article.setContentType(getCellValueAsString(row.getCell(5)));
-        article.setPostType(getCellValueAsString(row.getCell(6)));
-        article.setMaterialSource(getCellValueAsString(row.getCell(7)));
-        article.setStyleInfo(getCellValueAsString(row.getCell(8)));
-        article.setPlatform("得物");
-        
-        // 7天数据
-        article.setReadCount7d(getCellValueAsLong(row.getCell(9)));
-        article.setInteractionCount7d(getCellValueAsLong(row.getCell(10)));
-        article.setProductVisit7d(getCellValueAsLong(row.getCell(11)));
-        article.setProductWant7d(getCellValueAsLong(row.getCell(12)));
-        
-        // 14天数据
-        article.setReadCount14d(getCellValueAsLong(row.getCell(13)));
-        article.setInteractionCount14d(getCellValueAsLong(row.getCell(14)));
-        article.setProductVisitCount(getCellValueAsLong(row.getCell(15)));
-        article.setProductWant14d(getCellValueAsLong(row.getCell(16)));
-        
-        article.setShareCount7d(article.getProductWant7d());
-        article.setShareCount14d(article.getProductWant14d());
+        return articles;
     }
     
-    private void parseXiaohongshuRow(Row row, ArticleData article) {
-        article.setDataId(getCellValueAsString(row.getCell(0)));
-        article.setTitle(null); // 小红书无标题列
-        article.setBrand(getCellValueAsString(row.getCell(1)));
-        
-        String publishTimeStr = getCellValueAsString(row.getCell(2));
-        if (publishTimeStr != null && !publishTimeStr.isEmpty()) {
-            try {
-                article.setPublishTime(parseDateTime(publishTimeStr));
-            } catch (Exception e) {
-                article.setPublishTime(LocalDateTime.now());
-            }
+    private void parseSheet(Sheet sheet, List<ArticleData> articles) {
+        SheetRow buffer = new SheetRow();
+        
+        // 检测平台类型：通过检查第二列是否为"标题"
+        Row headerRow = sheet.getRow(0);
+        RowDecoder decoder = RowDecoder.XIAOHONGSHU;
+        if (headerRow != null) {
+            buffer.fill(headerRow);
+            decoder = RowDecoder.forHeader(buffer);
         }
         
-        article.setArticleLink(getCellValueAsString(row.getCell(3)));
-        article.setContentType(getCellValueAsString(row.getCell(4)));
-        article.setPostType(getCellValueAsString(row.getCell(5)));
-        article.setMaterialSource(getCellValueAsString(row.getCell(6)));
-        article.setStyleInfo(getCellValueAsString(row.getCell(7)));
-        article.setPlatform("小红书");
-        
-        // 7天数据
-        article.setReadCount7d(getCellValueAsLong(row.getCell(8)));
-        article.setInteractionCount7d(getCellValueAsLong(row.getCell(9)));
-        article.setProductVisit7d(getCellValueAsLong(row.getCell(10)));
-        article.setProductWant7d(getCellValueAsLong(row.getCell(11)));
-        
-        // 14天数据
-        article.setReadCount14d(getCellValueAsLong(row.getCell(12)));
-        article.setInteractionCount14d(getCellValueAsLong(row.getCell(13)));
-        article.setProductVisitCount(getCellValueAsLong(row.getCell(14)));
-        article.setProductWant14d(getCellValueAsLong(row.getCell(15)));
-        
-        article.setShareCount7d(article.getProductWant7d());
-        article.setShareCount14d(article.getProductWant14d());
+        // 跳过标题行
+        for (int i = 1; i <= sheet.getLastRowNum(); i++) {
+            Row row = sheet.getRow(i);
+            if (row == null) continue;
+            
+            buffer.fill(row);
+            articles.add(decoder.decode(buffer));
+        }
     }
     
-    private String getCellValueAsString(Cell cell) {
-        if (cell == null) return null;
-        
-        switch (cell.getCellType()) {
-            case STRING:
-                return cell.getStringCellValue();
-            case NUMERIC:
-                if (DateUtil.isCellDateFormatted(cell)) {
-                    return cell.getDateCellValue().toString();
-                } else {
-                    return String.valueOf((long) cell.getNumericCellValue());
-                }
-            case BOOLEAN:
-                return String.valueOf(cell.getBooleanCellValue());
-            case FORMULA:
-                return cell.getCellFormula();
-            default:
-                return null;
+    /**
+     * 流式解析上传文件：先落盘到临时文件，再用SAX逐行解码
+     * 每解析出一行就交给sink，不在内存中保留整个工作簿
+     */
+    public int streamExcelFile(MultipartFile file, Consumer<ArticleData> sink) throws IOException {
+        Path tempFile = Files.createTempFile("upload-", ".xlsx");
+        try {
+            file.transferTo(tempFile);
+            return streamExcelFile(tempFile, sink);
+        } finally {
+            Files.deleteIfExists(tempFile);
         }
     }
     
-    private Long getCellValueAsLong(Cell cell) {
-        if (cell == null) return 0L;
-        
-        switch (cell.getCellType()) {
-            case NUMERIC:
-                return (long) cell.getNumericCellValue();
-            case STRING:
-                try {
-                    return Long.parseLong(cell.getStringCellValue());
-                } catch (NumberFormatException e) {
-                    return 0L;
-                }
-            default:
-                return 0L;
+    /**
+     * 流式解析磁盘上的xlsx文件，返回解析出的文章数
+     */
+    public int streamExcelFile(Path path, Consumer<ArticleData> sink) throws IOException {
+        return streamExcelSheet(path, 0, sink);
+    }
+    
+    /**
+     * 流式解析指定序号的Sheet，返回解析出的文章数
+     * 每次调用独立打开文件，可以在多个线程上并行解析同一工作簿的不同Sheet
+     */
+    public int streamExcelSheet(Path path, int sheetIndex, Consumer<ArticleData> sink) throws IOException {
+        try (StreamingSheetReader reader = new StreamingSheetReader(path.toFile())) {
+            StreamingRowHandler handler = new StreamingRowHandler(sink);
+            reader.readSheet(sheetIndex, handler);
+            return handler.count;
+        }
+    }
+    
+    public int getSheetCount(Path path) throws IOException {
+        try (StreamingSheetReader reader = new StreamingSheetReader(path.toFile())) {
+            return reader.getSheetCount();
         }
     }
     
-    private LocalDateTime parseDateTime(String dateTimeStr) {
-        String[] patterns = {
-            "yyyy-MM-dd HH:mm:ss",
-            "yyyy/MM/dd HH:mm:ss",
-            "yyyy-MM-dd",
-            "yyyy/MM/dd"
-        };
+    /**
+     * 流式模式下的行处理：第一行（行号0）用于平台检测，其余行解码为文章
+     */
+    private class StreamingRowHandler implements Consumer<SheetRow> {
+        private final Consumer<ArticleData> sink;
+        private RowDecoder decoder = RowDecoder.XIAOHONGSHU;
+        private int count;
+        
+        StreamingRowHandler(Consumer<ArticleData> sink) {
+            this.sink = sink;
+        }
         
-        for (String pattern : patterns) {
-            try {
-                DateTimeFormatter formatter = DateTimeFormatter.ofPattern(pattern);
-                if (pattern.contains("HH:mm:ss")) {
-                    return LocalDateTime.parse(dateTimeStr, formatter);
-                } else {
-                    return LocalDateTime.parse(dateTimeStr + " 00:00:00",
-                         DateTimeFormatter.ofPattern(pattern + " HH:mm:ss"));
-                }
-            } catch (Exception e) {
-                // 继续尝试下一个格式
+        @Override
+        public void accept(SheetRow row) {
+            if (row.getRowIndex() == 0) {
+                decoder = RowDecoder.forHeader(row);
+                return;
             }
+            sink.accept(decoder.decode(row));
+            count++;
         }
-        
-        return LocalDateTime.now();
     }
 }
\ No newline at end of file
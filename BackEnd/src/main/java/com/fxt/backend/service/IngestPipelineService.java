@@ -0,0 +1,587 @@
+package com.fxt.backend.service;
+
+import com.fxt.backend.config.IngestConfig;
+import com.fxt.backend.config.ScoringConfig;
+import com.fxt.backend.dto.IngestJob;
+import com.fxt.backend.entity.ArticleData;
+import com.fxt.backend.repository.ArticleDataBulkRepository;
+import com.fxt.backend.scoring.CohortBaseline;
+import com.fxt.backend.scoring.CohortSketches;
+import com.fxt.backend.scoring.StatisticsAccumulator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.LongStream;
+
+/**
+ * 上传导入流水线
+ * 解析 → 入库 → 评分 三个阶段，阶段之间通过有界队列按批次传递数据：
+ * 解析线程每凑满一批就交给入库线程，入库与解析并行进行；
+ * 全部入库后在同一线程上分批评分并回写。每次上传对应一个可查询的IngestJob。
+ * 启用近似评分时上传基准只累积到各人群的分位数草图中，评分完成后可在后台按精确基准重新评分
+ */
+@Service
+public class IngestPipelineService {
+
+    private static final Logger logger = LoggerFactory.getLogger(IngestPipelineService.class);
+
+    // 队列结束标记
+    private static final List<ArticleData> END_OF_STREAM = Collections.emptyList();
+
+    @Autowired
+    private ExcelParserService excelParserService;
+
+    @Autowired
+    private AnomalyDetectionService anomalyDetectionService;
+
+    @Autowired
+    private ArticleDataBulkRepository articleDataBulkRepository;
+
+    @Autowired
+    private IngestConfig ingestConfig;
+
+    @Autowired
+    private ScoringConfig scoringConfig;
+
+    @Autowired
+    private BaselineStatisticsService baselineStatisticsService;
+
+    @Autowired
+    private CohortStatisticsRegistry cohortStatisticsRegistry;
+
+    @Autowired
+    private RescoreJobService rescoreJobService;
+
+    private final Map<String, IngestJob> jobs = new ConcurrentHashMap<>();
+    private final Deque<String> jobOrder = new ConcurrentLinkedDeque<>();
+
+    private ExecutorService parseExecutor;
+    private ExecutorService persistExecutor;
+    private ExecutorService sheetExecutor;
+    private ExecutorService promoteExecutor;
+
+    /**
+     * 数据来源：把解析出的文章逐条交给sink
+     */
+    @FunctionalInterface
+    public interface RowSource {
+        void read(Consumer<ArticleData> sink) throws IOException;
+    }
+
+    @PostConstruct
+    public void init() {
+        int threads = Math.max(1, ingestConfig.getPipelineThreads());
+        parseExecutor = Executors.newFixedThreadPool(threads, namedThreadFactory("ingest-parse"));
+        persistExecutor = Executors.newFixedThreadPool(threads, namedThreadFactory("ingest-persist"));
+        int parallelism = ingestConfig.getParseParallelism() > 0
+            ? ingestConfig.getParseParallelism() : Runtime.getRuntime().availableProcessors();
+        sheetExecutor = Executors.newFixedThreadPool(parallelism, namedThreadFactory("ingest-sheet"));
+        promoteExecutor = Executors.newSingleThreadExecutor(namedThreadFactory("ingest-promote"));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        parseExecutor.shutdownNow();
+        persistExecutor.shutdownNow();
+        sheetExecutor.shutdownNow();
+        promoteExecutor.shutdownNow();
+    }
+
+    /**
+     * 提交磁盘上的Excel文件，解析结束后按需删除该文件
+     */
+    public IngestJob submitFile(Path file, String fileName, boolean deleteAfterParse, boolean upsert) {
+        return submit(fileName, upsert, sink -> {
+            try {
+                if (ingestConfig.isStreaming()) {
+                    excelParserService.streamExcelFile(file, sink);
+                } else {
+                    excelParserService.loadWorkbook(file, false).forEach(sink);
+                }
+            } finally {
+                if (deleteAfterParse) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        });
+    }
+
+    /**
+     * 提交多个工作簿作为同一个导入任务：每个文件的每个Sheet在解析线程池上并行解析，
+     * 结果汇入同一个入库队列
+     */
+    public IngestJob submitFiles(List<Path> files, String jobName, boolean deleteAfterParse, boolean upsert) {
+        return submit(jobName, upsert, sink -> {
+            try {
+                parseInParallel(files, sink);
+            } finally {
+                if (deleteAfterParse) {
+                    for (Path file : files) {
+                        Files.deleteIfExists(file);
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * 提交一个导入任务，立即返回任务对象
+     * upsert模式下按 (dataId, platform) 增量写入：未变化的行跳过，变化的行就地更新
+     */
+    public IngestJob submit(String fileName, boolean upsert, RowSource source) {
+        IngestJob job = new IngestJob(fileName, upsert);
+        register(job);
+
+        BlockingQueue<List<ArticleData>> queue = new ArrayBlockingQueue<>(Math.max(1, ingestConfig.getQueueCapacity()));
+
+        // 两个线程池按相同顺序接收同一任务的两个阶段，避免解析阶段占满线程而入库阶段排队导致死锁
+        synchronized (this) {
+            parseExecutor.execute(() -> runParseStage(job, source, queue));
+            persistExecutor.execute(() -> runPersistStage(job, queue));
+        }
+
+        logger.info("导入任务已提交: {} ({})", job.getJobId(), fileName);
+        return job;
+    }
+
+    public IngestJob getJob(String jobId) {
+        return jobs.get(jobId);
+    }
+
+    public List<IngestJob> getRecentJobs() {
+        List<IngestJob> result = new ArrayList<>();
+        Iterator<String> it = jobOrder.descendingIterator();
+        while (it.hasNext()) {
+            IngestJob job = jobs.get(it.next());
+            if (job != null) {
+                result.add(job);
+            }
+        }
+        return result;
+    }
+
+    // ==================== 流水线阶段 ====================
+
+    private void runParseStage(IngestJob job, RowSource source, BlockingQueue<List<ArticleData>> queue) {
+        long start = System.nanoTime();
+        job.markRunning(IngestJob.STAGE_PARSE);
+        ChunkingSink sink = new ChunkingSink(job, queue, Math.max(1, ingestConfig.getChunkSize()));
+
+        try {
+            source.read(sink);
+            sink.flush();
+            job.recordStageTime(IngestJob.STAGE_PARSE, start);
+            if (!job.isFailed()) {
+                job.markRunning(IngestJob.STAGE_PERSIST);
+            }
+        } catch (Exception e) {
+            if (!job.isFailed()) {
+                logger.error("导入任务解析失败: {}", job.getJobId(), e);
+                job.markFailed("解析失败: " + e.getMessage());
+            }
+        } finally {
+            // 入库线程会一直消费到结束标记，这里的put不会永久阻塞
+            try {
+                queue.put(END_OF_STREAM);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void runPersistStage(IngestJob job, BlockingQueue<List<ArticleData>> queue) {
+        long start = System.nanoTime();
+        // 本次上传的全部行作为评分基准，按ID去重：增量上传时同一 (platform, dataId) 重复出现只对应库中一行，以最后一次为准
+        Map<Long, ArticleData> baseline = new LinkedHashMap<>();
+        // 新增或变化的行需要评分
+        Map<Long, ArticleData> affected = new LinkedHashMap<>();
+        // 指纹未变化、没有写库的行
+        Set<Long> unchanged = new LinkedHashSet<>();
+        // 近似评分时基准行不保留，只累积进各人群的草图，另记下它们的ID供之后转为精确评分
+        CohortSketches sketches = isApproximate()
+            ? new CohortSketches(scoringConfig.getCohortDimensions(), scoringConfig.getApproximateSketchK()) : null;
+        LongStream.Builder baselineIds = sketches != null ? LongStream.builder() : null;
+        // 草图无法撤回已计入的值，增量上传时重复的行只计入第一次
+        Set<Long> sketchedIds = sketches != null && job.isUpsert() ? new HashSet<>() : null;
+        // 新增行的增量统计，入库完成后一次合并进历史基准
+        StatisticsAccumulator inserted = new StatisticsAccumulator();
+
+        try {
+            while (true) {
+                List<ArticleData> chunk = queue.take();
+                if (chunk == END_OF_STREAM) {
+                    break;
+                }
+                if (job.isFailed()) {
+                    // 任务已失败，丢弃剩余批次直到解析线程结束
+                    continue;
+                }
+                try {
+                    List<ArticleData> rows;
+                    if (job.isUpsert()) {
+                        rows = upsertChunk(job, chunk, affected, unchanged, inserted);
+                    } else {
+                        articleDataBulkRepository.insertAll(chunk);
+                        inserted.addAll(chunk);
+                        for (ArticleData article : chunk) {
+                            affected.put(article.getId(), article);
+                        }
+                        job.recordPersisted(chunk.size(), 0, 0);
+                        rows = chunk;
+                    }
+                    for (ArticleData article : rows) {
+                        if (sketches == null) {
+                            baseline.put(article.getId(), article);
+                        } else if (sketchedIds == null || sketchedIds.add(article.getId())) {
+                            sketches.add(article);
+                            baselineIds.add(article.getId());
+                        }
+                    }
+                } catch (Exception e) {
+                    logger.error("导入任务入库失败: {}", job.getJobId(), e);
+                    job.markFailed("入库失败: " + e.getMessage());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            job.markFailed("任务被中断");
+            return;
+        }
+
+        if (job.isFailed()) {
+            return;
+        }
+        job.recordStageTime(IngestJob.STAGE_PERSIST, start);
+        recordBaseline(job, inserted, job.getUpdatedRows());
+        // 先未变化、后在同一次上传中又以不同内容出现的行已按新内容评分
+        unchanged.removeAll(affected.keySet());
+        List<ArticleData> affectedRows = new ArrayList<>(affected.values());
+        long[] unchangedIds = unchanged.stream().mapToLong(Long::longValue).toArray();
+        cohortStatisticsRegistry.invalidate(affectedRows);
+        if (sketches == null) {
+            runScoreStage(job, affectedRows, unchangedIds, resolveBaseline(new ArrayList<>(baseline.values())), baseline.size());
+            return;
+        }
+        // 近似评分下未变化的行保留原有的精确结果，只在转为精确评分时按本次基准重新评分
+        job.markApproximate();
+        runScoreStage(job, affectedRows, new long[0], sketches.toBaseline(scoringConfig.getCohortMinSize()),
+            sketches.getValidCount());
+        if (scoringConfig.isApproximatePromote() && !job.isFailed() && (!affectedRows.isEmpty() || unchangedIds.length > 0)) {
+            long[] baselineRows = baselineIds.build().toArray();
+            long[] affectedIds = LongStream.concat(affectedRows.stream().mapToLong(ArticleData::getId),
+                Arrays.stream(unchangedIds)).toArray();
+            job.markPromotion("PENDING");
+            promoteExecutor.execute(() -> promote(job, baselineRows, affectedIds));
+        }
+    }
+
+    /**
+     * 增量写入一批数据：按 (platform, dataId) 查出已有行的指纹，
+     * 指纹相同跳过，不同则就地更新源数据字段，不存在则新增
+     * @return 去掉批内重复后的行，均已回填ID
+     */
+    private List<ArticleData> upsertChunk(IngestJob job, List<ArticleData> chunk, Map<Long, ArticleData> affected,
+                                          Set<Long> unchanged, StatisticsAccumulator inserted) {
+        List<ArticleData> toInsert = new ArrayList<>();
+        List<ArticleData> toUpdate = new ArrayList<>();
+        List<ArticleData> skipped = new ArrayList<>();
+
+        // 同一批次内重复的dataId只保留最后一行
+        Map<String, Map<String, ArticleData>> byPlatform = new LinkedHashMap<>();
+        for (ArticleData article : chunk) {
+            if (article.getDataId() == null || article.getDataId().isEmpty()) {
+                toInsert.add(article);
+            } else {
+                byPlatform.computeIfAbsent(article.getPlatform(), k -> new LinkedHashMap<>())
+                    .put(article.getDataId(), article);
+            }
+        }
+
+        for (Map.Entry<String, Map<String, ArticleData>> entry : byPlatform.entrySet()) {
+            Map<String, ArticleDataBulkRepository.ExistingRow> existingRows =
+                articleDataBulkRepository.findExistingRows(entry.getKey(), entry.getValue().keySet());
+
+            for (ArticleData article : entry.getValue().values()) {
+                ArticleDataBulkRepository.ExistingRow existing = existingRows.get(article.getDataId());
+                if (existing == null) {
+                    toInsert.add(article);
+                } else if (Objects.equals(existing.getRowHash(), article.getRowHash())) {
+                    // 未变化的行不写库，回填ID用于基准去重和之后的重新评分
+                    article.setId(existing.getId());
+                    skipped.add(article);
+                } else {
+                    article.setId(existing.getId());
+                    toUpdate.add(article);
+                }
+            }
+        }
+
+        articleDataBulkRepository.insertAll(toInsert);
+        articleDataBulkRepository.updateSourceFields(toUpdate);
+        inserted.addAll(toInsert);
+
+        List<ArticleData> rows = new ArrayList<>(toInsert.size() + toUpdate.size() + skipped.size());
+        rows.addAll(toInsert);
+        rows.addAll(toUpdate);
+        for (ArticleData article : rows) {
+            affected.put(article.getId(), article);
+        }
+        for (ArticleData article : skipped) {
+            unchanged.add(article.getId());
+        }
+        rows.addAll(skipped);
+
+        int duplicates = chunk.size() - rows.size();
+        job.recordPersisted(toInsert.size(), toUpdate.size(), skipped.size() + duplicates);
+        logger.debug("任务 {} 批次写入: 新增 {}，更新 {}，未变化 {}，批内重复 {}", job.getJobId(),
+            toInsert.size(), toUpdate.size(), skipped.size(), duplicates);
+        return rows;
+    }
+
+    /**
+     * 把本次新增的行合并进历史基准；更新的行不重复计入（草图不支持删除旧值），只累计过时行数，超过阈值时按全表重建
+     * 基准维护失败不影响导入结果
+     */
+    private void recordBaseline(IngestJob job, StatisticsAccumulator inserted, long updatedRows) {
+        try {
+            if (inserted.getValidCount() > 0) {
+                baselineStatisticsService.record(BaselineStatisticsService.GLOBAL_SCOPE, inserted);
+            }
+            if (baselineStatisticsService.recordUpdated(updatedRows)) {
+                cohortStatisticsRegistry.invalidateAll();
+            }
+        } catch (Exception e) {
+            logger.warn("任务 {} 更新历史评分基准失败，可调用 /api/analysis/baseline/rebuild 重建", job.getJobId(), e);
+        }
+    }
+
+    /**
+     * 只对新增或变化的行评分，评分基准默认为本次上传的全部行，配置为historical时为历史全量基准；
+     * 配置了人群键时每篇文章与所属人群比较。
+     * 增量上传中指纹未变化的行没有写库，但它们原先的结果是按旧的上传基准算的：
+     * 从表中读回这些行已存的结果，按同一基准重新评分，只回写有变化的行
+     */
+    private void runScoreStage(IngestJob job, List<ArticleData> affected, long[] unchangedIds,
+                               CohortBaseline cohorts, long baselineSize) {
+        long start = System.nanoTime();
+        job.markRunning(IngestJob.STAGE_SCORE);
+        int chunkSize = Math.max(1, ingestConfig.getChunkSize());
+
+        try {
+            logger.info("开始后台异常检测分析，任务 {}，待评分 {} 篇，未变化 {} 篇，基准 {} 篇",
+                job.getJobId(), affected.size(), unchangedIds.length, baselineSize);
+            // 各人群的基准统计只算一次；每个窗口并行评分，足够让所有评分线程都有活干，再按chunkSize分批写回
+            int window = Math.max(chunkSize, anomalyDetectionService.getParallelWindowSize());
+            for (int windowFrom = 0; windowFrom < affected.size(); windowFrom += window) {
+                int windowTo = Math.min(windowFrom + window, affected.size());
+                anomalyDetectionService.detectAndAnalyzeAnomalies(affected.subList(windowFrom, windowTo), cohorts);
+                for (int from = windowFrom; from < windowTo; from += chunkSize) {
+                    List<ArticleData> chunk = affected.subList(from, Math.min(from + chunkSize, windowTo));
+                    articleDataBulkRepository.updateScores(chunk);
+                    job.addScored(chunk.size());
+                }
+            }
+            for (int from = 0; from < unchangedIds.length; from += window) {
+                long[] ids = Arrays.copyOfRange(unchangedIds, from, Math.min(from + window, unchangedIds.length));
+                job.addRescoredSkipped(rescoreJobService.rescore(articleDataBulkRepository.findScoringRowsByIds(ids), cohorts));
+            }
+            job.recordStageTime(IngestJob.STAGE_SCORE, start);
+            job.markCompleted();
+            logger.info("后台异常检测分析完成，任务 {}，耗时 {}", job.getJobId(), job.getStageMillis());
+        } catch (Exception e) {
+            logger.error("后台异常检测失败: {}", job.getJobId(), e);
+            job.markFailed("异常检测失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 近似评分之后的后台阶段：从表中读回本次上传的基准行，按精确统计重新评分本次评分过的行，
+     * 只回写结果有变化的行。期间文章已有近似结果可查，失败不影响任务状态
+     */
+    private void promote(IngestJob job, long[] baselineIds, long[] affectedIds) {
+        long start = System.nanoTime();
+        job.markPromotion("RUNNING");
+        try {
+            List<ArticleData> rows = articleDataBulkRepository.findScoringRowsByIds(baselineIds);
+            CohortBaseline exact = CohortBaseline.of(rows, scoringConfig.getCohortDimensions(), scoringConfig.getCohortMinSize(),
+                scoringConfig.getWindowDays(), scoringConfig.isOutlierEnabled() ? anomalyDetectionService::trainOutlierModel : null);
+
+            Arrays.sort(affectedIds);
+            List<ArticleData> targets = new ArrayList<>(affectedIds.length);
+            for (ArticleData row : rows) {
+                if (Arrays.binarySearch(affectedIds, row.getId()) >= 0) {
+                    targets.add(row);
+                }
+            }
+            int window = Math.max(Math.max(1, ingestConfig.getChunkSize()), anomalyDetectionService.getParallelWindowSize());
+            for (int from = 0; from < targets.size(); from += window) {
+                job.addPromoted(rescoreJobService.rescore(targets.subList(from, Math.min(from + window, targets.size())), exact));
+            }
+            job.recordStageTime(IngestJob.STAGE_PROMOTE, start);
+            job.markPromotion("COMPLETED");
+            logger.info("任务 {} 已转为精确评分: {} 篇中 {} 篇结果有变化", job.getJobId(), targets.size(), job.getPromotedRows());
+        } catch (Exception e) {
+            logger.error("任务 {} 转为精确评分失败，保留近似结果", job.getJobId(), e);
+            job.markPromotion("FAILED");
+        }
+    }
+
+    // ==================== 辅助方法 ====================
+
+    /**
+     * 近似评分只替换本次上传的基准，historical模式的基准本来就是缓存的统计
+     */
+    private boolean isApproximate() {
+        return scoringConfig.isApproximate() && !scoringConfig.isHistoricalBaseline();
+    }
+
+    private CohortBaseline resolveBaseline(List<ArticleData> baseline) {
+        CohortBaseline historical = cohortStatisticsRegistry.historicalBaseline();
+        if (historical != null) {
+            return historical;
+        }
+        return CohortBaseline.of(baseline, scoringConfig.getCohortDimensions(), scoringConfig.getCohortMinSize(),
+            scoringConfig.getWindowDays(), scoringConfig.isOutlierEnabled() ? anomalyDetectionService::trainOutlierModel : null);
+    }
+
+    /**
+     * 按Sheet拆分解析任务并等待全部完成；任一Sheet失败时取消其余任务并抛出异常
+     * 整表加载模式下无法按Sheet单独打开，退化为按文件并行
+     */
+    private void parseInParallel(List<Path> files, Consumer<ArticleData> sink) throws IOException {
+        List<Callable<Integer>> tasks = new ArrayList<>();
+        for (Path file : files) {
+            if (ingestConfig.isStreaming()) {
+                int sheetCount = excelParserService.getSheetCount(file);
+                for (int i = 0; i < sheetCount; i++) {
+                    int sheetIndex = i;
+                    tasks.add(() -> excelParserService.streamExcelSheet(file, sheetIndex, sink));
+                }
+            } else {
+                tasks.add(() -> {
+                    List<ArticleData> articles = excelParserService.loadWorkbook(file, true);
+                    articles.forEach(sink);
+                    return articles.size();
+                });
+            }
+        }
+
+        CompletionService<Integer> completionService = new ExecutorCompletionService<>(sheetExecutor);
+        List<Future<Integer>> futures = new ArrayList<>(tasks.size());
+        try {
+            for (Callable<Integer> task : tasks) {
+                futures.add(completionService.submit(task));
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                completionService.take().get();
+            }
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof IOException ? (IOException) cause : new IOException(cause.getMessage(), cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("并行解析被中断", e);
+        } finally {
+            for (Future<Integer> future : futures) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    private void register(IngestJob job) {
+        jobs.put(job.getJobId(), job);
+        jobOrder.addLast(job.getJobId());
+
+        // 只保留最近的任务记录，优先淘汰已结束的旧任务
+        int maxJobs = Math.max(1, ingestConfig.getMaxRetainedJobs());
+        Iterator<String> it = jobOrder.iterator();
+        while (jobs.size() > maxJobs && it.hasNext()) {
+            String jobId = it.next();
+            IngestJob old = jobs.get(jobId);
+            if (old == null || old.isFinished()) {
+                jobs.remove(jobId);
+                it.remove();
+            }
+        }
+    }
+
+    private static ThreadFactory namedThreadFactory(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * 把逐行输出攒成批次放入队列
+     * 批量上传时多个Sheet解析线程共用同一个sink，因此加锁
+     */
+    private static class ChunkingSink implements Consumer<ArticleData> {
+        private final IngestJob job;
+        private final BlockingQueue<List<ArticleData>> queue;
+        private final int chunkSize;
+        private List<ArticleData> buffer;
+
+        ChunkingSink(IngestJob job, BlockingQueue<List<ArticleData>> queue, int chunkSize) {
+            this.job = job;
+            this.queue = queue;
+            this.chunkSize = chunkSize;
+            this.buffer = new ArrayList<>(chunkSize);
+        }
+
+        /**
+         * 只在锁内换出已满的批次，放入队列在锁外进行：入库线程跟不上时只阻塞交出该批次的解析线程，
+         * 其余Sheet的解析线程仍可继续向各自的缓冲追加
+         */
+        @Override
+        public void accept(ArticleData article) {
+            if (job.isFailed()) {
+                throw new IllegalStateException("导入任务已失败，停止解析");
+            }
+            List<ArticleData> full = null;
+            synchronized (this) {
+                buffer.add(article);
+                if (buffer.size() >= chunkSize) {
+                    full = buffer;
+                    buffer = new ArrayList<>(chunkSize);
+                }
+            }
+            if (full != null) {
+                put(full);
+            }
+        }
+
+        void flush() {
+            List<ArticleData> chunk;
+            synchronized (this) {
+                if (buffer.isEmpty()) return;
+                chunk = buffer;
+                buffer = new ArrayList<>(chunkSize);
+            }
+            put(chunk);
+        }
+
+        private void put(List<ArticleData> chunk) {
+            job.addParsed(chunk.size());
+            try {
+                queue.put(chunk);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("导入任务被中断", e);
+            }
+        }
+    }
+}
@@ -1,12 +1,14 @@
 package com.fxt.backend.service;
 
 import com.fxt.backend.crawler.BaseCrawler;
+import com.fxt.backend.dto.ArticleMetricsChangedEvent;
 import com.fxt.backend.entity.ArticleData;
 import com.fxt.backend.enums.DataSource;
 import com.fxt.backend.repository.ArticleDataRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
@@ -31,6 +33,9 @@ public class MultiPlatformDataService {
     @Autowired
     private CrawlerFactory crawlerFactory;
     
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
     private final ExecutorService executorService = Executors.newFixedThreadPool(5);
     
     /**
@@ -125,9 +130,11 @@ public class MultiPlatformDataService {
                 
                 if (crawler != null) {
                     // 执行爬取
+                    List<Long> before = scoringMetricsOf(article);
                     article = crawler.crawl(article);
                     article.setUpdatedAt(LocalDateTime.now());
                     articleDataRepository.save(article);
+                    publishIfMetricsChanged(article, before);
                     
                     results.merge(article.getCrawlStatus().toLowerCase(), 1, Integer::sum);
                 } else {
@@ -188,10 +195,27 @@ public class MultiPlatformDataService {
             throw new RuntimeException("不支持的平台: " + platform.getDisplayName());
         }
         
+        List<Long> before = scoringMetricsOf(article);
         article = crawler.crawl(article);
         article.setUpdatedAt(LocalDateTime.now());
         
-        return articleDataRepository.save(article);
+        ArticleData saved = articleDataRepository.save(article);
+        publishIfMetricsChanged(saved, before);
+        return saved;
+    }
+    
+    /**
+     * 爬虫会刷新互动等指标；评分用到的指标有变化时发出事件，
+     * 由ArticleRescoreListener更新评分基准并只对变更的文章重新评分
+     */
+    private void publishIfMetricsChanged(ArticleData article, List<Long> before) {
+        if (!before.equals(scoringMetricsOf(article))) {
+            eventPublisher.publishEvent(new ArticleMetricsChangedEvent(List.of(article.getId()), "crawl"));
+        }
+    }
+    
+    private static List<Long> scoringMetricsOf(ArticleData article) {
+        return Arrays.asList(article.getReadCount7d(), article.getInteractionCount7d(), article.getProductVisit7d());
     }
     
     /**
@@ -0,0 +1,313 @@
+package com.fxt.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fxt.backend.config.ScoringConfig;
+import com.fxt.backend.dto.AnomalyAnalysisReport;
+import com.fxt.backend.dto.BacktestRequest;
+import com.fxt.backend.dto.StatisticsContext;
+import com.fxt.backend.entity.ArticleData;
+import com.fxt.backend.repository.ArticleDataBulkRepository;
+import com.fxt.backend.scoring.CohortBaseline;
+import com.fxt.backend.scoring.ScoringMetric;
+import com.fxt.backend.scoring.ScoringProfile;
+import com.fxt.backend.scoring.ScoringSnapshot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * 评分方案阈值回测
+ * 读取库中全部文章，按CohortStatisticsRegistry缓存的人群统计建一次列式快照（ScoringSnapshot），
+ * 再把每个候选方案作为一个任务并行评估，统计各状态的文章数以及相对基准方案改变状态的文章数。
+ * 只读，不修改文章、不发布方案；评估一个方案只是对快照的一次顺序扫描，几百个方案的网格也在分钟以内
+ */
+@Service
+public class ProfileBacktestService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProfileBacktestService.class);
+
+    private static final String WEIGHT_PREFIX = "weights.";
+
+    @Autowired
+    private ArticleDataBulkRepository articleDataBulkRepository;
+
+    @Autowired
+    private AdvancedAnomalyDetectionService advancedAnomalyDetectionService;
+
+    @Autowired
+    private CohortStatisticsRegistry cohortStatisticsRegistry;
+
+    @Autowired
+    private ScoringProfileService scoringProfileService;
+
+    @Autowired
+    private ScoringConfig scoringConfig;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private ExecutorService executor;
+
+    @PostConstruct
+    public void init() {
+        int parallelism = scoringConfig.getParallelism() > 0
+            ? scoringConfig.getParallelism()
+            : Runtime.getRuntime().availableProcessors();
+        executor = new ForkJoinPool(parallelism, pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("backtest-" + thread.getPoolIndex());
+            return thread;
+        }, null, false);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 执行一次回测，阻塞到全部方案评估完
+     * @throws IllegalArgumentException 没有候选方案、方案不合法、网格字段不存在或方案数超过上限
+     */
+    public Map<String, Object> run(BacktestRequest request) throws InterruptedException, ExecutionException {
+        long start = System.nanoTime();
+        ScoringProfile baseline = request.getBaseline() != null
+            ? request.getBaseline()
+            : scoringProfileService.getCurrent();
+        baseline.validate();
+        List<Candidate> candidates = expandCandidates(request, baseline);
+
+        ScoringSnapshot snapshot = buildSnapshot();
+        long snapshotMillis = (System.nanoTime() - start) / 1_000_000;
+
+        long evaluateStart = System.nanoTime();
+        ScoringSnapshot.Evaluation reference = snapshot.evaluate(baseline);
+        List<Callable<Map<String, Object>>> tasks = new ArrayList<>(candidates.size());
+        for (Candidate candidate : candidates) {
+            tasks.add(() -> evaluate(snapshot, candidate, reference));
+        }
+        List<Map<String, Object>> results = new ArrayList<>(candidates.size());
+        for (Future<Map<String, Object>> future : executor.invokeAll(tasks)) {
+            results.add(future.get());
+        }
+        long evaluateMillis = (System.nanoTime() - evaluateStart) / 1_000_000;
+
+        Map<String, Object> baselineResult = new LinkedHashMap<>();
+        baselineResult.put("version", baseline.getVersion());
+        baselineResult.put("distribution", distributionOf(reference));
+        baselineResult.put("meanScore", meanScore(reference, snapshot.size()));
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("articleCount", snapshot.size());
+        response.put("groupCount", snapshot.getGroupCount());
+        response.put("profileCount", candidates.size());
+        response.put("baseline", baselineResult);
+        response.put("results", results);
+        response.put("snapshotMillis", snapshotMillis);
+        response.put("evaluateMillis", evaluateMillis);
+        response.put("totalMillis", (System.nanoTime() - start) / 1_000_000);
+        logger.info("阈值回测完成: {} 篇文章，{} 个方案，建快照 {}ms，评估 {}ms",
+            snapshot.size(), candidates.size(), snapshotMillis, evaluateMillis);
+        return response;
+    }
+
+    /**
+     * 分批读取全部文章，按评分基准分组后加入快照；分组方式与AnomalyDetectionService按人群评分一致
+     */
+    private ScoringSnapshot buildSnapshot() {
+        List<ArticleData> articles = new ArrayList<>();
+        int chunkSize = Math.max(1, scoringConfig.getRescoreChunkSize());
+        long afterId = 0;
+        while (true) {
+            List<ArticleData> chunk = articleDataBulkRepository.findScoringRows(afterId, chunkSize);
+            if (chunk.isEmpty()) {
+                break;
+            }
+            afterId = chunk.get(chunk.size() - 1).getId();
+            articles.addAll(chunk);
+        }
+
+        CohortBaseline baseline = cohortStatisticsRegistry.baseline();
+        Map<StatisticsContext, List<Integer>> groups = new IdentityHashMap<>();
+        for (int i = 0; i < articles.size(); i++) {
+            ArticleData article = articles.get(i);
+            StatisticsContext context = baseline.isWindowed() && article.getPublishTime() != null
+                ? baseline.windowContextOf(baseline.resolve(article), article.getPublishTime().toLocalDate())
+                : baseline.contextOf(baseline.resolve(article));
+            groups.computeIfAbsent(context, c -> new ArrayList<>()).add(i);
+        }
+
+        ScoringSnapshot snapshot = new ScoringSnapshot(articles.size());
+        for (Map.Entry<StatisticsContext, List<Integer>> group : groups.entrySet()) {
+            StatisticsContext context = group.getKey();
+            int[] indices = group.getValue().stream().mapToInt(Integer::intValue).toArray();
+            List<ArticleData> members = new ArrayList<>(indices.length);
+            for (int i : indices) {
+                members.add(articles.get(i));
+            }
+            if (context.getValidCount() < 3) {
+                // 基准不足时按绝对值简化评分，结果与评分方案无关
+                List<AnomalyAnalysisReport> reports = advancedAnomalyDetectionService.detectAnomalies(members, context);
+                for (int j = 0; j < indices.length; j++) {
+                    snapshot.addFixed(indices[j], reports.get(j).getOverallStatus(), reports.get(j).getOverallScore());
+                }
+            } else {
+                snapshot.addGroup(indices, members, context, advancedAnomalyDetectionService.getScoringKernel());
+            }
+        }
+        return snapshot;
+    }
+
+    private static Map<String, Object> evaluate(ScoringSnapshot snapshot, Candidate candidate,
+                                                ScoringSnapshot.Evaluation reference) {
+        long start = System.nanoTime();
+        ScoringSnapshot.Evaluation evaluation = snapshot.evaluate(candidate.profile);
+
+        byte[] statuses = evaluation.getStatuses();
+        byte[] baseStatuses = reference.getStatuses();
+        int states = ScoringSnapshot.STATUSES.length;
+        long[] transitions = new long[states * states];
+        long flips = 0;
+        for (int i = 0; i < statuses.length; i++) {
+            if (statuses[i] != baseStatuses[i]) {
+                transitions[baseStatuses[i] * states + statuses[i]]++;
+                flips++;
+            }
+        }
+        Map<String, Long> flipDetails = new LinkedHashMap<>();
+        for (int from = 0; from < states; from++) {
+            for (int to = 0; to < states; to++) {
+                if (transitions[from * states + to] > 0) {
+                    flipDetails.put(ScoringSnapshot.STATUSES[from] + "->" + ScoringSnapshot.STATUSES[to],
+                        transitions[from * states + to]);
+                }
+            }
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("index", candidate.index);
+        if (candidate.parameters != null) {
+            result.put("parameters", candidate.parameters);
+        } else {
+            result.put("description", candidate.profile.getDescription());
+        }
+        result.put("distribution", distributionOf(evaluation));
+        result.put("meanScore", meanScore(evaluation, statuses.length));
+        result.put("flips", flips);
+        result.put("flipRate", statuses.length > 0 ? flips * 100.0 / statuses.length : 0);
+        result.put("flipDetails", flipDetails);
+        result.put("elapsedMillis", (System.nanoTime() - start) / 1_000_000.0);
+        return result;
+    }
+
+    private static Map<String, Long> distributionOf(ScoringSnapshot.Evaluation evaluation) {
+        long[] counts = evaluation.distribution();
+        Map<String, Long> distribution = new LinkedHashMap<>();
+        for (int i = 0; i < counts.length; i++) {
+            distribution.put(ScoringSnapshot.STATUSES[i], counts[i]);
+        }
+        return distribution;
+    }
+
+    private static double meanScore(ScoringSnapshot.Evaluation evaluation, int size) {
+        return size > 0 ? evaluation.getScoreSum() / size : 0;
+    }
+
+    /**
+     * 显式给出的方案在前，网格组合在后；每个方案都先校验
+     */
+    private List<Candidate> expandCandidates(BacktestRequest request, ScoringProfile baseline) {
+        List<ScoringProfile> explicit = request.getProfiles() != null ? request.getProfiles() : List.of();
+        Map<String, List<Double>> grid = request.getGrid() != null ? request.getGrid() : Map.of();
+
+        long gridSize = grid.isEmpty() ? 0 : 1;
+        for (Map.Entry<String, List<Double>> axis : grid.entrySet()) {
+            if (axis.getValue() == null || axis.getValue().isEmpty() || axis.getValue().contains(null)) {
+                throw new IllegalArgumentException("网格字段没有候选取值: " + axis.getKey());
+            }
+            gridSize = Math.min(gridSize * axis.getValue().size(), Integer.MAX_VALUE);
+        }
+        long total = explicit.size() + gridSize;
+        if (total == 0) {
+            throw new IllegalArgumentException("没有候选评分方案，请提供profiles或grid");
+        }
+        if (total > scoringConfig.getBacktestMaxProfiles()) {
+            throw new IllegalArgumentException("候选评分方案 " + total + " 个，超过上限 " + scoringConfig.getBacktestMaxProfiles());
+        }
+
+        List<Candidate> candidates = new ArrayList<>((int) total);
+        for (ScoringProfile profile : explicit) {
+            profile.validate();
+            candidates.add(new Candidate(candidates.size(), profile, null));
+        }
+        if (gridSize > 0) {
+            @SuppressWarnings("unchecked")
+            Map<String, Object> base = objectMapper.convertValue(baseline, Map.class);
+            List<String> keys = new ArrayList<>(grid.keySet());
+            int[] position = new int[keys.size()];
+            for (long n = 0; n < gridSize; n++) {
+                Map<String, Double> parameters = new LinkedHashMap<>();
+                for (int k = 0; k < keys.size(); k++) {
+                    parameters.put(keys.get(k), grid.get(keys.get(k)).get(position[k]));
+                }
+                ScoringProfile profile = applyParameters(base, parameters);
+                profile.validate();
+                candidates.add(new Candidate(candidates.size(), profile, parameters));
+                // 最后一个字段变化最快
+                for (int k = keys.size() - 1; k >= 0; k--) {
+                    if (++position[k] < grid.get(keys.get(k)).size()) {
+                        break;
+                    }
+                    position[k] = 0;
+                }
+            }
+        }
+        return candidates;
+    }
+
+    /**
+     * 在基准方案的JSON上套用一组字段取值，字段名不存在时抛出IllegalArgumentException
+     */
+    @SuppressWarnings("unchecked")
+    private ScoringProfile applyParameters(Map<String, Object> base, Map<String, Double> parameters) {
+        Map<String, Object> values = new LinkedHashMap<>(base);
+        Map<String, Object> weights = new LinkedHashMap<>((Map<String, Object>) base.get("weights"));
+        values.put("weights", weights);
+        for (Map.Entry<String, Double> parameter : parameters.entrySet()) {
+            String key = parameter.getKey();
+            if (key.startsWith(WEIGHT_PREFIX)) {
+                String metric = key.substring(WEIGHT_PREFIX.length());
+                if (Arrays.stream(ScoringMetric.all()).noneMatch(m -> m.name().equals(metric))) {
+                    throw new IllegalArgumentException("不支持的网格字段: " + key);
+                }
+                weights.put(metric, parameter.getValue());
+            } else if ("version".equals(key) || "weights".equals(key) || !values.containsKey(key)) {
+                throw new IllegalArgumentException("不支持的网格字段: " + key);
+            } else if (values.get(key) instanceof Integer && parameter.getValue() % 1 != 0) {
+                throw new IllegalArgumentException("网格字段 " + key + " 只接受整数: " + parameter.getValue());
+            } else {
+                values.put(key, parameter.getValue());
+            }
+        }
+        values.put("description", "grid " + parameters);
+        return objectMapper.convertValue(values, ScoringProfile.class);
+    }
+
+    private static final class Candidate {
+        final int index;
+        final ScoringProfile profile;
+        // 网格组合的字段取值，显式给出的方案为null
+        final Map<String, Double> parameters;
+
+        Candidate(int index, ScoringProfile profile, Map<String, Double> parameters) {
+            this.index = index;
+            this.profile = profile;
+            this.parameters = parameters;
+        }
+    }
+}
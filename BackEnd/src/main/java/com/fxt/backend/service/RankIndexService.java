@@ -0,0 +1,93 @@
+package com.fxt.backend.service;
+
+import com.fxt.backend.dto.StatisticsContext;
+import com.fxt.backend.entity.ArticleData;
+import com.fxt.backend.repository.ArticleDataBulkRepository;
+import com.fxt.backend.scoring.CohortKey;
+import com.fxt.backend.scoring.RankIndex;
+import com.fxt.backend.scoring.ScoringMetric;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 全部文章上的排名索引
+ * 首次使用时从表中加载一次，之后导入、重新爬取的文章随CohortStatisticsRegistry的失效通知逐篇更新，
+ * 每篇 O(log n)；删除全部数据或重建基准后丢弃，下次使用时重新加载
+ */
+@Service
+public class RankIndexService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RankIndexService.class);
+
+    @Autowired
+    private ArticleDataBulkRepository articleDataBulkRepository;
+
+    // 尚未加载时为null；所有读写在this上同步
+    private RankIndex index;
+
+    /**
+     * 当前全部文章的精确评分基准（快照，O(1)，不复制索引）
+     */
+    public synchronized StatisticsContext getContext() {
+        return load().toContext();
+    }
+
+    /**
+     * 某个取值在全部文章中的百分位
+     */
+    public synchronized double percentile(ScoringMetric metric, double value) {
+        return load().percentile(metric, value);
+    }
+
+    /**
+     * 文章新增或指标变化后更新索引；尚未加载时无需处理，加载时会读到最新数据
+     */
+    public synchronized void update(Collection<ArticleData> touched) {
+        if (index == null) {
+            return;
+        }
+        for (ArticleData article : touched) {
+            if (article.getId() != null) {
+                index.put(article);
+            }
+        }
+    }
+
+    /**
+     * 丢弃索引，下次使用时从表中重新加载
+     */
+    public synchronized void reset() {
+        index = null;
+    }
+
+    public synchronized Map<String, Object> getSummary() {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("loaded", index != null);
+        if (index != null) {
+            summary.put("validCount", index.getValidCount());
+            for (ScoringMetric metric : ScoringMetric.all()) {
+                summary.put(metric.name(), index.getCount(metric));
+            }
+        }
+        return summary;
+    }
+
+    private RankIndex load() {
+        if (index == null) {
+            long start = System.currentTimeMillis();
+            RankIndex loaded = new RankIndex();
+            for (ArticleData article : articleDataBulkRepository.findCohortMetrics(CohortKey.GLOBAL)) {
+                loaded.put(article);
+            }
+            index = loaded;
+            logger.info("排名索引已加载，有效文章 {} 篇，耗时 {} ms", loaded.getValidCount(), System.currentTimeMillis() - start);
+        }
+        return index;
+    }
+}
@@ -0,0 +1,209 @@
+package com.fxt.backend.service;
+
+import com.fxt.backend.config.ScoringConfig;
+import com.fxt.backend.dto.RescoreJob;
+import com.fxt.backend.entity.AnomalyMetricResult;
+import com.fxt.backend.entity.ArticleData;
+import com.fxt.backend.repository.ArticleDataBulkRepository;
+import com.fxt.backend.scoring.CohortBaseline;
+import com.fxt.backend.scoring.ScoringProfile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 后台重新评分
+ * 评分方案更新后，按ID顺序分批读取全部文章，按当前方案重新评分，只回写状态、得分或明细有变化的文章：
+ * 导入按历史基准评分时，用CohortStatisticsRegistry缓存的同一基准重新评分；
+ * upload模式下文章是按各自的上传批次评分的，这些基准不再保留，改为把新方案套用到已存的各指标结果上
+ * （Z分数、百分位和基准统计不变，只重新判定等级、权重、综合得分和状态），不会换成另一个基准。
+ * 每批一次短查询和一个短事务，不阻塞读请求；
+ * 同一时间只运行一个任务，提交新任务时取消尚未结束的旧任务。
+ * 评分方案在任务进行中被替换时，任务在当前批次结束后停止，由新版本的任务接着处理
+ */
+@Service
+public class RescoreJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RescoreJobService.class);
+
+    // 内存中保留的任务记录数
+    private static final int MAX_RETAINED_JOBS = 20;
+
+    @Autowired
+    private ArticleDataBulkRepository articleDataBulkRepository;
+
+    @Autowired
+    private AnomalyDetectionService anomalyDetectionService;
+
+    @Autowired
+    private CohortStatisticsRegistry cohortStatisticsRegistry;
+
+    @Autowired
+    private ScoringProfileService scoringProfileService;
+
+    @Autowired
+    private ScoringConfig scoringConfig;
+
+    private final Map<String, RescoreJob> jobs = new LinkedHashMap<>();
+    private ExecutorService executor;
+
+    @PostConstruct
+    public void init() {
+        executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "rescore");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 按当前评分方案提交一个重新评分任务，立即返回
+     */
+    public synchronized RescoreJob submit() {
+        for (RescoreJob job : jobs.values()) {
+            if (!job.isFinished()) {
+                job.requestCancel();
+            }
+        }
+        RescoreJob job = new RescoreJob(scoringProfileService.getCurrent().getVersion());
+        jobs.put(job.getJobId(), job);
+        Iterator<RescoreJob> it = jobs.values().iterator();
+        while (jobs.size() > MAX_RETAINED_JOBS && it.hasNext()) {
+            if (it.next().isFinished()) {
+                it.remove();
+            }
+        }
+        executor.execute(() -> run(job));
+        logger.info("重新评分任务已提交: {}（评分方案版本 {}）", job.getJobId(), job.getProfileVersion());
+        return job;
+    }
+
+    public synchronized RescoreJob getJob(String jobId) {
+        return jobs.get(jobId);
+    }
+
+    /**
+     * 最近的任务，新的在前
+     */
+    public synchronized List<RescoreJob> getRecentJobs() {
+        List<RescoreJob> result = new ArrayList<>(jobs.values());
+        Collections.reverse(result);
+        return result;
+    }
+
+    private void run(RescoreJob job) {
+        if (job.isCancelRequested()) {
+            job.markCancelled("已被新的重新评分任务取代");
+            return;
+        }
+        try {
+            int chunkSize = Math.max(1, scoringConfig.getRescoreChunkSize());
+            CohortBaseline baseline = cohortStatisticsRegistry.historicalBaseline();
+            ScoringProfile profile = scoringProfileService.getCurrent();
+            job.markRunning(articleDataBulkRepository.countArticles(),
+                baseline != null ? RescoreJob.Mode.RESCORE : RescoreJob.Mode.REAPPLY);
+            long afterId = 0;
+
+            while (true) {
+                if (job.isCancelRequested()) {
+                    job.markCancelled("已被新的重新评分任务取代");
+                    return;
+                }
+                if (scoringProfileService.getCurrent().getVersion() != job.getProfileVersion()) {
+                    job.markCancelled("评分方案已更新到版本 " + scoringProfileService.getCurrent().getVersion());
+                    return;
+                }
+                List<ArticleData> chunk = articleDataBulkRepository.findScoringRows(afterId, chunkSize);
+                if (chunk.isEmpty()) {
+                    break;
+                }
+                afterId = chunk.get(chunk.size() - 1).getId();
+                job.recordChunk(chunk.size(), baseline != null ? rescore(chunk, baseline) : reapply(chunk, profile, job));
+            }
+            job.markCompleted();
+            logger.info("重新评分任务完成: {}（{}），扫描 {} 篇，更新 {} 篇，跳过 {} 篇", job.getJobId(), job.getMode(),
+                job.getScannedRows(), job.getChangedRows(), job.getSkippedRows());
+        } catch (Exception e) {
+            logger.error("重新评分任务失败: {}", job.getJobId(), e);
+            job.markFailed("重新评分失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 按给定基准重新评分一批文章，回写状态、得分或明细有变化的文章；明细是否变化按结果指纹判断，不必读出旧明细
+     * @return 回写的文章数
+     */
+    public int rescore(List<ArticleData> articles, CohortBaseline baseline) {
+        int n = articles.size();
+        String[] statuses = new String[n];
+        Double[] scores = new Double[n];
+        Long[] hashes = new Long[n];
+        for (int i = 0; i < n; i++) {
+            ArticleData article = articles.get(i);
+            statuses[i] = article.getAnomalyStatus();
+            scores[i] = article.getAnomalyScore();
+            hashes[i] = article.getAnomalyHash();
+        }
+
+        anomalyDetectionService.detectAndAnalyzeAnomalies(articles, baseline);
+
+        List<ArticleData> changed = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            ArticleData article = articles.get(i);
+            if (!Objects.equals(statuses[i], article.getAnomalyStatus())
+                || !Objects.equals(scores[i], article.getAnomalyScore())
+                || !Objects.equals(hashes[i], article.getAnomalyHash())) {
+                changed.add(article);
+            }
+        }
+        if (!changed.isEmpty()) {
+            articleDataBulkRepository.updateScores(changed);
+        }
+        return changed.size();
+    }
+
+    /**
+     * 把评分方案套用到一批文章已存的各指标结果上，回写状态、得分或明细有变化的文章；
+     * 只有旧版明细（没有基准四分位数）的文章无法重新判定，保持不变并计入任务的跳过数
+     * @return 回写的文章数
+     */
+    int reapply(List<ArticleData> articles, ScoringProfile profile, RescoreJob job) {
+        long[] ids = articles.stream().mapToLong(ArticleData::getId).toArray();
+        Map<Long, List<AnomalyMetricResult>> stored = articleDataBulkRepository.findResultsByArticleIds(ids);
+
+        List<ArticleData> changed = new ArrayList<>();
+        int skipped = 0;
+        for (ArticleData article : articles) {
+            String status = article.getAnomalyStatus();
+            Double score = article.getAnomalyScore();
+            Long hash = article.getAnomalyHash();
+            if (!anomalyDetectionService.reapplyProfile(article,
+                    stored.getOrDefault(article.getId(), Collections.emptyList()), profile)) {
+                skipped++;
+                continue;
+            }
+            if (!Objects.equals(status, article.getAnomalyStatus())
+                || !Objects.equals(score, article.getAnomalyScore())
+                || !Objects.equals(hash, article.getAnomalyHash())) {
+                changed.add(article);
+            }
+        }
+        if (!changed.isEmpty()) {
+            articleDataBulkRepository.updateScores(changed);
+        }
+        job.recordSkipped(skipped);
+        return changed.size();
+    }
+}
@@ -0,0 +1,116 @@
+package com.fxt.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fxt.backend.config.ScoringConfig;
+import com.fxt.backend.scoring.ScoringProfile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 当前生效的评分方案
+ * 启动时从analysis.scoring.profile-path指定的JSON文件加载（未配置或文件不存在时为默认方案），
+ * 之后可以重新读取文件或直接提交新方案。每次发布分配一个递增的版本号，
+ * 评分时一批文章只读取一次当前方案，替换方案不需要加锁、不影响正在进行的评分
+ */
+@Service
+public class ScoringProfileService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ScoringProfileService.class);
+
+    // 保留的历史版本数
+    private static final int MAX_HISTORY = 10;
+
+    @Autowired
+    private ScoringConfig scoringConfig;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final AtomicLong versions = new AtomicLong();
+    private final Deque<ScoringProfile> history = new ConcurrentLinkedDeque<>();
+
+    private volatile ScoringProfile current;
+
+    @PostConstruct
+    public void init() {
+        Path file = profileFile();
+        if (file != null && Files.exists(file)) {
+            try {
+                publish(read(file));
+                return;
+            } catch (Exception e) {
+                logger.error("评分方案文件加载失败，使用默认方案: {}", file, e);
+            }
+        }
+        publish(ScoringProfile.defaults());
+    }
+
+    public ScoringProfile getCurrent() {
+        return current;
+    }
+
+    /**
+     * 重新读取评分方案文件并发布
+     * @throws IllegalStateException    未配置方案文件或读取失败
+     * @throws IllegalArgumentException 方案不合法
+     */
+    public ScoringProfile reload() {
+        Path file = profileFile();
+        if (file == null) {
+            throw new IllegalStateException("未配置评分方案文件 analysis.scoring.profile-path");
+        }
+        try {
+            return publish(read(file));
+        } catch (IOException e) {
+            throw new IllegalStateException("读取评分方案文件失败: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 发布提交的方案（不写回文件，重启后以文件为准）
+     * @throws IllegalArgumentException 方案不合法
+     */
+    public ScoringProfile apply(ScoringProfile profile) {
+        // 复制一份，调用方之后再修改传入的对象不影响已发布的方案
+        return publish(objectMapper.convertValue(profile, ScoringProfile.class));
+    }
+
+    /**
+     * 最近发布的方案，新的在前
+     */
+    public List<ScoringProfile> getHistory() {
+        return new ArrayList<>(history);
+    }
+
+    private synchronized ScoringProfile publish(ScoringProfile profile) {
+        profile.validate();
+        profile.setVersion(versions.incrementAndGet());
+        current = profile;
+        history.addFirst(profile);
+        while (history.size() > MAX_HISTORY) {
+            history.removeLast();
+        }
+        logger.info("评分方案已发布: 版本 {} ({})", profile.getVersion(), profile.getDescription());
+        return profile;
+    }
+
+    private ScoringProfile read(Path file) throws IOException {
+        return objectMapper.readValue(file.toFile(), ScoringProfile.class);
+    }
+
+    private Path profileFile() {
+        String path = scoringConfig.getProfilePath();
+        return path == null || path.isBlank() ? null : Paths.get(path);
+    }
+}
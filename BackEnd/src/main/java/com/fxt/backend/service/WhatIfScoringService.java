@@ -0,0 +1,157 @@
+package com.fxt.backend.service;
+
+import com.fxt.backend.dto.AnomalyAnalysisReport;
+import com.fxt.backend.dto.StatisticsContext;
+import com.fxt.backend.dto.WhatIfScenario;
+import com.fxt.backend.entity.ArticleData;
+import com.fxt.backend.repository.ArticleDataBulkRepository;
+import com.fxt.backend.scoring.CohortBaseline;
+import com.fxt.backend.scoring.CohortKey;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+
+/**
+ * 假设评分：按假设的指标值对文章重新评分，只返回报告，不修改文章、不写库
+ * historical模式下评分基准与导入评分相同，取自CohortStatisticsRegistry缓存的历史基准，指标不变的场景得到与库中相同的报告；
+ * upload模式下已存结果的基准是各自的上传批次，无法还原，改用人群当前全部文章的缓存统计，
+ * 结果中的baseline和comparableToStored标明得分能否与库中的得分直接比较。
+ * 缓存命中时每个场景只有一次列式评分的开销（微秒级），前端拖动滑块时可以逐次调用；同一批中落在同一基准上的场景一起评分
+ */
+@Service
+public class WhatIfScoringService {
+
+    @Autowired
+    private AdvancedAnomalyDetectionService advancedAnomalyDetectionService;
+
+    @Autowired
+    private CohortStatisticsRegistry cohortStatisticsRegistry;
+
+    @Autowired
+    private ArticleDataBulkRepository articleDataBulkRepository;
+
+    /**
+     * 逐个场景评分，结果与场景一一对应
+     * @throws IllegalArgumentException 场景引用的文章不存在
+     */
+    public List<Map<String, Object>> evaluate(List<WhatIfScenario> scenarios) {
+        CohortBaseline baseline = cohortStatisticsRegistry.historicalBaseline();
+        // 导入时使用的基准可还原时，指标不变的场景与库中的得分相同
+        boolean comparableToStored = baseline != null;
+        if (baseline == null) {
+            baseline = cohortStatisticsRegistry.baseline();
+        }
+        Map<Long, ArticleData> stored = loadArticles(scenarios);
+
+        int n = scenarios.size();
+        ArticleData[] hypotheticals = new ArticleData[n];
+        CohortKey[] cohorts = new CohortKey[n];
+        // 按评分基准分组，同一基准的场景一次评分
+        Map<StatisticsContext, List<Integer>> groups = new IdentityHashMap<>();
+        Map<StatisticsContext, CohortKey> groupCohorts = new IdentityHashMap<>();
+        for (int i = 0; i < n; i++) {
+            WhatIfScenario scenario = scenarios.get(i);
+            ArticleData article = toHypothetical(scenario,
+                scenario.getArticleId() == null ? null : stored.get(scenario.getArticleId()));
+            CohortKey cohort = baseline.resolve(article);
+            StatisticsContext context = baseline.isWindowed() && article.getPublishTime() != null
+                ? baseline.windowContextOf(cohort, article.getPublishTime().toLocalDate())
+                : baseline.contextOf(cohort);
+            hypotheticals[i] = article;
+            cohorts[i] = cohort;
+            groups.computeIfAbsent(context, c -> new ArrayList<>()).add(i);
+            groupCohorts.put(context, cohort);
+        }
+
+        AnomalyAnalysisReport[] reports = new AnomalyAnalysisReport[n];
+        for (Map.Entry<StatisticsContext, List<Integer>> group : groups.entrySet()) {
+            List<ArticleData> articles = new ArrayList<>(group.getValue().size());
+            for (int i : group.getValue()) {
+                articles.add(hypotheticals[i]);
+            }
+            List<AnomalyAnalysisReport> scored = advancedAnomalyDetectionService.detectAnomalies(
+                articles, group.getKey(), baseline.outlierModelOf(groupCohorts.get(group.getKey())));
+            for (int j = 0; j < scored.size(); j++) {
+                reports[group.getValue().get(j)] = scored.get(j);
+            }
+        }
+
+        List<Map<String, Object>> results = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            ArticleData article = hypotheticals[i];
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("articleId", scenarios.get(i).getArticleId());
+            result.put("cohort", cohorts[i].toString());
+            result.put("baseline", comparableToStored ? "historical" : "current-cohort");
+            result.put("comparableToStored", comparableToStored);
+            result.put("readCount7d", article.getReadCount7d());
+            result.put("interactionCount7d", article.getInteractionCount7d());
+            result.put("productVisit7d", article.getProductVisit7d());
+            result.put("overallStatus", reports[i].getOverallStatus());
+            result.put("overallScore", reports[i].getOverallScore());
+            result.put("report", reports[i]);
+            results.add(result);
+        }
+        return results;
+    }
+
+    private Map<Long, ArticleData> loadArticles(List<WhatIfScenario> scenarios) {
+        Set<Long> ids = new LinkedHashSet<>();
+        for (WhatIfScenario scenario : scenarios) {
+            if (scenario.getArticleId() != null) {
+                ids.add(scenario.getArticleId());
+            }
+        }
+        Map<Long, ArticleData> stored = new HashMap<>();
+        if (!ids.isEmpty()) {
+            // 只读取评分和人群划分用到的列
+            long[] idArray = ids.stream().mapToLong(Long::longValue).toArray();
+            for (ArticleData article : articleDataBulkRepository.findScoringRowsByIds(idArray)) {
+                stored.put(article.getId(), article);
+            }
+        }
+        for (Long id : ids) {
+            if (!stored.containsKey(id)) {
+                throw new IllegalArgumentException("文章不存在: " + id);
+            }
+        }
+        return stored;
+    }
+
+    /**
+     * 复制评分和人群划分用到的字段，再套用场景中的假设值；原文章不受影响
+     */
+    private static ArticleData toHypothetical(WhatIfScenario scenario, ArticleData original) {
+        ArticleData article = new ArticleData();
+        if (original != null) {
+            article.setId(original.getId());
+            article.setPlatform(original.getPlatform());
+            article.setBrand(original.getBrand());
+            article.setContentType(original.getContentType());
+            article.setPublishTime(original.getPublishTime());
+            article.setReadCount7d(original.getReadCount7d());
+            article.setInteractionCount7d(original.getInteractionCount7d());
+            article.setProductVisit7d(original.getProductVisit7d());
+        }
+        if (scenario.getPlatform() != null) article.setPlatform(scenario.getPlatform());
+        if (scenario.getBrand() != null) article.setBrand(scenario.getBrand());
+        if (scenario.getContentType() != null) article.setContentType(scenario.getContentType());
+        if (scenario.getPublishTime() != null) article.setPublishTime(scenario.getPublishTime());
+        if (scenario.getReadCount7d() != null) article.setReadCount7d(scenario.getReadCount7d());
+        if (scenario.getInteractionCount7d() != null) article.setInteractionCount7d(scenario.getInteractionCount7d());
+        if (scenario.getProductVisit7d() != null) article.setProductVisit7d(scenario.getProductVisit7d());
+
+        article.setReadCount7d(scale(article.getReadCount7d(), scenario.getReadFactor()));
+        article.setInteractionCount7d(scale(article.getInteractionCount7d(), scenario.getInteractionFactor()));
+        article.setProductVisit7d(scale(article.getProductVisit7d(), scenario.getVisitFactor()));
+        return article;
+    }
+
+    private static Long scale(Long value, Double factor) {
+        if (value == null || factor == null) {
+            return value;
+        }
+        return Math.max(0, Math.round(value * factor));
+    }
+}
@@ -0,0 +1,243 @@
+package com.fxt.backend.parser;
+
+import com.fxt.backend.entity.ArticleData;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * RowDecoder与旧版逐行解析逻辑的对比
+ * 微基准默认跳过，运行方式：mvn test -Dtest=RowDecoderBenchmarkTest -Dbenchmark=true
+ */
+public class RowDecoderBenchmarkTest {
+
+    private static final int ROWS = 20_000;
+    private static final int ROUNDS = 5;
+
+    @Test
+    public void testDecodesSameFieldsAsLegacyParser() {
+        for (boolean dewu : new boolean[] {true, false}) {
+            RowDecoder decoder = dewu ? RowDecoder.DEWU : RowDecoder.XIAOHONGSHU;
+            for (SheetRow row : buildRows(200, dewu, false)) {
+                ArticleData expected = LegacyParser.parseRow(row, dewu);
+                ArticleData actual = decoder.decode(row);
+
+                assertEquals(expected.getDataId(), actual.getDataId());
+                assertEquals(expected.getTitle(), actual.getTitle());
+                assertEquals(expected.getBrand(), actual.getBrand());
+                assertEquals(expected.getPublishTime(), actual.getPublishTime());
+                assertEquals(expected.getPlatform(), actual.getPlatform());
+                assertEquals(expected.getReadCount7d(), actual.getReadCount7d());
+                assertEquals(expected.getInteractionCount14d(), actual.getInteractionCount14d());
+                assertEquals(expected.getProductWant14d(), actual.getProductWant14d());
+                assertEquals(expected.getShareCount7d(), actual.getShareCount7d());
+                assertEquals(expected.getRowHash(), actual.getRowHash());
+            }
+        }
+    }
+
+    @Test
+    public void testNumericDateCellsKeepTheirValue() {
+        SheetRow row = buildRows(1, true, true).get(0);
+        ArticleData article = RowDecoder.DEWU.decode(row);
+        assertEquals(DateUtil.getLocalDateTime(row.getNumericValue(3)), article.getPublishTime());
+
+        // 文本字段中的日期单元格按旧版解析的文本输出
+        row.setNumeric(8, 45296.5, true);
+        assertEquals(LegacyParser.getCellValueAsString(row, 8), RowDecoder.DEWU.decode(row).getStyleInfo());
+    }
+
+    @Test
+    public void testParseHelpers() {
+        assertEquals(LocalDateTime.of(2024, 3, 5, 8, 9, 10), RowDecoder.parseDateTime("2024/03/05 08:09:10"));
+        assertEquals(LocalDateTime.of(2023, 2, 28, 0, 0), RowDecoder.parseDateTime("2023-02-31"));
+        assertNull(RowDecoder.parseDateTime("2024-03-05T08:09:10"));
+        assertNull(RowDecoder.parseDateTime("2024-03/05"));
+        assertEquals(-42L, RowDecoder.parseLong("-42"));
+        assertEquals(Long.MIN_VALUE, RowDecoder.parseLong(String.valueOf(Long.MIN_VALUE)));
+        assertEquals(0L, RowDecoder.parseLong("9223372036854775808"));
+        assertEquals(0L, RowDecoder.parseLong("12a"));
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    public void benchmarkDecodeThroughput() {
+        List<SheetRow> stringDates = buildRows(ROWS, true, false);
+        List<SheetRow> numericDates = buildRows(ROWS, true, true);
+
+        report("旧版解析(字符串日期)", stringDates, row -> LegacyParser.parseRow(row, true));
+        report("RowDecoder(字符串日期)", stringDates, RowDecoder.DEWU::decode);
+        report("旧版解析(数值日期)", numericDates, row -> LegacyParser.parseRow(row, true));
+        report("RowDecoder(数值日期)", numericDates, RowDecoder.DEWU::decode);
+    }
+
+    private static void report(String name, List<SheetRow> rows, Function<SheetRow, ArticleData> decoder) {
+        // 预热
+        for (int i = 0; i < ROUNDS; i++) {
+            run(rows, decoder);
+        }
+
+        com.sun.management.ThreadMXBean threadBean =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long bytesBefore = threadBean.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        long checksum = 0;
+        for (int i = 0; i < ROUNDS; i++) {
+            checksum += run(rows, decoder);
+        }
+        long elapsed = System.nanoTime() - start;
+        long bytes = threadBean.getThreadAllocatedBytes(threadId) - bytesBefore;
+
+        long total = (long) rows.size() * ROUNDS;
+        System.out.printf("%-24s %,12.0f 行/秒 %,8d 字节/行 (checksum %d)%n",
+            name, total * 1e9 / elapsed, bytes / total, checksum);
+    }
+
+    private static long run(List<SheetRow> rows, Function<SheetRow, ArticleData> decoder) {
+        long checksum = 0;
+        for (SheetRow row : rows) {
+            ArticleData article = decoder.apply(row);
+            checksum += article.getReadCount7d() + article.getPublishTime().getDayOfMonth();
+        }
+        return checksum;
+    }
+
+    private static List<SheetRow> buildRows(int count, boolean dewu, boolean numericDates) {
+        List<SheetRow> rows = new ArrayList<>(count);
+        int offset = dewu ? 0 : -1;
+        for (int i = 0; i < count; i++) {
+            SheetRow row = new SheetRow();
+            row.reset(i + 1);
+            row.setString(0, "ID" + i);
+            if (dewu) {
+                row.setString(1, "标题" + i);
+            }
+            row.setString(2 + offset, "品牌" + (i % 20));
+            if (numericDates) {
+                row.setNumeric(3 + offset, 45000 + (i % 365) + (i % 24) / 24.0, true);
+            } else {
+                row.setString(3 + offset, String.format("2024-%02d-%02d %02d:30:00", 1 + i % 12, 1 + i % 28, i % 24));
+            }
+            row.setString(4 + offset, "https://example.com/" + i);
+            row.setString(5 + offset, "图文");
+            row.setString(6 + offset, "种草");
+            row.setString(7 + offset, "原创");
+            row.setString(8 + offset, "风格" + (i % 5));
+            for (int col = 9; col <= 16; col++) {
+                if (col % 3 == 0) {
+                    row.setString(col + offset, String.valueOf(i * col));
+                } else {
+                    row.setNumeric(col + offset, i * col, false);
+                }
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    /**
+     * RowDecoder引入前ExcelParserService的逐行解析逻辑，仅用于对比
+     */
+    private static class LegacyParser {
+
+        static ArticleData parseRow(SheetRow row, boolean isDewu) {
+            ArticleData article = new ArticleData();
+            int offset = isDewu ? 0 : -1;
+
+            article.setDataId(getCellValueAsString(row, 0));
+            article.setTitle(isDewu ? getCellValueAsString(row, 1) : null);
+            article.setBrand(getCellValueAsString(row, 2 + offset));
+
+            String publishTimeStr = getCellValueAsString(row, 3 + offset);
+            if (publishTimeStr != null && !publishTimeStr.isEmpty()) {
+                try {
+                    article.setPublishTime(parseDateTime(publishTimeStr));
+                } catch (Exception e) {
+                    article.setPublishTime(LocalDateTime.now());
+                }
+            }
+
+            article.setArticleLink(getCellValueAsString(row, 4 + offset));
+            article.setContentType(getCellValueAsString(row, 5 + offset));
+            article.setPostType(getCellValueAsString(row, 6 + offset));
+            article.setMaterialSource(getCellValueAsString(row, 7 + offset));
+            article.setStyleInfo(getCellValueAsString(row, 8 + offset));
+            article.setPlatform(isDewu ? "得物" : "小红书");
+
+            article.setReadCount7d(getCellValueAsLong(row, 9 + offset));
+            article.setInteractionCount7d(getCellValueAsLong(row, 10 + offset));
+            article.setProductVisit7d(getCellValueAsLong(row, 11 + offset));
+            article.setProductWant7d(getCellValueAsLong(row, 12 + offset));
+            article.setReadCount14d(getCellValueAsLong(row, 13 + offset));
+            article.setInteractionCount14d(getCellValueAsLong(row, 14 + offset));
+            article.setProductVisitCount(getCellValueAsLong(row, 15 + offset));
+            article.setProductWant14d(getCellValueAsLong(row, 16 + offset));
+
+            article.setShareCount7d(article.getProductWant7d());
+            article.setShareCount14d(article.getProductWant14d());
+            article.setAnomalyStatus("NORMAL");
+            article.setRowHash(row.fingerprint());
+            return article;
+        }
+
+        static String getCellValueAsString(SheetRow row, int column) {
+            switch (row.getKind(column)) {
+                case STRING:
+                case FORMULA:
+                    return row.getStringValue(column);
+                case NUMERIC:
+                    if (row.isDateFormatted(column)) {
+                        return DateUtil.getJavaDate(row.getNumericValue(column)).toString();
+                    }
+                    return String.valueOf((long) row.getNumericValue(column));
+                case BOOLEAN:
+                    return String.valueOf(row.getNumericValue(column) != 0);
+                default:
+                    return null;
+            }
+        }
+
+        static Long getCellValueAsLong(SheetRow row, int column) {
+            switch (row.getKind(column)) {
+                case NUMERIC:
+                    return (long) row.getNumericValue(column);
+                case STRING:
+                    try {
+                        return Long.parseLong(row.getStringValue(column));
+                    } catch (NumberFormatException e) {
+                        return 0L;
+                    }
+                default:
+                    return 0L;
+            }
+        }
+
+        static LocalDateTime parseDateTime(String dateTimeStr) {
+            String[] patterns = {"yyyy-MM-dd HH:mm:ss", "yyyy/MM/dd HH:mm:ss", "yyyy-MM-dd", "yyyy/MM/dd"};
+            for (String pattern : patterns) {
+                try {
+                    DateTimeFormatter formatter = DateTimeFormatter.ofPattern(pattern);
+                    if (pattern.contains("HH:mm:ss")) {
+                        return LocalDateTime.parse(dateTimeStr, formatter);
+                    } else {
+                        return LocalDateTime.parse(dateTimeStr + " 00:00:00",
+                            DateTimeFormatter.ofPattern(pattern + " HH:mm:ss"));
+                    }
+                } catch (Exception e) {
+                    // 继续尝试下一个格式
+                }
+            }
+            return LocalDateTime.now();
+        }
+    }
+}
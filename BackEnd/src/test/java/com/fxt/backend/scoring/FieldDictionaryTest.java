@@ -0,0 +1,40 @@
+package com.fxt.backend.scoring;
+
+import com.fxt.backend.entity.ArticleData;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 相同取值共享同一个实例，null保持为null，字典写满后新取值保留原字符串，仍能正确比较
+ */
+public class FieldDictionaryTest {
+
+    @Test
+    public void testEqualValuesShareOneInstance() {
+        ArticleData noBrand = new ArticleData();
+        noBrand.setBrand(null);
+        ArticleData nike = new ArticleData();
+        nike.setBrand("耐克");
+        ArticleData otherNike = new ArticleData();
+        otherNike.setBrand(new String("耐克"));
+
+        assertNull(noBrand.getBrand());
+        assertSame(nike.getBrand(), otherNike.getBrand());
+        assertSame(FieldDictionary.PLATFORM.intern("得物"), FieldDictionary.PLATFORM.intern(new String("得物")));
+    }
+
+    @Test
+    public void testOverflowKeepsOriginalValues() {
+        FieldDictionary dictionary = new FieldDictionary(2, "a");
+        String b = dictionary.intern(new String("b"));
+        assertSame(b, dictionary.intern(new String("b")));
+        assertEquals(2, dictionary.size());
+
+        String c = new String("c");
+        assertSame(c, dictionary.intern(c));
+        assertEquals(2, dictionary.size());
+        assertEquals("c", dictionary.intern(new String("c")));
+        assertNotEquals("b", dictionary.intern(c));
+    }
+}
@@ -0,0 +1,53 @@
+package com.fxt.backend.scoring;
+
+import com.fxt.backend.dto.MetricStatistics;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 草图模式的统计与精确统计的误差在文档给出的范围内，合并和序列化不改变结果
+ */
+public class KllSketchTest {
+
+    private static final double RANK_ERROR = 0.017;
+
+    @Test
+    public void testQuantilesWithinErrorBound() {
+        double[] values = TestArticles.readCounts(200_000, 7);
+        MetricAccumulator first = new MetricAccumulator();
+        MetricAccumulator second = new MetricAccumulator();
+        for (int i = 0; i < values.length; i++) {
+            (i % 2 == 0 ? first : second).add(values[i]);
+        }
+        first.merge(second);
+
+        MetricStatistics exact = new MetricStatistics(values);
+        MetricStatistics approximate = first.snapshot();
+        assertTrue(approximate.isApproximate());
+        assertEquals(exact.getCount(), approximate.getCount());
+        assertEquals(exact.getMean(), approximate.getMean(), 1e-9 * exact.getMean());
+        assertEquals(exact.getStdDev(), approximate.getStdDev(), 1e-9 * exact.getStdDev());
+
+        for (double q = 0.01; q < 1; q += 0.01) {
+            double rank = exact.calculatePercentile(approximate.quantile(q)) / 100;
+            assertEquals(q, rank, RANK_ERROR, "q=" + q);
+        }
+    }
+
+    @Test
+    public void testSerializationRoundTrip() {
+        KllSketch sketch = new KllSketch();
+        for (double value : TestArticles.readCounts(50_000, 11)) {
+            sketch.add(value);
+        }
+        KllSketch restored = KllSketch.fromBytes(sketch.toBytes());
+
+        assertEquals(sketch.getCount(), restored.getCount());
+        assertArrayEquals(sketch.sortedView().getValues(), restored.sortedView().getValues());
+        assertArrayEquals(sketch.sortedView().getWeights(), restored.sortedView().getWeights());
+        assertEquals(sketch.getCount(), Arrays.stream(restored.sortedView().getWeights()).sum());
+    }
+}
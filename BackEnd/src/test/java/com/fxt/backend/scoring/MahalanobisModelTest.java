@@ -0,0 +1,85 @@
+package com.fxt.backend.scoring;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 在线协方差与两遍扫描的结果一致；各维单看都正常、但打破了维度间相关性的点被判为离群
+ */
+public class MahalanobisModelTest {
+
+    private static final int DIMENSIONS = 5;
+
+    @Test
+    public void testRunningCovarianceMatchesTwoPass() {
+        double[][] points = correlatedPoints(new Random(3), 5_000);
+        int n = points.length;
+
+        double[] mean = new double[DIMENSIONS];
+        for (double[] point : points) {
+            for (int j = 0; j < DIMENSIONS; j++) {
+                mean[j] += point[j] / n;
+            }
+        }
+        double[][] expected = new double[DIMENSIONS][DIMENSIONS];
+        for (double[] point : points) {
+            for (int i = 0; i < DIMENSIONS; i++) {
+                for (int j = 0; j < DIMENSIONS; j++) {
+                    expected[i][j] += (point[i] - mean[i]) * (point[j] - mean[j]) / (n - 1);
+                }
+            }
+        }
+
+        RunningCovariance all = new RunningCovariance(DIMENSIONS);
+        for (double[] point : points) {
+            all.add(point);
+        }
+        assertEquals(n, all.getCount());
+        assertMatrixEquals(expected, all.getCovariance());
+    }
+
+    @Test
+    public void testFlagsBrokenCorrelation() {
+        MahalanobisModel model = MahalanobisModel.train(correlatedPoints(new Random(5), 5_000));
+
+        assertEquals("NORMAL", model.levelOf(model.score(new double[] {5, 3, 0, 0, 0})));
+        // 第一、二维各自只偏离约一个标准差，但方向与强正相关相反
+        double[] broken = {6, 2, 0, 0.2, 0};
+        assertEquals("SEVERE", model.levelOf(model.score(broken)));
+
+        int flagged = 0;
+        for (double[] point : correlatedPoints(new Random(7), 5_000)) {
+            if (!"NORMAL".equals(model.levelOf(model.score(point)))) {
+                flagged++;
+            }
+        }
+        assertTrue(flagged < 100, "正态数据中被判为异常的比例应在1%左右: " + flagged);
+    }
+
+    /**
+     * 第二、四维与第一维相关，第五维恒为0（检验协方差奇异时仍可分解）
+     */
+    private static double[][] correlatedPoints(Random random, int n) {
+        double[][] points = new double[n][];
+        for (int i = 0; i < n; i++) {
+            double base = random.nextGaussian();
+            points[i] = new double[] {
+                5 + base,
+                3 + 0.9 * base + 0.3 * random.nextGaussian(),
+                random.nextGaussian(),
+                0.2 * base + 0.1 * random.nextGaussian(),
+                0
+            };
+        }
+        return points;
+    }
+
+    private static void assertMatrixEquals(double[][] expected, double[][] actual) {
+        for (int i = 0; i < DIMENSIONS; i++) {
+            assertArrayEquals(expected[i], actual[i], 1e-9);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.fxt.backend.scoring;
+
+import com.fxt.backend.dto.MetricStatistics;
+import com.fxt.backend.dto.StatisticsContext;
+import com.fxt.backend.entity.ArticleData;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 经过任意顺序的新增、更新、删除后，排名索引给出的统计与按当前全部文章重算的结果一致；
+ * 取出的快照不受之后增删的影响
+ */
+public class RankIndexTest {
+
+    @Test
+    public void testMatchesFullRecomputeAfterUpdates() {
+        Random random = new Random(7);
+        Map<Long, ArticleData> live = new LinkedHashMap<>();
+        RankIndex index = new RankIndex();
+        for (long id = 0; id < 20_000; id++) {
+            ArticleData article = TestArticles.article(random, id);
+            live.put(id, article);
+            index.put(article);
+        }
+
+        for (int round = 0; round < 20; round++) {
+            for (int i = 0; i < 500; i++) {
+                long id = random.nextInt(25_000);
+                if (random.nextInt(3) == 0) {
+                    live.remove(id);
+                    index.remove(id);
+                } else {
+                    ArticleData article = TestArticles.article(random, id);
+                    live.put(id, article);
+                    index.put(article);
+                }
+            }
+
+            StatisticsContext exact = StatisticsContext.of(new ArrayList<>(live.values()));
+            StatisticsContext indexed = index.toContext();
+            assertEquals(exact.getValidCount(), indexed.getValidCount());
+            for (ScoringMetric metric : ScoringMetric.all()) {
+                MetricStatistics expected = metric.statisticsOf(exact);
+                MetricStatistics actual = metric.statisticsOf(indexed);
+                assertEquals(expected.getCount(), actual.getCount(), metric.name());
+                assertEquals(expected.getMedian(), actual.getMedian(), metric.name());
+                assertEquals(expected.getMad(), actual.getMad(), metric.name());
+                assertEquals(expected.getQ1(), actual.getQ1(), metric.name());
+                assertEquals(expected.getQ3(), actual.getQ3(), metric.name());
+                assertEquals(expected.getMin(), actual.getMin(), metric.name());
+                assertEquals(expected.getMax(), actual.getMax(), metric.name());
+                assertEquals(expected.getMean(), actual.getMean(), 1e-9 * Math.max(1, expected.getMean()));
+                assertEquals(expected.getStdDev(), actual.getStdDev(), 1e-9 * Math.max(1, expected.getStdDev()));
+                for (int i = 0; i < 20; i++) {
+                    double value = random.nextDouble() * 100;
+                    assertEquals(expected.calculatePercentile(value), index.percentile(metric, value));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testTreeRemovesOneOccurrence() {
+        OrderStatisticTree tree = new OrderStatisticTree();
+        for (double value : new double[]{5, 3, 5, 8, 5, 1}) {
+            tree.insert(value);
+        }
+        assertTrue(tree.remove(5));
+        assertFalse(tree.remove(4));
+        assertEquals(5, tree.count());
+        assertEquals(4, tree.rankAtMost(5));
+        assertEquals(5, tree.valueAtRank(4));
+        assertEquals(8, tree.valueAtRank(5));
+    }
+
+    @Test
+    public void testSnapshotUnaffectedByLaterUpdates() {
+        OrderStatisticTree tree = new OrderStatisticTree();
+        for (int i = 1; i <= 1000; i++) {
+            tree.insert(i);
+        }
+        OrderStatisticTree snapshot = tree.snapshot();
+        for (int i = 1; i <= 500; i++) {
+            assertTrue(tree.remove(i * 2));
+            tree.insert(i * 0.5);
+        }
+        assertEquals(1000, snapshot.count());
+        assertEquals(500, snapshot.rankAtMost(500));
+        assertEquals(500, snapshot.valueAtRank(500));
+        assertEquals(1000, tree.count());
+        assertEquals(750, tree.rankAtMost(500));
+
+        // 指标相同的文章集合，不论增删顺序，快照上的统计相同
+        RankIndex index = new RankIndex();
+        Random random = new Random(11);
+        for (long id = 0; id < 2_000; id++) {
+            index.put(TestArticles.article(random, id));
+        }
+        StatisticsContext before = index.toContext();
+        double median = before.getReadCountStats().getMedian();
+        double percentile = before.getReadCountStats().calculatePercentile(median);
+        for (long id = 0; id < 1_000; id++) {
+            index.remove(id);
+        }
+        assertEquals(median, before.getReadCountStats().getMedian());
+        assertEquals(percentile, before.getReadCountStats().calculatePercentile(median));
+    }
+}
@@ -0,0 +1,112 @@
+package com.fxt.backend.scoring;
+
+import com.fxt.backend.dto.StatisticsContext;
+import com.fxt.backend.entity.ArticleData;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+
+/**
+ * 向量化内核与标量内核的评分结果必须逐位相同：
+ * 覆盖不足一个/非整数倍向量宽度的尾部、不同缺失比例，以及标准差为0、MAD为0的基准
+ * 只在 -Pvector 构建（带 --add-modules jdk.incubator.vector）时实际运行
+ */
+public class ScoringKernelEquivalenceTest {
+
+    private static final int[] SIZES = {1, 2, 3, 5, 7, 8, 9, 15, 16, 17, 63, 1000, 1027};
+    private static final double[] NULL_RATES = {0, 0.3, 1.0};
+
+    @Test
+    public void testVectorKernelMatchesScalarKernel() {
+        ScoringKernel vector = ScoringKernel.create(true);
+        assumeFalse(vector instanceof ScalarScoringKernel, "向量化内核不可用，需要以 -Pvector 构建");
+        ScoringKernel scalar = new ScalarScoringKernel();
+
+        List<StatisticsContext> baselines = List.of(
+            StatisticsContext.of(TestArticles.articles(2_000, 1)),
+            StatisticsContext.of(constantArticles(50)),
+            StatisticsContext.of(mostlyTiedArticles(50)));
+
+        for (StatisticsContext baseline : baselines) {
+            for (int size : SIZES) {
+                for (double nullRate : NULL_RATES) {
+                    List<ArticleData> articles = withNulls(TestArticles.articles(size, size), nullRate, size);
+                    MetricColumns columns = MetricColumns.of(articles);
+                    ScoreColumns expected = ScoreColumns.compute(columns, baseline, scalar, ScoringProfile.defaults());
+                    ScoreColumns actual = ScoreColumns.compute(columns, baseline, vector, ScoringProfile.defaults());
+                    assertSameScores(expected, actual, "size=" + size + ", nullRate=" + nullRate);
+                }
+            }
+        }
+    }
+
+    private static void assertSameScores(ScoreColumns expected, ScoreColumns actual, String label) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            for (ScoringMetric metric : ScoringMetric.all()) {
+                assertEquals(Double.doubleToLongBits(expected.zScore(metric, i)),
+                    Double.doubleToLongBits(actual.zScore(metric, i)), label + ", " + metric + "[" + i + "]");
+                assertEquals(Double.doubleToLongBits(expected.percentile(metric, i)),
+                    Double.doubleToLongBits(actual.percentile(metric, i)), label + ", " + metric + "[" + i + "]");
+            }
+            assertEquals(Double.doubleToLongBits(expected.overallScore(i)),
+                Double.doubleToLongBits(actual.overallScore(i)), label + ", overall[" + i + "]");
+        }
+    }
+
+    /**
+     * 按比例把各指标置空
+     */
+    private static List<ArticleData> withNulls(List<ArticleData> articles, double nullRate, long seed) {
+        Random random = new Random(seed);
+        for (ArticleData article : articles) {
+            if (random.nextDouble() < nullRate) {
+                article.setReadCount7d(null);
+            }
+            if (random.nextDouble() < nullRate) {
+                article.setInteractionCount7d(null);
+            }
+            if (random.nextDouble() < nullRate) {
+                article.setProductVisit7d(null);
+            }
+        }
+        return articles;
+    }
+
+    /**
+     * 所有取值相同：标准差和MAD都为0
+     */
+    private static List<ArticleData> constantArticles(int count) {
+        List<ArticleData> articles = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            articles.add(article(i, 100, 10, 5));
+        }
+        return articles;
+    }
+
+    /**
+     * 大部分取值相同、少数离群：MAD为0而标准差大于0
+     */
+    private static List<ArticleData> mostlyTiedArticles(int count) {
+        List<ArticleData> articles = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            boolean outlier = i % 10 == 0;
+            articles.add(outlier ? article(i, 100 + i * 40L, i, i / 2) : article(i, 100, 10, 5));
+        }
+        return articles;
+    }
+
+    private static ArticleData article(long id, long read, long interaction, long visit) {
+        ArticleData article = new ArticleData();
+        article.setId(id);
+        article.setReadCount7d(read);
+        article.setInteractionCount7d(interaction);
+        article.setProductVisit7d(visit);
+        return article;
+    }
+}
@@ -0,0 +1,78 @@
+package com.fxt.backend.scoring;
+
+import com.fxt.backend.dto.AnomalyAnalysisReport;
+import com.fxt.backend.dto.StatisticsContext;
+import com.fxt.backend.entity.ArticleData;
+import com.fxt.backend.service.AdvancedAnomalyDetectionService;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 回测快照按任一评分方案评估的状态和得分，必须与按该方案正常评分的结果相同
+ */
+public class ScoringSnapshotTest {
+
+    @Test
+    public void testEvaluationMatchesDetection() {
+        List<ArticleData> articles = TestArticles.articles(5_000, 42);
+        AdvancedAnomalyDetectionService service = new AdvancedAnomalyDetectionService();
+        StatisticsContext context = service.buildStatisticsContext(articles);
+
+        ScoringSnapshot snapshot = new ScoringSnapshot(articles.size());
+        int[] indices = new int[articles.size()];
+        for (int i = 0; i < indices.length; i++) {
+            indices[i] = i;
+        }
+        snapshot.addGroup(indices, articles, context, service.getScoringKernel());
+
+        Random random = new Random(7);
+        for (int round = 0; round < 20; round++) {
+            ScoringProfile profile = round == 0 ? ScoringProfile.defaults() : randomProfile(random);
+            ScoringSnapshot.Evaluation evaluation = snapshot.evaluate(profile);
+            List<AnomalyAnalysisReport> reports = service.detectAnomalies(articles, context, null, profile);
+
+            double scoreSum = 0;
+            for (int i = 0; i < articles.size(); i++) {
+                assertEquals(reports.get(i).getOverallStatus(), ScoringSnapshot.STATUSES[evaluation.getStatuses()[i]]);
+                scoreSum += reports.get(i).getOverallScore();
+            }
+            assertEquals(scoreSum, evaluation.getScoreSum());
+        }
+    }
+
+    @Test
+    public void testFixedArticlesIgnoreProfile() {
+        ScoringSnapshot snapshot = new ScoringSnapshot(2);
+        snapshot.addFixed(0, "GOOD_ANOMALY", 80);
+        snapshot.addFixed(1, "NORMAL", 50);
+
+        ScoringProfile strict = ScoringProfile.defaults();
+        strict.setGoodScore(99);
+        long[] distribution = snapshot.evaluate(strict).distribution();
+        assertArrayEquals(new long[]{1, 1, 0}, distribution);
+        assertEquals(130, snapshot.evaluate(ScoringProfile.defaults()).getScoreSum());
+    }
+
+    private static ScoringProfile randomProfile(Random random) {
+        ScoringProfile profile = ScoringProfile.defaults();
+        profile.setMildZScore(0.5 + random.nextDouble());
+        profile.setModerateZScore(profile.getMildZScore() + random.nextDouble());
+        profile.setSevereZScore(profile.getModerateZScore() + random.nextDouble());
+        profile.setPercentileAboveAverage(50 + random.nextDouble() * 15);
+        profile.setPercentileGood(profile.getPercentileAboveAverage() + random.nextDouble() * 15);
+        profile.setPercentileExcellent(profile.getPercentileGood() + random.nextDouble() * 15);
+        profile.setIqrMultiplier(random.nextDouble() * 3);
+        profile.setIqrMinZScore(random.nextDouble());
+        for (ScoringMetric metric : ScoringMetric.all()) {
+            profile.getWeights().put(metric, random.nextDouble());
+        }
+        profile.setSevereCountForStatus(1 + random.nextInt(3));
+        profile.setAnomalyCountForStatus(1 + random.nextInt(4));
+        profile.validate();
+        return profile;
+    }
+}
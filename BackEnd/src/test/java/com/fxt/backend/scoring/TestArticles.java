@@ -0,0 +1,57 @@
+package com.fxt.backend.scoring;
+
+import com.fxt.backend.entity.ArticleData;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 测试用的随机文章
+ * 阅读量服从对数正态分布（中位数约33，长尾），互动和商品访问与阅读量成比例；
+ * 约2%缺阅读量、5%缺互动量、10%缺商品访问，两个平台交替
+ */
+public final class TestArticles {
+
+    private TestArticles() {}
+
+    /**
+     * 连续取值的阅读量
+     */
+    public static double readCount(Random random) {
+        return 33 * Math.exp(random.nextGaussian() * 1.1);
+    }
+
+    public static double[] readCounts(int count, long seed) {
+        Random random = new Random(seed);
+        double[] values = new double[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = readCount(random);
+        }
+        return values;
+    }
+
+    public static ArticleData article(Random random, long id) {
+        ArticleData article = new ArticleData();
+        article.setId(id);
+        article.setDataId("article-" + id);
+        article.setPlatform(id % 2 == 0 ? "得物" : "小红书");
+        long read = Math.round(readCount(random));
+        article.setReadCount7d(random.nextInt(50) == 0 ? null : read);
+        article.setInteractionCount7d(random.nextInt(20) == 0 ? null : (long) random.nextInt((int) Math.max(1, read / 10)));
+        article.setProductVisit7d(random.nextInt(10) == 0 ? null : (long) random.nextInt((int) Math.max(1, read / 20)));
+        return article;
+    }
+
+    /**
+     * ID从1开始的count篇文章；相同种子得到相同数据
+     */
+    public static List<ArticleData> articles(int count, long seed) {
+        Random random = new Random(seed);
+        List<ArticleData> articles = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            articles.add(article(random, i));
+        }
+        return articles;
+    }
+}
@@ -0,0 +1,102 @@
+package com.fxt.backend.scoring;
+
+import com.fxt.backend.dto.MetricStatistics;
+import com.fxt.backend.dto.StatisticsContext;
+import com.fxt.backend.entity.ArticleData;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 任意窗口上，时间窗口索引给出的统计与按窗口内文章重算的StatisticsContext.of一致，
+ * 包括空窗口、单日窗口，以及取值远大于窗口内离散程度（前缀和相减会丢失精度）的窗口
+ */
+public class TimeWindowIndexTest {
+
+    private static final LocalDate START = LocalDate.of(2026, 1, 1);
+
+    @Test
+    public void testMatchesWindowRecompute() {
+        List<ArticleData> articles = TestArticles.articles(3_000, 11);
+        Random random = new Random(11);
+        for (ArticleData article : articles) {
+            article.setPublishTime(START.plusDays(random.nextInt(90)).atTime(random.nextInt(24), 0));
+        }
+
+        for (int windowDays : new int[]{1, 7, 30}) {
+            TimeWindowIndex index = TimeWindowIndex.of(articles, windowDays);
+            for (int day = -3; day < 95; day += 4) {
+                assertWindowMatches(articles, index, START.plusDays(day), random);
+            }
+        }
+    }
+
+    @Test
+    public void testLargeValuesWithSmallSpread() {
+        List<ArticleData> articles = new ArrayList<>();
+        // 前60天取值较小，后30天取值约十亿、相差不过几个，最后10天完全相同
+        for (int i = 0; i < 900; i++) {
+            int day = i / 10;
+            long read = day < 60 ? 60 + i % 17 : day < 80 ? 1_000_000_000L + i % 3 : 1_000_000_007L;
+            ArticleData article = new ArticleData();
+            article.setId((long) i + 1);
+            article.setPublishTime(START.plusDays(day).atStartOfDay());
+            article.setReadCount7d(read);
+            article.setInteractionCount7d(read / 10);
+            article.setProductVisit7d(read / 20 + i % 2);
+            articles.add(article);
+        }
+
+        Random random = new Random(3);
+        for (int windowDays : new int[]{1, 5, 20}) {
+            TimeWindowIndex index = TimeWindowIndex.of(articles, windowDays);
+            for (int day = 0; day < 90; day++) {
+                assertWindowMatches(articles, index, START.plusDays(day), random);
+            }
+        }
+        StatisticsContext constant = TimeWindowIndex.of(articles, 10).contextAt(START.plusDays(89));
+        assertEquals(0.0, constant.getReadCountStats().getStdDev());
+        assertEquals(1_000_000_007.0, constant.getReadCountStats().getMean());
+    }
+
+    private static void assertWindowMatches(List<ArticleData> articles, TimeWindowIndex index, LocalDate end,
+                                            Random random) {
+        LocalDate from = end.minusDays(index.getWindowDays() - 1);
+        List<ArticleData> inWindow = articles.stream()
+            .filter(a -> {
+                LocalDate day = a.getPublishTime().toLocalDate();
+                return !day.isBefore(from) && !day.isAfter(end);
+            })
+            .collect(Collectors.toList());
+
+        StatisticsContext exact = StatisticsContext.of(inWindow);
+        StatisticsContext windowed = index.contextAt(end);
+        String label = end + "/" + index.getWindowDays();
+        assertEquals(exact.getValidCount(), windowed.getValidCount(), label);
+        for (ScoringMetric metric : ScoringMetric.all()) {
+            MetricStatistics expected = metric.statisticsOf(exact);
+            MetricStatistics actual = metric.statisticsOf(windowed);
+            String name = label + " " + metric.name();
+            assertEquals(expected.getCount(), actual.getCount(), name);
+            assertEquals(expected.isEmpty(), actual.isEmpty(), name);
+            assertEquals(expected.getMedian(), actual.getMedian(), name);
+            assertEquals(expected.getMad(), actual.getMad(), name);
+            assertEquals(expected.getQ1(), actual.getQ1(), name);
+            assertEquals(expected.getQ3(), actual.getQ3(), name);
+            assertEquals(expected.getMean(), actual.getMean(), 1e-9 * Math.max(1, Math.abs(expected.getMean())), name);
+            assertEquals(expected.getStdDev(), actual.getStdDev(), 1e-9 * Math.max(1, expected.getStdDev()), name);
+            assertEquals(expected.getStdDev() == 0, actual.getStdDev() == 0, name);
+            for (int i = 0; i < 10; i++) {
+                double value = expected.isEmpty() ? random.nextDouble() * 100
+                    : expected.quantile(random.nextDouble()) + (random.nextBoolean() ? 0 : 0.5);
+                assertEquals(expected.calculatePercentile(value), actual.calculatePercentile(value), name);
+            }
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package com.fxt.backend.service;
+
+import com.fxt.backend.config.ScoringConfig;
+import com.fxt.backend.dto.ArticleMetricsChangedEvent;
+import com.fxt.backend.dto.StatisticsContext;
+import com.fxt.backend.entity.ArticleData;
+import com.fxt.backend.repository.ArticleDataBulkRepository;
+import com.fxt.backend.scoring.CohortBaseline;
+import com.fxt.backend.scoring.TestArticles;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 批处理间隔内的多次事件合成一批、文章ID去重，每批先使人群统计失效再评分；
+ * 默认配置（upload基准）下变更的文章同样按人群统计重新评分并回写
+ */
+public class ArticleRescoreListenerTest {
+
+    @Test
+    public void testEventsWithinDelayFormOneDeduplicatedBatch() {
+        List<ArticleData> articles = TestArticles.articles(10, 21);
+        CohortBaseline baseline = new CohortBaseline(List.of(), 30, key -> StatisticsContext.of(articles));
+        List<List<Long>> invalidated = new ArrayList<>();
+        List<List<Long>> rescored = new ArrayList<>();
+        ArticleRescoreListener listener = createListener(articles, baseline, invalidated, rescored);
+        try {
+            listener.onMetricsChanged(new ArticleMetricsChangedEvent(List.of(1L, 2L), "crawl"));
+            listener.onMetricsChanged(new ArticleMetricsChangedEvent(List.of(2L, 3L), "crawl"));
+            listener.onMetricsChanged(new ArticleMetricsChangedEvent(List.of(), "crawl"));
+            listener.onMetricsChanged(new ArticleMetricsChangedEvent(List.of(4L, 1L, 99L, 5L), "crawl"));
+            assertEquals(6, listener.getSummary().get("pendingArticles"));
+
+            listener.flush();
+
+            // 每3篇一段；不存在的文章99不参与评分
+            List<List<Long>> expected = List.of(List.of(1L, 2L, 3L), List.of(4L, 5L));
+            assertEquals(expected, invalidated);
+            assertEquals(expected, rescored);
+            Map<String, Object> summary = listener.getSummary();
+            assertEquals(0, summary.get("pendingArticles"));
+            assertEquals(2L, summary.get("batches"));
+            assertEquals(5L, summary.get("rescoredArticles"));
+
+            // 已处理的文章不会在下一批重复出现
+            listener.onMetricsChanged(new ArticleMetricsChangedEvent(List.of(6L), "crawl"));
+            listener.flush();
+            assertEquals(List.of(6L), invalidated.get(2));
+            assertEquals(List.of(6L), rescored.get(2));
+        } finally {
+            listener.shutdown();
+        }
+    }
+
+    @Test
+    public void testDefaultConfigurationRescoresChangedArticle() {
+        ScoringConfig config = new ScoringConfig();
+        assertFalse(config.isHistoricalBaseline());
+        config.setParallelism(1);
+
+        List<ArticleData> articles = TestArticles.articles(500, 22);
+        AnomalyDetectionService detection = new AnomalyDetectionService();
+        ReflectionTestUtils.setField(detection, "advancedAnomalyDetectionService", new AdvancedAnomalyDetectionService());
+        ReflectionTestUtils.setField(detection, "scoringConfig", config);
+        detection.init();
+        detection.detectAndAnalyzeAnomalies(articles, StatisticsContext.of(articles));
+
+        // 重新爬取后一篇正常文章的各项指标都远超同类
+        ArticleData crawled = articles.stream().filter(article -> "NORMAL".equals(article.getAnomalyStatus()))
+            .findFirst().orElseThrow();
+        Long storedHash = crawled.getAnomalyHash();
+        crawled.setReadCount7d(1_000_000L);
+        crawled.setInteractionCount7d(500_000L);
+        crawled.setProductVisit7d(200_000L);
+
+        Map<Long, ArticleData> stored = new HashMap<>();
+        for (ArticleData article : articles) {
+            stored.put(article.getId(), article);
+        }
+        List<ArticleData> written = new ArrayList<>();
+        ArticleDataBulkRepository repository = new ArticleDataBulkRepository() {
+            @Override
+            public List<ArticleData> findScoringRowsByIds(long[] ids) {
+                List<ArticleData> rows = new ArrayList<>();
+                for (long id : ids) {
+                    rows.add(stored.get(id));
+                }
+                return rows;
+            }
+
+            @Override
+            public void updateScores(List<ArticleData> rows) {
+                written.addAll(rows);
+            }
+        };
+        List<List<Long>> invalidated = new ArrayList<>();
+        CohortStatisticsRegistry registry = new CohortStatisticsRegistry() {
+            @Override
+            public void invalidate(Collection<ArticleData> touched) {
+                invalidated.add(idsOf(touched));
+            }
+
+            @Override
+            public CohortBaseline baseline() {
+                return new CohortBaseline(List.of(), config.getCohortMinSize(), key -> StatisticsContext.of(articles));
+            }
+        };
+        RescoreJobService rescoreJobService = new RescoreJobService();
+        ReflectionTestUtils.setField(rescoreJobService, "articleDataBulkRepository", repository);
+        ReflectionTestUtils.setField(rescoreJobService, "anomalyDetectionService", detection);
+
+        ArticleRescoreListener listener = new ArticleRescoreListener();
+        ReflectionTestUtils.setField(listener, "articleDataBulkRepository", repository);
+        ReflectionTestUtils.setField(listener, "cohortStatisticsRegistry", registry);
+        ReflectionTestUtils.setField(listener, "baselineStatisticsService", new BaselineStatisticsService() {
+            @Override
+            public boolean recordUpdated(long updatedRows) {
+                return false;
+            }
+        });
+        ReflectionTestUtils.setField(listener, "rescoreJobService", rescoreJobService);
+        ReflectionTestUtils.setField(listener, "scoringConfig", config);
+        listener.init();
+        try {
+            listener.onMetricsChanged(new ArticleMetricsChangedEvent(List.of(crawled.getId()), "crawl"));
+            listener.flush();
+        } finally {
+            listener.shutdown();
+            detection.shutdown();
+        }
+
+        assertEquals(List.of(List.of(crawled.getId())), invalidated);
+        assertEquals(List.of(crawled), written);
+        assertEquals("GOOD_ANOMALY", crawled.getAnomalyStatus());
+        assertNotEquals(storedHash, crawled.getAnomalyHash());
+        assertEquals(1L, listener.getSummary().get("changedArticles"));
+    }
+
+    private static ArticleRescoreListener createListener(List<ArticleData> articles, CohortBaseline baseline,
+                                                         List<List<Long>> invalidated, List<List<Long>> rescored) {
+        ScoringConfig config = new ScoringConfig();
+        // 间隔足够长，由测试直接调用flush
+        config.setChangeBatchDelayMs(60_000);
+        config.setRescoreChunkSize(3);
+
+        Map<Long, ArticleData> stored = new HashMap<>();
+        for (ArticleData article : articles) {
+            stored.put(article.getId(), article);
+        }
+        ArticleDataBulkRepository repository = new ArticleDataBulkRepository() {
+            @Override
+            public List<ArticleData> findScoringRowsByIds(long[] ids) {
+                List<ArticleData> rows = new ArrayList<>();
+                for (long id : ids) {
+                    if (stored.containsKey(id)) {
+                        rows.add(stored.get(id));
+                    }
+                }
+                return rows;
+            }
+        };
+        CohortStatisticsRegistry registry = new CohortStatisticsRegistry() {
+            @Override
+            public void invalidate(Collection<ArticleData> touched) {
+                invalidated.add(idsOf(touched));
+            }
+
+            @Override
+            public CohortBaseline baseline() {
+                return baseline;
+            }
+        };
+        RescoreJobService rescoreJobService = new RescoreJobService() {
+            @Override
+            public int rescore(List<ArticleData> rows, CohortBaseline used) {
+                assertSame(baseline, used);
+                rescored.add(idsOf(rows));
+                return 0;
+            }
+        };
+
+        ArticleRescoreListener listener = new ArticleRescoreListener();
+        ReflectionTestUtils.setField(listener, "articleDataBulkRepository", repository);
+        ReflectionTestUtils.setField(listener, "cohortStatisticsRegistry", registry);
+        ReflectionTestUtils.setField(listener, "baselineStatisticsService", new BaselineStatisticsService() {
+            @Override
+            public boolean recordUpdated(long updatedRows) {
+                return false;
+            }
+        });
+        ReflectionTestUtils.setField(listener, "rescoreJobService", rescoreJobService);
+        ReflectionTestUtils.setField(listener, "scoringConfig", config);
+        listener.init();
+        return listener;
+    }
+
+    private static List<Long> idsOf(Collection<ArticleData> articles) {
+        List<Long> ids = new ArrayList<>();
+        for (ArticleData article : articles) {
+            ids.add(article.getId());
+        }
+        return ids;
+    }
+}
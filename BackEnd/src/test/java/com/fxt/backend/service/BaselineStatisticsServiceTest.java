@@ -0,0 +1,111 @@
+package com.fxt.backend.service;
+
+import com.fxt.backend.config.ScoringConfig;
+import com.fxt.backend.entity.ArticleData;
+import com.fxt.backend.entity.BaselineSketch;
+import com.fxt.backend.repository.ArticleDataBulkRepository;
+import com.fxt.backend.repository.BaselineSketchRepository;
+import com.fxt.backend.scoring.TestArticles;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Proxy;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 被更新的行累计超过阈值后，历史基准草图自动按全表重建，更新后的取值随之计入
+ */
+public class BaselineStatisticsServiceTest {
+
+    @Test
+    public void testRebuildsAfterStaleRowsExceedRatio() {
+        List<ArticleData> table = TestArticles.articles(1_000, 24);
+        ScoringConfig config = new ScoringConfig();
+        BaselineStatisticsService service = createService(table, config);
+        service.record(BaselineStatisticsService.GLOBAL_SCOPE, table);
+        long validCount = service.getContext(BaselineStatisticsService.GLOBAL_SCOPE).getValidCount();
+        long threshold = (long) (config.getBaselineRebuildRatio() * validCount);
+
+        assertFalse(service.recordUpdated(threshold));
+        assertEquals(threshold, service.getSummary(BaselineStatisticsService.GLOBAL_SCOPE).get("staleRows"));
+
+        // 表中的一篇文章被重新爬取，阅读量远超其他文章
+        table.get(0).setReadCount7d(10_000_000L);
+        assertTrue(service.recordUpdated(1));
+        assertEquals(0L, service.getSummary(BaselineStatisticsService.GLOBAL_SCOPE).get("staleRows"));
+        // 均值精确：重建后包含新的阅读量
+        assertTrue(service.getContext(BaselineStatisticsService.GLOBAL_SCOPE).getReadCountStats().getMean()
+            > 10_000_000.0 / validCount);
+    }
+
+    @Test
+    public void testZeroRatioNeverRebuilds() {
+        List<ArticleData> table = TestArticles.articles(200, 25);
+        ScoringConfig config = new ScoringConfig();
+        config.setBaselineRebuildRatio(0);
+        BaselineStatisticsService service = createService(table, config);
+        service.record(BaselineStatisticsService.GLOBAL_SCOPE, table);
+
+        assertFalse(service.recordUpdated(1_000));
+        assertEquals(1_000L, service.getSummary(BaselineStatisticsService.GLOBAL_SCOPE).get("staleRows"));
+    }
+
+    private static BaselineStatisticsService createService(List<ArticleData> table, ScoringConfig config) {
+        ArticleDataBulkRepository articles = new ArticleDataBulkRepository() {
+            @Override
+            public List<ArticleData> findMetricRows(long afterId, int limit) {
+                List<ArticleData> page = new ArrayList<>();
+                for (ArticleData article : table) {
+                    if (article.getId() > afterId && page.size() < limit) {
+                        page.add(article);
+                    }
+                }
+                return page;
+            }
+        };
+        BaselineStatisticsService service = new BaselineStatisticsService();
+        ReflectionTestUtils.setField(service, "baselineSketchRepository", sketchRepository());
+        ReflectionTestUtils.setField(service, "articleDataBulkRepository", articles);
+        ReflectionTestUtils.setField(service, "scoringConfig", config);
+        return service;
+    }
+
+    /**
+     * 内存中的baseline_sketch表，只实现服务用到的方法
+     */
+    @SuppressWarnings("unchecked")
+    private static BaselineSketchRepository sketchRepository() {
+        Map<String, BaselineSketch> rows = new LinkedHashMap<>();
+        return (BaselineSketchRepository) Proxy.newProxyInstance(BaselineSketchRepository.class.getClassLoader(),
+            new Class<?>[]{BaselineSketchRepository.class}, (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "findByScope":
+                        List<BaselineSketch> found = new ArrayList<>();
+                        for (BaselineSketch row : rows.values()) {
+                            if (row.getScope().equals(args[0])) {
+                                found.add(row);
+                            }
+                        }
+                        return found;
+                    case "findByScopeAndMetric":
+                        return Optional.ofNullable(rows.get(args[0] + "/" + args[1]));
+                    case "save":
+                        BaselineSketch saved = (BaselineSketch) args[0];
+                        rows.put(saved.getScope() + "/" + saved.getMetric(), saved);
+                        return saved;
+                    case "deleteAll":
+                        for (BaselineSketch row : (Iterable<BaselineSketch>) args[0]) {
+                            rows.remove(row.getScope() + "/" + row.getMetric());
+                        }
+                        return null;
+                    case "deleteAllInBatch":
+                        rows.clear();
+                        return null;
+                    default:
+                        throw new UnsupportedOperationException(method.getName());
+                }
+            });
+    }
+}
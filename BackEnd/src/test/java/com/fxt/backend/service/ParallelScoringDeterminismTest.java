@@ -0,0 +1,66 @@
+package com.fxt.backend.service;
+
+import com.fxt.backend.config.ScoringConfig;
+import com.fxt.backend.dto.StatisticsContext;
+import com.fxt.backend.entity.AnomalyMetricResult;
+import com.fxt.backend.entity.ArticleData;
+import com.fxt.backend.scoring.TestArticles;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 并行评分与单线程评分的结果必须逐字节相同
+ */
+public class ParallelScoringDeterminismTest {
+
+    @Test
+    public void testParallelScoringMatchesSequential() {
+        List<ArticleData> sequential = TestArticles.articles(5_000, 42);
+        List<ArticleData> parallel = TestArticles.articles(5_000, 42);
+
+        AnomalyDetectionService sequentialService = createService(1, 256);
+        AnomalyDetectionService parallelService = createService(8, 100);
+        try {
+            StatisticsContext context = sequentialService.buildStatisticsContext(sequential);
+            sequentialService.detectAndAnalyzeAnomalies(sequential, context);
+            parallelService.detectAndAnalyzeAnomalies(parallel, parallelService.buildStatisticsContext(parallel));
+
+            for (int i = 0; i < sequential.size(); i++) {
+                assertNotNull(sequential.get(i).getAnomalyHash());
+                assertEquals(sequential.get(i).getAnomalyHash(), parallel.get(i).getAnomalyHash());
+                assertEquals(sequential.get(i).getAnomalyStatus(), parallel.get(i).getAnomalyStatus());
+                assertEquals(sequential.get(i).getAnomalyScore(), parallel.get(i).getAnomalyScore());
+
+                List<AnomalyMetricResult> expected = sequential.get(i).getAnomalyResults();
+                List<AnomalyMetricResult> actual = parallel.get(i).getAnomalyResults();
+                assertEquals(expected.size(), actual.size());
+                for (int j = 0; j < expected.size(); j++) {
+                    assertEquals(expected.get(j).getLevel(), actual.get(j).getLevel());
+                    assertEquals(expected.get(j).getZScore(), actual.get(j).getZScore());
+                    assertEquals(expected.get(j).getPercentile(), actual.get(j).getPercentile());
+                    assertEquals(expected.get(j).getDeviation(), actual.get(j).getDeviation());
+                }
+            }
+        } finally {
+            sequentialService.shutdown();
+            parallelService.shutdown();
+        }
+    }
+
+    private static AnomalyDetectionService createService(int parallelism, int batchSize) {
+        ScoringConfig config = new ScoringConfig();
+        config.setParallelism(parallelism);
+        config.setParallelBatchSize(batchSize);
+
+        AdvancedAnomalyDetectionService advanced = new AdvancedAnomalyDetectionService();
+        AnomalyDetectionService service = new AnomalyDetectionService();
+        ReflectionTestUtils.setField(service, "advancedAnomalyDetectionService", advanced);
+        ReflectionTestUtils.setField(service, "scoringConfig", config);
+        service.init();
+        return service;
+    }
+}
@@ -0,0 +1,188 @@
+package com.fxt.backend.service;
+
+import com.fxt.backend.config.ScoringConfig;
+import com.fxt.backend.dto.AnomalyAnalysisReport;
+import com.fxt.backend.dto.RescoreJob;
+import com.fxt.backend.dto.StatisticsContext;
+import com.fxt.backend.entity.AnomalyMetricResult;
+import com.fxt.backend.entity.ArticleData;
+import com.fxt.backend.repository.ArticleDataBulkRepository;
+import com.fxt.backend.scoring.ScoringMetric;
+import com.fxt.backend.scoring.ScoringProfile;
+import com.fxt.backend.scoring.TestArticles;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * upload模式下更换评分方案：把新方案套用到已存的各指标结果上，与用原基准、新方案重新评分的结果逐位相同；
+ * 只改权重时单项等级不变，只有综合得分被该指标拉动、状态因此变化的文章被回写
+ */
+public class RescoreJobServiceTest {
+
+    @Test
+    public void testWeightOnlyChangeFlipsOnlyAffectedArticles() {
+        List<ArticleData> articles = TestArticles.articles(3_000, 20);
+        StatisticsContext context = StatisticsContext.of(articles);
+        AdvancedAnomalyDetectionService advanced = new AdvancedAnomalyDetectionService();
+        AnomalyDetectionService detection = createDetectionService(advanced);
+        detection.detectAndAnalyzeAnomalies(articles, context);
+
+        // 库中的状态：各指标明细行和文章的评分字段
+        Map<Long, List<AnomalyMetricResult>> storedResults = new HashMap<>();
+        List<ArticleData> rows = new ArrayList<>();
+        for (ArticleData article : articles) {
+            storedResults.put(article.getId(), article.getAnomalyResults());
+            rows.add(scoringRow(article));
+        }
+
+        ScoringProfile profile = ScoringProfile.defaults();
+        Map<ScoringMetric, Double> weights = new EnumMap<>(ScoringMetric.class);
+        weights.put(ScoringMetric.CONVERSION_RATE, 0.5);
+        profile.setWeights(weights);
+
+        List<ArticleData> written = new ArrayList<>();
+        RescoreJobService service = createService(detection, storedResults, written);
+        RescoreJob job = new RescoreJob(2);
+        int changed = service.reapply(rows, profile, job);
+
+        List<AnomalyAnalysisReport> expected = advanced.detectAnomalies(copies(articles), context, null, profile);
+        int flipped = 0;
+        Set<Long> expectedWritten = new HashSet<>();
+        for (int i = 0; i < articles.size(); i++) {
+            ArticleData before = articles.get(i);
+            ArticleData after = rows.get(i);
+            assertEquals(expected.get(i).fingerprint(), after.getAnomalyHash().longValue(), "article " + before.getId());
+            assertEquals(expected.get(i).getOverallStatus(), after.getAnomalyStatus());
+            assertEquals(expected.get(i).getOverallScore(), after.getAnomalyScore().doubleValue());
+
+            // 权重不影响单项等级
+            List<AnomalyMetricResult> oldResults = storedResults.get(before.getId());
+            for (int j = 0; j < oldResults.size(); j++) {
+                assertEquals(oldResults.get(j).getLevel(), after.getAnomalyResults().get(j).getLevel());
+            }
+
+            // 综合得分只会朝好物转化率一项的得分移动
+            AnomalyMetricResult conversion = oldResults.get(ScoringMetric.CONVERSION_RATE.ordinal());
+            double conversionScore = Math.max(0, Math.min(100, conversion.getPercentile() + conversion.getZScore() * 2));
+            double oldScore = before.getAnomalyScore();
+            double newScore = after.getAnomalyScore();
+            assertTrue((newScore - oldScore) * (conversionScore - oldScore) >= -1e-9, "article " + before.getId());
+            if (Math.abs(conversionScore - oldScore) < 1e-12) {
+                assertEquals(oldScore, newScore, 1e-9);
+            }
+
+            if (!before.getAnomalyStatus().equals(after.getAnomalyStatus())) {
+                flipped++;
+            }
+            if (!before.getAnomalyHash().equals(after.getAnomalyHash())) {
+                expectedWritten.add(before.getId());
+            }
+        }
+        assertTrue(flipped > 0, "权重变化应使部分文章的状态改变");
+        assertTrue(flipped < articles.size() / 2);
+        assertEquals(expectedWritten.size(), changed);
+        Set<Long> writtenIds = new HashSet<>();
+        for (ArticleData article : written) {
+            writtenIds.add(article.getId());
+        }
+        assertEquals(expectedWritten, writtenIds);
+        assertEquals(0, job.getSkippedRows());
+    }
+
+    @Test
+    public void testUnchangedProfileWritesNothingAndSkipsLegacyResults() {
+        List<ArticleData> articles = TestArticles.articles(500, 21);
+        AnomalyDetectionService detection = createDetectionService(new AdvancedAnomalyDetectionService());
+        detection.detectAndAnalyzeAnomalies(articles, StatisticsContext.of(articles));
+
+        Map<Long, List<AnomalyMetricResult>> storedResults = new HashMap<>();
+        List<ArticleData> rows = new ArrayList<>();
+        for (ArticleData article : articles) {
+            storedResults.put(article.getId(), article.getAnomalyResults());
+            rows.add(scoringRow(article));
+        }
+        // 写入四分位数之前的旧明细
+        for (AnomalyMetricResult result : storedResults.get(1L)) {
+            result.setQ1(null);
+            result.setQ3(null);
+        }
+
+        List<ArticleData> written = new ArrayList<>();
+        RescoreJob job = new RescoreJob(1);
+        int changed = createService(detection, storedResults, written).reapply(rows, ScoringProfile.defaults(), job);
+        assertEquals(0, changed);
+        assertTrue(written.isEmpty());
+        assertEquals(1, job.getSkippedRows());
+        for (int i = 0; i < articles.size(); i++) {
+            assertEquals(articles.get(i).getAnomalyHash(), rows.get(i).getAnomalyHash());
+        }
+    }
+
+    private static AnomalyDetectionService createDetectionService(AdvancedAnomalyDetectionService advanced) {
+        ScoringConfig config = new ScoringConfig();
+        config.setParallelism(1);
+        AnomalyDetectionService detection = new AnomalyDetectionService();
+        ReflectionTestUtils.setField(detection, "advancedAnomalyDetectionService", advanced);
+        ReflectionTestUtils.setField(detection, "scoringConfig", config);
+        detection.init();
+        return detection;
+    }
+
+    private static RescoreJobService createService(AnomalyDetectionService detection,
+                                                   Map<Long, List<AnomalyMetricResult>> storedResults,
+                                                   List<ArticleData> written) {
+        ArticleDataBulkRepository repository = new ArticleDataBulkRepository() {
+            @Override
+            public Map<Long, List<AnomalyMetricResult>> findResultsByArticleIds(long[] ids) {
+                Map<Long, List<AnomalyMetricResult>> result = new HashMap<>();
+                for (long id : ids) {
+                    result.put(id, storedResults.get(id));
+                }
+                return result;
+            }
+
+            @Override
+            public void updateScores(List<ArticleData> articles) {
+                written.addAll(articles);
+            }
+        };
+        RescoreJobService service = new RescoreJobService();
+        ReflectionTestUtils.setField(service, "articleDataBulkRepository", repository);
+        ReflectionTestUtils.setField(service, "anomalyDetectionService", detection);
+        return service;
+    }
+
+    /**
+     * findScoringRows读出的字段
+     */
+    private static ArticleData scoringRow(ArticleData article) {
+        ArticleData row = copy(article);
+        row.setAnomalyStatus(article.getAnomalyStatus());
+        row.setAnomalyScore(article.getAnomalyScore());
+        row.setAnomalyHash(article.getAnomalyHash());
+        return row;
+    }
+
+    private static List<ArticleData> copies(List<ArticleData> articles) {
+        List<ArticleData> copies = new ArrayList<>(articles.size());
+        for (ArticleData article : articles) {
+            copies.add(copy(article));
+        }
+        return copies;
+    }
+
+    private static ArticleData copy(ArticleData article) {
+        ArticleData copy = new ArticleData();
+        copy.setId(article.getId());
+        copy.setPlatform(article.getPlatform());
+        copy.setPublishTime(article.getPublishTime());
+        copy.setReadCount7d(article.getReadCount7d());
+        copy.setInteractionCount7d(article.getInteractionCount7d());
+        copy.setProductVisit7d(article.getProductVisit7d());
+        return copy;
+    }
+}
@@ -0,0 +1,141 @@
+package com.fxt.backend.service;
+
+import com.fxt.backend.config.ScoringConfig;
+import com.fxt.backend.dto.AnomalyAnalysisReport;
+import com.fxt.backend.dto.StatisticsContext;
+import com.fxt.backend.dto.WhatIfScenario;
+import com.fxt.backend.entity.ArticleData;
+import com.fxt.backend.repository.ArticleDataBulkRepository;
+import com.fxt.backend.scoring.CohortBaseline;
+import com.fxt.backend.scoring.TestArticles;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * historical模式下不改动任何指标的假设评分与导入时写入的结果完全相同（人群、滚动窗口和离群模型都参与）；
+ * 默认的upload模式下按人群当前的统计评分，并标明不能与库中的得分直接比较
+ */
+public class WhatIfScoringServiceTest {
+
+    @Test
+    public void testUnchangedScenarioReproducesStoredReport() {
+        ScoringConfig config = new ScoringConfig();
+        config.setCohort("platform");
+        config.setCohortMinSize(30);
+        config.setWindowDays(30);
+        config.setOutlierEnabled(true);
+        config.setParallelism(1);
+
+        List<ArticleData> articles = TestArticles.articles(800, 19);
+        Random random = new Random(19);
+        for (ArticleData article : articles) {
+            if (random.nextInt(20) != 0) {
+                article.setPublishTime(LocalDate.of(2026, 3, 1).plusDays(random.nextInt(120)).atTime(9, 0));
+            }
+        }
+
+        AdvancedAnomalyDetectionService advanced = new AdvancedAnomalyDetectionService();
+        AnomalyDetectionService detection = new AnomalyDetectionService();
+        ReflectionTestUtils.setField(detection, "advancedAnomalyDetectionService", advanced);
+        ReflectionTestUtils.setField(detection, "scoringConfig", config);
+        detection.init();
+        CohortBaseline baseline = CohortBaseline.of(articles, config.getCohortDimensions(), config.getCohortMinSize(),
+            config.getWindowDays(), detection::trainOutlierModel);
+        detection.detectAndAnalyzeAnomalies(articles, baseline);
+
+        Map<Long, ArticleData> stored = new HashMap<>();
+        List<WhatIfScenario> scenarios = new ArrayList<>();
+        for (ArticleData article : articles) {
+            stored.put(article.getId(), article);
+            if (article.getId() % 7 == 0) {
+                WhatIfScenario scenario = new WhatIfScenario();
+                scenario.setArticleId(article.getId());
+                scenarios.add(scenario);
+            }
+        }
+
+        List<Map<String, Object>> results = createService(baseline, stored).evaluate(scenarios);
+        assertEquals(scenarios.size(), results.size());
+        for (int i = 0; i < scenarios.size(); i++) {
+            ArticleData article = stored.get(scenarios.get(i).getArticleId());
+            AnomalyAnalysisReport report = (AnomalyAnalysisReport) results.get(i).get("report");
+            assertEquals(article.getAnomalyStatus(), report.getOverallStatus(), "article " + article.getId());
+            assertEquals(article.getAnomalyScore().doubleValue(), report.getOverallScore(), "article " + article.getId());
+            assertEquals(article.getAnomalyHash().longValue(), report.fingerprint(), "article " + article.getId());
+        }
+    }
+
+    @Test
+    public void testUploadModeScoresAgainstCurrentCohort() {
+        ScoringConfig config = new ScoringConfig();
+        assertFalse(config.isHistoricalBaseline());
+
+        List<ArticleData> articles = TestArticles.articles(300, 23);
+        Map<Long, ArticleData> stored = new HashMap<>();
+        for (ArticleData article : articles) {
+            stored.put(article.getId(), article);
+        }
+        StatisticsContext cohort = StatisticsContext.of(articles);
+        CohortBaseline current = new CohortBaseline(List.of(), config.getCohortMinSize(), key -> cohort);
+        CohortStatisticsRegistry registry = new CohortStatisticsRegistry() {
+            @Override
+            public CohortBaseline baseline() {
+                return current;
+            }
+        };
+        ReflectionTestUtils.setField(registry, "scoringConfig", config);
+
+        WhatIfScenario unchanged = new WhatIfScenario();
+        unchanged.setArticleId(5L);
+        WhatIfScenario boosted = new WhatIfScenario();
+        boosted.setArticleId(5L);
+        boosted.setReadFactor(1000.0);
+        boosted.setInteractionFactor(1000.0);
+        boosted.setVisitFactor(1000.0);
+
+        List<Map<String, Object>> results = createService(registry, stored).evaluate(List.of(unchanged, boosted));
+        AnomalyAnalysisReport expected = new AdvancedAnomalyDetectionService()
+            .detectAnomalies(List.of(stored.get(5L)), cohort, null).get(0);
+        for (Map<String, Object> result : results) {
+            assertEquals("current-cohort", result.get("baseline"));
+            assertEquals(false, result.get("comparableToStored"));
+        }
+        assertEquals(expected.fingerprint(), ((AnomalyAnalysisReport) results.get(0).get("report")).fingerprint());
+        assertTrue((Double) results.get(1).get("overallScore") > (Double) results.get(0).get("overallScore"));
+    }
+
+    private static WhatIfScoringService createService(CohortBaseline baseline, Map<Long, ArticleData> stored) {
+        CohortStatisticsRegistry registry = new CohortStatisticsRegistry() {
+            @Override
+            public CohortBaseline historicalBaseline() {
+                return baseline;
+            }
+        };
+        return createService(registry, stored);
+    }
+
+    private static WhatIfScoringService createService(CohortStatisticsRegistry registry, Map<Long, ArticleData> stored) {
+        ArticleDataBulkRepository repository = new ArticleDataBulkRepository() {
+            @Override
+            public List<ArticleData> findScoringRowsByIds(long[] ids) {
+                List<ArticleData> rows = new ArrayList<>();
+                for (long id : ids) {
+                    if (stored.containsKey(id)) {
+                        rows.add(stored.get(id));
+                    }
+                }
+                return rows;
+            }
+        };
+        WhatIfScoringService service = new WhatIfScoringService();
+        ReflectionTestUtils.setField(service, "advancedAnomalyDetectionService", new AdvancedAnomalyDetectionService());
+        ReflectionTestUtils.setField(service, "cohortStatisticsRegistry", registry);
+        ReflectionTestUtils.setField(service, "articleDataBulkRepository", repository);
+        return service;
+    }
+}
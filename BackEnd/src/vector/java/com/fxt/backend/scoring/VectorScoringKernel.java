@@ -0,0 +1,53 @@
+package com.fxt.backend.scoring;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * 基于jdk.incubator.vector的评分内核，一次处理一个SIMD寄存器宽度的文章
+ * 只通过ScoringKernel.create反射加载，运行时缺少该模块不会影响其他类
+ */
+public class VectorScoringKernel implements ScoringKernel {
+
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    @Override
+    public void scoreMetric(double[] values, double mean, double stdDev, double median, double mad, boolean robust,
+                            double[] percentiles, double weight, double[] zScores, double[] weighted) {
+        int upperBound = SPECIES.loopBound(values.length);
+        int i = 0;
+        for (; i < upperBound; i += SPECIES.length()) {
+            DoubleVector value = DoubleVector.fromArray(SPECIES, values, i);
+            DoubleVector z;
+            if (!robust) {
+                z = stdDev > 0 ? value.sub(mean).div(stdDev) : DoubleVector.zero(SPECIES);
+            } else {
+                DoubleVector robustZ = mad > 0
+                    ? value.sub(median).mul(ScalarScoringKernel.ROBUST_FACTOR).div(mad)
+                    : DoubleVector.zero(SPECIES);
+                z = stdDev > 0
+                    ? value.sub(mean).div(stdDev).mul(ScalarScoringKernel.MEAN_Z_WEIGHT)
+                        .add(robustZ.mul(ScalarScoringKernel.ROBUST_Z_WEIGHT))
+                    : robustZ;
+            }
+            z.intoArray(zScores, i);
+
+            DoubleVector adjusted = DoubleVector.fromArray(SPECIES, percentiles, i).add(z.mul(2));
+            VectorMask<Double> positive = z.compare(VectorOperators.GT, 0);
+            DoubleVector score = adjusted.max(0).blend(adjusted.min(100), positive);
+            DoubleVector.fromArray(SPECIES, weighted, i).add(score.mul(weight)).intoArray(weighted, i);
+        }
+        for (; i < values.length; i++) {
+            double z = ScalarScoringKernel.zScore(values[i], mean, stdDev, median, mad, robust);
+            zScores[i] = z;
+            weighted[i] += ScalarScoringKernel.score(percentiles[i], z) * weight;
+        }
+    }
+
+    @Override
+    public String name() {
+        return "vector(" + SPECIES.length() + " lanes)";
+    }
+}
@@ -106,6 +106,33 @@ export interface PlatformStats {
   totalCount: number
 }
 
+export interface IngestJob {
+  jobId: string
+  fileName: string
+  status: 'PENDING' | 'RUNNING' | 'COMPLETED' | 'FAILED'
+  currentStage?: string
+  parsedRows: number
+  persistedRows: number
+  scoredRows: number
+  stageMillis: Record<string, number>
+  errorMessage?: string
+  createdAt: string
+  finishedAt?: string
+}
+
+export interface UploadSession {
+  uploadId: string
+  fileName: string
+  totalSize: number
+  receivedBytes: number
+  status: 'UPLOADING' | 'COMPLETED' | 'ABORTED'
+  jobId?: string
+}
+
+// 分片上传：每片大小和单片最大重试次数
+const CHUNK_SIZE = 8 * 1024 * 1024
+const CHUNK_RETRIES = 5
+
 export interface Statistics {
   totalCount: number
   normalCount: number
@@ -128,6 +155,38 @@ export const analysisApi = {
     })
   },
 
+  // 分片上传大文件：中途失败时按服务端已接收的字节数续传
+  uploadExcelChunked: async (file: File, onProgress?: (percent: number) => void) => {
+    const session: UploadSession = await api.post('/analysis/uploads', null, {
+      params: { fileName: file.name, totalSize: file.size }
+    })
+    let offset = session.receivedBytes
+    let failures = 0
+    while (offset < file.size) {
+      const chunk = file.slice(offset, Math.min(offset + CHUNK_SIZE, file.size))
+      try {
+        const updated: UploadSession = await api.put(`/analysis/uploads/${session.uploadId}`, chunk, {
+          params: { offset },
+          headers: { 'Content-Type': 'application/octet-stream' }
+        })
+        offset = updated.receivedBytes
+        failures = 0
+        onProgress?.(Math.round(offset * 100 / file.size))
+      } catch (error: any) {
+        if (++failures > CHUNK_RETRIES) throw error
+        // 查询服务端实际进度后从断点继续
+        const current: UploadSession = await api.get(`/analysis/uploads/${session.uploadId}`)
+        offset = current.receivedBytes
+      }
+    }
+    return api.post(`/analysis/uploads/${session.uploadId}/complete`)
+  },
+
+  // 查询导入任务进度
+  getIngestJob: (jobId: string): Promise<IngestJob> => {
+    return api.get(`/analysis/jobs/${jobId}`)
+  },
+
   // 获取所有文章
   getAllArticles: (): Promise<ArticleData[]> => {
     return api.get('/analysis/articles')